@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.plenigo.pdflayout.pdfbox.PDPageContentStreamWithCache;
+import com.plenigo.pdflayout.render.PreparationContextGlobal;
+import com.plenigo.pdflayout.spec.FontSpec;
+import com.plenigo.pdflayout.spec.LoadedFont;
+
+/**
+ * Benchmark for the text emission of {@link PDPageContentStreamWithCache}: 100 text lines are
+ * written into the content stream of a single page.
+ *
+ * @author Philip Helger
+ */
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+@State (Scope.Benchmark)
+public class ContentStreamBenchmark
+{
+  private static final int LINES = 100;
+
+  @Param ({ "STANDARD14", "TYPE0" })
+  public EBenchmarkFont m_eFont;
+
+  private PDDocument m_aDoc;
+  private FontSpec m_aFontSpec;
+  private LoadedFont m_aLoadedFont;
+  private String [] m_aLines;
+
+  @Setup (Level.Trial)
+  public void setup () throws IOException
+  {
+    m_aFontSpec = new FontSpec (m_eFont.getPreloadFont (), 10);
+    m_aDoc = new PDDocument ();
+    m_aLoadedFont = new PreparationContextGlobal (m_aDoc).getLoadedFont (m_aFontSpec);
+    m_aLines = new String [LINES];
+    for (int i = 0; i < LINES; ++i)
+      m_aLines[i] = "Line " + i + ": The quick brown fox jumps over the lazy dog";
+  }
+
+  @TearDown (Level.Trial)
+  public void tearDown () throws IOException
+  {
+    m_aDoc.close ();
+  }
+
+  @Benchmark
+  public PDPage drawText () throws IOException
+  {
+    // The page is not added to the document, so that the document does not grow
+    final PDPage aPage = new PDPage (PDRectangle.A4);
+    final PDPageContentStreamWithCache aCS = new PDPageContentStreamWithCache (m_aDoc,
+                                                                               aPage,
+                                                                               PDPageContentStream.AppendMode.OVERWRITE,
+                                                                               true);
+    try
+    {
+      float fY = 800;
+      for (final String sLine : m_aLines)
+      {
+        aCS.beginText ();
+        aCS.setFont (m_aLoadedFont, m_aFontSpec);
+        aCS.moveTextPositionByAmount (30, fY);
+        aCS.drawString (sLine);
+        aCS.endText ();
+        fY -= 7.5f;
+      }
+    }
+    finally
+    {
+      aCS.close ();
+    }
+    return aPage;
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.jmh;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.font.open_sans.EFontResourceOpenSans;
+import com.plenigo.pdflayout.spec.PreloadFont;
+
+/**
+ * The fonts used as benchmark parameter: a Standard 14 font that is not embedded and a Type0 font
+ * that is embedded and subset.
+ *
+ * @author Philip Helger
+ */
+public enum EBenchmarkFont
+{
+  STANDARD14 (PreloadFont.REGULAR),
+  TYPE0 (PreloadFont.createEmbedding (EFontResourceOpenSans.OPEN_SANS_NORMAL.getFontResource ()));
+
+  private final PreloadFont m_aPreloadFont;
+
+  EBenchmarkFont (@NonNull final PreloadFont aPreloadFont)
+  {
+    m_aPreloadFont = aPreloadFont;
+  }
+
+  @NonNull
+  public PreloadFont getPreloadFont ()
+  {
+    return m_aPreloadFont;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.jmh;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.plenigo.pdflayout.PDFCreationException;
+import com.plenigo.pdflayout.PageLayoutPDF;
+import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.element.text.PLText;
+import com.plenigo.pdflayout.spec.FontSpec;
+import com.plenigo.pdflayout.spec.PreloadFont;
+
+/**
+ * Benchmark for loading an embedded font into many small documents that are rendered one after the
+ * other. {@link #loadPooled()} is the path used by {@link PageLayoutPDF} and reuses the font program
+ * of the previous document, {@link #loadParsed()} parses a new font program for every document and
+ * is the baseline. {@link #renderSmallDocument()} shows the effect on a complete document.
+ *
+ * @author Philip Helger
+ */
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+@State (Scope.Benchmark)
+public class FontProgramBenchmark
+{
+  private final PreloadFont m_aPreloadFont = EBenchmarkFont.TYPE0.getPreloadFont ();
+
+  @Benchmark
+  public PDFont loadPooled () throws IOException
+  {
+    try (final PDDocument aDoc = new PDDocument ())
+    {
+      final TrueTypeFont aFontProgram = m_aPreloadFont.acquireFontProgram ();
+      try
+      {
+        return m_aPreloadFont.loadPDFont (aDoc, aFontProgram);
+      }
+      finally
+      {
+        m_aPreloadFont.releaseFontProgram (aFontProgram);
+      }
+    }
+  }
+
+  @Benchmark
+  public PDFont loadParsed () throws IOException
+  {
+    try (final PDDocument aDoc = new PDDocument ())
+    {
+      return m_aPreloadFont.loadPDFont (aDoc);
+    }
+  }
+
+  @Benchmark
+  public PageLayoutPDF renderSmallDocument () throws PDFCreationException
+  {
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    aPS.addElement (new PLText ("Invoice 4711\nThank you for your order.", new FontSpec (m_aPreloadFont, 10)));
+    return new PageLayoutPDF ().addPageSet (aPS).renderTo (OutputStream.nullOutputStream ());
+  }
+}
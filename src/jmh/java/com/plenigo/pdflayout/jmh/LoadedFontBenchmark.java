@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.collection.commons.ICommonsList;
+import com.plenigo.pdflayout.render.PreparationContextGlobal;
+import com.plenigo.pdflayout.spec.FontSpec;
+import com.plenigo.pdflayout.spec.LoadedFont;
+import com.plenigo.pdflayout.spec.TextAndWidthSpec;
+
+/**
+ * Benchmark for the text measurement and line breaking of {@link LoadedFont}.
+ *
+ * @author Philip Helger
+ */
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+@State (Scope.Benchmark)
+public class LoadedFontBenchmark
+{
+  private static final float FONT_SIZE = 10;
+
+  @Param ({ "STANDARD14", "TYPE0" })
+  public EBenchmarkFont m_eFont;
+
+  private PDDocument m_aDoc;
+  private LoadedFont m_aLoadedFont;
+  private String m_sLine;
+  private String m_sParagraph;
+
+  @Setup
+  public void setup () throws IOException
+  {
+    m_aDoc = new PDDocument ();
+    m_aLoadedFont = new PreparationContextGlobal (m_aDoc).getLoadedFont (new FontSpec (m_eFont.getPreloadFont (),
+                                                                                       FONT_SIZE));
+    m_sLine = "The quick brown fox jumps over the lazy dog - äöü ÄÖÜ ß €";
+
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < 200; ++i)
+      aSB.append (m_sLine).append (i % 10 == 9 ? '\n' : ' ');
+    m_sParagraph = aSB.toString ();
+  }
+
+  @TearDown
+  public void tearDown () throws IOException
+  {
+    m_aDoc.close ();
+  }
+
+  @Benchmark
+  public float stringWidth () throws IOException
+  {
+    return m_aLoadedFont.getStringWidth (m_sLine, FONT_SIZE);
+  }
+
+  @Benchmark
+  public ICommonsList <TextAndWidthSpec> fitToWidth () throws IOException
+  {
+    return m_aLoadedFont.getFitToWidth (m_sParagraph, FONT_SIZE, 400);
+  }
+}
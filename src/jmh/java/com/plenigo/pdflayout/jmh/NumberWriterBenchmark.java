@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.jmh;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.util.NumberFormatUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.plenigo.pdflayout.pdfbox.ContentStreamNumberWriter;
+
+/**
+ * Benchmark for the formatting of content stream operands: 1000 integers and 1000 floats are
+ * written with the previous {@link NumberFormat} / {@link NumberFormatUtil} based code and with
+ * {@link ContentStreamNumberWriter}. Run with <code>-prof gc</code> to see the allocation rate.
+ *
+ * @author Philip Helger
+ */
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+@State (Scope.Benchmark)
+public class NumberWriterBenchmark
+{
+  private static final int COUNT = 1000;
+  private static final int FRACTION_DIGITS = 5;
+
+  private final NumberFormat m_aFormatDecimal = NumberFormat.getNumberInstance (Locale.US);
+  private final byte [] m_aBuffer = new byte [ContentStreamNumberWriter.MIN_BUFFER_SIZE];
+  private final NonBlockingByteArrayOutputStream m_aOS = new NonBlockingByteArrayOutputStream (16 * COUNT);
+  private int [] m_aInts;
+  private float [] m_aFloats;
+
+  @Setup (Level.Trial)
+  public void setup ()
+  {
+    m_aFormatDecimal.setMaximumFractionDigits (FRACTION_DIGITS);
+    m_aFormatDecimal.setGroupingUsed (false);
+
+    final Random aRandom = new Random (4711);
+    m_aInts = new int [COUNT];
+    m_aFloats = new float [COUNT];
+    for (int i = 0; i < COUNT; ++i)
+    {
+      m_aInts[i] = aRandom.nextInt (2000) - 1000;
+      m_aFloats[i] = aRandom.nextFloat () * 842f;
+    }
+  }
+
+  @Benchmark
+  public int writeIntNumberFormat () throws IOException
+  {
+    m_aOS.reset ();
+    for (final int n : m_aInts)
+    {
+      m_aOS.write (m_aFormatDecimal.format (n).getBytes (StandardCharsets.US_ASCII));
+      m_aOS.write (' ');
+    }
+    return m_aOS.size ();
+  }
+
+  @Benchmark
+  public int writeIntNumberWriter () throws IOException
+  {
+    m_aOS.reset ();
+    for (final int n : m_aInts)
+    {
+      m_aOS.write (m_aBuffer, 0, ContentStreamNumberWriter.formatInt (n, m_aBuffer));
+      m_aOS.write (' ');
+    }
+    return m_aOS.size ();
+  }
+
+  @Benchmark
+  public int writeFloatPDFBox () throws IOException
+  {
+    m_aOS.reset ();
+    for (final float f : m_aFloats)
+    {
+      final int nLen = NumberFormatUtil.formatFloatFast (f, FRACTION_DIGITS, m_aBuffer);
+      if (nLen < 0)
+        m_aOS.write (m_aFormatDecimal.format (f).getBytes (StandardCharsets.US_ASCII));
+      else
+        m_aOS.write (m_aBuffer, 0, nLen);
+      m_aOS.write (' ');
+    }
+    return m_aOS.size ();
+  }
+
+  @Benchmark
+  public int writeFloatNumberWriter () throws IOException
+  {
+    m_aOS.reset ();
+    for (final float f : m_aFloats)
+    {
+      m_aOS.write (m_aBuffer, 0, ContentStreamNumberWriter.formatFloat (f, FRACTION_DIGITS, m_aBuffer));
+      m_aOS.write (' ');
+    }
+    return m_aOS.size ();
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.base.PLPageSetPrepareResult;
+import com.plenigo.pdflayout.element.text.PLText;
+import com.plenigo.pdflayout.render.PreparationContextGlobal;
+import com.plenigo.pdflayout.spec.FontSpec;
+
+/**
+ * Benchmark for {@link PLPageSet#prepareAllPages(PreparationContextGlobal)} with many top-level
+ * text elements, including the pagination.
+ *
+ * @author Philip Helger
+ */
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 3)
+@Measurement (iterations = 5)
+@Fork (1)
+@State (Scope.Benchmark)
+public class PrepareBenchmark
+{
+  @Param ({ "STANDARD14", "TYPE0" })
+  public EBenchmarkFont m_eFont;
+
+  @Param ({ "1000", "10000" })
+  public int m_nElements;
+
+  private PDDocument m_aDoc;
+  private PLPageSet m_aPageSet;
+
+  @Setup (Level.Invocation)
+  public void setup ()
+  {
+    // A page set can only be prepared once
+    final FontSpec r10 = new FontSpec (m_eFont.getPreloadFont (), 10);
+    m_aDoc = new PDDocument ();
+    m_aPageSet = new PLPageSet (PDRectangle.A4).setMargin (30);
+    for (int i = 0; i < m_nElements; ++i)
+      m_aPageSet.addElement (new PLText ("Statement line " + i + " with some more text to be measured", r10));
+  }
+
+  @TearDown (Level.Invocation)
+  public void tearDown () throws IOException
+  {
+    m_aDoc.close ();
+  }
+
+  @Benchmark
+  public PLPageSetPrepareResult prepareAllPages ()
+  {
+    return m_aPageSet.prepareAllPages (new PreparationContextGlobal (m_aDoc));
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.jmh;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.plenigo.pdflayout.PDFCreationException;
+import com.plenigo.pdflayout.PageLayoutPDF;
+import com.plenigo.pdflayout.base.EPLPlaceholder;
+import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.element.table.PLTable;
+import com.plenigo.pdflayout.element.table.PLTableCell;
+import com.plenigo.pdflayout.element.text.PLText;
+import com.plenigo.pdflayout.spec.FontSpec;
+
+/**
+ * End-to-end benchmark for {@link PageLayoutPDF#renderTo(OutputStream)} of an invoice like
+ * document with a page header, a page footer with placeholders and a table over many pages.
+ *
+ * @author Philip Helger
+ */
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 3)
+@Measurement (iterations = 5)
+@Fork (1)
+@State (Scope.Benchmark)
+public class RenderBenchmark
+{
+  @Param ({ "STANDARD14", "TYPE0" })
+  public EBenchmarkFont m_eFont;
+
+  @Param ({ "100", "1000" })
+  public int m_nRows;
+
+  private PageLayoutPDF m_aPageLayout;
+
+  @Setup (Level.Invocation)
+  public void setup ()
+  {
+    // Prepared page sets cannot be rendered into a new document
+    final FontSpec r10 = new FontSpec (m_eFont.getPreloadFont (), 10);
+
+    final PLTable aTable = PLTable.createWithEvenlySizedColumns (3);
+    aTable.setHeaderRowCount (1);
+    aTable.addRow (new PLTableCell (new PLText ("Position", r10)),
+                   new PLTableCell (new PLText ("Description", r10)),
+                   new PLTableCell (new PLText ("Amount", r10)));
+    for (int i = 0; i < m_nRows; ++i)
+      aTable.addRow (new PLTableCell (new PLText (Integer.toString (i), r10)),
+                     new PLTableCell (new PLText ("Item number " + i, r10)),
+                     new PLTableCell (new PLText (i + ".00 EUR", r10)));
+
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    aPS.setPageHeader (new PLText ("Invoice", r10));
+    aPS.setPageFooter (new PLText ("Page " +
+                                   EPLPlaceholder.TOTAL_PAGE_NUMBER.getVariable () +
+                                   " of " +
+                                   EPLPlaceholder.TOTAL_PAGE_COUNT.getVariable (),
+                                   r10).setReplacePlaceholder (true));
+    aPS.addElement (new PLText ("Dear customer,\nplease find below the list of all items.", r10));
+    aPS.addElement (aTable);
+
+    m_aPageLayout = new PageLayoutPDF ();
+    m_aPageLayout.addPageSet (aPS);
+  }
+
+  @Benchmark
+  public PageLayoutPDF renderTo () throws PDFCreationException
+  {
+    return m_aPageLayout.renderTo (OutputStream.nullOutputStream ());
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.base.PLPageSetPrepareResult;
+import com.plenigo.pdflayout.element.table.PLTable;
+import com.plenigo.pdflayout.element.table.PLTableCell;
+import com.plenigo.pdflayout.element.text.PLText;
+import com.plenigo.pdflayout.render.PreparationContextGlobal;
+import com.plenigo.pdflayout.spec.FontSpec;
+
+/**
+ * Benchmark for the preparation and the vertical splitting of a single {@link PLTable} over many
+ * pages.
+ *
+ * @author Philip Helger
+ */
+@BenchmarkMode (Mode.SingleShotTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 3)
+@Measurement (iterations = 5)
+@Fork (1)
+@State (Scope.Benchmark)
+public class TableSplitBenchmark
+{
+  @Param ({ "STANDARD14", "TYPE0" })
+  public EBenchmarkFont m_eFont;
+
+  @Param ({ "1000", "10000", "100000" })
+  public int m_nRows;
+
+  private PDDocument m_aDoc;
+  private PLPageSet m_aPageSet;
+
+  @Setup (Level.Invocation)
+  public void setup ()
+  {
+    final FontSpec r10 = new FontSpec (m_eFont.getPreloadFont (), 10);
+    m_aDoc = new PDDocument ();
+
+    final PLTable aTable = PLTable.createWithEvenlySizedColumns (3);
+    aTable.setHeaderRowCount (1);
+    aTable.addRow (new PLTableCell (new PLText ("Position", r10)),
+                   new PLTableCell (new PLText ("Description", r10)),
+                   new PLTableCell (new PLText ("Amount", r10)));
+    for (int i = 0; i < m_nRows; ++i)
+      aTable.addRow (new PLTableCell (new PLText (Integer.toString (i), r10)),
+                     new PLTableCell (new PLText ("Item number " + i, r10)),
+                     new PLTableCell (new PLText (i + ".00 EUR", r10)));
+
+    m_aPageSet = new PLPageSet (PDRectangle.A4).setMargin (30);
+    m_aPageSet.addElement (aTable);
+  }
+
+  @TearDown (Level.Invocation)
+  public void tearDown () throws IOException
+  {
+    m_aDoc.close ();
+  }
+
+  @Benchmark
+  public PLPageSetPrepareResult prepareAndSplit ()
+  {
+    return m_aPageSet.prepareAllPages (new PreparationContextGlobal (m_aDoc));
+  }
+}
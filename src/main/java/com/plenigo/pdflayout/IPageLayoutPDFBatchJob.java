@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout;
+
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.functional.IThrowingSupplier;
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Supplier;
+
+/**
+ * A single document to be rendered by the {@link PageLayoutPDFBatchRenderer}. All methods are
+ * invoked on the thread that renders the document.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+public interface IPageLayoutPDFBatchJob {
+    /**
+     * Create the layout of the document. The layout is only created right before it is rendered,
+     * so that only the layouts of the documents currently rendered are kept in memory.
+     *
+     * @return The layout to render. May not be <code>null</code>.
+     *
+     * @throws IOException In case the layout cannot be created
+     */
+    @NonNull
+    PageLayoutPDF createPageLayout() throws IOException;
+
+    /**
+     * Open the output stream to write the rendered document to. The stream is closed by the
+     * renderer.
+     *
+     * @return The output stream to write to. May not be <code>null</code>.
+     *
+     * @throws IOException In case the output stream cannot be opened
+     */
+    @NonNull
+    OutputStream openOutputStream() throws IOException;
+
+    /**
+     * Called after the document was rendered successfully. Exceptions thrown by this method are
+     * logged and don't turn the document into a failure, so that each job ends with exactly one of
+     * {@link #onSuccess()} and {@link #onFailure(Exception)}.
+     */
+    default void onSuccess() {
+    }
+
+    /**
+     * Called if the document could not be rendered. Other documents are not affected. Exceptions
+     * thrown by this method are logged.
+     *
+     * @param ex The exception that occurred. Never <code>null</code>.
+     */
+    default void onFailure(@NonNull final Exception ex) {
+    }
+
+    /**
+     * Create a job from the provided suppliers.
+     *
+     * @param aPageLayoutSupplier   The supplier for the layout. May not be <code>null</code>.
+     * @param aOutputStreamSupplier The supplier for the output stream. May not be
+     *                              <code>null</code>.
+     *
+     * @return A new job. Never <code>null</code>.
+     */
+    @NonNull
+    static IPageLayoutPDFBatchJob create(@NonNull final Supplier<? extends PageLayoutPDF> aPageLayoutSupplier,
+                                         @NonNull final IThrowingSupplier<? extends OutputStream, IOException> aOutputStreamSupplier) {
+        ValueEnforcer.notNull(aPageLayoutSupplier, "PageLayoutSupplier");
+        ValueEnforcer.notNull(aOutputStreamSupplier, "OutputStreamSupplier");
+        return new IPageLayoutPDFBatchJob() {
+            @NonNull
+            public PageLayoutPDF createPageLayout() {
+                return aPageLayoutSupplier.get();
+            }
+
+            @NonNull
+            public OutputStream openOutputStream() throws IOException {
+                return aOutputStreamSupplier.get();
+            }
+        };
+    }
+}
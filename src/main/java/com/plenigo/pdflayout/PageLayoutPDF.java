@@ -17,6 +17,7 @@
 package com.plenigo.pdflayout;
 
 import com.helger.annotation.CheckForSigned;
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.WillClose;
 import com.helger.annotation.concurrent.NotThreadSafe;
 import com.helger.annotation.style.ReturnsMutableCopy;
@@ -36,10 +37,21 @@ import com.plenigo.pdflayout.base.IPLVisitable;
 import com.plenigo.pdflayout.base.IPLVisitor;
 import com.plenigo.pdflayout.base.PLPageSet;
 import com.plenigo.pdflayout.base.PLPageSetPrepareResult;
+import com.plenigo.pdflayout.element.image.AbstractPLImage;
+import com.plenigo.pdflayout.element.image.ImageEncodingCache;
+import com.plenigo.pdflayout.element.image.ImagePrefetcher;
+import com.plenigo.pdflayout.pdfbox.ContentStreamNumberWriter;
+import com.plenigo.pdflayout.pdfbox.PDPageContentStreamExt;
+import com.plenigo.pdflayout.render.ERenderPhase;
+import com.plenigo.pdflayout.render.IRenderMetricsListener;
 import com.plenigo.pdflayout.render.PreparationContextGlobal;
-import org.apache.pdfbox.Loader;
+import com.plenigo.pdflayout.render.RenderMetrics;
+import com.plenigo.pdflayout.spec.PreloadFontMetricsCache;
+import com.plenigo.pdflayout.spec.TextLayoutCache;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDDocumentCatalog;
+import org.apache.pdfbox.pdmodel.PDDocumentHelper;
 import org.apache.pdfbox.pdmodel.PDDocumentInformation;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDMetadata;
@@ -68,6 +80,8 @@ import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * Main class for creating layouted PDFs. This class contains the meta data as well as a list of
@@ -87,8 +101,30 @@ public class PageLayoutPDF implements IPLVisitable {
      */
     public static final boolean DEFAULT_CREATE_PDF_A = false;
 
+    /**
+     * The default number of fraction digits of numeric values in the content streams.
+     *
+     * @since 8.2.0
+     */
+    public static final int DEFAULT_OUTPUT_PRECISION = PDPageContentStreamExt.DEFAULT_FRACTION_DIGITS;
+
+    /**
+     * By default each text move and each character spacing is written explicitly.
+     *
+     * @since 8.2.0
+     */
+    public static final boolean DEFAULT_COMPACT_TEXT_OPERATORS = false;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(PageLayoutPDF.class);
 
+    /**
+     * The sRGB ICC profile used as PDF/A output intent. It is only created on first use and shared
+     * between all documents.
+     */
+    private static final class SRGBProfileHolder {
+        static final byte[] DATA = ICC_Profile.getInstance(ColorSpace.CS_sRGB).getData();
+    }
+
     private String m_sDocumentAuthor;
     private ZonedDateTime m_aDocumentCreationDate;
     private String m_sDocumentCreator;
@@ -105,6 +141,15 @@ public class PageLayoutPDF implements IPLVisitable {
     private int m_nCustomTotalPageCount = -1;
     private com.plenigo.pdflayout.IPDDocumentCustomizer m_aDocumentCustomizer;
     private IXMPMetadataCustomizer m_aMetadataCustomizer;
+    private IRenderMetricsListener m_aMetricsListener;
+    private Executor m_aPrepareExecutor;
+    private Executor m_aRenderExecutor;
+    private RandomAccessStreamCache.StreamCacheCreateFunction m_aStreamCacheCreateFunction;
+    private ImageEncodingCache m_aImageEncodingCache;
+    private TextLayoutCache m_aTextLayoutCache;
+    private Executor m_aImagePrefetchExecutor;
+    private int m_nOutputPrecision = DEFAULT_OUTPUT_PRECISION;
+    private boolean m_bCompactTextOperators = DEFAULT_COMPACT_TEXT_OPERATORS;
 
     /**
      * Constructor. Initializes Author, CreationDate and Creator from class {@link VendorInfo}.
@@ -519,6 +564,266 @@ public class PageLayoutPDF implements IPLVisitable {
         return this;
     }
 
+    /**
+     * @return The metrics listener to be informed about the rendering phases. May be
+     * <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public final IRenderMetricsListener getMetricsListener() {
+        return m_aMetricsListener;
+    }
+
+    /**
+     * Set the metrics listener to be informed about the wall time and counts of all rendering
+     * phases. If no listener is set, no measurement takes place at all.
+     *
+     * @param aMetricsListener The listener to use. May be <code>null</code>.
+     *
+     * @return this for chaining
+     * @since 8.2.0
+     */
+    @NonNull
+    public final PageLayoutPDF setMetricsListener(@Nullable final IRenderMetricsListener aMetricsListener) {
+        m_aMetricsListener = aMetricsListener;
+        return this;
+    }
+
+    /**
+     * @return The executor to prepare page sets and their top-level elements concurrently. May be
+     * <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public final Executor getPrepareExecutor() {
+        return m_aPrepareExecutor;
+    }
+
+    /**
+     * Set the executor to prepare page sets and their top-level elements concurrently. By default
+     * everything is prepared on the calling thread. The distribution of the prepared elements onto
+     * pages and the rendering always happens on the calling thread, so the result is the same as
+     * without an executor.<br>
+     * Note: custom elements and customizers must be thread-safe if an executor is used.
+     *
+     * @param aPrepareExecutor The executor to use. May be <code>null</code> to prepare on the
+     *                         calling thread.
+     *
+     * @return this for chaining
+     * @since 8.2.0
+     */
+    @NonNull
+    public final PageLayoutPDF setPrepareExecutor(@Nullable final Executor aPrepareExecutor) {
+        m_aPrepareExecutor = aPrepareExecutor;
+        return this;
+    }
+
+    /**
+     * @return The executor to render the content of the pages concurrently. May be
+     * <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public final Executor getRenderExecutor() {
+        return m_aRenderExecutor;
+    }
+
+    /**
+     * Set the executor to render the content of the pages concurrently. By default all pages are
+     * rendered on the calling thread. "beforeRender" is still called in page order on the calling
+     * thread and the content is attached to the pages in page order, so the result is the same as
+     * without an executor. Page sets with page headers or footers that contain placeholders are
+     * always rendered on the calling thread.<br>
+     * Note: custom elements and render context customizers must be thread-safe if an executor is
+     * used.
+     *
+     * @param aRenderExecutor The executor to use. May be <code>null</code> to render on the calling
+     *                        thread.
+     *
+     * @return this for chaining
+     * @since 8.2.0
+     */
+    @NonNull
+    public final PageLayoutPDF setRenderExecutor(@Nullable final Executor aRenderExecutor) {
+        m_aRenderExecutor = aRenderExecutor;
+        return this;
+    }
+
+    /**
+     * @return The function to create the stream cache of the rendered document. May be
+     * <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public final RandomAccessStreamCache.StreamCacheCreateFunction getStreamCacheCreateFunction() {
+        return m_aStreamCacheCreateFunction;
+    }
+
+    /**
+     * Set the function to create the stream cache of the rendered document. The stream cache holds
+     * the data of all streams, especially the content streams of the pages, until the document is
+     * saved. By default everything is kept in memory. For very large documents use e.g.
+     * <code>IOUtils.createTempFileOnlyStreamCache()</code> or
+     * <code>MemoryUsageSetting.setupMixed(nMaxMainMemoryBytes).streamCache</code>, so that the
+     * page content is kept in a temporary file instead.
+     *
+     * @param aStreamCacheCreateFunction The function to use. May be <code>null</code> to keep
+     *                                   everything in memory.
+     *
+     * @return this for chaining
+     * @since 8.2.0
+     */
+    @NonNull
+    public final PageLayoutPDF setStreamCacheCreateFunction(@Nullable final RandomAccessStreamCache.StreamCacheCreateFunction aStreamCacheCreateFunction) {
+        m_aStreamCacheCreateFunction = aStreamCacheCreateFunction;
+        return this;
+    }
+
+    /**
+     * @return The cache to share encoded images with other documents. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public final ImageEncodingCache getImageEncodingCache() {
+        return m_aImageEncodingCache;
+    }
+
+    /**
+     * Set the cache to share encoded images with other documents. If many documents contain the
+     * same images (like a logo), each image is only encoded once and the encoded data is copied
+     * into all other documents.
+     *
+     * @param aImageEncodingCache The cache to use. May be <code>null</code> to encode all images
+     *                            for each document.
+     *
+     * @return this for chaining
+     * @since 8.2.0
+     */
+    @NonNull
+    public final PageLayoutPDF setImageEncodingCache(@Nullable final ImageEncodingCache aImageEncodingCache) {
+        m_aImageEncodingCache = aImageEncodingCache;
+        return this;
+    }
+
+    /**
+     * @return The cache for the lines texts are split into. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public final TextLayoutCache getTextLayoutCache() {
+        return m_aTextLayoutCache;
+    }
+
+    /**
+     * Set the cache for the lines texts are split into. If the same texts occur many times (like
+     * amounts and labels in large tables), each of them is only measured once per font, font size
+     * and width. The cache may be shared between documents.
+     *
+     * @param aTextLayoutCache The cache to use. May be <code>null</code> to measure all texts
+     *                         again.
+     *
+     * @return this for chaining
+     * @since 8.2.0
+     */
+    @NonNull
+    public final PageLayoutPDF setTextLayoutCache(@Nullable final TextLayoutCache aTextLayoutCache) {
+        m_aTextLayoutCache = aTextLayoutCache;
+        return this;
+    }
+
+    /**
+     * @return The executor to load and encode the images in the background. May be
+     * <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public final Executor getImagePrefetchExecutor() {
+        return m_aImagePrefetchExecutor;
+    }
+
+    /**
+     * Set the executor to load and encode the images in the background. By default all images are
+     * loaded on the calling thread right before the page containing them is rendered. If an
+     * executor is set, all images are loaded concurrently from the start, so that slow image
+     * sources don't stall the layout and the rendering. The result is the same as without an
+     * executor.<br>
+     * Note: the image sources must be thread-safe if an executor is used.
+     *
+     * @param aImagePrefetchExecutor The executor to use. May be <code>null</code> to load the images
+     *                               on the calling thread.
+     *
+     * @return this for chaining
+     * @see ImagePrefetcher
+     * @since 8.2.0
+     */
+    @NonNull
+    public final PageLayoutPDF setImagePrefetchExecutor(@Nullable final Executor aImagePrefetchExecutor) {
+        m_aImagePrefetchExecutor = aImagePrefetchExecutor;
+        return this;
+    }
+
+    /**
+     * @return The maximum number of fraction digits of numeric values (like coordinates) in the
+     * content streams. Always &ge; 0.
+     * @since 8.2.0
+     */
+    @Nonnegative
+    public final int getOutputPrecision() {
+        return m_nOutputPrecision;
+    }
+
+    /**
+     * Set the maximum number of fraction digits of numeric values (like coordinates) in the content
+     * streams. Each value is rounded half up. With 2 or 3 fraction digits the content streams get
+     * considerably smaller and compress faster, especially for documents with many tables, while the
+     * error stays below the visible resolution. Relative text positions are written in a way that
+     * the rounding errors don't accumulate. The scaling and rotation parts of transformation
+     * matrices always use at least {@link #DEFAULT_OUTPUT_PRECISION} fraction digits.
+     *
+     * @param nOutputPrecision The number of fraction digits. Must be between 0 and
+     *                         {@link ContentStreamNumberWriter#MAX_FRACTION_DIGITS}. The default is
+     *                         {@link #DEFAULT_OUTPUT_PRECISION}.
+     *
+     * @return this for chaining
+     * @since 8.2.0
+     */
+    @NonNull
+    public final PageLayoutPDF setOutputPrecision(@Nonnegative final int nOutputPrecision) {
+        ValueEnforcer.isBetweenInclusive(nOutputPrecision,
+                "OutputPrecision",
+                0,
+                ContentStreamNumberWriter.MAX_FRACTION_DIGITS);
+        m_nOutputPrecision = nOutputPrecision;
+        return this;
+    }
+
+    /**
+     * @return <code>true</code> if text is written with compact text operators, <code>false</code>
+     * if not.
+     * @since 8.2.0
+     */
+    public final boolean isCompactTextOperators() {
+        return m_bCompactTextOperators;
+    }
+
+    /**
+     * Enable or disable compact text operators. If enabled, the lines of a text are written with a
+     * single move per line, using the text leading (T* and TD) where possible, and the character
+     * spacing of justified text is only written if it changed. This reduces the number of operators
+     * in text dense documents, while the rendered result stays the same.
+     *
+     * @param bCompactTextOperators <code>true</code> to enable compact text operators. The default is
+     *                              {@link #DEFAULT_COMPACT_TEXT_OPERATORS}.
+     *
+     * @return this for chaining
+     * @since 8.2.0
+     */
+    @NonNull
+    public final PageLayoutPDF setCompactTextOperators(final boolean bCompactTextOperators) {
+        m_bCompactTextOperators = bCompactTextOperators;
+        return this;
+    }
+
     @NonNull
     public EChange visit(@NonNull final IPLVisitor aVisitor) throws IOException {
         EChange ret = EChange.UNCHANGED;
@@ -537,11 +842,12 @@ public class PageLayoutPDF implements IPLVisitable {
         // Dummy document
         try (final PDDocument aDoc = new PDDocument()) {
             // Global context
-            final PreparationContextGlobal aGlobalPrepareCtx = new PreparationContextGlobal(aDoc);
+            final PreparationContextGlobal aGlobalPrepareCtx = new PreparationContextGlobal(aDoc, m_aPrepareExecutor);
             // Through all page sets
-            for (final PLPageSet aPageSet : m_aPageSets) {
-                aPageSet.prepareAllPages(aGlobalPrepareCtx);
-            }
+            final ICommonsList<Supplier<PLPageSetPrepareResult>> aPrepareTasks = new CommonsArrayList<>();
+            for (final PLPageSet aPageSet : m_aPageSets)
+                aPrepareTasks.add(() -> aPageSet.prepareAllPages(aGlobalPrepareCtx));
+            aGlobalPrepareCtx.getAllResultsInOrder(aPrepareTasks);
         } catch (final IOException ex) {
             LOGGER.error("Failed to prepare page sets", ex);
         }
@@ -562,221 +868,310 @@ public class PageLayoutPDF implements IPLVisitable {
     public PageLayoutPDF renderTo(@NonNull @WillClose final OutputStream aOS) throws com.plenigo.pdflayout.PDFCreationException {
         ValueEnforcer.notNull(aOS, "OutputStream");
 
-        try (final NonBlockingByteArrayOutputStream aTmpOS = new NonBlockingByteArrayOutputStream()) {
-            // create a new document
-            // Use a buffered OS - approx 30% faster!
-            try (final PDDocument aDoc = new PDDocument();
-                 final OutputStream aBufferedOS = StreamHelper.getBuffered(m_bCreatePDF_A ? aTmpOS : aOS)) {
-                if (getPdfVersion() > 0) {
-                    aDoc.setVersion(getPdfVersion());
-                }
-                // Small consistency check to avoid creating empty, invalid PDFs
-                int nTotalElements = 0;
-                for (final PLPageSet aPageSet : m_aPageSets)
-                    nTotalElements += aPageSet.getElementCount();
-                if (nTotalElements == 0)
-                    throw new PDFCreationException("All page sets are empty!");
-
-                // Set document properties
-                {
-                    final PDDocumentInformation aProperties = new PDDocumentInformation();
-                    if (StringHelper.isNotEmpty(m_sDocumentAuthor))
-                        aProperties.setAuthor(m_sDocumentAuthor);
-                    if (m_aDocumentCreationDate != null)
-                        aProperties.setCreationDate(GregorianCalendar.from(m_aDocumentCreationDate));
-                    if (StringHelper.hasText(m_sDocumentCreator))
-                        aProperties.setCreator(m_sDocumentCreator);
-                    if (StringHelper.isNotEmpty(m_sDocumentTitle))
-                        aProperties.setTitle(m_sDocumentTitle);
-                    if (StringHelper.isNotEmpty(m_sDocumentKeywords))
-                        aProperties.setKeywords(m_sDocumentKeywords);
-                    if (StringHelper.isNotEmpty(m_sDocumentSubject))
-                        aProperties.setSubject(m_sDocumentSubject);
-                    aProperties.setProducer(com.plenigo.pdflayout.PLConfig.PROJECT_NAME +
-                            " " +
-                            com.plenigo.pdflayout.PLConfig.PROJECT_VERSION +
-                            " - " +
-                            com.plenigo.pdflayout.PLConfig.PROJECT_URL);
-
-                    // add the created properties
-                    aDoc.setDocumentInformation(aProperties);
-                }
-
-                // Prepare all page sets
-                final PreparationContextGlobal aGlobalPrepareCtx = new PreparationContextGlobal(aDoc);
-                final PLPageSetPrepareResult[] aPRs = new PLPageSetPrepareResult[m_aPageSets.size()];
-                int nPageSetIndex = 0;
-                // Eventually start at the custom offset
-                int nTotalPageCount = m_nCustomLeadingPageCount > 0 ? m_nCustomLeadingPageCount : 0;
-                for (final PLPageSet aPageSet : m_aPageSets) {
-                    final PLPageSetPrepareResult aPR;
-
-                    // Handle pre prepared page sets
-                    if (aPageSet.isPrepared())
-                        aPR = aPageSet.internalGetPrepareResult();
-                    else
-                        aPR = aPageSet.prepareAllPages(aGlobalPrepareCtx);
-                    aPRs[nPageSetIndex] = aPR;
-                    nTotalPageCount += aPR.getPageCount();
-                    nPageSetIndex++;
+        // Only measure if someone is interested
+        final IRenderMetricsListener aMetricsListener = m_aMetricsListener;
+        final long nRenderStartNanos = aMetricsListener == null ? 0 : System.nanoTime();
+        final PreloadFontMetricsCache aMetricsCache = PreloadFontMetricsCache.getInstance();
+        final long nMetricsCacheHits = aMetricsListener == null ? 0 : aMetricsCache.getHitCount();
+        final long nMetricsCacheMisses = aMetricsListener == null ? 0 : aMetricsCache.getMissCount();
+        long nPhaseStartNanos = nRenderStartNanos;
+        PreparationContextGlobal aUsedGlobalPrepareCtx = null;
+        ImagePrefetcher aUsedImagePrefetcher = null;
+
+        // create a new document
+        // Use a buffered OS - approx 30% faster!
+        try (final PDDocument aDoc = m_aStreamCacheCreateFunction == null ? new PDDocument()
+                : new PDDocument(m_aStreamCacheCreateFunction);
+             final OutputStream aBufferedOS = StreamHelper.getBuffered(aOS)) {
+            if (getPdfVersion() > 0) {
+                aDoc.setVersion(getPdfVersion());
+            }
+            // Small consistency check to avoid creating empty, invalid PDFs
+            int nTotalElements = 0;
+            for (final PLPageSet aPageSet : m_aPageSets)
+                nTotalElements += aPageSet.getElementCount();
+            if (nTotalElements == 0)
+                throw new PDFCreationException("All page sets are empty!");
+
+            // Set document properties
+            {
+                final PDDocumentInformation aProperties = new PDDocumentInformation();
+                if (StringHelper.isNotEmpty(m_sDocumentAuthor))
+                    aProperties.setAuthor(m_sDocumentAuthor);
+                if (m_aDocumentCreationDate != null)
+                    aProperties.setCreationDate(GregorianCalendar.from(m_aDocumentCreationDate));
+                if (StringHelper.hasText(m_sDocumentCreator))
+                    aProperties.setCreator(m_sDocumentCreator);
+                if (StringHelper.isNotEmpty(m_sDocumentTitle))
+                    aProperties.setTitle(m_sDocumentTitle);
+                if (StringHelper.isNotEmpty(m_sDocumentKeywords))
+                    aProperties.setKeywords(m_sDocumentKeywords);
+                if (StringHelper.isNotEmpty(m_sDocumentSubject))
+                    aProperties.setSubject(m_sDocumentSubject);
+                aProperties.setProducer(com.plenigo.pdflayout.PLConfig.PROJECT_NAME +
+                        " " +
+                        com.plenigo.pdflayout.PLConfig.PROJECT_VERSION +
+                        " - " +
+                        com.plenigo.pdflayout.PLConfig.PROJECT_URL);
+
+                // add the created properties
+                aDoc.setDocumentInformation(aProperties);
+            }
+            if (aMetricsListener != null)
+                nPhaseStartNanos = _onPhaseFinished(aMetricsListener,
+                        ERenderPhase.DOCUMENT_SETUP,
+                        nPhaseStartNanos,
+                        m_aPageSets.size());
+
+            // Prepare all page sets
+            final PreparationContextGlobal aGlobalPrepareCtx = new PreparationContextGlobal(aDoc,
+                    m_aPrepareExecutor,
+                    m_aRenderExecutor);
+            aUsedGlobalPrepareCtx = aGlobalPrepareCtx;
+            aGlobalPrepareCtx.setMetricsListener(aMetricsListener);
+            aGlobalPrepareCtx.setImageEncodingCache(m_aImageEncodingCache);
+            aGlobalPrepareCtx.setTextLayoutCache(m_aTextLayoutCache);
+            aGlobalPrepareCtx.setOutputPrecision(m_nOutputPrecision);
+            aGlobalPrepareCtx.setCompactTextOperators(m_bCompactTextOperators);
+            if (m_aImagePrefetchExecutor != null) {
+                // Start loading all images, so that it overlaps with the layout. The images are the
+                // same objects before and after preparation.
+                final ImagePrefetcher aImagePrefetcher = new ImagePrefetcher(m_aImagePrefetchExecutor,
+                        m_aImageEncodingCache);
+                visit(IPLVisitor.createElementVisitor(x -> {
+                    if (x instanceof AbstractPLImage<?>)
+                        aImagePrefetcher.prefetch((AbstractPLImage<?>) x);
+                    return EChange.UNCHANGED;
+                }));
+                aGlobalPrepareCtx.setImagePrefetcher(aImagePrefetcher);
+                aUsedImagePrefetcher = aImagePrefetcher;
+            }
+            final int nPageSetCount = m_aPageSets.size();
+            final boolean[] aPreparedNow = new boolean[nPageSetCount];
+            final ICommonsList<Supplier<PLPageSetPrepareResult>> aPrepareTasks = new CommonsArrayList<>(nPageSetCount);
+            for (final PLPageSet aPageSet : m_aPageSets) {
+                // Handle pre prepared page sets
+                if (aPageSet.isPrepared())
+                    aPrepareTasks.add(aPageSet::internalGetPrepareResult);
+                else {
+                    aPreparedNow[aPrepareTasks.size()] = true;
+                    aPrepareTasks.add(() -> aPageSet.prepareAllPages(aGlobalPrepareCtx));
                 }
-                // Add the custom trailing page count to the total pages
-                if (m_nCustomTrailingPageCount > 0)
-                    nTotalPageCount += m_nCustomTrailingPageCount;
-
-                // Use the custom overall page count if applicable
-                if (m_nCustomTotalPageCount > 0)
-                    nTotalPageCount = m_nCustomTotalPageCount;
-
-                // Render all page sets
-                nPageSetIndex = 0;
-                final int nPageSetCount = m_aPageSets.size();
-                // Eventually start at the custom offset
-                int nTotalPageIndex = m_nCustomLeadingPageCount > 0 ? m_nCustomLeadingPageCount : 0;
-                for (final PLPageSet aPageSet : m_aPageSets) {
-                    final PLPageSetPrepareResult aPR = aPRs[nPageSetIndex];
-                    aPageSet.renderAllPages(aPR,
-                            aDoc,
-                            m_bCompressPDF,
+            }
+            // The page sets are independent of each other and may be prepared concurrently
+            final ICommonsList<PLPageSetPrepareResult> aPRList = aGlobalPrepareCtx.getAllResultsInOrder(aPrepareTasks);
+            final PLPageSetPrepareResult[] aPRs = aPRList.toArray(new PLPageSetPrepareResult[nPageSetCount]);
+            int nPageSetIndex = 0;
+            // Eventually start at the custom offset
+            int nTotalPageCount = m_nCustomLeadingPageCount > 0 ? m_nCustomLeadingPageCount : 0;
+            for (final PLPageSet aPageSet : m_aPageSets) {
+                final PLPageSetPrepareResult aPR = aPRs[nPageSetIndex];
+                if (aMetricsListener != null && aPreparedNow[nPageSetIndex]) {
+                    aMetricsListener.onPhaseFinished(ERenderPhase.PREPARE,
+                            nPageSetIndex,
+                            aPR.getPrepareNanos(),
+                            aPageSet.getElementCount());
+                    aMetricsListener.onPhaseFinished(ERenderPhase.PAGINATE,
                             nPageSetIndex,
-                            nPageSetCount,
-                            nTotalPageIndex,
-                            nTotalPageCount);
-                    // Increment afterwards
-                    nTotalPageIndex += aPR.getPageCount();
-                    nPageSetIndex++;
+                            aPR.getPaginateNanos(),
+                            aPR.getSplitCount());
                 }
+                nTotalPageCount += aPR.getPageCount();
+                nPageSetIndex++;
+            }
+            // Add the custom trailing page count to the total pages
+            if (m_nCustomTrailingPageCount > 0)
+                nTotalPageCount += m_nCustomTrailingPageCount;
+
+            // Use the custom overall page count if applicable
+            if (m_nCustomTotalPageCount > 0)
+                nTotalPageCount = m_nCustomTotalPageCount;
+
+            // Render all page sets
+            nPageSetIndex = 0;
+            // Eventually start at the custom offset
+            int nTotalPageIndex = m_nCustomLeadingPageCount > 0 ? m_nCustomLeadingPageCount : 0;
+            for (final PLPageSet aPageSet : m_aPageSets) {
+                final PLPageSetPrepareResult aPR = aPRs[nPageSetIndex];
+                aPageSet.renderAllPages(aPR,
+                        aGlobalPrepareCtx,
+                        m_bCompressPDF,
+                        nPageSetIndex,
+                        nPageSetCount,
+                        nTotalPageIndex,
+                        nTotalPageCount);
+                // Increment afterwards
+                nTotalPageIndex += aPR.getPageCount();
+                nPageSetIndex++;
+            }
 
-                // Customize the whole document (optional)
-                if (m_aDocumentCustomizer != null)
-                    m_aDocumentCustomizer.customizeDocument(aDoc);
-
-                // save document to output stream
-                aDoc.save(aBufferedOS);
+            if (aMetricsListener != null)
+                nPhaseStartNanos = System.nanoTime();
 
-                if (LOGGER.isDebugEnabled())
-                    LOGGER.debug("PDF successfully created");
-            } catch (final IOException ex) {
-                throw new PDFCreationException("IO Error", ex);
-            } catch (final Exception ex) {
-                throw new PDFCreationException("Internal error", ex);
-            }
+            // Customize the whole document (optional)
+            if (m_aDocumentCustomizer != null)
+                m_aDocumentCustomizer.customizeDocument(aDoc);
 
-            // Do specific PDF/A stuff if needed
+            // Do specific PDF/A stuff if needed - directly on the in-memory document
             if (m_bCreatePDF_A) {
                 if (LOGGER.isDebugEnabled())
                     LOGGER.debug("Start adding PDF/A information");
+                _addPDFAInformation(aDoc);
+            }
 
-                // Add metadata (needed by PDF/A)
-                try (final PDDocument aDoc = Loader.loadPDF(aTmpOS.getBufferOrCopy());
-                     final OutputStream aBufferedOS = StreamHelper.getBuffered(aOS)) {
-                    if (getPdfVersion() > 0) {
-                        aDoc.setVersion(getPdfVersion());
-                    }
-                    final Calendar aCreationDate = m_aDocumentCreationDate == null ? PDTFactory.createCalendar()
-                            : GregorianCalendar.from(m_aDocumentCreationDate);
-                    final String sProducer = PLConfig.PROJECT_NAME + " " + PLConfig.PROJECT_VERSION;
-
-                    final XMPMetadata aXmpMetadata = XMPMetadata.createXMPMetadata();
-                    final AdobePDFSchema aPDFSchema = aXmpMetadata.createAndAddAdobePDFSchema();
-                    aPDFSchema.setProducer(sProducer);
-
-                    final XMPBasicSchema aXmpBasicSchema = aXmpMetadata.createAndAddXMPBasicSchema();
-                    aXmpBasicSchema.setCreatorTool(sProducer);
-                    aXmpBasicSchema.setCreateDate(aCreationDate);
-                    aXmpBasicSchema.setModifyDate(aCreationDate);
-
-                    final PDDocumentCatalog aDocCatalogue = aDoc.getDocumentCatalog();
-
-                    final PDMarkInfo aMarkInfo = new PDMarkInfo();
-                    final PDStructureTreeRoot aTreeRoot = new PDStructureTreeRoot();
-                    aDocCatalogue.setMarkInfo(aMarkInfo);
-                    aDocCatalogue.setStructureTreeRoot(aTreeRoot);
-                    aDocCatalogue.getMarkInfo().setMarked(true);
-
-                    final PDDocumentInformation aDocInfo = aDoc.getDocumentInformation();
-                    aDocInfo.setCreationDate(aCreationDate);
-                    aDocInfo.setModificationDate(aCreationDate);
-                    if (StringHelper.isNotEmpty(m_sDocumentAuthor))
-                        aDocInfo.setAuthor(m_sDocumentAuthor);
-                    aDocInfo.setProducer(sProducer);
-                    if (StringHelper.isNotEmpty(m_sDocumentCreator))
-                        aDocInfo.setCreator(m_sDocumentCreator);
-                    if (StringHelper.isNotEmpty(m_sDocumentTitle))
-                        aDocInfo.setTitle(m_sDocumentTitle);
-                    if (StringHelper.isNotEmpty(m_sDocumentSubject))
-                        aDocInfo.setSubject(m_sDocumentSubject);
-
-                    try {
-                        final DublinCoreSchema aDCSchema = aXmpMetadata.createAndAddDublinCoreSchema();
-                        if (StringHelper.isNotEmpty(m_sDocumentTitle))
-                            aDCSchema.setTitle(m_sDocumentTitle);
-                        if (StringHelper.isNotEmpty(m_sDocumentCreator))
-                            aDCSchema.addCreator(m_sDocumentCreator);
-                        if (StringHelper.isNotEmpty(m_sDocumentKeywords))
-                            aDCSchema.addDescription("", m_sDocumentKeywords);
-                        if (StringHelper.isNotEmpty(m_sDocumentSubject))
-                            aDCSchema.addSubject(m_sDocumentSubject);
-                        aDCSchema.addDate(aCreationDate);
-
-                        final PDFAIdentificationSchema aIdentificationSchema = aXmpMetadata.createAndAddPDFAIdentificationSchema();
-                        aIdentificationSchema.setPart(Integer.valueOf(3));
-                        aIdentificationSchema.setConformance("A");
-
-                        if (m_aMetadataCustomizer != null)
-                            m_aMetadataCustomizer.customizeMetadata(aXmpMetadata);
-
-                        try (final NonBlockingByteArrayOutputStream aXmpOS = new NonBlockingByteArrayOutputStream()) {
-                            final XmpSerializer aSerializer = new XmpSerializer();
-                            aSerializer.serialize(aXmpMetadata, aXmpOS, true);
-
-                            final PDMetadata aMetadata = new PDMetadata(aDoc);
-                            aMetadata.importXMPMetadata(aXmpOS.toByteArray());
-                            aDocCatalogue.setMetadata(aMetadata);
-                        }
-                    } catch (final BadFieldValueException ex) {
-                        throw new IllegalArgumentException("Failed to set PDF Metadata", ex);
-                    }
-
-                    // Set color profile (needed by PDF/A)
-                    final ICC_Profile aRgbProfile = ICC_Profile.getInstance(ColorSpace.CS_sRGB);
-                    final byte[] aRgbBytes = aRgbProfile.getData();
-
-                    try (final NonBlockingByteArrayInputStream aColorProfile = new NonBlockingByteArrayInputStream(aRgbBytes)) {
-                        final PDOutputIntent aIntent = new PDOutputIntent(aDoc, aColorProfile);
-                        aIntent.setInfo("sRGB IEC61966-2.1");
-                        aIntent.setOutputCondition("sRGB IEC61966-2.1");
-                        aIntent.setOutputConditionIdentifier("sRGB IEC61966-2.1");
-                        aIntent.setRegistryName("http://www.color.org");
-
-                        aDocCatalogue.addOutputIntent(aIntent);
-                    }
-
-                    if (StringHelper.isNotEmpty(m_sDocumentLanguage))
-                        aDocCatalogue.setLanguage(m_sDocumentLanguage);
-
-                    for (final PDPage aPage : aDoc.getPages()) {
-                        final PDViewerPreferences aViewerPrefs = new PDViewerPreferences(aPage.getCOSObject());
-                        aViewerPrefs.setDisplayDocTitle(true);
-                        aDocCatalogue.setViewerPreferences(aViewerPrefs);
-                    }
-
-                    // save document to final output stream
-                    aDoc.save(aBufferedOS);
-
-                    if (LOGGER.isDebugEnabled())
-                        LOGGER.debug("PDF with PDF/A successfully created");
-                } catch (final IOException ex) {
-                    throw new com.plenigo.pdflayout.PDFCreationException("IO Error", ex);
-                } catch (final Exception ex) {
-                    throw new com.plenigo.pdflayout.PDFCreationException("Internal error", ex);
-                }
+            if (aMetricsListener != null) {
+                nPhaseStartNanos = _onPhaseFinished(aMetricsListener, ERenderPhase.FINISH_DOCUMENT, nPhaseStartNanos, 0);
+
+                // Subset the fonts explicitly, so that it is not measured as part of saving
+                final int nSubsettedFonts = PDDocumentHelper.subsetDesignatedFonts(aDoc);
+                nPhaseStartNanos = _onPhaseFinished(aMetricsListener,
+                        ERenderPhase.FONT_SUBSETTING,
+                        nPhaseStartNanos,
+                        nSubsettedFonts);
+            }
+
+            // save document to output stream
+            aDoc.save(aBufferedOS);
+
+            if (aMetricsListener != null) {
+                final long nNowNanos = _onPhaseFinished(aMetricsListener,
+                        ERenderPhase.SAVE,
+                        nPhaseStartNanos,
+                        aDoc.getNumberOfPages());
+                int nSplitCount = 0;
+                for (final PLPageSetPrepareResult aPR : aPRs)
+                    nSplitCount += aPR.getSplitCount();
+                aMetricsListener.onRenderFinished(new RenderMetrics(nNowNanos - nRenderStartNanos,
+                        aDoc.getNumberOfPages(),
+                        nSplitCount,
+                        aGlobalPrepareCtx.getFontRequestCount(),
+                        aGlobalPrepareCtx.getLoadedFontCount(),
+                        Math.max(0, aMetricsCache.getHitCount() - nMetricsCacheHits),
+                        Math.max(0, aMetricsCache.getMissCount() - nMetricsCacheMisses)));
             }
-        } // close aTmpOS
+
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug(m_bCreatePDF_A ? "PDF with PDF/A successfully created" : "PDF successfully created");
+        } catch (final IOException ex) {
+            throw new PDFCreationException("IO Error", ex);
+        } catch (final Exception ex) {
+            throw new PDFCreationException("Internal error", ex);
+        } finally {
+            // Background loads may not outlive the document, e.g. if rendering failed
+            if (aUsedImagePrefetcher != null)
+                aUsedImagePrefetcher.cancelAll();
+            // The document is closed, so that the next document can use the font programs
+            if (aUsedGlobalPrepareCtx != null)
+                aUsedGlobalPrepareCtx.releaseFontPrograms();
+        }
 
         return this;
     }
 
+    private static long _onPhaseFinished(@NonNull final IRenderMetricsListener aMetricsListener,
+                                         @NonNull final ERenderPhase ePhase,
+                                         final long nPhaseStartNanos,
+                                         final int nCount) {
+        final long nNowNanos = System.nanoTime();
+        aMetricsListener.onPhaseFinished(ePhase, -1, nNowNanos - nPhaseStartNanos, nCount);
+        return nNowNanos;
+    }
+
+    /**
+     * Add all the information required for PDF/A to the provided document. This happens on the
+     * in-memory document before it is saved, so that PDF/A output is serialized only once.
+     *
+     * @param aDoc The document to modify. May not be <code>null</code>.
+     *
+     * @throws IOException on PDFBox error
+     */
+    private void _addPDFAInformation(@NonNull final PDDocument aDoc) throws IOException {
+        final Calendar aCreationDate = m_aDocumentCreationDate == null ? PDTFactory.createCalendar()
+                : GregorianCalendar.from(m_aDocumentCreationDate);
+        final String sProducer = PLConfig.PROJECT_NAME + " " + PLConfig.PROJECT_VERSION;
+
+        final XMPMetadata aXmpMetadata = XMPMetadata.createXMPMetadata();
+        final AdobePDFSchema aPDFSchema = aXmpMetadata.createAndAddAdobePDFSchema();
+        aPDFSchema.setProducer(sProducer);
+
+        final XMPBasicSchema aXmpBasicSchema = aXmpMetadata.createAndAddXMPBasicSchema();
+        aXmpBasicSchema.setCreatorTool(sProducer);
+        aXmpBasicSchema.setCreateDate(aCreationDate);
+        aXmpBasicSchema.setModifyDate(aCreationDate);
+
+        final PDDocumentCatalog aDocCatalogue = aDoc.getDocumentCatalog();
+
+        final PDMarkInfo aMarkInfo = new PDMarkInfo();
+        final PDStructureTreeRoot aTreeRoot = new PDStructureTreeRoot();
+        aDocCatalogue.setMarkInfo(aMarkInfo);
+        aDocCatalogue.setStructureTreeRoot(aTreeRoot);
+        aDocCatalogue.getMarkInfo().setMarked(true);
+
+        final PDDocumentInformation aDocInfo = aDoc.getDocumentInformation();
+        aDocInfo.setCreationDate(aCreationDate);
+        aDocInfo.setModificationDate(aCreationDate);
+        if (StringHelper.isNotEmpty(m_sDocumentAuthor))
+            aDocInfo.setAuthor(m_sDocumentAuthor);
+        aDocInfo.setProducer(sProducer);
+        if (StringHelper.isNotEmpty(m_sDocumentCreator))
+            aDocInfo.setCreator(m_sDocumentCreator);
+        if (StringHelper.isNotEmpty(m_sDocumentTitle))
+            aDocInfo.setTitle(m_sDocumentTitle);
+        if (StringHelper.isNotEmpty(m_sDocumentSubject))
+            aDocInfo.setSubject(m_sDocumentSubject);
+
+        try {
+            final DublinCoreSchema aDCSchema = aXmpMetadata.createAndAddDublinCoreSchema();
+            if (StringHelper.isNotEmpty(m_sDocumentTitle))
+                aDCSchema.setTitle(m_sDocumentTitle);
+            if (StringHelper.isNotEmpty(m_sDocumentCreator))
+                aDCSchema.addCreator(m_sDocumentCreator);
+            if (StringHelper.isNotEmpty(m_sDocumentKeywords))
+                aDCSchema.addDescription("", m_sDocumentKeywords);
+            if (StringHelper.isNotEmpty(m_sDocumentSubject))
+                aDCSchema.addSubject(m_sDocumentSubject);
+            aDCSchema.addDate(aCreationDate);
+
+            final PDFAIdentificationSchema aIdentificationSchema = aXmpMetadata.createAndAddPDFAIdentificationSchema();
+            aIdentificationSchema.setPart(Integer.valueOf(3));
+            aIdentificationSchema.setConformance("A");
+
+            if (m_aMetadataCustomizer != null)
+                m_aMetadataCustomizer.customizeMetadata(aXmpMetadata);
+
+            try (final NonBlockingByteArrayOutputStream aXmpOS = new NonBlockingByteArrayOutputStream()) {
+                final XmpSerializer aSerializer = new XmpSerializer();
+                aSerializer.serialize(aXmpMetadata, aXmpOS, true);
+
+                final PDMetadata aMetadata = new PDMetadata(aDoc);
+                aMetadata.importXMPMetadata(aXmpOS.toByteArray());
+                aDocCatalogue.setMetadata(aMetadata);
+            }
+        } catch (final BadFieldValueException ex) {
+            throw new IllegalArgumentException("Failed to set PDF Metadata", ex);
+        }
+
+        // Set color profile (needed by PDF/A)
+        try (final NonBlockingByteArrayInputStream aColorProfile = new NonBlockingByteArrayInputStream(SRGBProfileHolder.DATA)) {
+            final PDOutputIntent aIntent = new PDOutputIntent(aDoc, aColorProfile);
+            aIntent.setInfo("sRGB IEC61966-2.1");
+            aIntent.setOutputCondition("sRGB IEC61966-2.1");
+            aIntent.setOutputConditionIdentifier("sRGB IEC61966-2.1");
+            aIntent.setRegistryName("http://www.color.org");
+
+            aDocCatalogue.addOutputIntent(aIntent);
+        }
+
+        if (StringHelper.isNotEmpty(m_sDocumentLanguage))
+            aDocCatalogue.setLanguage(m_sDocumentLanguage);
+
+        for (final PDPage aPage : aDoc.getPages()) {
+            final PDViewerPreferences aViewerPrefs = new PDViewerPreferences(aPage.getCOSObject());
+            aViewerPrefs.setDisplayDocTitle(true);
+            aDocCatalogue.setViewerPreferences(aViewerPrefs);
+        }
+    }
+
     /**
      * Render this layout to an OutputStream.
      *
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.plenigo.pdflayout.element.image.ImageEncodingCache;
+import com.plenigo.pdflayout.spec.PreloadFontMetricsCache;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Render many independent documents on an {@link Executor}. Each document is rendered by a single
+ * thread, so no additional synchronization is needed inside a document. The following data is
+ * shared between all documents:
+ * <ul>
+ * <li>The encoding and the width of the code points of all fonts (see
+ * {@link PreloadFontMetricsCache})</li>
+ * <li>The encoded data of images (see {@link ImageEncodingCache})</li>
+ * <li>The sRGB ICC profile of PDF/A documents</li>
+ * </ul>
+ * The PDFBox fonts themselves are bound to a single document and are therefore still loaded per
+ * document.<br>
+ * Only a limited number of documents is pending at the same time, so that an arbitrary number of
+ * documents can be rendered with a constant amount of memory. A failure in one document does not
+ * affect the other documents.<br>
+ * The rendering only blocks on {@link java.util.concurrent.locks.Lock}s and I/O, so a virtual
+ * thread executor (see {@link java.util.concurrent.Executors#newVirtualThreadPerTaskExecutor()}) can
+ * be used.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@ThreadSafe
+public class PageLayoutPDFBatchRenderer {
+    /**
+     * The default maximum number of documents that are pending at the same time.
+     */
+    public static final int DEFAULT_MAX_PENDING_DOCUMENTS = 64;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageLayoutPDFBatchRenderer.class);
+
+    private final Executor m_aExecutor;
+    private final ImageEncodingCache m_aImageEncodingCache;
+    private volatile int m_nMaxPendingDocuments = DEFAULT_MAX_PENDING_DOCUMENTS;
+
+    /**
+     * Constructor using an {@link ImageEncodingCache} with the default size.
+     *
+     * @param aExecutor The executor to render the documents on. May not be <code>null</code>.
+     */
+    public PageLayoutPDFBatchRenderer(@NonNull final Executor aExecutor) {
+        this(aExecutor, new ImageEncodingCache(ImageEncodingCache.DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param aExecutor           The executor to render the documents on. May not be
+     *                            <code>null</code>.
+     * @param aImageEncodingCache The cache to share encoded images between the documents. It is used
+     *                            for all documents that don't have a cache set. May be
+     *                            <code>null</code>.
+     */
+    public PageLayoutPDFBatchRenderer(@NonNull final Executor aExecutor,
+                                      @Nullable final ImageEncodingCache aImageEncodingCache) {
+        ValueEnforcer.notNull(aExecutor, "Executor");
+        m_aExecutor = aExecutor;
+        m_aImageEncodingCache = aImageEncodingCache;
+    }
+
+    /**
+     * @return The executor the documents are rendered on. Never <code>null</code>.
+     */
+    @NonNull
+    public final Executor getExecutor() {
+        return m_aExecutor;
+    }
+
+    /**
+     * @return The cache to share encoded images between the documents. May be <code>null</code>.
+     */
+    @Nullable
+    public final ImageEncodingCache getImageEncodingCache() {
+        return m_aImageEncodingCache;
+    }
+
+    /**
+     * @return The maximum number of documents that are pending at the same time. Always &gt; 0.
+     */
+    @Nonnegative
+    public final int getMaxPendingDocuments() {
+        return m_nMaxPendingDocuments;
+    }
+
+    /**
+     * Set the maximum number of documents that are pending at the same time. If this number is
+     * reached, no further jobs are taken until a document is finished.
+     *
+     * @param nMaxPendingDocuments The maximum number of pending documents. Must be &gt; 0.
+     *
+     * @return this for chaining
+     */
+    @NonNull
+    public final PageLayoutPDFBatchRenderer setMaxPendingDocuments(@Nonnegative final int nMaxPendingDocuments) {
+        ValueEnforcer.isGT0(nMaxPendingDocuments, "MaxPendingDocuments");
+        m_nMaxPendingDocuments = nMaxPendingDocuments;
+        return this;
+    }
+
+    private static void _onSuccess(@NonNull final IPageLayoutPDFBatchJob aJob, @Nonnegative final int nJobIndex) {
+        try {
+            aJob.onSuccess();
+        } catch (final RuntimeException ex) {
+            // The document was created - don't report it as a failure
+            LOGGER.error("Success callback of batch document " + nJobIndex + " failed", ex);
+        }
+    }
+
+    private static void _onFailure(@NonNull final IPageLayoutPDFBatchJob aJob,
+                                   @Nonnegative final int nJobIndex,
+                                   @NonNull final Exception aFailure) {
+        LOGGER.error("Failed to render batch document " + nJobIndex, aFailure);
+        try {
+            aJob.onFailure(aFailure);
+        } catch (final RuntimeException ex) {
+            LOGGER.error("Failure callback of batch document " + nJobIndex + " failed", ex);
+        }
+    }
+
+    private boolean _render(@NonNull final IPageLayoutPDFBatchJob aJob, @Nonnegative final int nJobIndex) {
+        try {
+            final PageLayoutPDF aPageLayout = aJob.createPageLayout();
+            if (aPageLayout.getImageEncodingCache() == null)
+                aPageLayout.setImageEncodingCache(m_aImageEncodingCache);
+            aPageLayout.renderTo(aJob.openOutputStream());
+        } catch (final Exception ex) {
+            _onFailure(aJob, nJobIndex, ex);
+            return false;
+        }
+        _onSuccess(aJob, nJobIndex);
+        return true;
+    }
+
+    /**
+     * Render all provided documents and wait until all of them are finished. The jobs are taken
+     * from the iterator only if the number of pending documents is below
+     * {@link #getMaxPendingDocuments()}.
+     *
+     * @param aJobs The jobs to render. May not be <code>null</code>.
+     *
+     * @return The summary of this run. Never <code>null</code>.
+     *
+     * @throws InterruptedException If the calling thread was interrupted while waiting
+     */
+    @NonNull
+    public PageLayoutPDFBatchResult renderAll(@NonNull final Iterator<? extends IPageLayoutPDFBatchJob> aJobs) throws InterruptedException {
+        ValueEnforcer.notNull(aJobs, "Jobs");
+
+        final long nStartNanos = System.nanoTime();
+        final int nMaxPendingDocuments = m_nMaxPendingDocuments;
+        final Semaphore aPending = new Semaphore(nMaxPendingDocuments);
+        final AtomicInteger aSuccessCount = new AtomicInteger(0);
+        final AtomicInteger aFailureCount = new AtomicInteger(0);
+        int nJobIndex = 0;
+        while (aJobs.hasNext()) {
+            // Backpressure - wait until another document is finished
+            aPending.acquire();
+            final IPageLayoutPDFBatchJob aJob;
+            try {
+                aJob = aJobs.next();
+            } catch (final RuntimeException ex) {
+                aPending.release();
+                throw ex;
+            }
+
+            final int nCurJobIndex = nJobIndex++;
+            try {
+                m_aExecutor.execute(() -> {
+                    try {
+                        if (_render(aJob, nCurJobIndex))
+                            aSuccessCount.incrementAndGet();
+                        else
+                            aFailureCount.incrementAndGet();
+                    } finally {
+                        aPending.release();
+                    }
+                });
+            } catch (final RejectedExecutionException ex) {
+                aPending.release();
+                _onFailure(aJob, nCurJobIndex, ex);
+                aFailureCount.incrementAndGet();
+            }
+        }
+
+        // Wait until all documents are finished
+        aPending.acquire(nMaxPendingDocuments);
+        aPending.release(nMaxPendingDocuments);
+        return new PageLayoutPDFBatchResult(aSuccessCount.get(),
+                aFailureCount.get(),
+                System.nanoTime() - nStartNanos);
+    }
+
+    /**
+     * Render all provided documents and wait until all of them are finished. The stream is consumed
+     * lazily.
+     *
+     * @param aJobs The jobs to render. May not be <code>null</code>.
+     *
+     * @return The summary of this run. Never <code>null</code>.
+     *
+     * @throws InterruptedException If the calling thread was interrupted while waiting
+     * @see #renderAll(Iterator)
+     */
+    @NonNull
+    public PageLayoutPDFBatchResult renderAll(@NonNull final Stream<? extends IPageLayoutPDFBatchJob> aJobs) throws InterruptedException {
+        ValueEnforcer.notNull(aJobs, "Jobs");
+        return renderAll(aJobs.iterator());
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringGenerator(this).append("Executor", m_aExecutor)
+                .appendIfNotNull("ImageEncodingCache", m_aImageEncodingCache)
+                .append("MaxPendingDocuments", m_nMaxPendingDocuments)
+                .getToString();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * The summary of a single {@link PageLayoutPDFBatchRenderer} run.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@Immutable
+public final class PageLayoutPDFBatchResult {
+    private final int m_nSuccessCount;
+    private final int m_nFailureCount;
+    private final long m_nDurationNanos;
+
+    public PageLayoutPDFBatchResult(@Nonnegative final int nSuccessCount,
+                                    @Nonnegative final int nFailureCount,
+                                    @Nonnegative final long nDurationNanos) {
+        m_nSuccessCount = nSuccessCount;
+        m_nFailureCount = nFailureCount;
+        m_nDurationNanos = nDurationNanos;
+    }
+
+    /**
+     * @return The number of documents handled. Always &ge; 0.
+     */
+    @Nonnegative
+    public int getDocumentCount() {
+        return m_nSuccessCount + m_nFailureCount;
+    }
+
+    /**
+     * @return The number of documents rendered successfully. Always &ge; 0.
+     */
+    @Nonnegative
+    public int getSuccessCount() {
+        return m_nSuccessCount;
+    }
+
+    /**
+     * @return The number of documents that could not be rendered. Always &ge; 0.
+     */
+    @Nonnegative
+    public int getFailureCount() {
+        return m_nFailureCount;
+    }
+
+    /**
+     * @return <code>true</code> if all documents were rendered successfully.
+     */
+    public boolean isSuccess() {
+        return m_nFailureCount == 0;
+    }
+
+    /**
+     * @return The wall time of the whole run in nanoseconds. Always &ge; 0.
+     */
+    @Nonnegative
+    public long getDurationNanos() {
+        return m_nDurationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringGenerator(this).append("SuccessCount", m_nSuccessCount)
+                .append("FailureCount", m_nFailureCount)
+                .append("DurationNanos", m_nDurationNanos)
+                .getToString();
+    }
+}
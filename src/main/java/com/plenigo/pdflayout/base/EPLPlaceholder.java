@@ -97,6 +97,24 @@ public enum EPLPlaceholder
     return m_sEstimatedPrepareText;
   }
 
+  /**
+   * Check if the passed key uses the variable syntax <code>${name}</code>, with exactly one
+   * closing brace at the end.
+   *
+   * @param sKey
+   *        The key to check. May be <code>null</code>.
+   * @return <code>true</code> if the key is a variable, <code>false</code> if not.
+   * @since 8.2.0
+   */
+  public static boolean isVariableSyntax (@Nullable final String sKey)
+  {
+    return sKey != null &&
+           sKey.length () >= 3 &&
+           sKey.startsWith ("${") &&
+           sKey.indexOf ('}') == sKey.length () - 1 &&
+           sKey.lastIndexOf ("${") == 0;
+  }
+
   @Nullable
   public static EPLPlaceholder getFromVariableOrNull (@Nullable final String sVariable)
   {
@@ -118,6 +118,19 @@ public interface IPLRenderableObject<IMPLTYPE extends IPLRenderableObject<IMPLTY
         return EChange.UNCHANGED;
     }
 
+    /**
+     * Check if {@link #beforeRender(PagePreRenderContext)} does anything for this object. Only the
+     * element trees that contain at least one object needing it are visited on each page. Contained
+     * elements don't need to be considered here.
+     *
+     * @return <code>true</code> if beforeRender must be called. By default this is the case if
+     * beforeRender is overridden.
+     * @since 8.2.0
+     */
+    default boolean isBeforeRenderNeeded() {
+        return PLBeforeRenderHelper.isBeforeRenderOverridden(getClass(), IPLRenderableObject.class);
+    }
+
     /**
      * Second step: perform. This renders the previously prepared object to the
      * PDF content stream present in the rendering context.
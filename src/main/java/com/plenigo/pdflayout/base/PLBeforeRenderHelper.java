@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.base;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.state.EChange;
+import com.plenigo.pdflayout.render.PagePreRenderContext;
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Helper to find the elements for which
+ * {@link IPLRenderableObject#beforeRender(PagePreRenderContext)} must be called. Most elements
+ * don't do anything in there, so whole element trees can be skipped on each page.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@Immutable
+public final class PLBeforeRenderHelper {
+    // The class that declares the beforeRender method that is effectively used
+    private static final ClassValue<Class<?>> BEFORE_RENDER_DECLARING_CLASS = new ClassValue<>() {
+        @Override
+        protected Class<?> computeValue(final Class<?> aClass) {
+            try {
+                return aClass.getMethod("beforeRender", PagePreRenderContext.class).getDeclaringClass();
+            } catch (final NoSuchMethodException ex) {
+                throw new IllegalStateException("Class " + aClass.getName() + " has no beforeRender method", ex);
+            }
+        }
+    };
+
+    private PLBeforeRenderHelper() {
+    }
+
+    /**
+     * Check if the beforeRender method used by the provided class is another one than the one
+     * declared in the provided base class.
+     *
+     * @param aClass     The class to check. May not be <code>null</code>.
+     * @param aBaseClass The class or interface that declares the beforeRender method that is known.
+     *                   May not be <code>null</code>.
+     *
+     * @return <code>true</code> if the beforeRender method is overridden below the base class.
+     */
+    public static boolean isBeforeRenderOverridden(@NonNull final Class<?> aClass, @NonNull final Class<?> aBaseClass) {
+        return BEFORE_RENDER_DECLARING_CLASS.get(aClass) != aBaseClass;
+    }
+
+    /**
+     * Check if beforeRender must be called on the provided element or on any of the contained
+     * elements.
+     *
+     * @param aElement The element to check. May not be <code>null</code>.
+     *
+     * @return <code>true</code> if the element needs to be visited before rendering.
+     * @see IPLRenderableObject#isBeforeRenderNeeded()
+     */
+    public static boolean isBeforeRenderNeeded(@NonNull final IPLRenderableObject<?> aElement) {
+        final boolean[] aNeeded = {false};
+        try {
+            // Don't return "CHANGED" as this triggers a re-preparation of the parent elements
+            aElement.visit(IPLVisitor.createElementVisitor(x -> {
+                if (!aNeeded[0] && x.isBeforeRenderNeeded())
+                    aNeeded[0] = true;
+                return EChange.UNCHANGED;
+            }));
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return aNeeded[0];
+    }
+}
@@ -19,37 +19,54 @@ package com.plenigo.pdflayout.base;
 import com.helger.annotation.Nonnegative;
 import com.helger.annotation.concurrent.NotThreadSafe;
 import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.concurrent.SimpleLock;
 import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
 import com.helger.base.state.EChange;
 import com.helger.base.string.StringHelper;
 import com.helger.base.string.StringImplode;
 import com.helger.base.tostring.ToStringGenerator;
 import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashSet;
 import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsSet;
 import com.helger.font.open_sans.EFontResourceOpenSans;
 import com.plenigo.pdflayout.PLConvert;
 import com.plenigo.pdflayout.debug.PLDebugLog;
+import com.plenigo.pdflayout.element.image.AbstractPLImage;
+import com.plenigo.pdflayout.element.link.AbstractPLExternalLink;
 import com.plenigo.pdflayout.element.special.PLPageBreak;
+import com.plenigo.pdflayout.element.svg.AbstractPLSvg;
 import com.plenigo.pdflayout.pdfbox.PDPageContentStreamWithCache;
+import com.plenigo.pdflayout.render.ERenderPhase;
 import com.plenigo.pdflayout.render.ERenderingElementType;
 import com.plenigo.pdflayout.render.IPreRenderContextCustomizer;
 import com.plenigo.pdflayout.render.IRenderContextCustomizer;
+import com.plenigo.pdflayout.render.IRenderMetricsListener;
 import com.plenigo.pdflayout.render.PLRenderHelper;
 import com.plenigo.pdflayout.render.PagePreRenderContext;
 import com.plenigo.pdflayout.render.PageRenderContext;
 import com.plenigo.pdflayout.render.PreparationContext;
 import com.plenigo.pdflayout.render.PreparationContextGlobal;
 import com.plenigo.pdflayout.spec.BorderSpec;
+import com.plenigo.pdflayout.spec.FontSpec;
+import com.plenigo.pdflayout.spec.LoadedFont;
 import com.plenigo.pdflayout.spec.MarginSpec;
 import com.plenigo.pdflayout.spec.PaddingSpec;
 import com.plenigo.pdflayout.spec.PreloadFont;
 import com.plenigo.pdflayout.spec.SizeSpec;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentHelper;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.graphics.blend.BlendMode;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
 import org.apache.pdfbox.util.Matrix;
 import org.jspecify.annotations.NonNull;
@@ -57,9 +74,18 @@ import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.awt.Color;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 /**
  * Represents a single page layout as element. It consists of a page size, a page header and footer
@@ -73,6 +99,11 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
         IPLHasFillColor<PLPageSet> {
     public static final boolean DEFAULT_DIFFERENT_FIRST_PAGE_HEADER = false;
     public static final boolean DEFAULT_DIFFERENT_FIRST_PAGE_FOOTER = false;
+    public static final boolean DEFAULT_SHARE_STATIC_HEADER_FOOTER = false;
+    private static final float WATER_MARK_FONT_SIZE = 32;
+    // The maximum number of pages rendered concurrently before they are attached to the document
+    private static final int CONCURRENT_RENDER_WINDOW_SIZE = 64;
+    private static final PLColor WATER_MARK_COLOR = new PLColor(220, 227, 239);
     private static final Logger LOGGER = LoggerFactory.getLogger(PLPageSet.class);
 
     private final SizeSpec m_aPageSize;
@@ -98,6 +129,7 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
     private IRenderContextCustomizer m_aRCCustomizer;
 
     private IPLRenderableObject<?> m_aFirstPageBackgroundHeader;
+    private boolean m_bShareStaticHeaderFooter = DEFAULT_SHARE_STATIC_HEADER_FOOTER;
     private boolean m_bFoldMark;
     private String m_sWaterMark;
     private final PreloadFont m_FontLight;
@@ -535,6 +567,36 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
         return this;
     }
 
+    /**
+     * @return <code>true</code> if page independent page headers and footers are rendered only once
+     * into a shared Form XObject, <code>false</code> if they are rendered on every page.
+     *
+     * @since 8.2.0
+     */
+    public boolean isShareStaticHeaderFooter() {
+        return m_bShareStaticHeaderFooter;
+    }
+
+    /**
+     * Enable/disable rendering page headers and footers only once into a Form XObject that is
+     * referenced from every page. This reduces the size of the page content streams and the render
+     * time of long documents. Headers and footers containing texts with placeholders, links or
+     * elements with a custom beforeRender are still rendered on every page. If a render context customizer is present, this setting is
+     * ignored.
+     *
+     * @param bShareStaticHeaderFooter <code>true</code> to share page independent headers and footers
+     *
+     * @return this for chaining
+     *
+     * @see #setRenderContextCustomizer(IRenderContextCustomizer)
+     * @since 8.2.0
+     */
+    @NonNull
+    public PLPageSet setShareStaticHeaderFooter(final boolean bShareStaticHeaderFooter) {
+        m_bShareStaticHeaderFooter = bShareStaticHeaderFooter;
+        return this;
+    }
+
     /**
      * @return <code>true</code> if a global fold mark is present,
      * <code>false</code> if not.
@@ -710,8 +772,13 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
         // Prepare only once!
         internalCheckNoPrepared();
 
+        // Only measure if someone is interested
+        final boolean bMeasure = aGlobalCtx.getMetricsListener() != null;
+        long nStartNanos = bMeasure ? System.nanoTime() : 0;
+
         // The result element
         final PLPageSetPrepareResult ret = new PLPageSetPrepareResult();
+        ret.setGlobalContext(aGlobalCtx);
 
         // By default first page is identical to all other pages
         final PLMarginBorderPadding aFirstPageMBP = new PLMarginBorderPadding(m_aMargin, m_aPadding, m_aBorder);
@@ -893,15 +960,27 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
             // Prepare content elements
             // Must be done after header and footer, because the pageset margins may
             // have been adopted!
-            for (final IPLRenderableObject<?> aElement : m_aElements) {
-                final PreparationContext aRPC = new PreparationContext(aGlobalCtx, fAvailWidth, fAvailHeight);
-                final SizeSpec aElementPreparedSize = aElement.prepare(aRPC);
-                ret.addElement(new PLElementWithSize(aElement, aElementPreparedSize));
-            }
+            // All elements use the same available size and are therefore independent of each
+            // other, so they may be prepared concurrently if a prepare executor is present
+            final ICommonsList<Supplier<PLElementWithSize>> aPrepareTasks = new CommonsArrayList<>(m_aElements.size());
+            for (final IPLRenderableObject<?> aElement : m_aElements)
+                aPrepareTasks.add(() -> {
+                    final PreparationContext aRPC = new PreparationContext(aGlobalCtx, fAvailWidth, fAvailHeight);
+                    final SizeSpec aElementPreparedSize = aElement.prepare(aRPC);
+                    return new PLElementWithSize(aElement, aElementPreparedSize);
+                });
+            for (final PLElementWithSize aElementWithSize : aGlobalCtx.getAllResultsInOrder(aPrepareTasks))
+                ret.addElement(aElementWithSize);
             if (PLDebugLog.isDebugPrepare())
                 PLDebugLog.debugPrepare(this, "Finished preparing elements");
         }
 
+        if (bMeasure) {
+            final long nNowNanos = System.nanoTime();
+            ret.setPrepareNanos(nNowNanos - nStartNanos);
+            nStartNanos = nNowNanos;
+        }
+
         // Split into pieces that fit onto a page
         // final float fYTop = getYTop ();
         // final float fYLeast = getOutlineBottom ();
@@ -914,11 +993,13 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
             // Start at the top of the first page
             float fCurY = _getYTop(aFirstPageMBP);
 
-            // Create a copy of the list, so that we can safely modify it
-            final ICommonsList<PLElementWithSize> aElementsWithSize = ret.getAllElements();
-            while (aElementsWithSize.isNotEmpty()) {
+            // Use a deque as the work list, so that taking the first element and
+            // re-adding split pieces at the front is O(1) and the whole pagination
+            // stays linear in the number of elements
+            final Deque<PLElementWithSize> aElementsWithSize = new ArrayDeque<>(ret.getAllElements());
+            while (!aElementsWithSize.isEmpty()) {
                 // Use the first element
-                final PLElementWithSize aElementWithSize = aElementsWithSize.remove(0);
+                final PLElementWithSize aElementWithSize = aElementsWithSize.removeFirst();
                 final IPLRenderableObject<?> aElement = aElementWithSize.getElement();
 
                 boolean bIsPagebreakDesired = aElement instanceof PLPageBreak;
@@ -953,10 +1034,11 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
                             if (fSplitHeight <= 0)
                                 assert !aSplitResult.getSplitResultType().isSplit();
                             if (aSplitResult.getSplitResultType().isSplit()) {
+                                ret.incSplitCount();
                                 // Re-add them to the list and try again (they may be splitted
                                 // recursively)
-                                aElementsWithSize.add(0, aSplitResult.getFirstElement());
-                                aElementsWithSize.add(1, aSplitResult.getSecondElement());
+                                aElementsWithSize.addFirst(aSplitResult.getSecondElement());
+                                aElementsWithSize.addFirst(aSplitResult.getFirstElement());
                                 if (PLDebugLog.isDebugSplit()) {
                                     PLDebugLog.debugSplit(this,
                                             "Split " +
@@ -1025,7 +1107,7 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
                         aCurPageElements = new CommonsArrayList<>();
 
                         // Re-add element and continue from start, so that splitting happens
-                        aElementsWithSize.add(0, aElementWithSize);
+                        aElementsWithSize.addFirst(aElementWithSize);
 
                         // We have surely left the first page
                         // Start at the top again
@@ -1061,6 +1143,9 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
                 PLDebugLog.debugSplit(this, "Finished splitting elements");
         }
 
+        if (bMeasure)
+            ret.setPaginateNanos(System.nanoTime() - nStartNanos);
+
         // Remember at the end
         m_bPrepared = true;
         m_aPrepareResult = ret;
@@ -1068,7 +1153,505 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
     }
 
     /**
-     * Render all pages of this layout to the specified PDDocument
+     * Create the Form XObject with the water mark text. The text is repeated, so that it fills the
+     * whole page diagonal. The font is loaded via the global context, so that it is only embedded
+     * once per document.
+     *
+     * @param aGlobalCtx   The global context of the document. May not be <code>null</code>.
+     * @param aPage        The page that is currently rendered. May not be <code>null</code>.
+     * @param bCompressPDF <code>true</code> to compress the content stream of the form
+     *
+     * @return The created Form XObject. Never <code>null</code>.
+     *
+     * @throws IOException on PDFBox error
+     */
+    @NonNull
+    private PDFormXObject _createWaterMarkForm(@NonNull final PreparationContextGlobal aGlobalCtx,
+                                               @NonNull final PDPage aPage,
+                                               final boolean bCompressPDF) throws IOException {
+        final FontSpec aFontSpec = new FontSpec(m_FontNormal, WATER_MARK_FONT_SIZE, WATER_MARK_COLOR);
+        final LoadedFont aLoadedFont = aGlobalCtx.getLoadedFont(aFontSpec);
+
+        // Double the text 10 times, and calculate the width alongside
+        final String sSeparator = "  ";
+        final float fSeparatorWidth = aLoadedFont.getStringWidth(sSeparator, WATER_MARK_FONT_SIZE);
+        String sWaterMark = m_sWaterMark;
+        float fStringWidth = aLoadedFont.getStringWidth(sWaterMark, WATER_MARK_FONT_SIZE);
+        for (int i = 0; i < 10; i++) {
+            sWaterMark += sSeparator + sWaterMark;
+            fStringWidth = 2 * fStringWidth + fSeparatorWidth;
+        }
+
+        final PDDocument aDoc = aGlobalCtx.getDocument();
+        final float fWidth = m_aPageSize.getWidth();
+        final float fHeight = m_aPageSize.getHeight();
+        final PDFormXObject aForm = new PDFormXObject(aDoc);
+        aForm.setBBox(new PDRectangle(fWidth, fHeight));
+
+        final PDPageContentStreamWithCache aCS = new PDPageContentStreamWithCache(aDoc, aPage, aForm, bCompressPDF);
+        aCS.setFractionDigits(aGlobalCtx.getOutputPrecision());
+        aCS.setCompactTextOperators(aGlobalCtx.isCompactTextOperators());
+        try {
+            final float fDiagonalLength = (float) Math.sqrt(fWidth * fWidth + fHeight * fHeight);
+            // "horizontal" position in rotated world
+            final float fX = (fDiagonalLength - fStringWidth) / 2;
+            // 4 is a trial-and-error thing, this lowers the text a bit
+            final float fY = -WATER_MARK_FONT_SIZE / 4;
+
+            aCS.getContentStream().transform(Matrix.getRotateInstance(0.8, fWidth / 2, fHeight / 2));
+
+            final PDExtendedGraphicsState aGS = new PDExtendedGraphicsState();
+            aGS.setBlendMode(BlendMode.MULTIPLY);
+            aGS.setLineWidth(3f);
+            aCS.getContentStream().setGraphicsStateParameters(aGS);
+
+            // Sets the non stroking color as well
+            aCS.setFont(aLoadedFont, aFontSpec);
+            aCS.setStrokingColor(WATER_MARK_COLOR);
+
+            aCS.beginText();
+            aCS.moveTextPositionByAmount(fX, fY);
+            aCS.drawString(sWaterMark);
+            aCS.endText();
+        } finally {
+            aCS.close();
+        }
+
+        if (PLDebugLog.isDebugRender())
+            PLDebugLog.debugRender(this, "Created water mark Form XObject");
+        return aForm;
+    }
+
+    /**
+     * A Form XObject that contains a rendered page header or footer, together with the position it
+     * was rendered at.
+     */
+    private static final class SharedHeaderFooterForm {
+        private final boolean m_bPageIndependent;
+        private PDFormXObject m_aForm;
+        private float m_fStartLeft;
+        private float m_fStartTop;
+        private float m_fWidth;
+        private float m_fHeight;
+
+        SharedHeaderFooterForm(final boolean bPageIndependent) {
+            m_bPageIndependent = bPageIndependent;
+        }
+
+        boolean isUsableFor(final float fStartLeft, final float fStartTop, final float fWidth, final float fHeight) {
+            return m_aForm != null &&
+                    m_fStartLeft == fStartLeft &&
+                    m_fStartTop == fStartTop &&
+                    m_fWidth == fWidth &&
+                    m_fHeight == fHeight;
+        }
+
+        void setForm(@NonNull final PDFormXObject aForm,
+                     final float fStartLeft,
+                     final float fStartTop,
+                     final float fWidth,
+                     final float fHeight) {
+            m_aForm = aForm;
+            m_fStartLeft = fStartLeft;
+            m_fStartTop = fStartTop;
+            m_fWidth = fWidth;
+            m_fHeight = fHeight;
+        }
+    }
+
+    /**
+     * The content of a single page that was rendered into a buffer.
+     */
+    private static final class RenderedPageContent {
+        private final byte[] m_aContent;
+        private final ICommonsSet<PDFont> m_aFontsToSubset;
+
+        RenderedPageContent(@NonNull final byte[] aContent, @NonNull final ICommonsSet<PDFont> aFontsToSubset) {
+            m_aContent = aContent;
+            m_aFontsToSubset = aFontsToSubset;
+        }
+
+        void setAsContent(@NonNull final PDDocument aDoc,
+                          @NonNull final PDPage aPage,
+                          final boolean bCompressed) throws IOException {
+            final PDStream aContents = new PDStream(aDoc);
+            final COSStream aStream = aContents.getCOSObject();
+            if (bCompressed) {
+                // The content is already compressed
+                aStream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+                try (final OutputStream aOS = aStream.createRawOutputStream()) {
+                    aOS.write(m_aContent);
+                }
+            } else {
+                try (final OutputStream aOS = aStream.createOutputStream()) {
+                    aOS.write(m_aContent);
+                }
+            }
+            aPage.setContents(aContents);
+
+            for (final PDFont aFont : m_aFontsToSubset)
+                PDDocumentHelper.handleFontSubset(aDoc, aFont);
+        }
+    }
+
+    /**
+     * Check if beforeRender of the provided element does the same on every page. The predefined
+     * images and SVGs only create their XObject there, which is shared within the document anyway.
+     *
+     * @param aElement The element to check. May not be <code>null</code>.
+     *
+     * @return <code>true</code> if beforeRender does not depend on the page.
+     */
+    private static boolean _isBeforeRenderPageIndependent(@NonNull final IPLRenderableObject<?> aElement) {
+        if (aElement instanceof AbstractPLImage<?>)
+            return !PLBeforeRenderHelper.isBeforeRenderOverridden(aElement.getClass(), AbstractPLImage.class);
+        if (aElement instanceof AbstractPLSvg<?>)
+            return !PLBeforeRenderHelper.isBeforeRenderOverridden(aElement.getClass(), AbstractPLSvg.class);
+        return false;
+    }
+
+    /**
+     * Check if the provided element renders the same on every page. Elements that need beforeRender
+     * (like texts with placeholders or elements with a custom beforeRender) may differ per page and
+     * links add annotations to the page itself.
+     *
+     * @param aElement The element to check. May not be <code>null</code>.
+     *
+     * @return <code>true</code> if the element can be rendered once and shared between pages.
+     *
+     * @throws IOException on PDFBox error
+     */
+    private static boolean _isPageIndependent(@NonNull final IPLRenderableObject<?> aElement) throws IOException {
+        final boolean[] aPageDependent = {false};
+        // Don't return "CHANGED" as this triggers a re-preparation of the parent elements
+        aElement.visit(IPLVisitor.createElementVisitor(x -> {
+            if (x instanceof AbstractPLExternalLink<?>)
+                aPageDependent[0] = true;
+            else if (x.isBeforeRenderNeeded() && !_isBeforeRenderPageIndependent(x))
+                aPageDependent[0] = true;
+            return EChange.UNCHANGED;
+        }));
+        return !aPageDependent[0];
+    }
+
+    private void _renderHeaderOrFooter(@NonNull final IPLRenderableObject<?> aElement,
+                                       @NonNull final ERenderingElementType eElementType,
+                                       @NonNull final PDPageContentStreamWithCache aContentStream,
+                                       final float fStartLeft,
+                                       final float fStartTop,
+                                       final float fWidth,
+                                       final float fHeight,
+                                       @Nullable final Map<IPLRenderableObject<?>, SharedHeaderFooterForm> aSharedForms,
+                                       @Nullable final Lock aSharedFormsLock,
+                                       final boolean bCompressPDF) throws IOException {
+        if (aSharedForms != null) {
+            final PDFormXObject aSharedForm;
+            if (aSharedFormsLock == null)
+                aSharedForm = _getOrCreateSharedForm(aElement,
+                        eElementType,
+                        aContentStream,
+                        fStartLeft,
+                        fStartTop,
+                        fWidth,
+                        fHeight,
+                        aSharedForms,
+                        bCompressPDF);
+            else {
+                // Pages are rendered concurrently
+                aSharedFormsLock.lock();
+                try {
+                    aSharedForm = _getOrCreateSharedForm(aElement,
+                            eElementType,
+                            aContentStream,
+                            fStartLeft,
+                            fStartTop,
+                            fWidth,
+                            fHeight,
+                            aSharedForms,
+                            bCompressPDF);
+                } finally {
+                    aSharedFormsLock.unlock();
+                }
+            }
+            if (aSharedForm != null) {
+                aContentStream.drawFormXObject(aSharedForm);
+                return;
+            }
+        }
+
+        final PageRenderContext aRCtx = new PageRenderContext(eElementType,
+                aContentStream,
+                fStartLeft,
+                fStartTop,
+                fWidth,
+                fHeight);
+        if (m_aRCCustomizer != null)
+            m_aRCCustomizer.customizeRenderContext(aRCtx);
+        aElement.render(aRCtx);
+    }
+
+    /**
+     * @return The shared Form XObject to draw or <code>null</code> if the element is page
+     * dependent.
+     */
+    @Nullable
+    private PDFormXObject _getOrCreateSharedForm(@NonNull final IPLRenderableObject<?> aElement,
+                                                 @NonNull final ERenderingElementType eElementType,
+                                                 @NonNull final PDPageContentStreamWithCache aContentStream,
+                                                 final float fStartLeft,
+                                                 final float fStartTop,
+                                                 final float fWidth,
+                                                 final float fHeight,
+                                                 @NonNull final Map<IPLRenderableObject<?>, SharedHeaderFooterForm> aSharedForms,
+                                                 final boolean bCompressPDF) throws IOException {
+        SharedHeaderFooterForm aShared = aSharedForms.get(aElement);
+        if (aShared == null) {
+            aShared = new SharedHeaderFooterForm(_isPageIndependent(aElement));
+            aSharedForms.put(aElement, aShared);
+        }
+
+        if (!aShared.m_bPageIndependent)
+            return null;
+
+        if (!aShared.isUsableFor(fStartLeft, fStartTop, fWidth, fHeight)) {
+            // Render once into a Form XObject covering the whole page
+            final PDDocument aDoc = aContentStream.getDocument();
+            final PDFormXObject aForm = new PDFormXObject(aDoc);
+            aForm.setBBox(new PDRectangle(m_aPageSize.getWidth(), m_aPageSize.getHeight()));
+            final PDPageContentStreamWithCache aFormStream = new PDPageContentStreamWithCache(aDoc,
+                    aContentStream.getPage(),
+                    aForm,
+                    bCompressPDF);
+            aFormStream.setFractionDigits(aContentStream.getFractionDigits());
+            aFormStream.setCompactTextOperators(aContentStream.isCompactTextOperators());
+            try {
+                aElement.render(new PageRenderContext(eElementType,
+                        aFormStream,
+                        fStartLeft,
+                        fStartTop,
+                        fWidth,
+                        fHeight));
+            } finally {
+                aFormStream.close();
+            }
+            aShared.setForm(aForm, fStartLeft, fStartTop, fWidth, fHeight);
+
+            if (PLDebugLog.isDebugRender())
+                PLDebugLog.debugRender(this, "Rendered " + eElementType + " into a shared Form XObject");
+        }
+        return aShared.m_aForm;
+    }
+
+    private void _renderPageContent(@NonNull final PDPageContentStreamWithCache aContentStream,
+                                    @NonNull final PLPageSetPrepareResult aPrepareResult,
+                                    @NonNull final ICommonsList<PLElementWithSize> aPerPage,
+                                    @Nonnegative final int nPageIndex,
+                                    @NonNull final IPLHasMarginBorderPadding<?> aMBP,
+                                    @Nullable final IPLRenderableObject<?> aPageHeader,
+                                    @Nullable final IPLRenderableObject<?> aPageFooter,
+                                    @Nullable final PDFormXObject aWaterMarkForm,
+                                    @Nullable final Map<IPLRenderableObject<?>, SharedHeaderFooterForm> aSharedForms,
+                                    @Nullable final Lock aSharedFormsLock,
+                                    final boolean bCompressPDF) throws IOException {
+        // Page rect before content - debug: red
+        {
+            final float fLeft = 0 + aMBP.getMarginLeft();
+            final float fTop = m_aPageSize.getHeight() - aMBP.getMarginTop();
+            final float fWidth = m_aPageSize.getWidth() - aMBP.getMarginXSum();
+            final float fHeight = m_aPageSize.getHeight() - aMBP.getMarginYSum();
+
+            PLRenderHelper.fillAndRenderBorder(this, fLeft, fTop, fWidth, fHeight, aContentStream);
+        }
+        // Start with the page rectangle
+        if (aPageHeader != null) {
+            // Page header does not care about page padding
+            // header top-left
+            final float fStartLeft = aMBP.getMarginLeft();
+            final float fStartTop = m_aPageSize.getHeight();
+            final float fWidth = m_aPageSize.getWidth() - aMBP.getMarginXSum();
+            final float fHeight = aPrepareResult.getHeaderHeight(nPageIndex);
+            _renderHeaderOrFooter(aPageHeader,
+                    ERenderingElementType.PAGE_HEADER,
+                    aContentStream,
+                    fStartLeft,
+                    fStartTop,
+                    fWidth,
+                    fHeight,
+                    aSharedForms,
+                    aSharedFormsLock,
+                    bCompressPDF);
+        }
+        // Start with the page rectangle
+        if (nPageIndex == 0 && m_aFirstPageBackgroundHeader != null) {
+            // Page header does not care about page padding
+            // header top-left
+            final float fStartLeft = aMBP.getMarginLeft();
+            final float fStartTop = m_aPageSize.getHeight();
+            final float fWidth = m_aPageSize.getWidth() - aMBP.getMarginXSum();
+            final float fHeight = aPrepareResult.getHeaderHeight(nPageIndex);
+            final PageRenderContext aRCtx = new PageRenderContext(ERenderingElementType.PAGE_HEADER,
+                    aContentStream,
+                    fStartLeft,
+                    fStartTop,
+                    fWidth,
+                    fHeight);
+            if (m_aRCCustomizer != null)
+                m_aRCCustomizer.customizeRenderContext(aRCtx);
+            m_aFirstPageBackgroundHeader.render(aRCtx);
+        }
+
+        // Start at the left top
+        final float fXLeft = getOutlineLeft();
+        float fCurY = _getYTop(aMBP);
+        for (final PLElementWithSize aElementWithHeight : aPerPage) {
+            final IPLRenderableObject<?> aElement = aElementWithHeight.getElement();
+            // Get element extent
+            final float fStartLeft = fXLeft;
+            final float fStartTop = fCurY;
+            final float fWidth = _getAvailableWidth(aMBP);
+            final float fHeight = aElementWithHeight.getHeightFull();
+
+            final PageRenderContext aRCtx = new PageRenderContext(ERenderingElementType.CONTENT_ELEMENT,
+                    aContentStream,
+                    fStartLeft,
+                    fStartTop,
+                    fWidth,
+                    fHeight);
+            if (m_aRCCustomizer != null)
+                m_aRCCustomizer.customizeRenderContext(aRCtx);
+            aElement.render(aRCtx);
+
+            // In
+            fCurY -= aElementWithHeight.getHeightFull();
+        }
+        if (aPageFooter != null) {
+            // Page footer does not care about page padding
+            // footer top-left
+            final float fStartLeft = aMBP.getMarginLeft();
+            final float fStartTop = aMBP.getMarginBottom();
+            final float fWidth = m_aPageSize.getWidth() - aMBP.getMarginXSum();
+            final float fHeight = aPrepareResult.getFooterHeight(nPageIndex);
+            _renderHeaderOrFooter(aPageFooter,
+                    ERenderingElementType.PAGE_FOOTER,
+                    aContentStream,
+                    fStartLeft,
+                    fStartTop,
+                    fWidth,
+                    fHeight,
+                    aSharedForms,
+                    aSharedFormsLock,
+                    bCompressPDF);
+        }
+
+        if (aWaterMarkForm != null)
+            aContentStream.drawFormXObject(aWaterMarkForm);
+    }
+
+    @NonNull
+    private RenderedPageContent _renderPageContentToBuffer(@NonNull final PDDocument aDoc,
+                                                           @NonNull final PDPage aPage,
+                                                           @NonNull final PLPageSetPrepareResult aPrepareResult,
+                                                           @NonNull final ICommonsList<PLElementWithSize> aPerPage,
+                                                           @Nonnegative final int nPageIndex,
+                                                           @NonNull final IPLHasMarginBorderPadding<?> aMBP,
+                                                           @Nullable final IPLRenderableObject<?> aPageHeader,
+                                                           @Nullable final IPLRenderableObject<?> aPageFooter,
+                                                           @Nullable final PDFormXObject aWaterMarkForm,
+                                                           @Nullable final Map<IPLRenderableObject<?>, SharedHeaderFooterForm> aSharedForms,
+                                                           @NonNull final Lock aSharedFormsLock,
+                                                           final boolean bCompressPDF,
+                                                           @Nonnegative final int nOutputPrecision,
+                                                           final boolean bCompactTextOperators) throws IOException {
+        final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream();
+        final ICommonsSet<PDFont> aFontsToSubset = new CommonsHashSet<>();
+        // Compress on the current thread, so that this is done concurrently as well
+        final Deflater aDeflater = bCompressPDF ? new Deflater(Deflater.DEFAULT_COMPRESSION) : null;
+        try {
+            final OutputStream aOS = aDeflater == null ? aBAOS : new DeflaterOutputStream(aBAOS, aDeflater);
+            final PDPageContentStreamWithCache aContentStream = new PDPageContentStreamWithCache(aDoc,
+                    aPage,
+                    aOS,
+                    aFontsToSubset);
+            aContentStream.setFractionDigits(nOutputPrecision);
+            aContentStream.setCompactTextOperators(bCompactTextOperators);
+            try {
+                _renderPageContent(aContentStream,
+                        aPrepareResult,
+                        aPerPage,
+                        nPageIndex,
+                        aMBP,
+                        aPageHeader,
+                        aPageFooter,
+                        aWaterMarkForm,
+                        aSharedForms,
+                        aSharedFormsLock,
+                        bCompressPDF);
+            } finally {
+                aContentStream.close();
+            }
+        } finally {
+            if (aDeflater != null)
+                aDeflater.end();
+        }
+        return new RenderedPageContent(aBAOS.toByteArray(), aFontsToSubset);
+    }
+
+    private void _renderConcurrently(@NonNull final PreparationContextGlobal aGlobalCtx,
+                                     @NonNull final ICommonsList<Supplier<RenderedPageContent>> aRenderTasks,
+                                     @NonNull final ICommonsList<PDPage> aPages,
+                                     final boolean bCompressPDF) throws IOException {
+        // Create the content of all pages concurrently and attach it in page order
+        final ICommonsList<RenderedPageContent> aContents;
+        try {
+            aContents = aGlobalCtx.getAllRenderResultsInOrder(aRenderTasks);
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        final PDDocument aDoc = aGlobalCtx.getDocument();
+        for (int i = 0; i < aContents.size(); ++i) {
+            final PDPage aPage = aPages.get(i);
+            aContents.get(i).setAsContent(aDoc, aPage, bCompressPDF);
+            _renderFoldMark(aDoc, aPage);
+        }
+        aRenderTasks.clear();
+        aPages.clear();
+    }
+
+    private void _renderFoldMark(@NonNull final PDDocument aDoc, @NonNull final PDPage aPage) throws IOException {
+        if (this.isFoldMark()) {
+            try (PDPageContentStream cs = new PDPageContentStream(aDoc, aPage, PDPageContentStream.AppendMode.APPEND, true, true)) {
+                cs.moveTo(0, PLConvert.mm2units(192f));
+                cs.lineTo(10, PLConvert.mm2units(192f));
+                cs.stroke();
+            }
+        }
+    }
+
+    /**
+     * Check if the content of the pages can be rendered concurrently. Page headers and footers are
+     * the only elements that are rendered on more than one page, so they must not depend on the
+     * page. This especially excludes elements that keep per page state from beforeRender, as the
+     * same element would be rendered for multiple pages at the same time.
+     *
+     * @return <code>true</code> if the page content can be rendered concurrently.
+     *
+     * @throws IOException on visitation error
+     */
+    private boolean _isRenderableConcurrently() throws IOException {
+        if (m_aPageHeader != null && !_isPageIndependent(m_aPageHeader))
+            return false;
+        if (m_aPageFooter != null && !_isPageIndependent(m_aPageFooter))
+            return false;
+        return true;
+    }
+
+    /**
+     * Render all pages of this layout to the specified PDDocument. If the page set was prepared with
+     * a global context of the same PDDocument, that context is used, so that resources like images
+     * are shared with all other page sets prepared with it. Otherwise a new global context is
+     * created and nothing is shared with other page sets - use
+     * {@link #renderAllPages(PLPageSetPrepareResult, PreparationContextGlobal, boolean, int, int, int, int)}
+     * in that case.
      *
      * @param aPrepareResult       The preparation result. May not be <code>null</code>.
      * @param aDoc                 The PDDocument. May not be <code>null</code>.
@@ -1087,11 +1670,70 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
                                @Nonnegative final int nPageSetCount,
                                @Nonnegative final int nTotalPageStartIndex,
                                @Nonnegative final int nTotalPageCount) throws IOException {
+        renderAllPages(aPrepareResult,
+                aPrepareResult.getOrCreateGlobalContext(aDoc),
+                bCompressPDF,
+                nPageSetIndex,
+                nPageSetCount,
+                nTotalPageStartIndex,
+                nTotalPageCount);
+    }
+
+    /**
+     * Render all pages of this layout to the PDDocument of the provided global context. Resources
+     * like images are shared via the global context between all pages and all page sets rendered
+     * with the same context.
+     *
+     * @param aPrepareResult       The preparation result. May not be <code>null</code>.
+     * @param aGlobalCtx           The global context of the PDDocument. May not be
+     *                             <code>null</code>.
+     * @param bCompressPDF         <code>true</code> for create enflated PDF content
+     * @param nPageSetIndex        Page set index. Always &ge; 0.
+     * @param nPageSetCount        Page set count. Always &ge; 1.
+     * @param nTotalPageStartIndex Total page index. Always &ge; 0.
+     * @param nTotalPageCount      Total page count. Always &ge; 1.
+     *
+     * @throws IOException In case of render errors
+     * @since 8.2.0
+     */
+    public void renderAllPages(@NonNull final PLPageSetPrepareResult aPrepareResult,
+                               @NonNull final PreparationContextGlobal aGlobalCtx,
+                               final boolean bCompressPDF,
+                               @Nonnegative final int nPageSetIndex,
+                               @Nonnegative final int nPageSetCount,
+                               @Nonnegative final int nTotalPageStartIndex,
+                               @Nonnegative final int nTotalPageCount) throws IOException {
+        final PDDocument aDoc = aGlobalCtx.getDocument();
         if (!m_bPrepared)
             throw new IllegalStateException("Cannot render PageSet that is not prepared");
 
-        // Start at the left top
-        final float fXLeft = getOutlineLeft();
+        // The Form XObjects of page independent headers and footers (if enabled)
+        final Map<IPLRenderableObject<?>, SharedHeaderFooterForm> aSharedForms = m_bShareStaticHeaderFooter &&
+                m_aRCCustomizer == null ? new IdentityHashMap<>() : null;
+
+        final boolean bHasWaterMark = StringHelper.hasText(m_sWaterMark);
+        PDFormXObject aWaterMarkForm = null;
+
+        // Render the content of the pages concurrently if possible and desired. "beforeRender" is
+        // still called in page order on the calling thread
+        final boolean bRenderConcurrently = aGlobalCtx.getRenderExecutor() != null && _isRenderableConcurrently();
+        final ICommonsList<Supplier<RenderedPageContent>> aRenderTasks = new CommonsArrayList<>();
+        final ICommonsList<PDPage> aConcurrentPages = new CommonsArrayList<>();
+        final Lock aSharedFormsLock = bRenderConcurrently ? new SimpleLock() : null;
+        final int nOutputPrecision = aGlobalCtx.getOutputPrecision();
+        final boolean bCompactTextOperators = aGlobalCtx.isCompactTextOperators();
+
+        // Only measure if someone is interested
+        final IRenderMetricsListener aMetricsListener = aGlobalCtx.getMetricsListener();
+        final long nRenderStartNanos = aMetricsListener == null ? 0 : System.nanoTime();
+        final int[] aBeforeRenderCount = new int[1];
+        long nBeforeRenderNanos = 0;
+
+        // Header and footer are the same on all pages, so check them only once
+        final boolean bPageHeaderBeforeRender = m_aPageHeader != null &&
+                PLBeforeRenderHelper.isBeforeRenderNeeded(m_aPageHeader);
+        final boolean bPageFooterBeforeRender = m_aPageFooter != null &&
+                PLBeforeRenderHelper.isBeforeRenderNeeded(m_aPageFooter);
 
         int nPageIndex = 0;
         final int nPageCount = aPrepareResult.getPageCount();
@@ -1119,7 +1761,7 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
                     : m_aPageFooter;
             {
                 final PagePreRenderContext aPreRenderCtx = new PagePreRenderContext(this,
-                        aDoc,
+                        aGlobalCtx,
                         aPage,
                         nPageSetIndex,
                         nPageSetCount,
@@ -1131,155 +1773,112 @@ public class PLPageSet extends AbstractPLObject<PLPageSet> implements
                     m_aPRCCustomizer.customizePreRenderContext(aPreRenderCtx);
 
                 // Call "beforeRender" on all elements
-                final IPLVisitor aVisitor = IPLVisitor.createElementVisitor(x -> x.beforeRender(aPreRenderCtx));
-
-                if (aPageHeader != null)
-                    aPageHeader.visit(aVisitor);
-
-                if (aPageFooter != null)
-                    aPageFooter.visit(aVisitor);
-
-                for (final PLElementWithSize aElementWithHeight : aPerPage)
-                    aElementWithHeight.getElement().visit(aVisitor);
-            }
-            final PDPageContentStreamWithCache aContentStream = new PDPageContentStreamWithCache(aDoc,
-                    aPage,
-                    PDPageContentStream.AppendMode.OVERWRITE,
-                    bCompressPDF);
-            try {
-                // Page rect before content - debug: red
-                {
-                    final float fLeft = 0 + aMBP.getMarginLeft();
-                    final float fTop = m_aPageSize.getHeight() - aMBP.getMarginTop();
-                    final float fWidth = m_aPageSize.getWidth() - aMBP.getMarginXSum();
-                    final float fHeight = m_aPageSize.getHeight() - aMBP.getMarginYSum();
-
-                    PLRenderHelper.fillAndRenderBorder(this, fLeft, fTop, fWidth, fHeight, aContentStream);
-                }
-                // Start with the page rectangle
+                final long nBeforeRenderStartNanos = aMetricsListener == null ? 0 : System.nanoTime();
+                final IPLVisitor aVisitor;
+                if (aMetricsListener == null)
+                    aVisitor = IPLVisitor.createElementVisitor(x -> x.beforeRender(aPreRenderCtx));
+                else
+                    aVisitor = IPLVisitor.createElementVisitor(x -> {
+                        aBeforeRenderCount[0]++;
+                        return x.beforeRender(aPreRenderCtx);
+                    });
+
+                // Only the element trees that contain elements that need it
                 if (aPageHeader != null) {
-                    // Page header does not care about page padding
-                    // header top-left
-                    final float fStartLeft = aMBP.getMarginLeft();
-                    final float fStartTop = m_aPageSize.getHeight();
-                    final float fWidth = m_aPageSize.getWidth() - aMBP.getMarginXSum();
-                    final float fHeight = aPrepareResult.getHeaderHeight(nPageIndex);
-                    final PageRenderContext aRCtx = new PageRenderContext(ERenderingElementType.PAGE_HEADER,
-                            aContentStream,
-                            fStartLeft,
-                            fStartTop,
-                            fWidth,
-                            fHeight);
-                    if (m_aRCCustomizer != null)
-                        m_aRCCustomizer.customizeRenderContext(aRCtx);
-                    aPageHeader.render(aRCtx);
-                }
-                // Start with the page rectangle
-                if (bFirstPage && m_aFirstPageBackgroundHeader != null) {
-                    // Page header does not care about page padding
-                    // header top-left
-                    final float fStartLeft = aMBP.getMarginLeft();
-                    final float fStartTop = m_aPageSize.getHeight();
-                    final float fWidth = m_aPageSize.getWidth() - aMBP.getMarginXSum();
-                    final float fHeight = aPrepareResult.getHeaderHeight(nPageIndex);
-                    final PageRenderContext aRCtx = new PageRenderContext(ERenderingElementType.PAGE_HEADER,
-                            aContentStream,
-                            fStartLeft,
-                            fStartTop,
-                            fWidth,
-                            fHeight);
-                    if (m_aRCCustomizer != null)
-                        m_aRCCustomizer.customizeRenderContext(aRCtx);
-                    m_aFirstPageBackgroundHeader.render(aRCtx);
+                    if (aPageHeader == m_aPageHeader ? bPageHeaderBeforeRender
+                            : PLBeforeRenderHelper.isBeforeRenderNeeded(aPageHeader))
+                        aPageHeader.visit(aVisitor);
                 }
 
-                float fCurY = _getYTop(aMBP);
-                for (final PLElementWithSize aElementWithHeight : aPerPage) {
-                    final IPLRenderableObject<?> aElement = aElementWithHeight.getElement();
-                    // Get element extent
-                    final float fStartLeft = fXLeft;
-                    final float fStartTop = fCurY;
-                    final float fWidth = _getAvailableWidth(aMBP);
-                    final float fHeight = aElementWithHeight.getHeightFull();
-
-                    final PageRenderContext aRCtx = new PageRenderContext(ERenderingElementType.CONTENT_ELEMENT,
-                            aContentStream,
-                            fStartLeft,
-                            fStartTop,
-                            fWidth,
-                            fHeight);
-                    if (m_aRCCustomizer != null)
-                        m_aRCCustomizer.customizeRenderContext(aRCtx);
-                    aElement.render(aRCtx);
-
-                    // In
-                    fCurY -= aElementWithHeight.getHeightFull();
-                }
                 if (aPageFooter != null) {
-                    // Page footer does not care about page padding
-                    // footer top-left
-                    final float fStartLeft = aMBP.getMarginLeft();
-                    final float fStartTop = aMBP.getMarginBottom();
-                    final float fWidth = m_aPageSize.getWidth() - aMBP.getMarginXSum();
-                    final float fHeight = aPrepareResult.getFooterHeight(nPageIndex);
-                    final PageRenderContext aRCtx = new PageRenderContext(ERenderingElementType.PAGE_FOOTER,
-                            aContentStream,
-                            fStartLeft,
-                            fStartTop,
-                            fWidth,
-                            fHeight);
-                    if (m_aRCCustomizer != null)
-                        m_aRCCustomizer.customizeRenderContext(aRCtx);
-                    aPageFooter.render(aRCtx);
+                    if (aPageFooter == m_aPageFooter ? bPageFooterBeforeRender
+                            : PLBeforeRenderHelper.isBeforeRenderNeeded(aPageFooter))
+                        aPageFooter.visit(aVisitor);
                 }
 
-                if (StringHelper.hasText(this.getWaterMark())) {
-                    String watermark = this.getWaterMark();
-                    for (int i = 0; i < 10; i++) {
-                        watermark += "  " + watermark;
-                    }
-                    PDFont font = m_FontNormal.loadPDFont(aDoc);
-                    try (PDPageContentStream cs = new PDPageContentStream(aDoc, aPage, PDPageContentStream.AppendMode.APPEND, true, true)) {
-                        final float fontHeight = 32; // arbitrary for short text
-                        final float width = aPage.getMediaBox().getWidth();
-                        final float height = aPage.getMediaBox().getHeight();
-                        final float stringWidth = font.getStringWidth(watermark) / 1000 * fontHeight;
-                        final float diagonalLength = (float) Math.sqrt(width * width + height * height);
-                        final float x = (diagonalLength - stringWidth) / 2; // "horizontal" position in rotated world
-                        final float y = -fontHeight / 4; // 4 is a trial-and-error thing, this lowers the text a bit
-
-                        cs.transform(Matrix.getRotateInstance(0.8, width / 2, height / 2));
-                        cs.setFont(font, fontHeight);
-
-                        final PDExtendedGraphicsState gs = new PDExtendedGraphicsState();
-                        gs.setBlendMode(BlendMode.MULTIPLY);
-                        gs.setLineWidth(3f);
-                        cs.setGraphicsStateParameters(gs);
-
-                        // Set color
-                        Color color = new Color(220, 227, 239);
-                        cs.setNonStrokingColor(color);
-                        cs.setStrokingColor(color);
-
-                        cs.beginText();
-                        cs.newLineAtOffset(x, y);
-                        cs.showText(watermark);
-                        cs.endText();
-                    }
-                }
+                for (final IPLRenderableObject<?> aElement : aPrepareResult.directGetBeforeRenderElements(nPageIndex))
+                    aElement.visit(aVisitor);
+
+                if (aMetricsListener != null)
+                    nBeforeRenderNanos += System.nanoTime() - nBeforeRenderStartNanos;
+            }
+
+            if (bHasWaterMark && aWaterMarkForm == null) {
+                // Created only once per page set and stamped on all pages
+                aWaterMarkForm = _createWaterMarkForm(aGlobalCtx, aPage, bCompressPDF);
+            }
 
-                if (this.isFoldMark()) {
-                    try (PDPageContentStream cs = new PDPageContentStream(aDoc, aPage, PDPageContentStream.AppendMode.APPEND, true, true)) {
-                        cs.moveTo(0, PLConvert.mm2units(192f));
-                        cs.lineTo(10, PLConvert.mm2units(192f));
-                        cs.stroke();
+            if (bRenderConcurrently) {
+                // The resources must be present before the content is created on another thread
+                aPage.setResources(new PDResources());
+                final int nCurPageIndex = nPageIndex;
+                final PDFormXObject aCurWaterMarkForm = aWaterMarkForm;
+                aRenderTasks.add(() -> {
+                    try {
+                        return _renderPageContentToBuffer(aDoc,
+                                aPage,
+                                aPrepareResult,
+                                aPerPage,
+                                nCurPageIndex,
+                                aMBP,
+                                aPageHeader,
+                                aPageFooter,
+                                aCurWaterMarkForm,
+                                aSharedForms,
+                                aSharedFormsLock,
+                                bCompressPDF,
+                                nOutputPrecision,
+                                bCompactTextOperators);
+                    } catch (final IOException ex) {
+                        throw new UncheckedIOException(ex);
                     }
+                });
+                aConcurrentPages.add(aPage);
+
+                // Keep only a limited number of rendered pages in memory
+                if (aRenderTasks.size() >= CONCURRENT_RENDER_WINDOW_SIZE)
+                    _renderConcurrently(aGlobalCtx, aRenderTasks, aConcurrentPages, bCompressPDF);
+            } else {
+                final PDPageContentStreamWithCache aContentStream = new PDPageContentStreamWithCache(aDoc,
+                        aPage,
+                        PDPageContentStream.AppendMode.OVERWRITE,
+                        bCompressPDF);
+                aContentStream.setFractionDigits(nOutputPrecision);
+                aContentStream.setCompactTextOperators(bCompactTextOperators);
+                try {
+                    _renderPageContent(aContentStream,
+                            aPrepareResult,
+                            aPerPage,
+                            nPageIndex,
+                            aMBP,
+                            aPageHeader,
+                            aPageFooter,
+                            aWaterMarkForm,
+                            aSharedForms,
+                            null,
+                            bCompressPDF);
+                } finally {
+                    aContentStream.close();
                 }
-            } finally {
-                aContentStream.close();
+                _renderFoldMark(aDoc, aPage);
             }
             ++nPageIndex;
         }
+
+        if (aRenderTasks.isNotEmpty())
+            _renderConcurrently(aGlobalCtx, aRenderTasks, aConcurrentPages, bCompressPDF);
+
+        if (aMetricsListener != null) {
+            final long nTotalNanos = System.nanoTime() - nRenderStartNanos;
+            aMetricsListener.onPhaseFinished(ERenderPhase.BEFORE_RENDER,
+                    nPageSetIndex,
+                    nBeforeRenderNanos,
+                    aBeforeRenderCount[0]);
+            aMetricsListener.onPhaseFinished(ERenderPhase.RENDER_PAGES,
+                    nPageSetIndex,
+                    nTotalNanos - nBeforeRenderNanos,
+                    nPageCount);
+        }
         if (PLDebugLog.isDebugRender())
             PLDebugLog.debugRender(this, "Finished rendering");
     }
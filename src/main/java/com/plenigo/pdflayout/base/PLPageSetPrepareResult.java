@@ -23,7 +23,10 @@ import com.helger.annotation.style.ReturnsMutableObject;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
+import com.plenigo.pdflayout.render.PreparationContextGlobal;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Page set prepare result. Used only internally.
@@ -38,10 +41,49 @@ public final class PLPageSetPrepareResult {
     private float m_fFirstFooterHeight = Float.NaN;
     private float m_fFooterHeight = Float.NaN;
     private final ICommonsList<ICommonsList<PLElementWithSize>> m_aPerPageElements = new CommonsArrayList<>();
+    private final ICommonsList<ICommonsList<IPLRenderableObject<?>>> m_aPerPageBeforeRenderElements = new CommonsArrayList<>();
+    private int m_nSplitCount = 0;
+    private long m_nPrepareNanos = 0;
+    private long m_nPaginateNanos = 0;
+    private PreparationContextGlobal m_aGlobalCtx;
 
     PLPageSetPrepareResult() {
     }
 
+    /**
+     * @return The global context the page set was prepared with. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public PreparationContextGlobal getGlobalContext() {
+        return m_aGlobalCtx;
+    }
+
+    void setGlobalContext(@NonNull final PreparationContextGlobal aGlobalCtx) {
+        ValueEnforcer.notNull(aGlobalCtx, "GlobalCtx");
+        m_aGlobalCtx = aGlobalCtx;
+    }
+
+    /**
+     * Get the global context to render into the provided document. This is the global context the
+     * page set was prepared with, if it belongs to the same document, so that resources like images
+     * are shared with all other page sets prepared with it.
+     *
+     * @param aDoc The document to render into. May not be <code>null</code>.
+     *
+     * @return The global context of the preparation or a new global context, if the page set was
+     * prepared for another document. Never <code>null</code>.
+     * @since 8.2.0
+     */
+    @NonNull
+    public PreparationContextGlobal getOrCreateGlobalContext(@NonNull final PDDocument aDoc) {
+        ValueEnforcer.notNull(aDoc, "PDDocument");
+        final PreparationContextGlobal aGlobalCtx = m_aGlobalCtx;
+        if (aGlobalCtx != null && aGlobalCtx.getDocument() == aDoc)
+            return aGlobalCtx;
+        return new PreparationContextGlobal(aDoc);
+    }
+
     @NonNull
     PLMarginBorderPadding getFirstPageMBP() {
         final PLMarginBorderPadding ret = m_aFirstPageMBP;
@@ -125,6 +167,73 @@ public final class PLPageSetPrepareResult {
     void addPerPageElements(@NonNull @Nonempty final ICommonsList<PLElementWithSize> aCurPageElements) {
         ValueEnforcer.notEmptyNoNullValue(aCurPageElements, "CurPageElements");
         m_aPerPageElements.add(aCurPageElements);
+
+        // Determine once, which elements must be visited before rendering
+        final ICommonsList<IPLRenderableObject<?>> aBeforeRenderElements = new CommonsArrayList<>();
+        for (final PLElementWithSize aElementWithSize : aCurPageElements) {
+            final IPLRenderableObject<?> aElement = aElementWithSize.getElement();
+            if (PLBeforeRenderHelper.isBeforeRenderNeeded(aElement))
+                aBeforeRenderElements.add(aElement);
+        }
+        m_aPerPageBeforeRenderElements.add(aBeforeRenderElements);
+    }
+
+    /**
+     * Get the elements of a page that contain at least one element for which
+     * {@link IPLRenderableObject#beforeRender(com.plenigo.pdflayout.render.PagePreRenderContext)} must
+     * be called.
+     *
+     * @param nPageIndex The 0-based page index within this page set.
+     *
+     * @return The top-level elements of the page to be visited. Never <code>null</code>.
+     * @since 8.2.0
+     */
+    @NonNull
+    @ReturnsMutableObject("speed")
+    ICommonsList<IPLRenderableObject<?>> directGetBeforeRenderElements(@Nonnegative final int nPageIndex) {
+        return m_aPerPageBeforeRenderElements.get(nPageIndex);
+    }
+
+    void incSplitCount() {
+        m_nSplitCount++;
+    }
+
+    /**
+     * @return The number of vertical splits that were performed to distribute the elements onto
+     * the pages. Always &ge; 0.
+     * @since 8.2.0
+     */
+    @Nonnegative
+    public int getSplitCount() {
+        return m_nSplitCount;
+    }
+
+    void setPrepareNanos(@Nonnegative final long nPrepareNanos) {
+        m_nPrepareNanos = nPrepareNanos;
+    }
+
+    /**
+     * @return The wall time in nanoseconds it took to prepare the headers, footers and elements.
+     * Only measured if a metrics listener is present, 0 otherwise.
+     * @since 8.2.0
+     */
+    @Nonnegative
+    public long getPrepareNanos() {
+        return m_nPrepareNanos;
+    }
+
+    void setPaginateNanos(@Nonnegative final long nPaginateNanos) {
+        m_nPaginateNanos = nPaginateNanos;
+    }
+
+    /**
+     * @return The wall time in nanoseconds it took to distribute the prepared elements onto pages.
+     * Only measured if a metrics listener is present, 0 otherwise.
+     * @since 8.2.0
+     */
+    @Nonnegative
+    public long getPaginateNanos() {
+        return m_nPaginateNanos;
     }
 
     @Nonnegative
@@ -31,6 +31,7 @@ import com.plenigo.pdflayout.render.PreparationContext;
 import com.plenigo.pdflayout.spec.SizeSpec;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
@@ -130,6 +131,17 @@ public abstract class AbstractPLImage<IMPLTYPE extends AbstractPLImage<IMPLTYPE>
     @NonNull
     protected abstract PDImageXObject getXObject(@NonNull final PagePreRenderContext aCtx) throws IOException;
 
+    /**
+     * @return The description how to load this image on a prefetch thread. The loader may not
+     * access any document or render state. May be <code>null</code> if this image cannot be
+     * prefetched. This is the default.
+     * @see ImagePrefetcher
+     * @since 8.2.0
+     */
+    ImagePrefetcher.@Nullable PrefetchRequest getPrefetchRequest() {
+        return null;
+    }
+
     @Override
     @NonNull
     public EChange beforeRender(@NonNull final PagePreRenderContext aCtx) {
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.image;
+
+import com.helger.annotation.concurrent.Immutable;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * The stream dictionary and the raw (encoded) data of a single image XObject, independent of any
+ * document. The dictionary is private to this object and never modified, so it can be read
+ * concurrently and copied into any number of documents.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@Immutable
+final class EncodedImage {
+    private final COSDictionary m_aDict;
+    private final byte[] m_aRawData;
+    private final EncodedImage m_aSMask;
+
+    private EncodedImage(@NonNull final COSDictionary aDict,
+                         @NonNull final byte[] aRawData,
+                         @Nullable final EncodedImage aSMask) {
+        m_aDict = aDict;
+        m_aRawData = aRawData;
+        m_aSMask = aSMask;
+    }
+
+    long getByteCount() {
+        return m_aRawData.length + (m_aSMask == null ? 0 : m_aSMask.getByteCount());
+    }
+
+    @NonNull
+    private COSStream _createStream(@NonNull final PDDocument aDoc) throws IOException {
+        final COSStream ret = aDoc.getDocument().createCOSStream();
+        for (final Map.Entry<COSName, COSBase> aEntry : m_aDict.entrySet())
+            ret.setItem(aEntry.getKey(), _getCopy(aEntry.getValue()));
+        try (final OutputStream aOS = ret.createRawOutputStream()) {
+            aOS.write(m_aRawData);
+        }
+        if (m_aSMask != null)
+            ret.setItem(COSName.SMASK, m_aSMask._createStream(aDoc));
+        return ret;
+    }
+
+    /**
+     * Create a new image XObject with the encoded data of this object in the provided document.
+     *
+     * @param aDoc The document to create the XObject in. May not be <code>null</code>.
+     *
+     * @return The new XObject. Never <code>null</code>.
+     *
+     * @throws IOException on PDFBox error
+     */
+    @NonNull
+    PDImageXObject createXObject(@NonNull final PDDocument aDoc) throws IOException {
+        return new PDImageXObject(new PDStream(_createStream(aDoc)), null);
+    }
+
+    @Nullable
+    private static COSBase _getCopy(@Nullable final COSBase aBase) {
+        // Immutable objects can be shared
+        if (aBase instanceof COSName || aBase instanceof COSNumber || aBase instanceof COSBoolean || aBase instanceof COSNull)
+            return aBase;
+        if (aBase instanceof COSString)
+            return new COSString(((COSString) aBase).getBytes());
+        if (aBase instanceof COSArray) {
+            final COSArray ret = new COSArray();
+            for (final COSBase aElement : (COSArray) aBase) {
+                final COSBase aCopy = _getCopy(aElement);
+                if (aCopy == null)
+                    return null;
+                ret.add(aCopy);
+            }
+            return ret;
+        }
+        if (aBase instanceof COSDictionary && !(aBase instanceof COSStream)) {
+            final COSDictionary ret = new COSDictionary();
+            for (final Map.Entry<COSName, COSBase> aEntry : ((COSDictionary) aBase).entrySet()) {
+                final COSBase aCopy = _getCopy(aEntry.getValue());
+                if (aCopy == null)
+                    return null;
+                ret.setItem(aEntry.getKey(), aCopy);
+            }
+            return ret;
+        }
+        // Streams and indirect objects are not supported
+        return null;
+    }
+
+    @Nullable
+    private static EncodedImage _create(@NonNull final COSStream aStream) throws IOException {
+        final COSDictionary aDict = new COSDictionary();
+        EncodedImage aSMask = null;
+        for (final Map.Entry<COSName, COSBase> aEntry : aStream.entrySet()) {
+            final COSName aKey = aEntry.getKey();
+            if (COSName.LENGTH.equals(aKey)) {
+                // Set automatically
+                continue;
+            }
+            if (COSName.SMASK.equals(aKey)) {
+                final COSBase aSMaskStream = aStream.getDictionaryObject(COSName.SMASK);
+                if (!(aSMaskStream instanceof COSStream))
+                    return null;
+                aSMask = _create((COSStream) aSMaskStream);
+                if (aSMask == null)
+                    return null;
+                continue;
+            }
+            final COSBase aCopy = _getCopy(aEntry.getValue());
+            if (aCopy == null) {
+                // Cannot be shared
+                return null;
+            }
+            aDict.setItem(aKey, aCopy);
+        }
+
+        final byte[] aRawData;
+        try (final InputStream aIS = aStream.createRawInputStream()) {
+            aRawData = aIS.readAllBytes();
+        }
+        return new EncodedImage(aDict, aRawData, aSMask);
+    }
+
+    /**
+     * Create a document independent copy of the provided image XObject.
+     *
+     * @param aXObject The XObject to copy. May not be <code>null</code>.
+     *
+     * @return <code>null</code> if the XObject references objects that cannot be copied (like an
+     * ICC based color space).
+     *
+     * @throws IOException on PDFBox error
+     */
+    @Nullable
+    static EncodedImage create(@NonNull final PDImageXObject aXObject) throws IOException {
+        return _create(aXObject.getCOSObject());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.image;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.functional.IThrowingSupplier;
+import com.helger.base.tostring.ToStringGenerator;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache for the encoded data of images that can be shared across documents. Encoding an image
+ * (e.g. as JPEG or with the lossless Flate compression) is expensive, whereas copying the already
+ * encoded bytes into another document is cheap. Each document still gets its own
+ * {@link PDImageXObject}, so this cache is used in addition to the per document
+ * {@link ImageXObjectCache}.<br>
+ * The total number of cached bytes is limited by {@link #getMaxBytes()}. Once the limit is
+ * reached, no new entries are added until the cache is cleared.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@ThreadSafe
+public final class ImageEncodingCache {
+    /**
+     * The default maximum number of encoded bytes to be cached.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final Map<String, EncodedImage> m_aMap = new ConcurrentHashMap<>();
+    private final AtomicLong m_aBytes = new AtomicLong(0);
+    private final AtomicLong m_aHits = new AtomicLong(0);
+    private final AtomicLong m_aMisses = new AtomicLong(0);
+    private volatile long m_nMaxBytes;
+
+    /**
+     * Constructor
+     *
+     * @param nMaxBytes The maximum number of encoded bytes to be cached. Must be &ge; 0. Use 0 to
+     *                  disable caching.
+     */
+    public ImageEncodingCache(@Nonnegative final long nMaxBytes) {
+        setMaxBytes(nMaxBytes);
+    }
+
+    /**
+     * @return The maximum number of encoded bytes to be cached. Always &ge; 0.
+     */
+    @Nonnegative
+    public long getMaxBytes() {
+        return m_nMaxBytes;
+    }
+
+    /**
+     * Set the maximum number of encoded bytes to be cached. Reducing the size does not remove
+     * existing entries - call {@link #clear()} for that.
+     *
+     * @param nMaxBytes The maximum number of bytes. Must be &ge; 0. Use 0 to disable caching.
+     */
+    public void setMaxBytes(@Nonnegative final long nMaxBytes) {
+        ValueEnforcer.isGE0(nMaxBytes, "MaxBytes");
+        m_nMaxBytes = nMaxBytes;
+    }
+
+    /**
+     * @return The number of encoded bytes currently cached. Always &ge; 0.
+     */
+    @Nonnegative
+    public long getBytes() {
+        return m_aBytes.get();
+    }
+
+    /**
+     * @return The number of images currently cached. Always &ge; 0.
+     */
+    @Nonnegative
+    public int getSize() {
+        return m_aMap.size();
+    }
+
+    /**
+     * @return The number of successful lookups since creation or the last
+     * {@link #resetStatistics()}.
+     */
+    @Nonnegative
+    public long getHitCount() {
+        return m_aHits.get();
+    }
+
+    /**
+     * @return The number of unsuccessful lookups since creation or the last
+     * {@link #resetStatistics()}.
+     */
+    @Nonnegative
+    public long getMissCount() {
+        return m_aMisses.get();
+    }
+
+    /**
+     * Reset the hit and miss counters.
+     */
+    public void resetStatistics() {
+        m_aHits.set(0);
+        m_aMisses.set(0);
+    }
+
+    /**
+     * Remove all cached entries. The statistics are not changed.
+     */
+    public void clear() {
+        m_aMap.clear();
+        m_aBytes.set(0);
+    }
+
+    /**
+     * Get the image XObject for the provided document. If the encoded data of the image is already
+     * cached, it is copied into the document. Otherwise the XObject is created by the provided
+     * factory and its encoded data is cached for other documents.
+     *
+     * @param aDoc       The document the XObject is used in. May not be <code>null</code>.
+     * @param sDigest    The content digest as created by one of the <code>getDigest</code> methods of
+     *                   {@link ImageXObjectCache}. May not be <code>null</code>.
+     * @param eImageType The image type used for encoding. May not be <code>null</code>.
+     * @param aFactory   The factory to create the XObject in the provided document if it is not
+     *                   cached. May not be <code>null</code>.
+     *
+     * @return The XObject that is part of the provided document. Never <code>null</code>.
+     *
+     * @throws IOException on PDFBox error
+     */
+    @NonNull
+    public PDImageXObject getOrCreate(@NonNull final PDDocument aDoc,
+                                      @NonNull final String sDigest,
+                                      @NonNull final EPLImageType eImageType,
+                                      @NonNull final IThrowingSupplier<PDImageXObject, IOException> aFactory) throws IOException {
+        ValueEnforcer.notNull(aDoc, "Doc");
+        ValueEnforcer.notNull(sDigest, "Digest");
+        ValueEnforcer.notNull(eImageType, "ImageType");
+        ValueEnforcer.notNull(aFactory, "Factory");
+
+        final String sKey = eImageType.getID() + ':' + sDigest;
+        final EncodedImage aEncodedImage = m_aMap.get(sKey);
+        if (aEncodedImage != null) {
+            m_aHits.incrementAndGet();
+            return aEncodedImage.createXObject(aDoc);
+        }
+        m_aMisses.incrementAndGet();
+
+        final PDImageXObject ret = aFactory.get();
+        if (m_nMaxBytes > 0) {
+            final EncodedImage aNewEncodedImage = EncodedImage.create(ret);
+            if (aNewEncodedImage != null) {
+                // Reserve the bytes first, so that the limit is never exceeded
+                final long nByteCount = aNewEncodedImage.getByteCount();
+                if (m_aBytes.addAndGet(nByteCount) > m_nMaxBytes)
+                    m_aBytes.addAndGet(-nByteCount);
+                else if (m_aMap.putIfAbsent(sKey, aNewEncodedImage) != null) {
+                    // Another thread was faster
+                    m_aBytes.addAndGet(-nByteCount);
+                }
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringGenerator(this).append("MaxBytes", m_nMaxBytes)
+                .append("Bytes", m_aBytes.get())
+                .append("Size", m_aMap.size())
+                .append("Hits", m_aHits.get())
+                .append("Misses", m_aMisses.get())
+                .getToString();
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.image;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Loads and encodes images on an {@link Executor} before they are needed for rendering. Slow image
+ * sources (like network storages) are read concurrently and their latency overlaps with the layout
+ * and the rendering of the document. Each image is encoded into a private document, so that the
+ * rendered document is never accessed concurrently. The render pass only copies the encoded data
+ * into the rendered document.<br>
+ * If prefetching an image fails, the image is loaded again synchronously while rendering, so that
+ * the error is reported as usual.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@ThreadSafe
+public final class ImagePrefetcher {
+    /**
+     * The document independent result of prefetching a single image.
+     */
+    @Immutable
+    static final class PrefetchedImage {
+        private final String m_sDigest;
+        private final EncodedImage m_aEncodedImage;
+
+        /**
+         * Constructor
+         *
+         * @param sDigest  The content digest as created by one of the <code>getDigest</code> methods
+         *                 of {@link ImageXObjectCache}. May not be <code>null</code>.
+         * @param aXObject The XObject created in a private document. May not be <code>null</code>.
+         *
+         * @throws IOException on PDFBox error
+         */
+        PrefetchedImage(@NonNull final String sDigest, @NonNull final PDImageXObject aXObject) throws IOException {
+            m_sDigest = sDigest;
+            m_aEncodedImage = EncodedImage.create(aXObject);
+        }
+    }
+
+    /**
+     * Loads a single image in a private document.
+     */
+    @FunctionalInterface
+    interface IPrefetchLoader {
+        /**
+         * Load and encode the image. This method may not access any document or render state.
+         *
+         * @param aScratchDoc         The private document to create the XObject in. Never
+         *                            <code>null</code>.
+         * @param aImageEncodingCache The cache to share encoded images with other documents. May be
+         *                            <code>null</code>.
+         *
+         * @return The document independent result. Never <code>null</code>.
+         *
+         * @throws IOException In case of error.
+         */
+        @NonNull
+        PrefetchedImage load(@NonNull PDDocument aScratchDoc,
+                             @Nullable ImageEncodingCache aImageEncodingCache) throws IOException;
+    }
+
+    /**
+     * Describes how a single image can be prefetched.
+     */
+    @Immutable
+    static final class PrefetchRequest {
+        private final Object m_aSource;
+        private final IPrefetchLoader m_aLoader;
+
+        /**
+         * Constructor
+         *
+         * @param aSource The object identifying the source of the image, compared by identity. May
+         *                not be <code>null</code>.
+         * @param aLoader The loader to be invoked on the prefetch thread. May not be
+         *                <code>null</code>.
+         */
+        PrefetchRequest(@NonNull final Object aSource, @NonNull final IPrefetchLoader aLoader) {
+            m_aSource = aSource;
+            m_aLoader = aLoader;
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImagePrefetcher.class);
+
+    private final Executor m_aExecutor;
+    private final ImageEncodingCache m_aImageEncodingCache;
+    private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock();
+    @GuardedBy("m_aRWLock")
+    private final Map<EPLImageType, Map<Object, CompletableFuture<PrefetchedImage>>> m_aMap = new EnumMap<>(EPLImageType.class);
+
+    /**
+     * Constructor
+     *
+     * @param aExecutor           The executor to load the images on. May not be <code>null</code>.
+     * @param aImageEncodingCache The cache to share encoded images with other documents. May be
+     *                            <code>null</code>.
+     */
+    public ImagePrefetcher(@NonNull final Executor aExecutor, @Nullable final ImageEncodingCache aImageEncodingCache) {
+        ValueEnforcer.notNull(aExecutor, "Executor");
+        m_aExecutor = aExecutor;
+        m_aImageEncodingCache = aImageEncodingCache;
+    }
+
+    @NonNull
+    private PrefetchedImage _load(@NonNull final IPrefetchLoader aLoader) {
+        try (final PDDocument aScratchDoc = new PDDocument()) {
+            return aLoader.load(aScratchDoc, m_aImageEncodingCache);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Start loading the provided image, if it supports prefetching and is not already loading. This
+     * method returns immediately.
+     *
+     * @param aImage The image to load. May not be <code>null</code>.
+     */
+    public void prefetch(@NonNull final AbstractPLImage<?> aImage) {
+        ValueEnforcer.notNull(aImage, "Image");
+
+        final PrefetchRequest aRequest = aImage.getPrefetchRequest();
+        if (aRequest == null)
+            return;
+
+        final Object aSource = aRequest.m_aSource;
+        final EPLImageType eImageType = aImage.getImageType();
+        m_aRWLock.writeLocked(() -> {
+            final Map<Object, CompletableFuture<PrefetchedImage>> aMap = m_aMap.computeIfAbsent(eImageType,
+                    k -> new IdentityHashMap<>());
+            if (!aMap.containsKey(aSource)) {
+                try {
+                    aMap.put(aSource, CompletableFuture.supplyAsync(() -> _load(aRequest.m_aLoader), m_aExecutor));
+                } catch (final RejectedExecutionException ex) {
+                    // Loaded while rendering
+                    LOGGER.warn("Failed to schedule prefetching of " + aSource, ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the XObject of a prefetched image for the provided document. This waits until the image
+     * is loaded. The result is also put into the provided cache.
+     *
+     * @param aDoc       The document to create the XObject in. May not be <code>null</code>.
+     * @param aCache     The per document cache to use. May not be <code>null</code>.
+     * @param aSource    The source of the image as used for prefetching. May not be
+     *                   <code>null</code>.
+     * @param eImageType The image type to use. May not be <code>null</code>.
+     *
+     * @return <code>null</code> if the image was not prefetched or prefetching failed.
+     *
+     * @throws IOException on PDFBox error
+     */
+    @Nullable
+    PDImageXObject getPrefetched(@NonNull final PDDocument aDoc,
+                                 @NonNull final ImageXObjectCache aCache,
+                                 @NonNull final Object aSource,
+                                 @NonNull final EPLImageType eImageType) throws IOException {
+        final CompletableFuture<PrefetchedImage> aFuture = m_aRWLock.readLockedGet(() -> {
+            final Map<Object, CompletableFuture<PrefetchedImage>> aMap = m_aMap.get(eImageType);
+            return aMap == null ? null : aMap.get(aSource);
+        });
+        if (aFuture == null)
+            return null;
+
+        final PrefetchedImage aPrefetchedImage;
+        try {
+            aPrefetchedImage = aFuture.join();
+        } catch (final CompletionException ex) {
+            // Loaded again while rendering to get the error there
+            LOGGER.warn("Failed to prefetch " + aSource, ex.getCause());
+            return null;
+        } catch (final CancellationException ex) {
+            // Loaded again while rendering
+            return null;
+        }
+        if (aPrefetchedImage.m_aEncodedImage == null) {
+            // Cannot be copied between documents
+            return null;
+        }
+
+        PDImageXObject ret = aCache.getFromDigest(aPrefetchedImage.m_sDigest, eImageType);
+        if (ret == null)
+            ret = aPrefetchedImage.m_aEncodedImage.createXObject(aDoc);
+        aCache.put(aSource, aPrefetchedImage.m_sDigest, eImageType, ret);
+        return ret;
+    }
+
+    /**
+     * @return The number of images that were scheduled for prefetching. Always &ge; 0.
+     */
+    @Nonnegative
+    public int getPrefetchCount() {
+        return m_aRWLock.readLockedGet(() -> {
+            int ret = 0;
+            for (final Map<Object, CompletableFuture<PrefetchedImage>> aMap : m_aMap.values())
+                ret += aMap.size();
+            return Integer.valueOf(ret);
+        }).intValue();
+    }
+
+    /**
+     * Cancel all prefetches that did not finish yet, e.g. because rendering the document failed.
+     * Prefetches that did not start yet are never executed. Images that are currently loading are
+     * not interrupted, but their result is discarded.
+     *
+     * @return The number of cancelled prefetches. Always &ge; 0.
+     */
+    @Nonnegative
+    public int cancelAll() {
+        return m_aRWLock.readLockedGet(() -> {
+            int ret = 0;
+            for (final Map<Object, CompletableFuture<PrefetchedImage>> aMap : m_aMap.values())
+                for (final CompletableFuture<PrefetchedImage> aFuture : aMap.values())
+                    if (aFuture.cancel(false))
+                        ret++;
+            return Integer.valueOf(ret);
+        }).intValue();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringGenerator(this).append("Executor", m_aExecutor)
+                .appendIfNotNull("ImageEncodingCache", m_aImageEncodingCache)
+                .getToString();
+    }
+}
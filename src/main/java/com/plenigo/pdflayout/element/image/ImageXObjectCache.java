@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.image;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A cache for {@link PDImageXObject}s that is scoped to a single PDDocument. Each distinct image
+ * is only encoded and written once per document and referenced from all pages it is used on.
+ * Images are looked up by the identity of their source (e.g. the {@link BufferedImage}) first and
+ * by a digest of their content second, so that equal images from different sources are shared as
+ * well.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@NotThreadSafe
+public final class ImageXObjectCache {
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final Map<EPLImageType, Map<Object, PDImageXObject>> m_aBySource = new EnumMap<>(EPLImageType.class);
+    private final Map<EPLImageType, ICommonsMap<String, PDImageXObject>> m_aByDigest = new EnumMap<>(EPLImageType.class);
+
+    @NonNull
+    private static MessageDigest _createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Failed to create " + DIGEST_ALGORITHM + " message digest", ex);
+        }
+    }
+
+    /**
+     * Get the content digest of the provided encoded image bytes.
+     *
+     * @param aBytes The image bytes. May not be <code>null</code>.
+     *
+     * @return The hex encoded digest. Never <code>null</code>.
+     */
+    @NonNull
+    @Nonempty
+    public static String getDigest(@NonNull final byte[] aBytes) {
+        ValueEnforcer.notNull(aBytes, "Bytes");
+        return HexFormat.of().formatHex(_createMessageDigest().digest(aBytes));
+    }
+
+    /**
+     * Get the content digest of the provided image, based on its size, its type and the ARGB values
+     * of all pixels.
+     *
+     * @param aImage The image. May not be <code>null</code>.
+     *
+     * @return The hex encoded digest. Never <code>null</code>.
+     */
+    @NonNull
+    @Nonempty
+    public static String getDigest(@NonNull final BufferedImage aImage) {
+        ValueEnforcer.notNull(aImage, "Image");
+        final int nWidth = aImage.getWidth();
+        final int nHeight = aImage.getHeight();
+
+        final MessageDigest aMD = _createMessageDigest();
+        final ByteBuffer aBuf = ByteBuffer.allocate(Math.max(3, nWidth) * Integer.BYTES);
+        aBuf.putInt(nWidth).putInt(nHeight).putInt(aImage.getType()).flip();
+        aMD.update(aBuf);
+
+        // Row by row, to limit the memory consumption
+        final int[] aRow = new int[nWidth];
+        for (int y = 0; y < nHeight; ++y) {
+            aImage.getRGB(0, y, nWidth, 1, aRow, 0, nWidth);
+            aBuf.clear();
+            aBuf.asIntBuffer().put(aRow);
+            aMD.update(aBuf.array(), 0, nWidth * Integer.BYTES);
+        }
+        return HexFormat.of().formatHex(aMD.digest());
+    }
+
+    /**
+     * Get the cached XObject for the provided source object.
+     *
+     * @param aSource    The source object, compared by identity. May not be <code>null</code>.
+     * @param eImageType The image type used for encoding. May not be <code>null</code>.
+     *
+     * @return <code>null</code> if no such XObject is cached.
+     */
+    @Nullable
+    public PDImageXObject getFromSource(@NonNull final Object aSource, @NonNull final EPLImageType eImageType) {
+        final Map<Object, PDImageXObject> aMap = m_aBySource.get(eImageType);
+        return aMap == null ? null : aMap.get(aSource);
+    }
+
+    /**
+     * Get the cached XObject for the provided content digest.
+     *
+     * @param sDigest    The content digest as created by one of the <code>getDigest</code> methods.
+     *                   May not be <code>null</code>.
+     * @param eImageType The image type used for encoding. May not be <code>null</code>.
+     *
+     * @return <code>null</code> if no such XObject is cached.
+     */
+    @Nullable
+    public PDImageXObject getFromDigest(@NonNull final String sDigest, @NonNull final EPLImageType eImageType) {
+        final ICommonsMap<String, PDImageXObject> aMap = m_aByDigest.get(eImageType);
+        return aMap == null ? null : aMap.get(sDigest);
+    }
+
+    /**
+     * Remember an XObject for later reuse.
+     *
+     * @param aSource    The source object, compared by identity. May not be <code>null</code>.
+     * @param sDigest    The content digest. May not be <code>null</code>.
+     * @param eImageType The image type used for encoding. May not be <code>null</code>.
+     * @param aXObject   The XObject to be cached. May not be <code>null</code>.
+     */
+    public void put(@NonNull final Object aSource,
+                    @NonNull final String sDigest,
+                    @NonNull final EPLImageType eImageType,
+                    @NonNull final PDImageXObject aXObject) {
+        ValueEnforcer.notNull(aSource, "Source");
+        ValueEnforcer.notNull(sDigest, "Digest");
+        ValueEnforcer.notNull(eImageType, "ImageType");
+        ValueEnforcer.notNull(aXObject, "XObject");
+        m_aBySource.computeIfAbsent(eImageType, k -> new IdentityHashMap<>()).put(aSource, aXObject);
+        m_aByDigest.computeIfAbsent(eImageType, k -> new CommonsHashMap<>()).put(sDigest, aXObject);
+    }
+
+    /**
+     * @return The number of distinct cached XObjects. Always &ge; 0.
+     */
+    @Nonnegative
+    public int getDistinctCount() {
+        int ret = 0;
+        for (final ICommonsMap<String, PDImageXObject> aMap : m_aByDigest.values())
+            ret += aMap.size();
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringGenerator(this).append("DistinctCount", getDistinctCount()).getToString();
+    }
+}
@@ -21,6 +21,7 @@ import com.helger.annotation.OverridingMethodsMustInvokeSuper;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.tostring.ToStringGenerator;
 import com.plenigo.pdflayout.render.PagePreRenderContext;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.graphics.image.CCITTFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
@@ -65,21 +66,71 @@ public class PLImage extends AbstractPLImage<PLImage> {
         return m_aImage;
     }
 
-    @Override
     @NonNull
-    protected PDImageXObject getXObject(@NonNull final PagePreRenderContext aCtx) throws IOException {
+    private PDImageXObject _createXObject(@NonNull final PDDocument aDoc) throws IOException {
         switch (getImageType()) {
             case CCITT:
-                return CCITTFactory.createFromImage(aCtx.getDocument(), m_aImage);
+                return CCITTFactory.createFromImage(aDoc, m_aImage);
             case JPEG:
-                return JPEGFactory.createFromImage(aCtx.getDocument(), m_aImage);
+                return JPEGFactory.createFromImage(aDoc, m_aImage);
             case LOSSLESS:
-                return LosslessFactory.createFromImage(aCtx.getDocument(), m_aImage);
+                return LosslessFactory.createFromImage(aDoc, m_aImage);
             default:
                 throw new IllegalStateException("Unsupported image type: " + toString());
         }
     }
 
+    @Override
+    ImagePrefetcher.@Nullable PrefetchRequest getPrefetchRequest() {
+        return new ImagePrefetcher.PrefetchRequest(m_aImage, this::_loadForPrefetch);
+    }
+
+    private ImagePrefetcher.@NonNull PrefetchedImage _loadForPrefetch(@NonNull final PDDocument aScratchDoc,
+                                                                      @Nullable final ImageEncodingCache aImageEncodingCache) throws IOException {
+        final String sDigest = ImageXObjectCache.getDigest(m_aImage);
+        final PDImageXObject aXObject;
+        if (aImageEncodingCache != null)
+            aXObject = aImageEncodingCache.getOrCreate(aScratchDoc,
+                    sDigest,
+                    getImageType(),
+                    () -> _createXObject(aScratchDoc));
+        else
+            aXObject = _createXObject(aScratchDoc);
+        return new ImagePrefetcher.PrefetchedImage(sDigest, aXObject);
+    }
+
+    @Override
+    @NonNull
+    protected PDImageXObject getXObject(@NonNull final PagePreRenderContext aCtx) throws IOException {
+        // Each distinct image is only encoded once per document
+        final ImageXObjectCache aCache = aCtx.getGlobalContext().getImageCache();
+        final EPLImageType eImageType = getImageType();
+        PDImageXObject ret = aCache.getFromSource(m_aImage, eImageType);
+        if (ret == null) {
+            // Maybe the image was already encoded in the background
+            final ImagePrefetcher aPrefetcher = aCtx.getGlobalContext().getImagePrefetcher();
+            if (aPrefetcher != null) {
+                ret = aPrefetcher.getPrefetched(aCtx.getDocument(), aCache, m_aImage, eImageType);
+                if (ret != null)
+                    return ret;
+            }
+
+            final String sDigest = ImageXObjectCache.getDigest(m_aImage);
+            ret = aCache.getFromDigest(sDigest, eImageType);
+            if (ret == null) {
+                // Maybe the image was already encoded for another document
+                final PDDocument aDoc = aCtx.getDocument();
+                final ImageEncodingCache aEncodingCache = aCtx.getGlobalContext().getImageEncodingCache();
+                if (aEncodingCache != null)
+                    ret = aEncodingCache.getOrCreate(aDoc, sDigest, eImageType, () -> _createXObject(aDoc));
+                else
+                    ret = _createXObject(aDoc);
+            }
+            aCache.put(m_aImage, sDigest, eImageType, ret);
+        }
+        return ret;
+    }
+
     @Override
     public String toString() {
         return ToStringGenerator.getDerived(super.toString()).append("Image", m_aImage).getToString();
@@ -23,6 +23,7 @@ import com.helger.base.io.iface.IHasInputStream;
 import com.helger.base.io.stream.StreamHelper;
 import com.helger.base.tostring.ToStringGenerator;
 import com.plenigo.pdflayout.render.PagePreRenderContext;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.graphics.image.CCITTFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
@@ -64,28 +65,85 @@ public class PLStreamImage extends AbstractPLImage<PLStreamImage> {
         return m_aIIS;
     }
 
-    @Override
     @NonNull
-    protected PDImageXObject getXObject(@NonNull final PagePreRenderContext aCtx) throws IOException {
+    private PDImageXObject _createXObject(@NonNull final PDDocument aDoc, @NonNull final byte[] aBytes) throws IOException {
+        switch (getImageType()) {
+            case CCITT:
+                return CCITTFactory.createFromByteArray(aDoc, aBytes);
+            case JPEG:
+                return JPEGFactory.createFromByteArray(aDoc, aBytes);
+            case LOSSLESS:
+                // API does not support it
+                throw new IllegalStateException("Lossless images cannot be read from Stream - use the version with BufferedImage!");
+            default:
+                throw new IllegalStateException("Unsupported image type: " + toString());
+        }
+    }
+
+    @NonNull
+    private byte[] _readAllBytes() throws IOException {
         // The input stream is only sometimes closed automatically
         final InputStream aIS = m_aIIS.getInputStream();
         if (aIS == null)
             throw new IOException("Failed to open InputStream from " + m_aIIS);
 
         try (final InputStream aRealIS = aIS) {
-            final byte[] aBytes = StreamHelper.getAllBytes(aRealIS);
-            switch (getImageType()) {
-                case CCITT:
-                    return CCITTFactory.createFromByteArray(aCtx.getDocument(), aBytes);
-                case JPEG:
-                    return JPEGFactory.createFromByteArray(aCtx.getDocument(), aBytes);
-                case LOSSLESS:
-                    // API does not support it
-                    throw new IllegalStateException("Lossless images cannot be read from Stream - use the version with BufferedImage!");
-                default:
-                    throw new IllegalStateException("Unsupported image type: " + toString());
-            }
+            return StreamHelper.getAllBytes(aRealIS);
+        }
+    }
+
+    @Override
+    ImagePrefetcher.@Nullable PrefetchRequest getPrefetchRequest() {
+        return new ImagePrefetcher.PrefetchRequest(m_aIIS, this::_loadForPrefetch);
+    }
+
+    private ImagePrefetcher.@NonNull PrefetchedImage _loadForPrefetch(@NonNull final PDDocument aScratchDoc,
+                                                                      @Nullable final ImageEncodingCache aImageEncodingCache) throws IOException {
+        final byte[] aBytes = _readAllBytes();
+        final String sDigest = ImageXObjectCache.getDigest(aBytes);
+        final PDImageXObject aXObject;
+        if (aImageEncodingCache != null)
+            aXObject = aImageEncodingCache.getOrCreate(aScratchDoc,
+                    sDigest,
+                    getImageType(),
+                    () -> _createXObject(aScratchDoc, aBytes));
+        else
+            aXObject = _createXObject(aScratchDoc, aBytes);
+        return new ImagePrefetcher.PrefetchedImage(sDigest, aXObject);
+    }
+
+    @Override
+    @NonNull
+    protected PDImageXObject getXObject(@NonNull final PagePreRenderContext aCtx) throws IOException {
+        // Each distinct image is only read and encoded once per document
+        final ImageXObjectCache aCache = aCtx.getGlobalContext().getImageCache();
+        final EPLImageType eImageType = getImageType();
+        PDImageXObject ret = aCache.getFromSource(m_aIIS, eImageType);
+        if (ret != null)
+            return ret;
+
+        // Maybe the image was already read in the background
+        final ImagePrefetcher aPrefetcher = aCtx.getGlobalContext().getImagePrefetcher();
+        if (aPrefetcher != null) {
+            ret = aPrefetcher.getPrefetched(aCtx.getDocument(), aCache, m_aIIS, eImageType);
+            if (ret != null)
+                return ret;
+        }
+
+        final byte[] aBytes = _readAllBytes();
+        final String sDigest = ImageXObjectCache.getDigest(aBytes);
+        ret = aCache.getFromDigest(sDigest, eImageType);
+        if (ret == null) {
+            // Maybe the image was already encoded for another document
+            final PDDocument aDoc = aCtx.getDocument();
+            final ImageEncodingCache aEncodingCache = aCtx.getGlobalContext().getImageEncodingCache();
+            if (aEncodingCache != null)
+                ret = aEncodingCache.getOrCreate(aDoc, sDigest, eImageType, () -> _createXObject(aDoc, aBytes));
+            else
+                ret = _createXObject(aDoc, aBytes);
         }
+        aCache.put(m_aIIS, sDigest, eImageType, ret);
+        return ret;
     }
 
     @Override
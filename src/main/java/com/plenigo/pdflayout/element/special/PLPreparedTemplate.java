@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.special;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.state.EChange;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.plenigo.pdflayout.base.IPLRenderableObject;
+import com.plenigo.pdflayout.base.IPLVisitor;
+import com.plenigo.pdflayout.element.image.AbstractPLImage;
+import com.plenigo.pdflayout.element.link.AbstractPLExternalLink;
+import com.plenigo.pdflayout.element.svg.AbstractPLSvg;
+import com.plenigo.pdflayout.element.text.AbstractPLText;
+import com.plenigo.pdflayout.render.PreparationContext;
+import com.plenigo.pdflayout.render.PreparationContextGlobal;
+import com.plenigo.pdflayout.spec.LoadedFont;
+import com.plenigo.pdflayout.spec.PreloadFont;
+import com.plenigo.pdflayout.spec.SizeSpec;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A layout fragment that is prepared only once and can afterwards be rendered into an arbitrary
+ * number of documents - also concurrently. This is meant for content that is identical in many
+ * documents, like a letterhead or the header of a table. Use {@link #createElement()} to add the
+ * fragment to a page set or to another element of each document. Only the elements surrounding the
+ * template are prepared per document.<br>
+ * The fragment is prepared with fonts loaded into a scratch document. When rendered, the fonts of
+ * the target document are used instead. As the prepared elements are shared, only content that
+ * does not depend on the document or the page can be contained. Texts with placeholders, images,
+ * SVGs, external links and other templates are therefore not supported.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@Immutable
+public final class PLPreparedTemplate {
+    private final IPLRenderableObject<?> m_aElement;
+    private final SizeSpec m_aPrepareAvailableSize;
+    private final SizeSpec m_aSize;
+    private final ICommonsMap<PreloadFont, LoadedFont> m_aLoadedFonts;
+
+    private PLPreparedTemplate(@NonNull final IPLRenderableObject<?> aElement,
+                               @NonNull final SizeSpec aPrepareAvailableSize,
+                               @NonNull final SizeSpec aSize,
+                               @NonNull final ICommonsMap<PreloadFont, LoadedFont> aLoadedFonts) {
+        m_aElement = aElement;
+        m_aPrepareAvailableSize = aPrepareAvailableSize;
+        m_aSize = aSize;
+        m_aLoadedFonts = aLoadedFonts;
+    }
+
+    /**
+     * @return The prepared element. Must not be modified. Never <code>null</code>.
+     */
+    @NonNull
+    IPLRenderableObject<?> getElement() {
+        return m_aElement;
+    }
+
+    /**
+     * @return The available size the template was prepared for. Never <code>null</code>.
+     */
+    @NonNull
+    public SizeSpec getPrepareAvailableSize() {
+        return m_aPrepareAvailableSize;
+    }
+
+    /**
+     * @return The size of the prepared element including its margin, border and padding. Never
+     * <code>null</code>.
+     */
+    @NonNull
+    public SizeSpec getSize() {
+        return m_aSize;
+    }
+
+    @NonNull
+    @ReturnsMutableCopy
+    ICommonsMap<LoadedFont, LoadedFont> getFontMapping(@NonNull final PreparationContextGlobal aGlobalCtx) throws IOException {
+        final ICommonsMap<LoadedFont, LoadedFont> ret = new CommonsHashMap<>(m_aLoadedFonts.size());
+        for (final Map.Entry<PreloadFont, LoadedFont> aEntry : m_aLoadedFonts.entrySet())
+            ret.put(aEntry.getValue(), aGlobalCtx.getLoadedFont(aEntry.getKey()));
+        return ret;
+    }
+
+    /**
+     * Create a new element that renders this template. A new element is needed for every usage,
+     * because each element can only be prepared once.
+     *
+     * @return A new, not yet prepared element. Never <code>null</code>.
+     */
+    @NonNull
+    public PLTemplateElement createElement() {
+        return new PLTemplateElement(this);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringGenerator(this).append("Element", m_aElement)
+                .append("PrepareAvailableSize", m_aPrepareAvailableSize)
+                .append("Size", m_aSize)
+                .append("LoadedFonts", m_aLoadedFonts.keySet())
+                .getToString();
+    }
+
+    private static void _checkSupported(@NonNull final IPLRenderableObject<?> aElement) {
+        final String sReason;
+        if (aElement instanceof AbstractPLText<?> && ((AbstractPLText<?>) aElement).isReplacePlaceholder())
+            sReason = "replaces placeholders";
+        else if (aElement instanceof AbstractPLImage<?> || aElement instanceof AbstractPLSvg<?>)
+            sReason = "requires document specific resources";
+        else if (aElement instanceof AbstractPLExternalLink<?>)
+            sReason = "creates page annotations";
+        else if (aElement instanceof PLTemplateElement)
+            sReason = "is a template itself";
+        else
+            sReason = null;
+        if (sReason != null)
+            throw new IllegalArgumentException("The element " +
+                    aElement.getDebugID() +
+                    " cannot be part of a template, because it " +
+                    sReason);
+    }
+
+    /**
+     * Prepare the provided element as a template. The element must not be used or modified
+     * afterwards.
+     *
+     * @param aElement         The element to be prepared. May not be <code>null</code> and must not
+     *                         be prepared yet.
+     * @param fAvailableWidth  The available width, including margin, border and padding of the
+     *                         element. This should be the width available where the template is
+     *                         used later on.
+     * @param fAvailableHeight The available height, including margin, border and padding of the
+     *                         element.
+     *
+     * @return The prepared template. Never <code>null</code>.
+     *
+     * @throws IOException              In case the fonts cannot be loaded
+     * @throws IllegalArgumentException If the element contains parts that cannot be shared
+     */
+    @NonNull
+    public static PLPreparedTemplate create(@NonNull final IPLRenderableObject<?> aElement,
+                                            @Nonnegative final float fAvailableWidth,
+                                            @Nonnegative final float fAvailableHeight) throws IOException {
+        ValueEnforcer.notNull(aElement, "Element");
+        ValueEnforcer.isGT0(fAvailableWidth, "AvailableWidth");
+        ValueEnforcer.isGT0(fAvailableHeight, "AvailableHeight");
+
+        aElement.visit(IPLVisitor.createElementVisitor(x -> {
+            _checkSupported(x);
+            return EChange.UNCHANGED;
+        }));
+
+        // The document is only needed to load the fonts for measuring
+        try (final PDDocument aScratchDoc = new PDDocument()) {
+            final PreparationContextGlobal aGlobalCtx = new PreparationContextGlobal(aScratchDoc);
+            final SizeSpec aRenderSize = aElement.prepare(new PreparationContext(aGlobalCtx,
+                    fAvailableWidth,
+                    fAvailableHeight));
+            return new PLPreparedTemplate(aElement,
+                    new SizeSpec(fAvailableWidth, fAvailableHeight),
+                    aRenderSize.plus(aElement.getOutlineXSum(), aElement.getOutlineYSum()),
+                    aGlobalCtx.getAllLoadedFonts());
+        }
+    }
+}
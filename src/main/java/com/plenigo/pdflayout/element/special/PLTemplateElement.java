@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.special;
+
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.ICommonsMap;
+import com.plenigo.pdflayout.base.AbstractPLRenderableObject;
+import com.plenigo.pdflayout.pdfbox.PDPageContentStreamWithCache;
+import com.plenigo.pdflayout.render.PageRenderContext;
+import com.plenigo.pdflayout.render.PreparationContext;
+import com.plenigo.pdflayout.render.PreparationContextGlobal;
+import com.plenigo.pdflayout.spec.LoadedFont;
+import com.plenigo.pdflayout.spec.SizeSpec;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.function.UnaryOperator;
+
+/**
+ * An element that renders a {@link PLPreparedTemplate}. Preparing this element does not prepare
+ * the content of the template again - it only loads the fonts used by the template into the current
+ * document. Use {@link PLPreparedTemplate#createElement()} to create instances.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+public class PLTemplateElement extends AbstractPLRenderableObject<PLTemplateElement> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PLTemplateElement.class);
+
+    private final PLPreparedTemplate m_aTemplate;
+    // Status vars
+    private ICommonsMap<LoadedFont, LoadedFont> m_aFontMapping;
+
+    PLTemplateElement(@NonNull final PLPreparedTemplate aTemplate) {
+        ValueEnforcer.notNull(aTemplate, "Template");
+        m_aTemplate = aTemplate;
+    }
+
+    /**
+     * @return The template rendered by this element. Never <code>null</code>.
+     */
+    @NonNull
+    public final PLPreparedTemplate getTemplate() {
+        return m_aTemplate;
+    }
+
+    @Override
+    protected SizeSpec onPrepare(@NonNull final PreparationContext aCtx) {
+        final PreparationContextGlobal aGlobalCtx = aCtx.getGlobalContext();
+        if (aGlobalCtx == null)
+            throw new IllegalStateException("A global preparation context is required to prepare " + getDebugID());
+
+        final SizeSpec aSize = m_aTemplate.getSize();
+        if (aSize.getWidth() > aCtx.getAvailableWidth())
+            LOGGER.warn("The template " +
+                    getDebugID() +
+                    " has a width of " +
+                    aSize.getWidth() +
+                    " but only " +
+                    aCtx.getAvailableWidth() +
+                    " is available");
+
+        // Load the fonts of the template into the current document
+        try {
+            m_aFontMapping = m_aTemplate.getFontMapping(aGlobalCtx);
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Failed to prepare template element: " + toString(), ex);
+        }
+        return aSize;
+    }
+
+    @Override
+    protected void onMarkAsNotPrepared() {
+        m_aFontMapping = null;
+    }
+
+    @Override
+    protected void onRender(@NonNull final PageRenderContext aCtx) throws IOException {
+        final SizeSpec aSize = m_aTemplate.getSize();
+        final PDPageContentStreamWithCache aContentStream = aCtx.getContentStream();
+
+        // Use the fonts of the current document instead of the ones used for preparation
+        final UnaryOperator<LoadedFont> aOldMapper = aContentStream.getLoadedFontMapper();
+        aContentStream.setLoadedFontMapper(x -> m_aFontMapping.getOrDefault(x, x));
+        try {
+            m_aTemplate.getElement()
+                    .render(new PageRenderContext(aCtx,
+                            aCtx.getStartLeft(),
+                            aCtx.getStartTop(),
+                            aSize.getWidth(),
+                            aSize.getHeight()));
+        } finally {
+            aContentStream.setLoadedFontMapper(aOldMapper);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return ToStringGenerator.getDerived(super.toString()).append("Template", m_aTemplate).getToString();
+    }
+}
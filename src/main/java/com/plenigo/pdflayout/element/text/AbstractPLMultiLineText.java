@@ -21,7 +21,6 @@ import com.helger.base.state.EChange;
 import com.helger.base.string.StringReplace;
 import com.helger.base.tostring.ToStringGenerator;
 import com.helger.collection.commons.CommonsArrayList;
-import com.helger.collection.commons.ICommonsMap;
 import org.jspecify.annotations.Nullable;
 import org.jspecify.annotations.NonNull;
 import com.helger.annotation.CheckForSigned;
@@ -30,8 +29,8 @@ import com.helger.base.CGlobal;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.collection.commons.ICommonsList;
 import com.plenigo.pdflayout.base.AbstractPLRenderableObject;
-import com.plenigo.pdflayout.base.EPLPlaceholder;
 import com.plenigo.pdflayout.base.IPLHasHorizontalAlignment;
+import com.plenigo.pdflayout.base.PLBeforeRenderHelper;
 import com.plenigo.pdflayout.debug.PLDebugLog;
 import com.plenigo.pdflayout.pdfbox.PDPageContentStreamWithCache;
 import com.plenigo.pdflayout.render.PagePreRenderContext;
@@ -234,9 +233,6 @@ public abstract class AbstractPLMultiLineText<IMPLTYPE extends AbstractPLMultiLi
         }
     }
 
-    // Call only once here - used read-only!
-    private static final ICommonsMap<String, String> ESTIMATION_REPLACEMENTS = EPLPlaceholder.getEstimationReplacements();
-
     /**
      * Prepare max available width.
      *
@@ -280,7 +276,7 @@ public abstract class AbstractPLMultiLineText<IMPLTYPE extends AbstractPLMultiLi
             sTextToFit = m_sTextWithPlaceholdersReplaced;
         } else {
             // Use the approximations from the placeholders
-            sTextToFit = StringReplace.replaceMultiple(m_sOriginalText, ESTIMATION_REPLACEMENTS);
+            sTextToFit = CompiledPlaceholderText.getEstimationText(m_sOriginalText);
         }
         internalSetPreparedLines(m_aLoadedFont.getFitToWidth(sTextToFit, fFontSize, fAvailableWidth, m_fMaxAvailableWidth));
 
@@ -327,6 +323,12 @@ public abstract class AbstractPLMultiLineText<IMPLTYPE extends AbstractPLMultiLi
         return (nLineCount - 1) * m_fTextHeight * m_fLineSpacing + 1 * m_fTextHeight;
     }
 
+    @Override
+    public boolean isBeforeRenderNeeded() {
+        // Nothing to do, unless beforeRender is customized
+        return PLBeforeRenderHelper.isBeforeRenderOverridden(getClass(), AbstractPLMultiLineText.class);
+    }
+
     @Override
     @NonNull
     public EChange beforeRender(@NonNull final PagePreRenderContext aCtx) throws IOException {
@@ -365,8 +367,10 @@ public abstract class AbstractPLMultiLineText<IMPLTYPE extends AbstractPLMultiLi
         final float fTextHeight = m_fTextHeight;
         final float fPreparedWidth = getPreparedWidth();
         final boolean bDoJustifyText = m_eHorzAlign == EHorzAlignment.JUSTIFY;
+        final boolean bCompactTextOperators = aContentStream.isCompactTextOperators();
 
         int nIndex = 0;
+        float fPrevIndentX = 0;
         final int nMax = m_aPreparedLines.size();
         for (final TextAndWidthSpec aTW : m_aPreparedLines) {
             final boolean bBeforeLastLine = nIndex < (nMax - 1);
@@ -380,6 +384,10 @@ public abstract class AbstractPLMultiLineText<IMPLTYPE extends AbstractPLMultiLi
             if (nIndex == 0) {
                 // Initial move - only partial line height!
                 aContentStream.moveTextPositionByAmount(fRenderLeft + fIndentX, fRenderTop - fTextHeight - m_fDescent);
+            } else if (bCompactTextOperators) {
+                // Outdent, indent and one line down in a single move
+                final float fNextIndentX = nIndex == 1 ? fRenderLeft * -1 : fIndentX;
+                aContentStream.moveToNextTextLine(fNextIndentX - fPrevIndentX, -fTextHeight * m_fLineSpacing);
             } else if (nIndex == 1) {
                 aContentStream.moveTextPositionByAmount(fRenderLeft * -1, 0);
             } else if (fIndentX != 0) {
@@ -413,10 +421,11 @@ public abstract class AbstractPLMultiLineText<IMPLTYPE extends AbstractPLMultiLi
             // Goto next line
             // Handle indent per-line as when right alignment is used, the indentX may
             // differ from line to line
-            if (bBeforeLastLine) {
+            if (bBeforeLastLine && !bCompactTextOperators) {
                 // Outdent and one line down, except for last line
                 aContentStream.moveTextPositionByAmount(-fIndentX, -fTextHeight * m_fLineSpacing);
             }
+            fPrevIndentX = fIndentX;
         }
 
         aContentStream.endText();
@@ -31,11 +31,10 @@ import com.helger.base.string.StringReplace;
 import com.helger.base.tostring.ToStringGenerator;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
-import com.helger.collection.commons.ICommonsMap;
 import com.plenigo.pdflayout.base.AbstractPLInlineElement;
-import com.plenigo.pdflayout.base.EPLPlaceholder;
 import com.plenigo.pdflayout.base.IPLHasHorizontalAlignment;
 import com.plenigo.pdflayout.base.IPLSplittableObject;
+import com.plenigo.pdflayout.base.PLBeforeRenderHelper;
 import com.plenigo.pdflayout.base.PLElementWithSize;
 import com.plenigo.pdflayout.base.PLSplitResult;
 import com.plenigo.pdflayout.debug.PLDebugLog;
@@ -44,16 +43,19 @@ import com.plenigo.pdflayout.render.PLRenderHelper;
 import com.plenigo.pdflayout.render.PagePreRenderContext;
 import com.plenigo.pdflayout.render.PageRenderContext;
 import com.plenigo.pdflayout.render.PreparationContext;
+import com.plenigo.pdflayout.render.PreparationContextGlobal;
 import com.plenigo.pdflayout.spec.EHorzAlignment;
 import com.plenigo.pdflayout.spec.FontSpec;
 import com.plenigo.pdflayout.spec.LoadedFont;
 import com.plenigo.pdflayout.spec.SizeSpec;
 import com.plenigo.pdflayout.spec.TextAndWidthSpec;
+import com.plenigo.pdflayout.spec.TextLayoutCache;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Function;
 
 import static com.plenigo.pdflayout.render.PLRenderHelper.fillAndRenderBorderRounded;
 
@@ -86,6 +88,9 @@ public abstract class AbstractPLText<IMPLTYPE extends AbstractPLText<IMPLTYPE>>
 
     // prepare result
     private transient LoadedFont m_aLoadedFont;
+    // Created lazily, only if the text may contain placeholders
+    private transient CompiledPlaceholderText m_aCompiledText;
+    private transient boolean m_bCompiledTextCreated;
     protected float m_fTextHeight;
     protected float m_fDescent;
     private float m_fCustomAscentFirstLine = 0f;
@@ -120,6 +125,8 @@ public abstract class AbstractPLText<IMPLTYPE extends AbstractPLText<IMPLTYPE>>
     private void _setText(@Nullable final String sText) {
         m_sOriginalText = getCleanedPLText(sText);
         m_sTextWithPlaceholdersReplaced = m_sOriginalText;
+        m_aCompiledText = null;
+        m_bCompiledTextCreated = false;
     }
 
     @Override
@@ -367,21 +374,30 @@ public abstract class AbstractPLText<IMPLTYPE extends AbstractPLText<IMPLTYPE>>
         m_fDescent = fDescent;
     }
 
-    // Call only once here - used read-only!
-    private static final ICommonsMap<String, String> ESTIMATION_REPLACEMENTS = EPLPlaceholder.getEstimationReplacements();
+    @Nullable
+    private CompiledPlaceholderText _getCompiledText() {
+        if (!m_bCompiledTextCreated) {
+            m_aCompiledText = CompiledPlaceholderText.compileOrNull(m_sOriginalText);
+            m_bCompiledTextCreated = true;
+        }
+        return m_aCompiledText;
+    }
 
     /**
      * This method can only be called after loadedFont member was set!
      *
      * @param fAvailableWidth  Available with
      * @param bAlreadyReplaced <code>true</code> if the text was already replaced
+     * @param aTextLayoutCache The optional cache for the split lines. May be <code>null</code>.
      *
      * @return The new preparation size
      *
      * @throws IOException On PDFBox error
      */
     @NonNull
-    private SizeSpec _prepareText(final float fAvailableWidth, final boolean bAlreadyReplaced) throws IOException {
+    private SizeSpec _prepareText(final float fAvailableWidth,
+                                  final boolean bAlreadyReplaced,
+                                  @Nullable final TextLayoutCache aTextLayoutCache) throws IOException {
         final float fFontSize = m_aFontSpec.getFontSize();
         m_fTextHeight = m_aLoadedFont.getTextHeight(fFontSize);
         m_fDescent = m_aLoadedFont.getDescent(fFontSize);
@@ -398,9 +414,21 @@ public abstract class AbstractPLText<IMPLTYPE extends AbstractPLText<IMPLTYPE>>
             sTextToFit = m_sTextWithPlaceholdersReplaced;
         } else {
             // Use the approximations from the placeholders
-            sTextToFit = StringReplace.replaceMultiple(m_sOriginalText, ESTIMATION_REPLACEMENTS);
+            final CompiledPlaceholderText aCompiledText = _getCompiledText();
+            sTextToFit = aCompiledText == null ? m_sOriginalText : aCompiledText.getEstimationText();
         }
-        internalSetPreparedLines(m_aLoadedFont.getFitToWidth(sTextToFit, fFontSize, fAvailableWidth));
+        if (aTextLayoutCache != null)
+            return _prepareLines(aTextLayoutCache.getFitToWidth(m_aLoadedFont,
+                    sTextToFit,
+                    fFontSize,
+                    fAvailableWidth,
+                    fAvailableWidth));
+        return _prepareLines(m_aLoadedFont.getFitToWidth(sTextToFit, fFontSize, fAvailableWidth));
+    }
+
+    @NonNull
+    private SizeSpec _prepareLines(@NonNull final ICommonsList<TextAndWidthSpec> aLines) {
+        internalSetPreparedLines(aLines);
 
         // Determine max width of all prepared lines
         float fMaxWidth = Float.MIN_VALUE;
@@ -418,8 +446,9 @@ public abstract class AbstractPLText<IMPLTYPE extends AbstractPLText<IMPLTYPE>>
 
         // Load font into document
         try {
-            m_aLoadedFont = aCtx.getGlobalContext().getLoadedFont(m_aFontSpec);
-            return _prepareText(fElementWidth, false);
+            final PreparationContextGlobal aGlobalCtx = aCtx.getGlobalContext();
+            m_aLoadedFont = aGlobalCtx.getLoadedFont(m_aFontSpec);
+            return _prepareText(fElementWidth, false, aGlobalCtx.getTextLayoutCache());
         } catch (final IOException ex) {
             throw new IllegalStateException("Failed to prepare text element: " + toString(), ex);
         }
@@ -436,7 +465,15 @@ public abstract class AbstractPLText<IMPLTYPE extends AbstractPLText<IMPLTYPE>>
                                              final float fAvailableWidth) throws IOException {
         internalMarkAsNotPrepared();
         m_sTextWithPlaceholdersReplaced = sNewTextWithPlaceholdersReplaced;
-        final SizeSpec aOnPrepareResult = _prepareText(fAvailableWidth, true);
+        final SizeSpec aOnPrepareResult = _prepareText(fAvailableWidth, true, null);
+        internalMarkAsPrepared(aOnPrepareResult);
+    }
+
+    private void _setDisplayTextAfterPrepare(@NonNull final String sNewTextWithPlaceholdersReplaced,
+                                             @NonNull final ICommonsList<TextAndWidthSpec> aNewLines) {
+        internalMarkAsNotPrepared();
+        m_sTextWithPlaceholdersReplaced = sNewTextWithPlaceholdersReplaced;
+        final SizeSpec aOnPrepareResult = _prepareLines(aNewLines);
         internalMarkAsPrepared(aOnPrepareResult);
     }
 
@@ -577,10 +614,32 @@ public abstract class AbstractPLText<IMPLTYPE extends AbstractPLText<IMPLTYPE>>
         return PLSplitResult.createSplit(aText1, aText2);
     }
 
+    @Override
+    public boolean isBeforeRenderNeeded() {
+        // Only placeholders change per page, unless beforeRender is customized
+        return m_bReplacePlaceholder || PLBeforeRenderHelper.isBeforeRenderOverridden(getClass(), AbstractPLText.class);
+    }
+
     @Override
     @NonNull
     public EChange beforeRender(@NonNull final PagePreRenderContext aCtx) throws IOException {
-        if (m_bReplacePlaceholder) {
+        if (m_bReplacePlaceholder && aCtx.hasOnlyVariablePlaceholders()) {
+            // Only the variables contained in the text need to be looked up
+            final CompiledPlaceholderText aCompiledText = _getCompiledText();
+            if (aCompiledText != null && aCompiledText.hasVariables()) {
+                final Function<String, String> aResolver = aCtx::getPlaceholder;
+                final String sDisplayText = aCompiledText.getReplacedText(aResolver);
+                if (!m_sOriginalText.equals(sDisplayText)) {
+                    // Something changed - only the lines with variables are split again
+                    _setDisplayTextAfterPrepare(sDisplayText,
+                            aCompiledText.getFitToWidth(m_aLoadedFont,
+                                    m_aFontSpec.getFontSize(),
+                                    getPrepareAvailableSize().getWidth(),
+                                    aResolver));
+                    return EChange.CHANGED;
+                }
+            }
+        } else if (m_bReplacePlaceholder) {
             final String sOrigText = m_sOriginalText;
             final String sDisplayText = StringReplace.replaceMultiple(sOrigText, aCtx.getAllPlaceholders());
             if (!sOrigText.equals(sDisplayText)) {
@@ -642,8 +701,10 @@ public abstract class AbstractPLText<IMPLTYPE extends AbstractPLText<IMPLTYPE>>
         final float fPreparedWidth = getPreparedWidth();
         final boolean bDoTextJustify = m_eHorzAlign == EHorzAlignment.JUSTIFY;
         final boolean bDoTextBlock = m_eHorzAlign == EHorzAlignment.BLOCK;
+        final boolean bCompactTextOperators = aContentStream.isCompactTextOperators();
 
         int nIndex = 0;
+        float fPrevIndentX = 0;
         final int nMax = m_aPreparedLines.size();
         for (final TextAndWidthSpec aTW : m_aPreparedLines) {
             final boolean bBeforeLastLine = nIndex < (nMax - 1);
@@ -658,6 +719,9 @@ public abstract class AbstractPLText<IMPLTYPE extends AbstractPLText<IMPLTYPE>>
                 // Initial move - only partial line height!
                 aContentStream.moveTextPositionByAmount(fRenderLeft + fIndentX,
                         fRenderTop - fTextHeight - m_fDescent + m_fCustomAscentFirstLine);
+            } else if (bCompactTextOperators) {
+                // Outdent, indent and one line down in a single move
+                aContentStream.moveToNextTextLine(fIndentX - fPrevIndentX, -fTextHeight * m_fLineSpacing);
             } else if (fIndentX != 0) {
                 // Indent subsequent line
                 aContentStream.moveTextPositionByAmount(fIndentX, 0);
@@ -688,10 +752,11 @@ public abstract class AbstractPLText<IMPLTYPE extends AbstractPLText<IMPLTYPE>>
             // Goto next line
             // Handle indent per-line as when right alignment is used, the indentX may
             // differ from line to line
-            if (bBeforeLastLine) {
+            if (bBeforeLastLine && !bCompactTextOperators) {
                 // Outdent and one line down, except for last line
                 aContentStream.moveTextPositionByAmount(-fIndentX, -fTextHeight * m_fLineSpacing);
             }
+            fPrevIndentX = fIndentX;
         }
 
         aContentStream.endText();
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.text;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.plenigo.pdflayout.base.EPLPlaceholder;
+import com.plenigo.pdflayout.spec.LoadedFont;
+import com.plenigo.pdflayout.spec.TextAndWidthSpec;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * A text with placeholders (see {@link EPLPlaceholder}) that is split once into literal and
+ * variable segments. Replacing the placeholders for a page only looks up and measures the
+ * variables, and the line breaks of paragraphs without variables are determined only once.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@NotThreadSafe
+final class CompiledPlaceholderText {
+    private static final String VARIABLE_START = "${";
+    private static final char VARIABLE_END = '}';
+    // The sum of the segment widths may differ from the width of the whole line in the last digits.
+    // Lines that get that close to the available width are fitted the regular way, so that the
+    // result is the same as for the uncompiled text. Relative to the available width, as the
+    // rounding error grows with the width.
+    private static final float RELATIVE_WIDTH_TOLERANCE = 1e-4f;
+    private static final float MIN_WIDTH_TOLERANCE = 0.001f;
+
+    /**
+     * The text between two hard line breaks.
+     */
+    private static final class Paragraph {
+        private final String m_sText;
+        // One literal more than variables: before, between and after the variables
+        private final String[] m_aLiterals;
+        private final String[] m_aVariables;
+        // Depending on the font, the font size and the available width
+        private float[] m_aLiteralWidths;
+        private ICommonsList<TextAndWidthSpec> m_aLines;
+
+        Paragraph(@NonNull final String sText) {
+            final ICommonsList<String> aLiterals = new CommonsArrayList<>();
+            final ICommonsList<String> aVariables = new CommonsArrayList<>();
+            int nLiteralStart = 0;
+            int nSearchStart = 0;
+            while (true) {
+                final int nEnd = sText.indexOf(VARIABLE_END, nSearchStart);
+                if (nEnd < 0)
+                    break;
+                // Use the closest start, so that "${a ${b}" contains the variable "${b}"
+                final int nStart = sText.lastIndexOf(VARIABLE_START, nEnd);
+                if (nStart >= nLiteralStart) {
+                    aLiterals.add(sText.substring(nLiteralStart, nStart));
+                    aVariables.add(sText.substring(nStart, nEnd + 1));
+                    nLiteralStart = nEnd + 1;
+                }
+                nSearchStart = nEnd + 1;
+            }
+            aLiterals.add(sText.substring(nLiteralStart));
+
+            m_sText = sText;
+            m_aLiterals = aLiterals.toArray(new String[0]);
+            m_aVariables = aVariables.toArray(new String[0]);
+        }
+
+        boolean hasVariables() {
+            return m_aVariables.length > 0;
+        }
+
+        @NonNull
+        String getReplacedText(@NonNull final Function<String, String> aResolver) {
+            if (m_aVariables.length == 0)
+                return m_sText;
+
+            final StringBuilder aSB = new StringBuilder(m_sText.length());
+            for (int i = 0; i < m_aVariables.length; ++i) {
+                aSB.append(m_aLiterals[i]);
+                final String sValue = aResolver.apply(m_aVariables[i]);
+                // Unknown variables stay as they are
+                aSB.append(sValue != null ? sValue : m_aVariables[i]);
+            }
+            aSB.append(m_aLiterals[m_aVariables.length]);
+            return aSB.toString();
+        }
+    }
+
+    private final String m_sText;
+    private final Paragraph[] m_aParagraphs;
+    private final boolean m_bHasVariables;
+    private final String m_sEstimationText;
+
+    // The values the widths and lines of the paragraphs were determined with
+    private LoadedFont m_aMeasuredFont;
+    private float m_fMeasuredFontSize;
+    private float m_fMeasuredMaxWidth;
+
+    private CompiledPlaceholderText(@NonNull final String sText) {
+        final ICommonsList<Paragraph> aParagraphs = new CommonsArrayList<>();
+        boolean bHasVariables = false;
+        // In the constructor of the text elements it was ensured that only "\n" is used
+        int nParagraphStart = 0;
+        while (true) {
+            final int nLineBreak = sText.indexOf('\n', nParagraphStart);
+            final Paragraph aParagraph = new Paragraph(nLineBreak < 0 ? sText.substring(nParagraphStart)
+                    : sText.substring(nParagraphStart, nLineBreak));
+            aParagraphs.add(aParagraph);
+            bHasVariables |= aParagraph.hasVariables();
+            if (nLineBreak < 0)
+                break;
+            nParagraphStart = nLineBreak + 1;
+        }
+
+        m_sText = sText;
+        m_aParagraphs = aParagraphs.toArray(new Paragraph[0]);
+        m_bHasVariables = bHasVariables;
+        m_sEstimationText = getReplacedText(CompiledPlaceholderText::_getEstimatedText);
+    }
+
+    @Nullable
+    private static String _getEstimatedText(@NonNull final String sVariable) {
+        final EPLPlaceholder ePlaceholder = EPLPlaceholder.getFromVariableOrNull(sVariable);
+        return ePlaceholder == null ? null : ePlaceholder.getEstimatedPrepareText();
+    }
+
+    /**
+     * @return <code>true</code> if the text contains at least one variable.
+     */
+    boolean hasVariables() {
+        return m_bHasVariables;
+    }
+
+    /**
+     * @return The text with all {@link EPLPlaceholder} variables replaced by their estimated text.
+     * Never <code>null</code>.
+     */
+    @NonNull
+    String getEstimationText() {
+        return m_sEstimationText;
+    }
+
+    /**
+     * Get the text with all variables replaced.
+     *
+     * @param aResolver The function to get the value of a variable. It receives the variable
+     *                  including the leading "${" and the trailing "}". If it returns
+     *                  <code>null</code> the variable is kept as is. May not be <code>null</code>.
+     *
+     * @return The replaced text. Never <code>null</code>.
+     */
+    @NonNull
+    String getReplacedText(@NonNull final Function<String, String> aResolver) {
+        if (!m_bHasVariables)
+            return m_sText;
+        if (m_aParagraphs.length == 1)
+            return m_aParagraphs[0].getReplacedText(aResolver);
+
+        final StringBuilder aSB = new StringBuilder(m_sText.length());
+        for (int i = 0; i < m_aParagraphs.length; ++i) {
+            if (i > 0)
+                aSB.append('\n');
+            aSB.append(m_aParagraphs[i].getReplacedText(aResolver));
+        }
+        return aSB.toString();
+    }
+
+    @NonNull
+    private static ICommonsList<TextAndWidthSpec> _getFitToWidth(@NonNull final LoadedFont aFont,
+                                                                 @NonNull final String sText,
+                                                                 @Nonnegative final float fFontSize,
+                                                                 @Nonnegative final float fMaxWidth) throws IOException {
+        // An empty paragraph is still an empty line
+        if (sText.isEmpty())
+            return new CommonsArrayList<>(new TextAndWidthSpec("", 0, true));
+        return aFont.getFitToWidth(sText, fFontSize, fMaxWidth);
+    }
+
+    /**
+     * Split the text with all variables replaced into lines, like
+     * {@link LoadedFont#getFitToWidth(String, float, float)} does. Only the paragraphs containing
+     * variables are split again, and a paragraph that fits into a single line is not split at all.
+     *
+     * @param aFont     The font to use. May not be <code>null</code>.
+     * @param fFontSize The font size to use. Must be &gt; 0.
+     * @param fMaxWidth The maximum width of a line. Must be &gt; 0.
+     * @param aResolver The function to get the value of a variable. May not be <code>null</code>.
+     *
+     * @return The lines of the replaced text. Never <code>null</code>.
+     *
+     * @throws IOException In case something goes wrong
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    ICommonsList<TextAndWidthSpec> getFitToWidth(@NonNull final LoadedFont aFont,
+                                                 @Nonnegative final float fFontSize,
+                                                 @Nonnegative final float fMaxWidth,
+                                                 @NonNull final Function<String, String> aResolver) throws IOException {
+        ValueEnforcer.notNull(aFont, "Font");
+        ValueEnforcer.notNull(aResolver, "Resolver");
+
+        if (!aFont.equals(m_aMeasuredFont) || fFontSize != m_fMeasuredFontSize || fMaxWidth != m_fMeasuredMaxWidth) {
+            // Forget everything measured before
+            for (final Paragraph aParagraph : m_aParagraphs) {
+                aParagraph.m_aLiteralWidths = null;
+                aParagraph.m_aLines = null;
+            }
+            m_aMeasuredFont = aFont;
+            m_fMeasuredFontSize = fFontSize;
+            m_fMeasuredMaxWidth = fMaxWidth;
+        }
+
+        final ICommonsList<TextAndWidthSpec> ret = new CommonsArrayList<>();
+        for (final Paragraph aParagraph : m_aParagraphs) {
+            if (!aParagraph.hasVariables()) {
+                // Always the same lines
+                if (aParagraph.m_aLines == null)
+                    aParagraph.m_aLines = _getFitToWidth(aFont, aParagraph.m_sText, fFontSize, fMaxWidth);
+                ret.addAll(aParagraph.m_aLines);
+                continue;
+            }
+
+            if (aParagraph.m_aLiteralWidths == null) {
+                final String[] aLiterals = aParagraph.m_aLiterals;
+                final float[] aWidths = new float[aLiterals.length];
+                for (int i = 0; i < aLiterals.length; ++i)
+                    aWidths[i] = aFont.getStringWidth(aLiterals[i], fFontSize);
+                aParagraph.m_aLiteralWidths = aWidths;
+            }
+
+            // Only the values of the variables need to be measured
+            final String[] aVariables = aParagraph.m_aVariables;
+            final StringBuilder aSB = new StringBuilder(aParagraph.m_sText.length());
+            float fWidth = 0;
+            boolean bValueHasLineBreak = false;
+            for (int i = 0; i < aVariables.length; ++i) {
+                aSB.append(aParagraph.m_aLiterals[i]);
+                fWidth += aParagraph.m_aLiteralWidths[i];
+                final String sValue = aResolver.apply(aVariables[i]);
+                final String sRealValue = sValue != null ? sValue : aVariables[i];
+                aSB.append(sRealValue);
+                if (sRealValue.indexOf('\n') >= 0)
+                    bValueHasLineBreak = true;
+                else
+                    fWidth += aFont.getStringWidth(sRealValue, fFontSize);
+            }
+            aSB.append(aParagraph.m_aLiterals[aVariables.length]);
+            fWidth += aParagraph.m_aLiteralWidths[aVariables.length];
+
+            final String sText = aSB.toString();
+            if (m_aParagraphs.length == 1 && sText.isEmpty()) {
+                // Same as LoadedFont.getFitToWidth for an empty text
+                return ret;
+            }
+            final float fTolerance = Math.max(MIN_WIDTH_TOLERANCE, fMaxWidth * RELATIVE_WIDTH_TOLERANCE);
+            if (!bValueHasLineBreak && fWidth <= fMaxWidth - fTolerance) {
+                // Fits into a single line - no need to look for line breaks
+                ret.add(new TextAndWidthSpec(sText, fWidth, true));
+            } else
+                ret.addAll(_getFitToWidth(aFont, sText, fFontSize, fMaxWidth));
+        }
+        return ret;
+    }
+
+    /**
+     * Compile the provided text if it may contain variables.
+     *
+     * @param sText The text to compile. May be <code>null</code>.
+     *
+     * @return <code>null</code> if the text cannot contain any variable.
+     */
+    @Nullable
+    static CompiledPlaceholderText compileOrNull(@Nullable final String sText) {
+        if (sText == null || !sText.contains(VARIABLE_START))
+            return null;
+        return new CompiledPlaceholderText(sText);
+    }
+
+    /**
+     * Get the text with all {@link EPLPlaceholder} variables replaced by their estimated text.
+     *
+     * @param sText The text to use. May not be <code>null</code>.
+     *
+     * @return The estimation text. Never <code>null</code>.
+     */
+    @NonNull
+    static String getEstimationText(@NonNull final String sText) {
+        final CompiledPlaceholderText aCompiled = compileOrNull(sText);
+        return aCompiled == null ? sText : aCompiled.getEstimationText();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringGenerator(this).append("Text", m_sText)
+                .append("ParagraphCount", m_aParagraphs.length)
+                .append("HasVariables", m_bHasVariables)
+                .getToString();
+    }
+}
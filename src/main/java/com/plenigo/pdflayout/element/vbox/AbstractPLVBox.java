@@ -92,6 +92,20 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
     /** prepared element size (without outline) */
     private SizeSpec[] m_aPreparedElementSize;
 
+    // Split remainder view: after the own rows, all rows of this source VBox
+    // starting at the offset are part of this VBox as well. This avoids copying
+    // all remaining rows on every vertical split.
+    private AbstractPLVBox<?> m_aViewSource;
+    private int m_nViewOffset;
+    // All split remainder views referencing this VBox (view source only). They
+    // are materialized before this VBox is marked as not prepared.
+    private ICommonsList<AbstractPLVBox<?>> m_aViews;
+    // Lazily created prefix sums of the prepared row heights (view source only)
+    private double[] m_aPreparedRowHeightPrefixSum;
+    // Lazily determined index of the last row with a vertically splittable
+    // element (view source only); -1 if none; null if not yet determined
+    private Integer m_aLastVertSplittableRowIndex;
+
     public AbstractPLVBox() {
     }
 
@@ -111,7 +125,9 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
      */
     @Nonnegative
     public int getRowCount() {
-        return m_aRows.size();
+        if (m_aViewSource == null)
+            return m_aRows.size();
+        return m_aRows.size() + m_aViewSource.m_aRows.size() - m_nViewOffset;
     }
 
     /**
@@ -120,7 +136,13 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
     @NonNull
     @ReturnsMutableCopy
     public ICommonsList<com.plenigo.pdflayout.element.vbox.PLVBoxRow> getAllRows() {
-        return m_aRows.getClone();
+        if (m_aViewSource == null)
+            return m_aRows.getClone();
+
+        final ICommonsList<PLVBoxRow> ret = new CommonsArrayList<>(getRowCount());
+        ret.addAll(m_aRows);
+        ret.addAll(m_aViewSource.m_aRows.subList(m_nViewOffset, m_aViewSource.m_aRows.size()));
+        return ret;
     }
 
     /**
@@ -128,15 +150,56 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
      */
     @NonNull
     public Iterable<com.plenigo.pdflayout.element.vbox.PLVBoxRow> getRows() {
-        return m_aRows;
+        if (m_aViewSource == null)
+            return m_aRows;
+        return getAllRows();
     }
 
     public void forEachRow(@NonNull final Consumer<? super com.plenigo.pdflayout.element.vbox.PLVBoxRow> aConsumer) {
         m_aRows.forEach(aConsumer);
+        if (m_aViewSource != null) {
+            final ICommonsList<PLVBoxRow> aSourceRows = m_aViewSource.m_aRows;
+            for (int i = m_nViewOffset; i < aSourceRows.size(); ++i)
+                aConsumer.accept(aSourceRows.get(i));
+        }
     }
 
     public void forEachRowByIndex(@NonNull final ObjIntConsumer<? super com.plenigo.pdflayout.element.vbox.PLVBoxRow> aConsumer) {
         m_aRows.forEachByIndex(aConsumer);
+        if (m_aViewSource != null) {
+            final ICommonsList<PLVBoxRow> aSourceRows = m_aViewSource.m_aRows;
+            int nIndex = m_aRows.size();
+            for (int i = m_nViewOffset; i < aSourceRows.size(); ++i)
+                aConsumer.accept(aSourceRows.get(i), nIndex++);
+        }
+    }
+
+    /**
+     * Get the row at the specified index, considering a potential split remainder view. The index
+     * must be valid.
+     */
+    @NonNull
+    private PLVBoxRow _getRow(@Nonnegative final int nIndex) {
+        final int nOwnRows = m_aRows.size();
+        if (nIndex < nOwnRows)
+            return m_aRows.get(nIndex);
+        return m_aViewSource.m_aRows.get(m_nViewOffset + nIndex - nOwnRows);
+    }
+
+    @NonNull
+    private SizeSpec _getPreparedRowSize(@Nonnegative final int nIndex) {
+        final int nOwnRows = m_aRows.size();
+        if (nIndex < nOwnRows)
+            return m_aPreparedRowSize[nIndex];
+        return m_aViewSource.m_aPreparedRowSize[m_nViewOffset + nIndex - nOwnRows];
+    }
+
+    @NonNull
+    private SizeSpec _getPreparedElementSize(@Nonnegative final int nIndex) {
+        final int nOwnRows = m_aRows.size();
+        if (nIndex < nOwnRows)
+            return m_aPreparedElementSize[nIndex];
+        return m_aViewSource.m_aPreparedElementSize[m_nViewOffset + nIndex - nOwnRows];
     }
 
     /**
@@ -148,7 +211,11 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
      */
     @Nullable
     public PLVBoxRow getRowAtIndex(@Nonnegative final int nIndex) {
-        return m_aRows.getAtIndex(nIndex);
+        if (m_aViewSource == null)
+            return m_aRows.getAtIndex(nIndex);
+        if (nIndex < 0 || nIndex >= getRowCount())
+            return null;
+        return _getRow(nIndex);
     }
 
     /**
@@ -156,7 +223,7 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
      */
     @Nullable
     public PLVBoxRow getFirstRow() {
-        return m_aRows.getFirstOrNull();
+        return getRowAtIndex(0);
     }
 
     /**
@@ -164,7 +231,7 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
      */
     @Nullable
     public PLVBoxRow getLastRow() {
-        return m_aRows.getLastOrNull();
+        return getRowAtIndex(getRowCount() - 1);
     }
 
     /**
@@ -363,7 +430,79 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
     }
 
     public boolean containsAnyVertSplittableElement() {
-        return m_aRows.containsAny(x -> x.getElement().isVertSplittable());
+        if (m_aRows.containsAny(x -> x.getElement().isVertSplittable()))
+            return true;
+        return m_aViewSource != null && m_aViewSource._getLastVertSplittableRowIndex() >= m_nViewOffset;
+    }
+
+    private int _getLastVertSplittableRowIndex() {
+        Integer ret = m_aLastVertSplittableRowIndex;
+        if (ret == null) {
+            int nIndex = m_aRows.size() - 1;
+            while (nIndex >= 0 && !m_aRows.get(nIndex).getElement().isVertSplittable())
+                --nIndex;
+            ret = m_aLastVertSplittableRowIndex = Integer.valueOf(nIndex);
+        }
+        return ret.intValue();
+    }
+
+    /**
+     * Get the sum of the prepared row heights from the provided index to the end. Used to determine
+     * the height of a split remainder view in constant time.
+     *
+     * @param nStartIndex
+     *        The index of the first row to consider. Must be &ge; 0.
+     * @return The sum of all row heights
+     */
+    private float _getPreparedRowHeightSum(@Nonnegative final int nStartIndex) {
+        double[] aPrefixSum = m_aPreparedRowHeightPrefixSum;
+        if (aPrefixSum == null) {
+            aPrefixSum = new double[m_aPreparedRowSize.length + 1];
+            for (int i = 0; i < m_aPreparedRowSize.length; ++i)
+                aPrefixSum[i + 1] = aPrefixSum[i] + m_aPreparedRowSize[i].getHeight();
+            m_aPreparedRowHeightPrefixSum = aPrefixSum;
+        }
+        return (float) (aPrefixSum[m_aPreparedRowSize.length] - aPrefixSum[nStartIndex]);
+    }
+
+    /**
+     * Convert a split remainder view into a self-contained VBox by copying all rows and the prepared
+     * row sizes of the view source.
+     */
+    private void _materializeView() {
+        final AbstractPLVBox<?> aViewSource = m_aViewSource;
+        if (aViewSource != null) {
+            final int nOwnRows = m_aRows.size();
+            final int nSourceRows = aViewSource.m_aRows.size();
+            m_aRows.addAll(aViewSource.m_aRows.subList(m_nViewOffset, nSourceRows));
+            if (m_aPreparedRowSize != null) {
+                final int nViewRows = nSourceRows - m_nViewOffset;
+                final SizeSpec[] aPreparedRowSize = new SizeSpec[nOwnRows + nViewRows];
+                System.arraycopy(m_aPreparedRowSize, 0, aPreparedRowSize, 0, nOwnRows);
+                System.arraycopy(aViewSource.m_aPreparedRowSize, m_nViewOffset, aPreparedRowSize, nOwnRows, nViewRows);
+                m_aPreparedRowSize = aPreparedRowSize;
+
+                final SizeSpec[] aPreparedElementSize = new SizeSpec[nOwnRows + nViewRows];
+                System.arraycopy(m_aPreparedElementSize, 0, aPreparedElementSize, 0, nOwnRows);
+                System.arraycopy(aViewSource.m_aPreparedElementSize, m_nViewOffset, aPreparedElementSize, nOwnRows, nViewRows);
+                m_aPreparedElementSize = aPreparedElementSize;
+            }
+            m_aViewSource = null;
+            m_nViewOffset = 0;
+        }
+    }
+
+    /**
+     * Materialize all split remainder views that still reference this VBox, so that they stay
+     * usable after the prepared state of this VBox is cleared.
+     */
+    private void _materializeAllViews() {
+        if (m_aViews != null) {
+            for (final AbstractPLVBox<?> aView : m_aViews)
+                if (aView.m_aViewSource == this)
+                    aView._materializeView();
+            m_aViews = null;
+        }
     }
 
     /**
@@ -393,6 +532,11 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
         EChange ret = EChange.UNCHANGED;
         for (final com.plenigo.pdflayout.element.vbox.PLVBoxRow aRow : m_aRows)
             ret = ret.or(aRow.getElement().visit(aVisitor));
+        if (m_aViewSource != null) {
+            final ICommonsList<PLVBoxRow> aSourceRows = m_aViewSource.m_aRows;
+            for (int i = m_nViewOffset; i < aSourceRows.size(); ++i)
+                ret = ret.or(aSourceRows.get(i).getElement().visit(aVisitor));
+        }
         return ret;
     }
 
@@ -642,8 +786,12 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
 
     @Override
     protected void onMarkAsNotPrepared() {
+        _materializeAllViews();
+        _materializeView();
         m_aPreparedRowSize = null;
         m_aPreparedElementSize = null;
+        m_aPreparedRowHeightPrefixSum = null;
+        m_aLastVertSplittableRowIndex = null;
         for (final com.plenigo.pdflayout.element.vbox.PLVBoxRow aRow : m_aRows)
             if (aRow.getElement() instanceof AbstractPLRenderableObject<?>)
                 ((AbstractPLRenderableObject<?>) aRow.getElement()).internalMarkAsNotPrepared();
@@ -668,19 +816,19 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
                 .setVertSplittable(true);
 
         final int nTotalRows = getRowCount();
-        final ICommonsList<SizeSpec> aVBox1RowSize = new CommonsArrayList<>(nTotalRows);
-        final ICommonsList<SizeSpec> aVBox1ElementSize = new CommonsArrayList<>(nTotalRows);
+        final ICommonsList<SizeSpec> aVBox1RowSize = new CommonsArrayList<>();
+        final ICommonsList<SizeSpec> aVBox1ElementSize = new CommonsArrayList<>();
         float fUsedVBox1RowHeight = 0;
 
         // Copy all header rows to both new VBoxes
         for (int nRow = 0; nRow < m_nHeaderRowCount; ++nRow) {
-            final IPLRenderableObject<?> aHeaderRowElement = getRowElementAtIndex(nRow);
+            final IPLRenderableObject<?> aHeaderRowElement = _getRow(nRow).getElement();
             aVBox1.addRow(aHeaderRowElement);
             aVBox2.addRow(aHeaderRowElement);
 
-            fUsedVBox1RowHeight += m_aPreparedRowSize[nRow].getHeight();
-            aVBox1RowSize.add(m_aPreparedRowSize[nRow]);
-            aVBox1ElementSize.add(m_aPreparedElementSize[nRow]);
+            fUsedVBox1RowHeight += _getPreparedRowSize(nRow).getHeight();
+            aVBox1RowSize.add(_getPreparedRowSize(nRow));
+            aVBox1ElementSize.add(_getPreparedElementSize(nRow));
         }
 
         // The height and width after header rows are identical
@@ -688,106 +836,116 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
         final ICommonsList<SizeSpec> aVBox2ElementSize = aVBox1ElementSize.getClone();
         float fUsedVBox2RowHeight = fUsedVBox1RowHeight;
 
-        // Copy all content rows
-        boolean bOnVBox1 = true;
+        // Copy all content rows that fit onto VBox 1
+        // Index of the first row that is not on VBox 1
+        int nRestStartRow = nTotalRows;
         for (int nRow = m_nHeaderRowCount; nRow < nTotalRows; ++nRow) {
-            final IPLRenderableObject<?> aRowElement = getRowElementAtIndex(nRow);
-            final float fRowHeight = m_aPreparedRowSize[nRow].getHeight();
-            if (bOnVBox1) {
-                if (fUsedVBox1RowHeight + fRowHeight <= fAvailableHeight) {
-                    // Row fits in first VBox without a change
-                    aVBox1.addRow(aRowElement);
-                    fUsedVBox1RowHeight += fRowHeight;
-                    // Use data as is
-                    aVBox1RowSize.add(m_aPreparedRowSize[nRow]);
-                    aVBox1ElementSize.add(m_aPreparedElementSize[nRow]);
-                } else {
-                    // Row does not fit - check if it can be splitted
-                    bOnVBox1 = false;
-                    // try to split the row
-                    boolean bSplittedRow = false;
-                    if (aRowElement.isVertSplittable()) {
-                        final float fSplitWidth = m_aPreparedElementSize[nRow].getWidth();
-                        final float fSplitHeight = fAvailableHeight - fUsedVBox1RowHeight - aRowElement.getOutlineYSum();
+            final IPLRenderableObject<?> aRowElement = _getRow(nRow).getElement();
+            final float fRowHeight = _getPreparedRowSize(nRow).getHeight();
+            if (fUsedVBox1RowHeight + fRowHeight <= fAvailableHeight) {
+                // Row fits in first VBox without a change
+                aVBox1.addRow(aRowElement);
+                fUsedVBox1RowHeight += fRowHeight;
+                // Use data as is
+                aVBox1RowSize.add(_getPreparedRowSize(nRow));
+                aVBox1ElementSize.add(_getPreparedElementSize(nRow));
+            } else {
+                // Row does not fit - check if it can be splitted
+                nRestStartRow = nRow;
+                // try to split the row
+                if (aRowElement.isVertSplittable()) {
+                    final float fSplitWidth = _getPreparedElementSize(nRow).getWidth();
+                    final float fSplitHeight = fAvailableHeight - fUsedVBox1RowHeight - aRowElement.getOutlineYSum();
+                    if (PLDebugLog.isDebugSplit())
+                        PLDebugLog.debugSplit(this,
+                                "Trying to split " +
+                                        aRowElement.getDebugID() +
+                                        " into pieces for split size " +
+                                        PLDebugLog.getWH(fSplitWidth, fSplitHeight));
+
+                    // Try to split the element contained in the row
+                    final PLSplitResult aSplitResult = aRowElement.getAsSplittable()
+                            .splitElementVert(fSplitWidth, fSplitHeight);
+                    if (aSplitResult.getSplitResultType().isSplit()) {
+                        final IPLRenderableObject<?> aVBox1RowElement = aSplitResult.getFirstElement().getElement();
+                        aVBox1.addRow(aVBox1RowElement);
+                        fUsedVBox1RowHeight += aSplitResult.getFirstElement().getHeightFull();
+                        aVBox1RowSize.add(aSplitResult.getFirstElement().getSizeFull());
+                        aVBox1ElementSize.add(aSplitResult.getFirstElement().getSize());
+
+                        final IPLRenderableObject<?> aVBox2RowElement = aSplitResult.getSecondElement().getElement();
+                        aVBox2.addRow(aVBox2RowElement);
+                        fUsedVBox2RowHeight += aSplitResult.getSecondElement().getHeightFull();
+                        aVBox2RowSize.add(aSplitResult.getSecondElement().getSizeFull());
+                        aVBox2ElementSize.add(aSplitResult.getSecondElement().getSize());
+
                         if (PLDebugLog.isDebugSplit())
                             PLDebugLog.debugSplit(this,
-                                    "Trying to split " +
+                                    "Split row element " +
                                             aRowElement.getDebugID() +
-                                            " into pieces for split size " +
-                                            PLDebugLog.getWH(fSplitWidth, fSplitHeight));
-
-                        // Try to split the element contained in the row
-                        final PLSplitResult aSplitResult = aRowElement.getAsSplittable()
-                                .splitElementVert(fSplitWidth, fSplitHeight);
-                        if (aSplitResult.getSplitResultType().isSplit()) {
-                            final IPLRenderableObject<?> aVBox1RowElement = aSplitResult.getFirstElement().getElement();
-                            aVBox1.addRow(aVBox1RowElement);
-                            fUsedVBox1RowHeight += aSplitResult.getFirstElement().getHeightFull();
-                            aVBox1RowSize.add(aSplitResult.getFirstElement().getSizeFull());
-                            aVBox1ElementSize.add(aSplitResult.getFirstElement().getSize());
-
-                            final IPLRenderableObject<?> aVBox2RowElement = aSplitResult.getSecondElement().getElement();
-                            aVBox2.addRow(aVBox2RowElement);
-                            fUsedVBox2RowHeight += aSplitResult.getSecondElement().getHeightFull();
-                            aVBox2RowSize.add(aSplitResult.getSecondElement().getSizeFull());
-                            aVBox2ElementSize.add(aSplitResult.getSecondElement().getSize());
-
-                            if (PLDebugLog.isDebugSplit())
-                                PLDebugLog.debugSplit(this,
-                                        "Split row element " +
-                                                aRowElement.getDebugID() +
-                                                " (Row " +
-                                                nRow +
-                                                ") into pieces: " +
-                                                aVBox1RowElement.getDebugID() +
-                                                " (" +
-                                                aSplitResult.getFirstElement().getWidth() +
-                                                " + " +
-                                                aVBox1RowElement.getOutlineXSum() +
-                                                " & " +
-                                                aSplitResult.getFirstElement().getHeight() +
-                                                " + " +
-                                                aVBox1RowElement.getOutlineYSum() +
-                                                ") and " +
-                                                aVBox2RowElement.getDebugID() +
-                                                " (" +
-                                                aSplitResult.getSecondElement().getWidth() +
-                                                " + " +
-                                                aVBox2RowElement.getOutlineXSum() +
-                                                " & " +
-                                                aSplitResult.getSecondElement().getHeight() +
-                                                " + " +
-                                                aVBox2RowElement.getOutlineYSum() +
-                                                ")");
-                            bSplittedRow = true;
-                        } else {
-                            if (PLDebugLog.isDebugSplit())
-                                PLDebugLog.debugSplit(this,
-                                        "Failed to split row element " +
-                                                aRowElement.getDebugID() +
-                                                " (Row " +
-                                                nRow +
-                                                ") into pieces");
-                        }
-                    }
-                    if (!bSplittedRow) {
-                        // just add the full row to the second VBox since the row does not
-                        // fit on first page
-                        aVBox2.addRow(aRowElement);
-                        fUsedVBox2RowHeight += fRowHeight;
-                        aVBox2RowSize.add(m_aPreparedRowSize[nRow]);
-                        aVBox2ElementSize.add(m_aPreparedElementSize[nRow]);
+                                            " (Row " +
+                                            nRow +
+                                            ") into pieces: " +
+                                            aVBox1RowElement.getDebugID() +
+                                            " (" +
+                                            aSplitResult.getFirstElement().getWidth() +
+                                            " + " +
+                                            aVBox1RowElement.getOutlineXSum() +
+                                            " & " +
+                                            aSplitResult.getFirstElement().getHeight() +
+                                            " + " +
+                                            aVBox1RowElement.getOutlineYSum() +
+                                            ") and " +
+                                            aVBox2RowElement.getDebugID() +
+                                            " (" +
+                                            aSplitResult.getSecondElement().getWidth() +
+                                            " + " +
+                                            aVBox2RowElement.getOutlineXSum() +
+                                            " & " +
+                                            aSplitResult.getSecondElement().getHeight() +
+                                            " + " +
+                                            aVBox2RowElement.getOutlineYSum() +
+                                            ")");
+                        // The split row is completely handled
+                        nRestStartRow = nRow + 1;
+                    } else {
+                        if (PLDebugLog.isDebugSplit())
+                            PLDebugLog.debugSplit(this,
+                                    "Failed to split row element " +
+                                            aRowElement.getDebugID() +
+                                            " (Row " +
+                                            nRow +
+                                            ") into pieces");
                     }
                 }
-            } else {
-                // We're already on VBox 2 - add all elements, since VBox2 may be split
-                // again later!
-                aVBox2.addRow(aRowElement);
-                fUsedVBox2RowHeight += fRowHeight;
-                aVBox2RowSize.add(m_aPreparedRowSize[nRow]);
-                aVBox2ElementSize.add(m_aPreparedElementSize[nRow]);
+                break;
             }
         }
+
+        // All remaining rows belong to VBox 2, since VBox2 may be split again
+        // later. Instead of copying them, VBox 2 becomes a view onto the rows of
+        // the original VBox, so that the total splitting effort stays linear.
+        final AbstractPLVBox<?> aViewSource = m_aViewSource != null ? m_aViewSource : this;
+        // Number of rows of this VBox that are not part of the view source
+        final int nOwnRows = m_aViewSource != null ? m_aRows.size() : 0;
+
+        // Copy the remaining own rows (only applicable if this is a view itself)
+        for (int nRow = nRestStartRow; nRow < nOwnRows; ++nRow) {
+            aVBox2.addRow(_getRow(nRow).getElement());
+            fUsedVBox2RowHeight += _getPreparedRowSize(nRow).getHeight();
+            aVBox2RowSize.add(_getPreparedRowSize(nRow));
+            aVBox2ElementSize.add(_getPreparedElementSize(nRow));
+        }
+
+        // Reference all remaining rows of the view source
+        final int nFirstViewRow = Math.max(nRestStartRow, nOwnRows);
+        if (nFirstViewRow < nTotalRows) {
+            final int nViewOffset = (m_aViewSource != null ? m_nViewOffset : 0) + nFirstViewRow - nOwnRows;
+            aVBox2.m_aViewSource = aViewSource;
+            aVBox2.m_nViewOffset = nViewOffset;
+            fUsedVBox2RowHeight += aViewSource._getPreparedRowHeightSum(nViewOffset);
+        }
+
         if (aVBox1.getRowCount() == m_nHeaderRowCount) {
             // Splitting makes no sense!
             if (PLDebugLog.isDebugSplit())
@@ -809,6 +967,13 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
         aVBox2.internalMarkAsPrepared(new SizeSpec(fAvailableWidth, fUsedVBox2RowHeight));
         aVBox2.m_aPreparedRowSize = ArrayHelper.createArray(aVBox2RowSize, SizeSpec.class);
         aVBox2.m_aPreparedElementSize = ArrayHelper.createArray(aVBox2ElementSize, SizeSpec.class);
+        if (aVBox2.m_aViewSource != null) {
+            // Remember the view, so that it can be materialized if this source is
+            // marked as not prepared
+            if (aViewSource.m_aViews == null)
+                aViewSource.m_aViews = new CommonsArrayList<>();
+            aViewSource.m_aViews.add(aVBox2);
+        }
 
         return PLSplitResult.createSplit(new PLElementWithSize(aVBox1,
                         new SizeSpec(fAvailableWidth, fUsedVBox1RowHeight)),
@@ -821,11 +986,12 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
         final float fCurX = aCtx.getStartLeft() + getOutlineLeft();
         float fCurY = aCtx.getStartTop() - getOutlineTop();
 
-        int nIndex = 0;
-        for (final PLVBoxRow aRow : m_aRows) {
-            final IPLRenderableObject<?> aElement = aRow.getElement();
-            final float fRowWidth = m_aPreparedRowSize[nIndex].getWidth();
-            final float fRowHeight = m_aPreparedRowSize[nIndex].getHeight();
+        final int nRowCount = getRowCount();
+        for (int nIndex = 0; nIndex < nRowCount; ++nIndex) {
+            final IPLRenderableObject<?> aElement = _getRow(nIndex).getElement();
+            final SizeSpec aRowSize = _getPreparedRowSize(nIndex);
+            final float fRowWidth = aRowSize.getWidth();
+            final float fRowHeight = aRowSize.getHeight();
 
             // Perform contained element after border
             final PageRenderContext aRowElementCtx = new PageRenderContext(aCtx, fCurX, fCurY, fRowWidth, fRowHeight);
@@ -833,7 +999,6 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
 
             // Update Y-pos
             fCurY -= fRowHeight;
-            ++nIndex;
         }
     }
 
@@ -843,6 +1008,8 @@ public abstract class AbstractPLVBox<IMPLTYPE extends AbstractPLVBox<IMPLTYPE>>
                 .append("Rows", m_aRows)
                 .appendIfNotNull("PreparedRowSize", m_aPreparedRowSize)
                 .appendIfNotNull("PreparedElementSize", m_aPreparedElementSize)
+                .appendIfNotNull("ViewSource",
+                        m_aViewSource == null ? null : m_aViewSource.getDebugID() + "@" + m_nViewOffset)
                 .getToString();
     }
 }
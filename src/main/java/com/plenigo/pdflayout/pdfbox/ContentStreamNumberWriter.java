@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.pdfbox;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Allocation free formatting of the numeric operands of content streams. The digits are written
+ * directly into a caller provided buffer. Compared to PDFBox <code>NumberFormatUtil</code> this
+ * class also supports more than 5 fraction digits and integers, so that the content stream never
+ * needs to fall back to {@link java.text.NumberFormat} for finite values of reasonable size.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@Immutable
+public final class ContentStreamNumberWriter {
+    /**
+     * The maximum number of fraction digits supported.
+     */
+    public static final int MAX_FRACTION_DIGITS = 8;
+
+    /**
+     * The minimum size of the buffer passed to the format methods: sign, 19 integer digits, decimal
+     * point and the fraction digits.
+     */
+    public static final int MIN_BUFFER_SIZE = 1 + 19 + 1 + MAX_FRACTION_DIGITS;
+
+    private static final long[] POWER_OF_TENS = new long[MAX_FRACTION_DIGITS + 1];
+    // The exclusive upper bound of the absolute value, so that the scaled value fits into a long
+    private static final double[] MAX_ABS_VALUES = new double[MAX_FRACTION_DIGITS + 1];
+
+    static {
+        long nPowerOfTen = 1;
+        for (int i = 0; i <= MAX_FRACTION_DIGITS; ++i) {
+            POWER_OF_TENS[i] = nPowerOfTen;
+            MAX_ABS_VALUES[i] = (double) (Long.MAX_VALUE / nPowerOfTen / 2);
+            nPowerOfTen *= 10;
+        }
+    }
+
+    private ContentStreamNumberWriter() {
+    }
+
+    private static int _writePositive(final long nValue,
+                                      @Nonnegative final int nMinDigits,
+                                      @NonNull final byte[] aBuffer,
+                                      final int nOffset) {
+        int nDigits = 1;
+        long nRest = nValue;
+        while (nRest >= 10) {
+            nRest /= 10;
+            nDigits++;
+        }
+        if (nDigits < nMinDigits)
+            nDigits = nMinDigits;
+
+        final int ret = nOffset + nDigits;
+        nRest = nValue;
+        for (int i = ret - 1; i >= nOffset; --i) {
+            aBuffer[i] = (byte) ('0' + (int) (nRest % 10));
+            nRest /= 10;
+        }
+        return ret;
+    }
+
+    /**
+     * Format an integer value.
+     *
+     * @param nValue  The value to format.
+     * @param aBuffer The buffer to write to. Must have at least {@link #MIN_BUFFER_SIZE} bytes.
+     *
+     * @return The number of bytes written. Always &gt; 0.
+     */
+    @Nonnegative
+    public static int formatInt(final int nValue, @NonNull final byte[] aBuffer) {
+        if (nValue < 0) {
+            aBuffer[0] = '-';
+            // Use a long, so that Integer.MIN_VALUE works
+            return _writePositive(-(long) nValue, 1, aBuffer, 1);
+        }
+        return _writePositive(nValue, 1, aBuffer, 0);
+    }
+
+    /**
+     * Format a floating point value with at most the provided number of fraction digits. The value is
+     * rounded half up and trailing zeros of the fraction are omitted, so e.g. <code>1.5f</code> is
+     * written as <code>1.5</code> and <code>2f</code> as <code>2</code>.
+     *
+     * @param fValue          The value to format.
+     * @param nFractionDigits The maximum number of fraction digits. Must be between 0 and
+     *                        {@link #MAX_FRACTION_DIGITS}.
+     * @param aBuffer         The buffer to write to. Must have at least {@link #MIN_BUFFER_SIZE}
+     *                        bytes.
+     *
+     * @return The number of bytes written or -1 if the value is NaN, infinite or too large to be
+     * formatted.
+     */
+    public static int formatFloat(final float fValue,
+                                  @Nonnegative final int nFractionDigits,
+                                  @NonNull final byte[] aBuffer) {
+        if (nFractionDigits < 0 || nFractionDigits > MAX_FRACTION_DIGITS)
+            return -1;
+
+        final double dAbsValue = Math.abs((double) fValue);
+        // Also handles NaN and infinity
+        if (!(dAbsValue < MAX_ABS_VALUES[nFractionDigits]))
+            return -1;
+
+        final long nPowerOfTen = POWER_OF_TENS[nFractionDigits];
+        final long nScaled = (long) (dAbsValue * nPowerOfTen + 0.5d);
+        if (nScaled == 0) {
+            // Avoid "-0"
+            aBuffer[0] = '0';
+            return 1;
+        }
+
+        int ret = 0;
+        if (fValue < 0)
+            aBuffer[ret++] = '-';
+        ret = _writePositive(nScaled / nPowerOfTen, 1, aBuffer, ret);
+
+        long nFraction = nScaled % nPowerOfTen;
+        if (nFraction != 0) {
+            int nDigits = nFractionDigits;
+            while (nFraction % 10 == 0) {
+                nFraction /= 10;
+                nDigits--;
+            }
+            aBuffer[ret++] = '.';
+            ret = _writePositive(nFraction, nDigits, aBuffer, ret);
+        }
+        return ret;
+    }
+}
@@ -16,8 +16,10 @@
  */
 package com.plenigo.pdflayout.pdfbox;
 
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.concurrent.NotThreadSafe;
 import com.helger.annotation.style.CodingStyleguideUnaware;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.collection.stack.NonBlockingStack;
 import com.plenigo.pdflayout.base.PLColor;
 import com.plenigo.pdflayout.spec.ELineCapStyle;
@@ -53,7 +55,6 @@ import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
 import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
 import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
 import org.apache.pdfbox.util.Matrix;
-import org.apache.pdfbox.util.NumberFormatUtil;
 import org.jspecify.annotations.NonNull;
 
 import java.awt.geom.AffineTransform;
@@ -63,6 +64,7 @@ import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.text.NumberFormat;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * Provides the ability to write to a page content stream.<br>
@@ -80,11 +82,22 @@ import java.util.Locale;
 @CodingStyleguideUnaware
 @NotThreadSafe
 public class PDPageContentStreamExt implements Closeable {
+    /**
+     * The default number of fraction digits of numeric operands.
+     *
+     * @since 8.2.0
+     */
+    public static final int DEFAULT_FRACTION_DIGITS = 5;
+
     private static final Log LOGGER = LogFactory.getLog(PDPageContentStreamExt.class);
+    // Upper case, like COSWriter
+    private static final byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
 
     private final PDDocument m_aDoc;
     protected OutputStream m_aOS;
     private PDResources m_aResources;
+    // If present, fonts are collected here instead of being registered at the document
+    private final Set<PDFont> m_aFontsToSubset;
 
     private boolean m_bInTextMode = false;
     private final NonBlockingStack<PDFont> m_aFontStack = new NonBlockingStack<>();
@@ -94,7 +107,22 @@ public class PDPageContentStreamExt implements Closeable {
 
     // number format
     private final NumberFormat m_aFormatDecimal = NumberFormat.getNumberInstance(Locale.US);
-    private final byte[] m_aFormatBuffer = new byte[32];
+    private final byte[] m_aFormatBuffer = new byte[ContentStreamNumberWriter.MIN_BUFFER_SIZE];
+    private int m_nFractionDigits;
+    private double m_dFractionScale;
+
+    // The exact and the written start of the current text line. Td is relative, so the written
+    // position is tracked to avoid an accumulated rounding error.
+    private double m_dTextLineX;
+    private double m_dTextLineY;
+    private double m_dWrittenTextLineX;
+    private double m_dWrittenTextLineY;
+    // The leading written in the current text object or NaN if unknown
+    private double m_dWrittenLeading = Double.NaN;
+
+    // Reusable buffers for the encoded and the escaped text
+    private byte[] m_aTextEncodingBuffer = new byte[256];
+    private byte[] m_aTextEscapingBuffer = new byte[2 * 256 + 2];
 
     /**
      * Create a new PDPage content stream.
@@ -142,6 +170,7 @@ public class PDPageContentStreamExt implements Closeable {
                                   final boolean compress,
                                   final boolean resetContext) throws IOException {
         m_aDoc = aDoc;
+        m_aFontsToSubset = null;
         final COSName filter = compress ? COSName.FLATE_DECODE : null;
 
         // If request specifies the need to append to the document
@@ -206,8 +235,62 @@ public class PDPageContentStreamExt implements Closeable {
         }
 
         // configure NumberFormat
-        m_aFormatDecimal.setMaximumFractionDigits(5);
         m_aFormatDecimal.setGroupingUsed(false);
+        setFractionDigits(DEFAULT_FRACTION_DIGITS);
+    }
+
+    /**
+     * Create a new content stream for a Form XObject. Note that this is not actually a "page" content
+     * stream. All resources are added to the resources of the Form XObject.
+     *
+     * @param aDoc     The document the Form XObject is part of.
+     * @param aForm    The Form XObject to write to. Existing content is overwritten.
+     * @param compress Tell if the content stream should be compressed.
+     *
+     * @throws IOException If there is an error writing to the form contents.
+     * @since 8.2.0
+     */
+    public PDPageContentStreamExt(final PDDocument aDoc, final PDFormXObject aForm, final boolean compress) throws IOException {
+        m_aDoc = aDoc;
+        m_aFontsToSubset = null;
+        m_aOS = aForm.getContentStream().createOutputStream(compress ? COSName.FLATE_DECODE : null);
+
+        m_aResources = aForm.getResources();
+        if (m_aResources == null) {
+            m_aResources = new PDResources();
+            aForm.setResources(m_aResources);
+        }
+
+        // configure NumberFormat
+        m_aFormatDecimal.setGroupingUsed(false);
+        setFractionDigits(DEFAULT_FRACTION_DIGITS);
+    }
+
+    /**
+     * Create a new content stream that writes into the provided output stream instead of into a
+     * {@link PDStream} of the document. Fonts to be subsetted are not registered at the document but
+     * collected in the provided set. As the document is not modified, this content stream may be
+     * used on another thread than the document, as long as the resources are not shared.
+     *
+     * @param aDoc           The document the content is created for.
+     * @param aResources     The resources to add all used fonts, images etc. to.
+     * @param aOS            The output stream to write the content to.
+     * @param aFontsToSubset The set to collect the fonts to be subsetted in. The fonts must be
+     *                       registered at the document afterwards.
+     * @since 8.2.0
+     */
+    public PDPageContentStreamExt(final PDDocument aDoc,
+                                  final PDResources aResources,
+                                  final OutputStream aOS,
+                                  final Set<PDFont> aFontsToSubset) {
+        m_aDoc = aDoc;
+        m_aOS = aOS;
+        m_aResources = aResources;
+        m_aFontsToSubset = aFontsToSubset;
+
+        // configure NumberFormat
+        m_aFormatDecimal.setGroupingUsed(false);
+        setFractionDigits(DEFAULT_FRACTION_DIGITS);
     }
 
     /**
@@ -233,12 +316,53 @@ public class PDPageContentStreamExt implements Closeable {
                                   final PDAppearanceStream appearance,
                                   final OutputStream outputStream) {
         m_aDoc = aDoc;
+        m_aFontsToSubset = null;
 
         m_aOS = outputStream;
         m_aResources = appearance.getResources();
 
-        m_aFormatDecimal.setMaximumFractionDigits(4);
         m_aFormatDecimal.setGroupingUsed(false);
+        setFractionDigits(4);
+    }
+
+    /**
+     * @return The maximum number of fraction digits of numeric operands. Always &ge; 0.
+     * @since 8.2.0
+     */
+    @Nonnegative
+    public final int getFractionDigits() {
+        return m_nFractionDigits;
+    }
+
+    /**
+     * Set the maximum number of fraction digits of numeric operands. Each value is rounded
+     * individually, so fewer digits create smaller content streams. Relative text positioning is
+     * written so that the rounding errors don't accumulate.
+     *
+     * @param nFractionDigits The number of fraction digits. Must be between 0 and
+     *                        {@link ContentStreamNumberWriter#MAX_FRACTION_DIGITS}.
+     * @since 8.2.0
+     */
+    public final void setFractionDigits(@Nonnegative final int nFractionDigits) {
+        ValueEnforcer.isBetweenInclusive(nFractionDigits,
+                "FractionDigits",
+                0,
+                ContentStreamNumberWriter.MAX_FRACTION_DIGITS);
+        m_nFractionDigits = nFractionDigits;
+        m_dFractionScale = Math.pow(10, nFractionDigits);
+        m_aFormatDecimal.setMaximumFractionDigits(nFractionDigits);
+    }
+
+    /**
+     * @return The number of fraction digits for operands whose rounding error would be multiplied,
+     * like scaling factors or the character spacing.
+     */
+    private int _getMultipliedFractionDigits() {
+        return Math.max(m_nFractionDigits, DEFAULT_FRACTION_DIGITS);
+    }
+
+    private double _quantize(final double dValue) {
+        return Math.round(dValue * m_dFractionScale) / m_dFractionScale;
     }
 
     @NonNull
@@ -246,6 +370,72 @@ public class PDPageContentStreamExt implements Closeable {
         return m_aOS;
     }
 
+    /**
+     * Get a buffer to encode text into before it is written with
+     * {@link #writeEncodedString(byte[], int)}. The buffer is reused, so the content is only valid
+     * until the next call.
+     *
+     * @param nMinSize The minimum number of bytes required.
+     *
+     * @return The buffer. Never <code>null</code>.
+     */
+    @NonNull
+    byte[] getTextEncodingBuffer(@Nonnegative final int nMinSize) {
+        if (m_aTextEncodingBuffer.length < nMinSize)
+            m_aTextEncodingBuffer = new byte[Math.max(nMinSize, 2 * m_aTextEncodingBuffer.length)];
+        return m_aTextEncodingBuffer;
+    }
+
+    /**
+     * Write already encoded text as a string operand. The same rules as in
+     * {@link COSWriter#writeString(byte[], OutputStream)} are applied: 7-bit text without line
+     * breaks is written as a literal string, everything else as a hex string. The string is
+     * escaped into a reusable buffer that is written at once.
+     *
+     * @param aEncoded The encoded text. May not be <code>null</code>.
+     * @param nLength  The number of bytes to use from the encoded text.
+     *
+     * @throws IOException If the content stream could not be written.
+     */
+    void writeEncodedString(@NonNull final byte[] aEncoded, @Nonnegative final int nLength) throws IOException {
+        boolean bLiteral = true;
+        for (int i = 0; i < nLength; ++i) {
+            final byte b = aEncoded[i];
+            // 8-bit bytes and EOL markers are written in hex
+            if (b < 0 || b == '\r' || b == '\n') {
+                bLiteral = false;
+                break;
+            }
+        }
+
+        // Escaping and hex encoding need at most 2 bytes per byte plus the delimiters
+        final int nMaxLength = 2 * nLength + 2;
+        if (m_aTextEscapingBuffer.length < nMaxLength)
+            m_aTextEscapingBuffer = new byte[Math.max(nMaxLength, 2 * m_aTextEscapingBuffer.length)];
+        final byte[] aBuf = m_aTextEscapingBuffer;
+
+        int nOfs = 0;
+        if (bLiteral) {
+            aBuf[nOfs++] = '(';
+            for (int i = 0; i < nLength; ++i) {
+                final byte b = aEncoded[i];
+                if (b == '(' || b == ')' || b == '\\')
+                    aBuf[nOfs++] = '\\';
+                aBuf[nOfs++] = b;
+            }
+            aBuf[nOfs++] = ')';
+        } else {
+            aBuf[nOfs++] = '<';
+            for (int i = 0; i < nLength; ++i) {
+                final int n = aEncoded[i] & 0xff;
+                aBuf[nOfs++] = HEX_DIGITS[n >>> 4];
+                aBuf[nOfs++] = HEX_DIGITS[n & 0x0f];
+            }
+            aBuf[nOfs++] = '>';
+        }
+        m_aOS.write(aBuf, 0, nOfs);
+    }
+
     /**
      * Begin some text operations.
      *
@@ -258,6 +448,11 @@ public class PDPageContentStreamExt implements Closeable {
         }
         writeOperator((byte) 'B', (byte) 'T');
         m_bInTextMode = true;
+        m_dTextLineX = 0;
+        m_dTextLineY = 0;
+        m_dWrittenTextLineX = 0;
+        m_dWrittenTextLineY = 0;
+        m_dWrittenLeading = Double.NaN;
     }
 
     /**
@@ -288,7 +483,11 @@ public class PDPageContentStreamExt implements Closeable {
         else
             m_aFontStack.set(m_aFontStack.size() - 1, font);
 
-        PDDocumentHelper.handleFontSubset(m_aDoc, font);
+        if (m_aFontsToSubset != null) {
+            if (font.willBeSubset())
+                m_aFontsToSubset.add(font);
+        } else
+            PDDocumentHelper.handleFontSubset(m_aDoc, font);
 
         writeOperand(m_aResources.add(font));
         writeOperand(fontSize);
@@ -304,7 +503,9 @@ public class PDPageContentStreamExt implements Closeable {
      * @throws IOException If the content stream could not be written.
      */
     public void setCharacterSpacing(final float spacing) throws IOException {
-        writeOperand(spacing);
+        // Tc is applied to every glyph, so it is not reduced in precision, as the error would be
+        // multiplied by the number of glyphs
+        _writeReal(spacing, _getMultipliedFractionDigits());
         writeOperator((byte) 'T', (byte) 'c');
     }
 
@@ -348,6 +549,7 @@ public class PDPageContentStreamExt implements Closeable {
     public void setLeading(final double leading) throws IOException {
         writeOperand((float) leading);
         writeOperator((byte) 'T', (byte) 'L');
+        m_dWrittenLeading = _quantize(leading);
     }
 
     /**
@@ -360,6 +562,10 @@ public class PDPageContentStreamExt implements Closeable {
         if (!m_bInTextMode)
             throw new IllegalStateException("Must call beginText() before newLine()");
         writeOperator((byte) 'T', (byte) '*');
+        if (!Double.isNaN(m_dWrittenLeading)) {
+            m_dTextLineY -= m_dWrittenLeading;
+            m_dWrittenTextLineY -= m_dWrittenLeading;
+        }
     }
 
     /**
@@ -375,11 +581,59 @@ public class PDPageContentStreamExt implements Closeable {
     public void newLineAtOffset(final float tx, final float ty) throws IOException {
         if (!m_bInTextMode)
             throw new IllegalStateException("Error: must call beginText() before newLineAtOffset()");
-        writeOperand(tx);
-        writeOperand(ty);
+        // Write the difference of the rounded absolute positions, so that the position in the PDF is
+        // always the rounded exact position
+        m_dTextLineX += tx;
+        m_dTextLineY += ty;
+        final double dX = _quantize(m_dTextLineX);
+        final double dY = _quantize(m_dTextLineY);
+        writeOperand((float) (dX - m_dWrittenTextLineX));
+        writeOperand((float) (dY - m_dWrittenTextLineY));
+        m_dWrittenTextLineX = dX;
+        m_dWrittenTextLineY = dY;
         writeOperator((byte) 'T', (byte) 'd');
     }
 
+    /**
+     * Move to the start of the next line, offset from the start of the current line by (tx, ty),
+     * using the shortest operator. If the move only goes down by the current leading, T* is used.
+     * Otherwise a downward move is written with TD, so that the leading is set for the following
+     * lines, and all other moves are written with Td.
+     *
+     * @param tx The x translation.
+     * @param ty The y translation.
+     *
+     * @throws IOException           If there is an error writing to the stream.
+     * @throws IllegalStateException If the method was not allowed to be called at this time.
+     * @since 8.2.0
+     */
+    public void moveToNextLine(final float tx, final float ty) throws IOException {
+        if (!m_bInTextMode)
+            throw new IllegalStateException("Error: must call beginText() before moveToNextLine()");
+        m_dTextLineX += tx;
+        m_dTextLineY += ty;
+        final double dX = _quantize(m_dTextLineX);
+        final double dY = _quantize(m_dTextLineY);
+        // Compare the rounded moves, as this is what ends up in the PDF
+        final double dDeltaX = _quantize(dX - m_dWrittenTextLineX);
+        final double dDeltaY = _quantize(dY - m_dWrittenTextLineY);
+        m_dWrittenTextLineX = dX;
+        m_dWrittenTextLineY = dY;
+
+        if (dDeltaX == 0 && dDeltaY == -m_dWrittenLeading) {
+            writeOperator((byte) 'T', (byte) '*');
+        } else {
+            writeOperand((float) dDeltaX);
+            writeOperand((float) dDeltaY);
+            if (dDeltaY < 0) {
+                // TD sets the leading to -ty
+                m_dWrittenLeading = -dDeltaY;
+                writeOperator((byte) 'T', (byte) 'D');
+            } else
+                writeOperator((byte) 'T', (byte) 'd');
+        }
+    }
+
     /**
      * The Tm operator. Sets the text matrix to the given values. A current text matrix will be
      * replaced with the new one.
@@ -393,6 +647,11 @@ public class PDPageContentStreamExt implements Closeable {
         if (!m_bInTextMode)
             throw new IllegalStateException("Error: must call beginText() before setTextMatrix");
         writeAffineTransform(matrix.createAffineTransform());
+        // Td is relative to the translation of the new text matrix
+        m_dTextLineX = matrix.getTranslateX();
+        m_dTextLineY = matrix.getTranslateY();
+        m_dWrittenTextLineX = _quantize(m_dTextLineX);
+        m_dWrittenTextLineY = _quantize(m_dTextLineY);
         writeOperator((byte) 'T', (byte) 'm');
     }
 
@@ -1307,12 +1566,14 @@ public class PDPageContentStreamExt implements Closeable {
      * @throws IOException In case of IO error
      */
     protected void writeOperand(final float real) throws IOException {
-        final int byteCount = NumberFormatUtil.formatFloatFast(real,
-                m_aFormatDecimal.getMaximumFractionDigits(),
-                m_aFormatBuffer);
+        _writeReal(real, m_nFractionDigits);
+    }
+
+    private void _writeReal(final float real, final int nFractionDigits) throws IOException {
+        final int byteCount = ContentStreamNumberWriter.formatFloat(real, nFractionDigits, m_aFormatBuffer);
 
         if (byteCount == -1) {
-            // Fast formatting failed
+            // Fast formatting failed (NaN, infinite or very large) - fraction digits don't matter
             write(m_aFormatDecimal.format(real));
         } else {
             m_aOS.write(m_aFormatBuffer, 0, byteCount);
@@ -1328,7 +1589,8 @@ public class PDPageContentStreamExt implements Closeable {
      * @throws IOException In case of IO error
      */
     protected void writeOperand(final int integer) throws IOException {
-        write(m_aFormatDecimal.format(integer));
+        final int byteCount = ContentStreamNumberWriter.formatInt(integer, m_aFormatBuffer);
+        m_aOS.write(m_aFormatBuffer, 0, byteCount);
         m_aOS.write(' ');
     }
 
@@ -1408,9 +1670,13 @@ public class PDPageContentStreamExt implements Closeable {
     private void writeAffineTransform(final AffineTransform transform) throws IOException {
         final double[] values = new double[6];
         transform.getMatrix(values);
-        for (final double v : values) {
-            writeOperand((float) v);
+        // Scaling and rotation are not reduced in precision, as the error would be multiplied
+        final int nScaleFractionDigits = _getMultipliedFractionDigits();
+        for (int i = 0; i < 4; ++i) {
+            _writeReal((float) values[i], nScaleFractionDigits);
         }
+        writeOperand((float) values[4]);
+        writeOperand((float) values[5]);
     }
 
     /**
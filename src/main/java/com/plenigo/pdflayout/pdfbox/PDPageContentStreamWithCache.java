@@ -16,21 +16,26 @@
  */
 package com.plenigo.pdflayout.pdfbox;
 
+import com.helger.annotation.Nonnegative;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.equals.EqualsHelper;
 import com.plenigo.pdflayout.base.PLColor;
 import com.plenigo.pdflayout.spec.FontSpec;
 import com.plenigo.pdflayout.spec.LineDashPatternSpec;
 import com.plenigo.pdflayout.spec.LoadedFont;
-import org.apache.pdfbox.pdfwriter.COSWriter;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 
 /**
  * A special version of PDPageContentStream with an integrated "cache" to avoid setting the same
@@ -46,6 +51,8 @@ public class PDPageContentStreamWithCache {
     private final PDDocument m_aDocument;
     private final PDPage m_aPage;
     private final com.plenigo.pdflayout.pdfbox.PDPageContentStreamExt m_aStream;
+    private UnaryOperator<LoadedFont> m_aLoadedFontMapper;
+    private boolean m_bCompactTextOperators;
 
     // Status cache
     private LoadedFont m_aLastUsedLoadedFont;
@@ -54,6 +61,8 @@ public class PDPageContentStreamWithCache {
     private PLColor m_aLastUsedNonStrokingColor = PLColor.BLACK;
     private LineDashPatternSpec m_aLastUsedLineDashPattern = LineDashPatternSpec.SOLID;
     private float m_fLastUsedLineWidth = 0f;
+    // NaN means unknown
+    private float m_fLastUsedCharacterSpacing = Float.NaN;
 
     private void _resetStatus() {
         m_aLastUsedLoadedFont = null;
@@ -62,6 +71,7 @@ public class PDPageContentStreamWithCache {
         m_aLastUsedNonStrokingColor = PLColor.BLACK;
         m_aLastUsedLineDashPattern = LineDashPatternSpec.SOLID;
         m_fLastUsedLineWidth = 0f;
+        m_fLastUsedCharacterSpacing = Float.NaN;
     }
 
     public PDPageContentStreamWithCache(@NonNull final PDDocument aDocument,
@@ -73,6 +83,63 @@ public class PDPageContentStreamWithCache {
         m_aStream = new com.plenigo.pdflayout.pdfbox.PDPageContentStreamExt(aDocument, aSourcePage, aAppendContent, bCompress);
     }
 
+    /**
+     * Create a content stream that writes into the provided Form XObject instead of into the content
+     * of the page. This can be used to render content that is identical on many pages only once.
+     *
+     * @param aDocument   The document the Form XObject is part of. May not be <code>null</code>.
+     * @param aSourcePage The page that is currently rendered. It is only used for elements that need
+     *                    direct page access (like link annotations). May not be <code>null</code>.
+     * @param aForm       The Form XObject to write to. May not be <code>null</code>.
+     * @param bCompress   <code>true</code> to compress the content stream of the Form XObject
+     *
+     * @throws IOException on PDFBox error
+     * @since 8.2.0
+     */
+    public PDPageContentStreamWithCache(@NonNull final PDDocument aDocument,
+                                        @NonNull final PDPage aSourcePage,
+                                        @NonNull final PDFormXObject aForm,
+                                        final boolean bCompress) throws IOException {
+        m_aDocument = aDocument;
+        m_aPage = aSourcePage;
+        m_aStream = new com.plenigo.pdflayout.pdfbox.PDPageContentStreamExt(aDocument, aForm, bCompress);
+
+        // A form inherits the graphics state of the place where it is drawn, so the status assumed by
+        // the cache must be written explicitly
+        m_aStream.setStrokingColor(m_aLastUsedStrokingColor);
+        m_aStream.setNonStrokingColor(m_aLastUsedNonStrokingColor);
+        m_aStream.setLineDashPattern(m_aLastUsedLineDashPattern.getPattern(), m_aLastUsedLineDashPattern.getPhase());
+        m_aStream.setLineWidth(m_fLastUsedLineWidth);
+    }
+
+    /**
+     * Create a content stream that writes the content of the page into the provided output stream.
+     * The resources of the page are used, but the document is not modified, so that the content of
+     * different pages can be created concurrently. The written bytes must be set as the content of
+     * the page afterwards, and the collected fonts must be registered for subsetting.
+     *
+     * @param aDocument      The document the page is part of. May not be <code>null</code>.
+     * @param aSourcePage    The page that is rendered. Must have resources. May not be
+     *                       <code>null</code>.
+     * @param aOS            The output stream to write the uncompressed content to. May not be
+     *                       <code>null</code>.
+     * @param aFontsToSubset The set to collect the fonts to be subsetted in. May not be
+     *                       <code>null</code>.
+     * @since 8.2.0
+     */
+    public PDPageContentStreamWithCache(@NonNull final PDDocument aDocument,
+                                        @NonNull final PDPage aSourcePage,
+                                        @NonNull final OutputStream aOS,
+                                        @NonNull final Set<PDFont> aFontsToSubset) {
+        ValueEnforcer.notNull(aSourcePage.getResources(), "SourcePage.Resources");
+        m_aDocument = aDocument;
+        m_aPage = aSourcePage;
+        m_aStream = new com.plenigo.pdflayout.pdfbox.PDPageContentStreamExt(aDocument,
+                aSourcePage.getResources(),
+                aOS,
+                aFontsToSubset);
+    }
+
     /**
      * @return The {@link PDDocument} this stream is working on. Never <code>null</code>.
      */
@@ -99,9 +166,74 @@ public class PDPageContentStreamWithCache {
         return m_aStream;
     }
 
-    public void setFont(@NonNull final LoadedFont aLoadedFont, @NonNull final FontSpec aFontSpec) throws IOException {
-        ValueEnforcer.notNull(aLoadedFont, "Font");
+    /**
+     * @return The maximum number of fraction digits of numeric operands. Always &ge; 0.
+     * @since 8.2.0
+     */
+    @Nonnegative
+    public final int getFractionDigits() {
+        return m_aStream.getFractionDigits();
+    }
+
+    /**
+     * Set the maximum number of fraction digits of numeric operands.
+     *
+     * @param nFractionDigits The number of fraction digits. Must be between 0 and
+     *                        {@link ContentStreamNumberWriter#MAX_FRACTION_DIGITS}.
+     * @since 8.2.0
+     * @see PDPageContentStreamExt#setFractionDigits(int)
+     */
+    public final void setFractionDigits(@Nonnegative final int nFractionDigits) {
+        m_aStream.setFractionDigits(nFractionDigits);
+    }
+
+    /**
+     * @return <code>true</code> if text is written with the shortest possible operators,
+     * <code>false</code> if each move and each character spacing is written explicitly.
+     * @since 8.2.0
+     */
+    public final boolean isCompactTextOperators() {
+        return m_bCompactTextOperators;
+    }
+
+    /**
+     * Enable or disable compact text operators. If enabled, consecutive lines of text are written
+     * with a single move each, using the leading (T* and TD) where possible, and the character
+     * spacing is only written if it changed.
+     *
+     * @param bCompactTextOperators <code>true</code> to enable compact text operators.
+     * @since 8.2.0
+     */
+    public final void setCompactTextOperators(final boolean bCompactTextOperators) {
+        m_bCompactTextOperators = bCompactTextOperators;
+    }
+
+    /**
+     * @return The mapper that is applied to all fonts passed to
+     * {@link #setFont(LoadedFont, FontSpec)}. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public final UnaryOperator<LoadedFont> getLoadedFontMapper() {
+        return m_aLoadedFontMapper;
+    }
+
+    /**
+     * Set a mapper that is applied to all fonts passed to {@link #setFont(LoadedFont, FontSpec)}.
+     * This is used to render elements that were prepared with fonts loaded into another document.
+     *
+     * @param aLoadedFontMapper The mapper from the provided font to the font of this document to use.
+     *                          May be <code>null</code>.
+     * @since 8.2.0
+     */
+    public final void setLoadedFontMapper(@Nullable final UnaryOperator<LoadedFont> aLoadedFontMapper) {
+        m_aLoadedFontMapper = aLoadedFontMapper;
+    }
+
+    public void setFont(@NonNull final LoadedFont aFont, @NonNull final FontSpec aFontSpec) throws IOException {
+        ValueEnforcer.notNull(aFont, "Font");
 
+        final LoadedFont aLoadedFont = m_aLoadedFontMapper == null ? aFont : m_aLoadedFontMapper.apply(aFont);
         final float fFontSize = aFontSpec.getFontSize();
         if (m_aLastUsedLoadedFont == null ||
                 !aLoadedFont.equals(m_aLastUsedLoadedFont) ||
@@ -172,6 +304,24 @@ public class PDPageContentStreamWithCache {
             m_aStream.newLineAtOffset(tx, ty);
     }
 
+    /**
+     * Move to the start of the next line of text. With compact text operators, the shortest
+     * operator is chosen, otherwise this is identical to {@link #moveTextPositionByAmount(float, float)}.
+     *
+     * @param tx The x translation relative to the start of the current line.
+     * @param ty The y translation relative to the start of the current line.
+     *
+     * @throws IOException on PDFBox error
+     * @since 8.2.0
+     */
+    public void moveToNextTextLine(final float tx, final float ty) throws IOException {
+        if (m_bCompactTextOperators) {
+            if (tx != 0 || ty != 0)
+                m_aStream.moveToNextLine(tx, ty);
+        } else
+            moveTextPositionByAmount(tx, ty);
+    }
+
     public void stroke() throws IOException {
         m_aStream.stroke();
     }
@@ -259,15 +409,24 @@ public class PDPageContentStreamWithCache {
     }
 
     public void setCharacterSpacing(final float fSpacing) throws IOException {
-        m_aStream.setCharacterSpacing(fSpacing);
+        if (m_bCompactTextOperators) {
+            if (!EqualsHelper.equals(m_fLastUsedCharacterSpacing, fSpacing)) {
+                m_aStream.setCharacterSpacing(fSpacing);
+                m_fLastUsedCharacterSpacing = fSpacing;
+            }
+        } else
+            m_aStream.setCharacterSpacing(fSpacing);
     }
 
     public void drawString(final String sDrawText) throws IOException {
         if (false)
             m_aStream.showText(sDrawText);
         else {
-            final byte[] aEncoded = m_aLastUsedLoadedFont.getEncodedForPageContentStream(sDrawText);
-            COSWriter.writeString(aEncoded, m_aStream.getOutput());
+            // Encode and escape into reusable buffers
+            final byte[] aEncoded = m_aStream.getTextEncodingBuffer(sDrawText.length() *
+                    LoadedFont.MAX_ENCODED_BYTES_PER_CHAR);
+            final int nEncodedLength = m_aLastUsedLoadedFont.encodeForPageContentStream(sDrawText, aEncoded);
+            m_aStream.writeEncodedString(aEncoded, nEncodedLength);
             m_aStream.write((byte) ' ');
             m_aStream.writeOperator((byte) 'T', (byte) 'j');
         }
@@ -289,6 +448,18 @@ public class PDPageContentStreamWithCache {
         m_aStream.drawForm(aImage, fX, fY, fWidth, fHeight);
     }
 
+    /**
+     * Draw the provided Form XObject unscaled with its own form matrix.
+     *
+     * @param aForm The Form XObject to draw. May not be <code>null</code>.
+     *
+     * @throws IOException on PDFBox error
+     * @since 8.2.0
+     */
+    public void drawFormXObject(@NonNull final PDFormXObject aForm) throws IOException {
+        m_aStream.drawForm(aForm);
+    }
+
     public void close() throws IOException {
         m_aStream.close();
     }
@@ -305,5 +476,7 @@ public class PDPageContentStreamWithCache {
 
     public void restoreGraphicsState() throws IOException {
         m_aStream.restoreGraphicsState();
+        // The character spacing is part of the restored graphics state
+        m_fLastUsedCharacterSpacing = Float.NaN;
     }
 }
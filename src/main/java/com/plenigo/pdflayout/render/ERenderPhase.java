@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.render;
+
+/**
+ * Defines the phases of rendering a document that are reported to an
+ * {@link IRenderMetricsListener}.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+public enum ERenderPhase {
+    /**
+     * Creating the document and setting the document information. The count is the number of page
+     * sets.
+     */
+    DOCUMENT_SETUP,
+    /**
+     * Preparing the headers, footers and elements of a single page set. The count is the number of
+     * prepared content elements.
+     */
+    PREPARE,
+    /**
+     * Distributing the prepared elements of a single page set onto pages, including vertical
+     * splitting. The count is the number of performed splits.
+     */
+    PAGINATE,
+    /**
+     * Calling "beforeRender" on all elements of all pages of a single page set. Element trees that
+     * don't contain any element needing it are skipped. The count is the number of visited
+     * elements.
+     */
+    BEFORE_RENDER,
+    /**
+     * Creating the content streams of all pages of a single page set. The count is the number of
+     * rendered pages.
+     */
+    RENDER_PAGES,
+    /**
+     * Applying the document customizer and adding the PDF/A information. The count is always 0.
+     */
+    FINISH_DOCUMENT,
+    /**
+     * Subsetting the embedded fonts. The count is the number of subsetted fonts.
+     */
+    FONT_SUBSETTING,
+    /**
+     * Serializing the document to the output stream. The count is the number of pages in the
+     * document.
+     */
+    SAVE;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.render;
+
+import com.helger.annotation.CheckForSigned;
+import com.helger.annotation.Nonnegative;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Listener interface for retrieving timing and count information while a document is rendered.
+ * All methods are invoked on the rendering thread, so implementations should be fast. When no
+ * listener is registered, no measurement takes place at all.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+public interface IRenderMetricsListener {
+    /**
+     * Called after a single phase finished.
+     *
+     * @param ePhase         The phase that finished. Never <code>null</code>.
+     * @param nPageSetIndex  The 0-based index of the page set the phase belongs to or -1 if the
+     *                       phase is for the whole document.
+     * @param nDurationNanos The wall time of the phase in nanoseconds. Always &ge; 0.
+     * @param nCount         The phase specific count as documented in {@link ERenderPhase}. Always
+     *                       &ge; 0.
+     */
+    void onPhaseFinished(@NonNull ERenderPhase ePhase,
+                         @CheckForSigned int nPageSetIndex,
+                         @Nonnegative long nDurationNanos,
+                         @Nonnegative int nCount);
+
+    /**
+     * Called once after the document was successfully saved.
+     *
+     * @param aMetrics The summary of the whole rendering. Never <code>null</code>.
+     */
+    default void onRenderFinished(@NonNull final RenderMetrics aMetrics) {
+    }
+}
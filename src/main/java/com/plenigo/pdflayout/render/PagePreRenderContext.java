@@ -27,6 +27,7 @@ import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsOrderedMap;
 import com.plenigo.pdflayout.base.EPLPlaceholder;
 import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.base.PLPageSetPrepareResult;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.jspecify.annotations.NonNull;
@@ -40,7 +41,7 @@ import org.jspecify.annotations.Nullable;
 @Immutable
 public class PagePreRenderContext {
     private final PLPageSet m_aPageSet;
-    private final PDDocument m_aDoc;
+    private final PreparationContextGlobal m_aGlobalCtx;
     private final PDPage m_aPage;
     private final int m_nPageSetIndex;
     private final int m_nPageSetCount;
@@ -49,7 +50,24 @@ public class PagePreRenderContext {
     private final int m_nTotalPageIndex;
     private final int m_nTotalPageCount;
     private final ICommonsOrderedMap<String, String> m_aPlaceholders = new CommonsLinkedHashMap<>();
+    private boolean m_bOnlyVariablePlaceholders = true;
 
+    /**
+     * Constructor. If the page set was prepared with a global context of the same PDDocument, that
+     * context is used, so that resources like images are shared with all other page sets prepared
+     * with it. Otherwise a new global context is created and nothing is shared with other pages -
+     * use the constructor with a {@link PreparationContextGlobal} in that case.
+     *
+     * @param aPageSet          The page set to be rendered. May not be <code>null</code>.
+     * @param aDoc              The document to render into. May not be <code>null</code>.
+     * @param aPage             The page to be rendered. May not be <code>null</code>.
+     * @param nPageSetIndex     Page set index. Always &ge; 0.
+     * @param nPageSetCount     Page set count. Always &ge; 0.
+     * @param nPageSetPageIndex Page index within the page set. Always &ge; 0.
+     * @param nPageSetPageCount Page count of the page set. Always &ge; 0.
+     * @param nTotalPageIndex   Total page index. Always &ge; 0.
+     * @param nTotalPageCount   Total page count. Always &ge; 0.
+     */
     public PagePreRenderContext(@NonNull final PLPageSet aPageSet,
                                 @NonNull final PDDocument aDoc,
                                 @NonNull final PDPage aPage,
@@ -59,8 +77,54 @@ public class PagePreRenderContext {
                                 @Nonnegative final int nPageSetPageCount,
                                 @Nonnegative final int nTotalPageIndex,
                                 @Nonnegative final int nTotalPageCount) {
+        this(aPageSet,
+                _getGlobalContext(aPageSet, aDoc),
+                aPage,
+                nPageSetIndex,
+                nPageSetCount,
+                nPageSetPageIndex,
+                nPageSetPageCount,
+                nTotalPageIndex,
+                nTotalPageCount);
+    }
+
+    @NonNull
+    private static PreparationContextGlobal _getGlobalContext(@NonNull final PLPageSet aPageSet,
+                                                              @NonNull final PDDocument aDoc) {
         ValueEnforcer.notNull(aPageSet, "PageSet");
-        ValueEnforcer.notNull(aDoc, "Document");
+        final PLPageSetPrepareResult aPrepareResult = aPageSet.internalGetPrepareResult();
+        if (aPrepareResult == null)
+            return new PreparationContextGlobal(aDoc);
+        return aPrepareResult.getOrCreateGlobalContext(aDoc);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param aPageSet          The page set to be rendered. May not be <code>null</code>.
+     * @param aGlobalCtx        The global context of the document. It is shared between all pages of
+     *                          a document so that shared resources are only created once. May not be
+     *                          <code>null</code>.
+     * @param aPage             The page to be rendered. May not be <code>null</code>.
+     * @param nPageSetIndex     Page set index. Always &ge; 0.
+     * @param nPageSetCount     Page set count. Always &ge; 0.
+     * @param nPageSetPageIndex Page index within the page set. Always &ge; 0.
+     * @param nPageSetPageCount Page count of the page set. Always &ge; 0.
+     * @param nTotalPageIndex   Total page index. Always &ge; 0.
+     * @param nTotalPageCount   Total page count. Always &ge; 0.
+     * @since 8.2.0
+     */
+    public PagePreRenderContext(@NonNull final PLPageSet aPageSet,
+                                @NonNull final PreparationContextGlobal aGlobalCtx,
+                                @NonNull final PDPage aPage,
+                                @Nonnegative final int nPageSetIndex,
+                                @Nonnegative final int nPageSetCount,
+                                @Nonnegative final int nPageSetPageIndex,
+                                @Nonnegative final int nPageSetPageCount,
+                                @Nonnegative final int nTotalPageIndex,
+                                @Nonnegative final int nTotalPageCount) {
+        ValueEnforcer.notNull(aPageSet, "PageSet");
+        ValueEnforcer.notNull(aGlobalCtx, "GlobalCtx");
         ValueEnforcer.notNull(aPage, "Page");
         ValueEnforcer.isGE0(nPageSetIndex, "PageSetIndex");
         ValueEnforcer.isGE0(nPageSetCount, "PageSetCount");
@@ -70,7 +134,7 @@ public class PagePreRenderContext {
         ValueEnforcer.isGE0(nTotalPageCount, "TotalPageCount");
 
         m_aPageSet = aPageSet;
-        m_aDoc = aDoc;
+        m_aGlobalCtx = aGlobalCtx;
         m_aPage = aPage;
         m_nPageSetIndex = nPageSetIndex;
         m_nPageSetCount = nPageSetCount;
@@ -99,12 +163,21 @@ public class PagePreRenderContext {
         return m_aPageSet;
     }
 
+    /**
+     * @return The global context of the document. Never <code>null</code>.
+     * @since 8.2.0
+     */
+    @NonNull
+    public PreparationContextGlobal getGlobalContext() {
+        return m_aGlobalCtx;
+    }
+
     /**
      * @return the PDFBox document
      */
     @NonNull
     public PDDocument getDocument() {
-        return m_aDoc;
+        return m_aGlobalCtx.getDocument();
     }
 
     /**
@@ -193,6 +266,16 @@ public class PagePreRenderContext {
         return m_aPlaceholders.getClone();
     }
 
+    /**
+     * @return <code>true</code> if all placeholder keys use the variable syntax
+     * <code>${name}</code>, so that only the variables contained in a text need to be looked up.
+     * @see EPLPlaceholder#isVariableSyntax(String)
+     * @since 8.2.0
+     */
+    public boolean hasOnlyVariablePlaceholders() {
+        return m_bOnlyVariablePlaceholders;
+    }
+
     @Nullable
     public String getPlaceholder(@Nullable final String sKey) {
         return m_aPlaceholders.get(sKey);
@@ -210,12 +293,14 @@ public class PagePreRenderContext {
         ValueEnforcer.notEmpty(sKey, "Key");
         ValueEnforcer.notNull(sValue, "Value");
         m_aPlaceholders.put(sKey, sValue);
+        if (!EPLPlaceholder.isVariableSyntax(sKey))
+            m_bOnlyVariablePlaceholders = false;
     }
 
     @Override
     public String toString() {
         return new ToStringGenerator(this).append("PageSet", m_aPageSet)
-                .append("PDDoc", m_aDoc)
+                .append("PDDoc", m_aGlobalCtx.getDocument())
                 .append("PDPage", m_aPage)
                 .append("PageSetIndex", m_nPageSetIndex)
                 .append("PageSetCount", m_nPageSetCount)
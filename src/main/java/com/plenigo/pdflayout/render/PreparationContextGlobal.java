@@ -16,29 +16,70 @@
  */
 package com.plenigo.pdflayout.render;
 
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
 import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.concurrent.SimpleReadWriteLock;
 import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsMap;
 import com.plenigo.pdflayout.debug.PLDebugLog;
+import com.plenigo.pdflayout.element.image.ImageEncodingCache;
+import com.plenigo.pdflayout.element.image.ImagePrefetcher;
+import com.plenigo.pdflayout.element.image.ImageXObjectCache;
+import com.plenigo.pdflayout.pdfbox.ContentStreamNumberWriter;
+import com.plenigo.pdflayout.pdfbox.PDPageContentStreamExt;
+import com.plenigo.pdflayout.pdfbox.PDPageContentStreamWithCache;
 import com.plenigo.pdflayout.spec.FontSpec;
 import com.plenigo.pdflayout.spec.LoadedFont;
 import com.plenigo.pdflayout.spec.PreloadFont;
+import com.plenigo.pdflayout.spec.PreloadFontMetricsCache;
+import com.plenigo.pdflayout.spec.TextLayoutCache;
+import org.apache.fontbox.ttf.TrueTypeFont;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * The current global context for preparing an element. This object must be the same for all
- * prepared elements. It keeps all loaded fonts so that they are not included more than once.
+ * prepared elements. It keeps all loaded fonts and all created images so that they are not
+ * included more than once.<br>
+ * If a prepare or render executor is present, elements may be prepared or pages may be rendered
+ * concurrently. Loading fonts is therefore thread-safe, and the loaded fonts can be used from
+ * multiple threads. All other methods must be called from a single thread.
  *
  * @author Philip Helger
  */
 @NotThreadSafe
 public final class PreparationContextGlobal {
     private final PDDocument m_aDoc;
+    private final Executor m_aPrepareExecutor;
+    private final Executor m_aRenderExecutor;
+    private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock();
+    @GuardedBy("m_aRWLock")
     private final ICommonsMap<PreloadFont, LoadedFont> m_aFontCache = new CommonsHashMap<>();
+    @GuardedBy("m_aRWLock")
+    private final ICommonsMap<PreloadFont, TrueTypeFont> m_aFontPrograms = new CommonsHashMap<>();
+    private final ImageXObjectCache m_aImageCache = new ImageXObjectCache();
+    private final AtomicInteger m_aFontRequestCount = new AtomicInteger(0);
+    private IRenderMetricsListener m_aMetricsListener;
+    private ImageEncodingCache m_aImageEncodingCache;
+    private TextLayoutCache m_aTextLayoutCache;
+    private ImagePrefetcher m_aImagePrefetcher;
+    private int m_nOutputPrecision = PDPageContentStreamExt.DEFAULT_FRACTION_DIGITS;
+    private boolean m_bCompactTextOperators;
 
     /**
      * Constructor
@@ -46,8 +87,38 @@ public final class PreparationContextGlobal {
      * @param aDoc The {@link PDDocument} worked upon
      */
     public PreparationContextGlobal(@NonNull final PDDocument aDoc) {
+        this(aDoc, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param aDoc             The {@link PDDocument} worked upon
+     * @param aPrepareExecutor The executor to prepare independent elements concurrently. May be
+     *                         <code>null</code> to prepare everything on the calling thread.
+     * @since 8.2.0
+     */
+    public PreparationContextGlobal(@NonNull final PDDocument aDoc, @Nullable final Executor aPrepareExecutor) {
+        this(aDoc, aPrepareExecutor, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param aDoc             The {@link PDDocument} worked upon
+     * @param aPrepareExecutor The executor to prepare independent elements concurrently. May be
+     *                         <code>null</code> to prepare everything on the calling thread.
+     * @param aRenderExecutor  The executor to render the content of pages concurrently. May be
+     *                         <code>null</code> to render everything on the calling thread.
+     * @since 8.2.0
+     */
+    public PreparationContextGlobal(@NonNull final PDDocument aDoc,
+                                    @Nullable final Executor aPrepareExecutor,
+                                    @Nullable final Executor aRenderExecutor) {
         ValueEnforcer.notNull(aDoc, "PDDocument");
         m_aDoc = aDoc;
+        m_aPrepareExecutor = aPrepareExecutor;
+        m_aRenderExecutor = aRenderExecutor;
     }
 
     /**
@@ -58,19 +129,341 @@ public final class PreparationContextGlobal {
         return m_aDoc;
     }
 
+    /**
+     * @return The executor to prepare independent elements concurrently. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public Executor getPrepareExecutor() {
+        return m_aPrepareExecutor;
+    }
+
+    /**
+     * @return The executor to render the content of pages concurrently. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public Executor getRenderExecutor() {
+        return m_aRenderExecutor;
+    }
+
+    @NonNull
+    @ReturnsMutableCopy
+    private static <T> ICommonsList<T> _getAllResultsInOrder(@Nullable final Executor aExecutor,
+                                                             @NonNull final ICommonsList<? extends Supplier<? extends T>> aTasks) {
+        ValueEnforcer.notNull(aTasks, "Tasks");
+
+        final ICommonsList<T> ret = new CommonsArrayList<>(aTasks.size());
+        if (aExecutor == null || aTasks.size() < 2) {
+            for (final Supplier<? extends T> aTask : aTasks)
+                ret.add(aTask.get());
+            return ret;
+        }
+
+        final ICommonsList<FutureTask<T>> aFutures = new CommonsArrayList<>(aTasks.size());
+        for (final Supplier<? extends T> aTask : aTasks) {
+            final FutureTask<T> aFuture = new FutureTask<>(aTask::get);
+            aFutures.add(aFuture);
+            try {
+                aExecutor.execute(aFuture);
+            } catch (final RejectedExecutionException ex) {
+                // Run on the calling thread below
+            }
+        }
+
+        try {
+            for (final FutureTask<T> aFuture : aFutures) {
+                // Does nothing if the task was already started by the executor
+                aFuture.run();
+                ret.add(aFuture.get());
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for concurrent execution", ex);
+        } catch (final ExecutionException ex) {
+            final Throwable aCause = ex.getCause();
+            if (aCause instanceof RuntimeException)
+                throw (RuntimeException) aCause;
+            if (aCause instanceof Error)
+                throw (Error) aCause;
+            throw new IllegalStateException("Concurrent execution failed", aCause);
+        } finally {
+            // Don't start any more tasks in case of an error
+            for (final FutureTask<T> aFuture : aFutures)
+                aFuture.cancel(false);
+        }
+        return ret;
+    }
+
+    /**
+     * Get the results of all provided tasks in the order of the tasks. If a prepare executor is
+     * present, the tasks are executed concurrently, otherwise one after another on the calling
+     * thread. Tasks that were not yet started by the executor are run on the calling thread, so
+     * that nested calls cannot block each other, even if the executor has only a few threads.
+     *
+     * @param aTasks The tasks to execute. May not be <code>null</code>.
+     * @param <T>    The result type of the tasks
+     *
+     * @return The results in the order of the tasks. Never <code>null</code>.
+     * @since 8.2.0
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    public <T> ICommonsList<T> getAllResultsInOrder(@NonNull final ICommonsList<? extends Supplier<? extends T>> aTasks) {
+        return _getAllResultsInOrder(m_aPrepareExecutor, aTasks);
+    }
+
+    /**
+     * Get the results of all provided render tasks in the order of the tasks. Same as
+     * {@link #getAllResultsInOrder(ICommonsList)} but using the render executor.
+     *
+     * @param aTasks The tasks to execute. May not be <code>null</code>.
+     * @param <T>    The result type of the tasks
+     *
+     * @return The results in the order of the tasks. Never <code>null</code>.
+     * @since 8.2.0
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    public <T> ICommonsList<T> getAllRenderResultsInOrder(@NonNull final ICommonsList<? extends Supplier<? extends T>> aTasks) {
+        return _getAllResultsInOrder(m_aRenderExecutor, aTasks);
+    }
+
+    /**
+     * @return The cache for all images of the document. Never <code>null</code>.
+     * @since 8.2.0
+     */
+    @NonNull
+    public ImageXObjectCache getImageCache() {
+        return m_aImageCache;
+    }
+
+    /**
+     * @return The cache to share encoded images with other documents. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public ImageEncodingCache getImageEncodingCache() {
+        return m_aImageEncodingCache;
+    }
+
+    /**
+     * Set the cache to share encoded images with other documents.
+     *
+     * @param aImageEncodingCache The cache to use. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    public void setImageEncodingCache(@Nullable final ImageEncodingCache aImageEncodingCache) {
+        m_aImageEncodingCache = aImageEncodingCache;
+    }
+
+    /**
+     * @return The cache for the lines texts are split into. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public TextLayoutCache getTextLayoutCache() {
+        return m_aTextLayoutCache;
+    }
+
+    /**
+     * Set the cache for the lines texts are split into.
+     *
+     * @param aTextLayoutCache The cache to use. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    public void setTextLayoutCache(@Nullable final TextLayoutCache aTextLayoutCache) {
+        m_aTextLayoutCache = aTextLayoutCache;
+    }
+
+    /**
+     * @return The prefetcher that loads the images of the document in the background. May be
+     * <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public ImagePrefetcher getImagePrefetcher() {
+        return m_aImagePrefetcher;
+    }
+
+    /**
+     * Set the prefetcher that loads the images of the document in the background.
+     *
+     * @param aImagePrefetcher The prefetcher to use. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    public void setImagePrefetcher(@Nullable final ImagePrefetcher aImagePrefetcher) {
+        m_aImagePrefetcher = aImagePrefetcher;
+    }
+
+    /**
+     * @return The maximum number of fraction digits of numeric operands in the content streams.
+     * Always &ge; 0.
+     * @since 8.2.0
+     */
+    @Nonnegative
+    public int getOutputPrecision() {
+        return m_nOutputPrecision;
+    }
+
+    /**
+     * Set the maximum number of fraction digits of numeric operands in the content streams.
+     *
+     * @param nOutputPrecision The number of fraction digits. Must be between 0 and
+     *                         {@link ContentStreamNumberWriter#MAX_FRACTION_DIGITS}.
+     * @since 8.2.0
+     */
+    public void setOutputPrecision(@Nonnegative final int nOutputPrecision) {
+        ValueEnforcer.isBetweenInclusive(nOutputPrecision,
+                "OutputPrecision",
+                0,
+                ContentStreamNumberWriter.MAX_FRACTION_DIGITS);
+        m_nOutputPrecision = nOutputPrecision;
+    }
+
+    /**
+     * @return <code>true</code> if text is written with compact text operators.
+     * @since 8.2.0
+     */
+    public boolean isCompactTextOperators() {
+        return m_bCompactTextOperators;
+    }
+
+    /**
+     * Enable or disable compact text operators in the content streams.
+     *
+     * @param bCompactTextOperators <code>true</code> to enable compact text operators.
+     * @since 8.2.0
+     * @see PDPageContentStreamWithCache#setCompactTextOperators(boolean)
+     */
+    public void setCompactTextOperators(final boolean bCompactTextOperators) {
+        m_bCompactTextOperators = bCompactTextOperators;
+    }
+
+    /**
+     * @return The metrics listener to be informed about the rendering phases. May be
+     * <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public IRenderMetricsListener getMetricsListener() {
+        return m_aMetricsListener;
+    }
+
+    /**
+     * Set the metrics listener to be informed about the rendering phases.
+     *
+     * @param aMetricsListener The listener to use. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    public void setMetricsListener(@Nullable final IRenderMetricsListener aMetricsListener) {
+        m_aMetricsListener = aMetricsListener;
+    }
+
+    /**
+     * @return The number of calls to {@link #getLoadedFont(PreloadFont)}. Always &ge; 0.
+     * @since 8.2.0
+     */
+    @Nonnegative
+    public int getFontRequestCount() {
+        return m_aFontRequestCount.get();
+    }
+
+    /**
+     * @return The number of fonts loaded into the document. Always &ge; 0.
+     * @since 8.2.0
+     */
+    @Nonnegative
+    public int getLoadedFontCount() {
+        return m_aRWLock.readLockedGet(m_aFontCache::size).intValue();
+    }
+
+    /**
+     * @return A copy of all fonts loaded into the document so far, indexed by the font they were
+     * loaded from. Never <code>null</code>.
+     * @since 8.2.0
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    public ICommonsMap<PreloadFont, LoadedFont> getAllLoadedFonts() {
+        return m_aRWLock.readLockedGet(m_aFontCache::getClone);
+    }
+
+    /**
+     * Get the font loaded into the document of this context. Each font is loaded only once per
+     * document. This method is thread-safe.
+     *
+     * @param aFontSpec The font specification to get the loaded font for. May not be
+     *                  <code>null</code>.
+     *
+     * @return The loaded font. Never <code>null</code>.
+     *
+     * @throws IOException In case the font cannot be loaded
+     */
     @NonNull
     public LoadedFont getLoadedFont(@NonNull final FontSpec aFontSpec) throws IOException {
-        final PreloadFont aPreloadFont = aFontSpec.getPreloadFont();
-        LoadedFont aLoadedFont = m_aFontCache.get(aPreloadFont);
+        return getLoadedFont(aFontSpec.getPreloadFont());
+    }
+
+    /**
+     * Get the font loaded into the document of this context. Each font is loaded only once per
+     * document. This method is thread-safe.
+     *
+     * @param aPreloadFont The font to get the loaded font for. May not be <code>null</code>.
+     *
+     * @return The loaded font. Never <code>null</code>.
+     *
+     * @throws IOException In case the font cannot be loaded
+     * @since 8.2.0
+     */
+    @NonNull
+    public LoadedFont getLoadedFont(@NonNull final PreloadFont aPreloadFont) throws IOException {
+        ValueEnforcer.notNull(aPreloadFont, "PreloadFont");
+        m_aFontRequestCount.incrementAndGet();
+        LoadedFont aLoadedFont = m_aRWLock.readLockedGet(() -> m_aFontCache.get(aPreloadFont));
         if (aLoadedFont == null) {
-            if (PLDebugLog.isDebugFont())
-                PLDebugLog.debugFont(aPreloadFont.toString(), "Loading into current document");
+            // The PDDocument is not thread-safe - load exclusively
+            m_aRWLock.writeLock().lock();
+            try {
+                // Try again in write lock
+                aLoadedFont = m_aFontCache.get(aPreloadFont);
+                if (aLoadedFont == null) {
+                    if (PLDebugLog.isDebugFont())
+                        PLDebugLog.debugFont(aPreloadFont.toString(), "Loading into current document");
 
-            aLoadedFont = new LoadedFont(aPreloadFont.loadPDFont(m_aDoc),
-                    aPreloadFont.getFallbackCodePoint(),
-                    aPreloadFont.getFontLineHeight());
-            m_aFontCache.put(aPreloadFont, aLoadedFont);
+                    // The font program is used exclusively until releaseFontPrograms is called
+                    final TrueTypeFont aFontProgram = aPreloadFont.acquireFontProgram();
+                    final PDFont aPDFont = aPreloadFont.loadPDFont(m_aDoc, aFontProgram);
+                    if (aFontProgram != null)
+                        m_aFontPrograms.put(aPreloadFont, aFontProgram);
+
+                    // Share the code point metrics with all other documents
+                    aLoadedFont = new LoadedFont(aPDFont,
+                            aPreloadFont.getFallbackCodePoint(),
+                            aPreloadFont.getFontLineHeight(),
+                            aPreloadFont,
+                            PreloadFontMetricsCache.getInstance(),
+                            m_aPrepareExecutor != null || m_aRenderExecutor != null);
+                    m_aFontCache.put(aPreloadFont, aLoadedFont);
+                }
+            } finally {
+                m_aRWLock.writeLock().unlock();
+            }
         }
         return aLoadedFont;
     }
+
+    /**
+     * Return the font programs of all loaded fonts, so that they can be used by the next document.
+     * Must only be called after the document was saved or closed, as the fonts of the document may
+     * not be used afterwards.
+     *
+     * @since 8.2.0
+     */
+    public void releaseFontPrograms() {
+        m_aRWLock.writeLocked(() -> {
+            m_aFontPrograms.forEach(PreloadFont::releaseFontProgram);
+            m_aFontPrograms.clear();
+        });
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.render;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * Summary of the rendering of a single document, as passed to
+ * {@link IRenderMetricsListener#onRenderFinished(RenderMetrics)}.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@Immutable
+public final class RenderMetrics {
+    private final long m_nTotalDurationNanos;
+    private final int m_nPageCount;
+    private final int m_nSplitCount;
+    private final int m_nFontRequestCount;
+    private final int m_nLoadedFontCount;
+    private final long m_nMetricsCacheHitCount;
+    private final long m_nMetricsCacheMissCount;
+
+    /**
+     * Constructor
+     *
+     * @param nTotalDurationNanos    Total wall time in nanoseconds.
+     * @param nPageCount             Number of rendered pages.
+     * @param nSplitCount            Number of vertical splits performed during pagination.
+     * @param nFontRequestCount      Number of font requests to the document font cache.
+     * @param nLoadedFontCount       Number of fonts loaded into the document.
+     * @param nMetricsCacheHitCount  Number of hits in the process wide font metrics cache.
+     * @param nMetricsCacheMissCount Number of misses in the process wide font metrics cache.
+     */
+    public RenderMetrics(@Nonnegative final long nTotalDurationNanos,
+                         @Nonnegative final int nPageCount,
+                         @Nonnegative final int nSplitCount,
+                         @Nonnegative final int nFontRequestCount,
+                         @Nonnegative final int nLoadedFontCount,
+                         @Nonnegative final long nMetricsCacheHitCount,
+                         @Nonnegative final long nMetricsCacheMissCount) {
+        m_nTotalDurationNanos = nTotalDurationNanos;
+        m_nPageCount = nPageCount;
+        m_nSplitCount = nSplitCount;
+        m_nFontRequestCount = nFontRequestCount;
+        m_nLoadedFontCount = nLoadedFontCount;
+        m_nMetricsCacheHitCount = nMetricsCacheHitCount;
+        m_nMetricsCacheMissCount = nMetricsCacheMissCount;
+    }
+
+    /**
+     * @return The total wall time of rendering the document in nanoseconds.
+     */
+    @Nonnegative
+    public long getTotalDurationNanos() {
+        return m_nTotalDurationNanos;
+    }
+
+    /**
+     * @return The number of rendered pages.
+     */
+    @Nonnegative
+    public int getPageCount() {
+        return m_nPageCount;
+    }
+
+    /**
+     * @return The number of vertical splits that were necessary to distribute the elements onto
+     * pages.
+     */
+    @Nonnegative
+    public int getSplitCount() {
+        return m_nSplitCount;
+    }
+
+    /**
+     * @return The number of times a font was requested from the document font cache.
+     */
+    @Nonnegative
+    public int getFontRequestCount() {
+        return m_nFontRequestCount;
+    }
+
+    /**
+     * @return The number of fonts that were loaded into the document. Each of them is a miss of
+     * the document font cache.
+     */
+    @Nonnegative
+    public int getLoadedFontCount() {
+        return m_nLoadedFontCount;
+    }
+
+    /**
+     * @return The hit rate of the document font cache between 0 and 1.
+     */
+    public double getFontCacheHitRate() {
+        if (m_nFontRequestCount == 0)
+            return 0;
+        return (m_nFontRequestCount - m_nLoadedFontCount) / (double) m_nFontRequestCount;
+    }
+
+    /**
+     * @return The number of hits in the process wide font metrics cache while rendering. As the
+     * cache is shared, this includes the hits of documents rendered concurrently.
+     */
+    @Nonnegative
+    public long getMetricsCacheHitCount() {
+        return m_nMetricsCacheHitCount;
+    }
+
+    /**
+     * @return The number of misses in the process wide font metrics cache while rendering. As the
+     * cache is shared, this includes the misses of documents rendered concurrently.
+     */
+    @Nonnegative
+    public long getMetricsCacheMissCount() {
+        return m_nMetricsCacheMissCount;
+    }
+
+    /**
+     * @return The hit rate of the process wide font metrics cache between 0 and 1.
+     */
+    public double getMetricsCacheHitRate() {
+        final long nTotal = m_nMetricsCacheHitCount + m_nMetricsCacheMissCount;
+        if (nTotal == 0)
+            return 0;
+        return m_nMetricsCacheHitCount / (double) nTotal;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringGenerator(this).append("TotalDurationNanos", m_nTotalDurationNanos)
+                .append("PageCount", m_nPageCount)
+                .append("SplitCount", m_nSplitCount)
+                .append("FontRequestCount", m_nFontRequestCount)
+                .append("LoadedFontCount", m_nLoadedFontCount)
+                .append("MetricsCacheHitCount", m_nMetricsCacheHitCount)
+                .append("MetricsCacheMissCount", m_nMetricsCacheMissCount)
+                .getToString();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.spec;
+
+import com.helger.annotation.Nonnegative;
+
+/**
+ * Callback interface for the lines created by
+ * {@link LoadedFont#forEachLineFitToWidth(String, float, float, float, ITextLineRangeConsumer)}. Each
+ * line is a range within the original text, so no substring needs to be created.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@FunctionalInterface
+public interface ITextLineRangeConsumer {
+    /**
+     * Called for each line.
+     *
+     * @param nStartIndex       Start index of the line within the original text, inclusive. Always
+     *                          &ge; 0.
+     * @param nEndIndex         End index of the line within the original text, exclusive. Always
+     *                          &ge; start index.
+     * @param fWidth            The rendering width of the line. Always &ge; 0.
+     * @param bDisplayAsNewline <code>true</code> if the line ends with a hard line break
+     */
+    void accept(@Nonnegative int nStartIndex,
+                @Nonnegative int nEndIndex,
+                @Nonnegative float fWidth,
+                boolean bDisplayAsNewline);
+}
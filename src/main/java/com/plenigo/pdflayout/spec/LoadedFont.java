@@ -22,14 +22,13 @@ import com.helger.annotation.WillNotClose;
 import com.helger.annotation.concurrent.Immutable;
 import com.helger.annotation.style.MustImplementEqualsAndHashcode;
 import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.concurrent.SimpleReadWriteLock;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.hashcode.HashCodeGenerator;
-import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
 import com.helger.base.string.StringHelper;
 import com.helger.base.tostring.ToStringGenerator;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
-import com.helger.collection.map.IntFloatMap;
 import com.helger.collection.map.IntObjectMap;
 import com.plenigo.pdflayout.PLConvert;
 import com.plenigo.pdflayout.debug.PLDebugLog;
@@ -46,7 +45,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
-import java.util.List;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  * This class represents a wrapper around a {@link PDFont} that is uniquely assigned to a
@@ -57,15 +57,20 @@ import java.util.List;
 @Immutable
 @MustImplementEqualsAndHashcode
 public class LoadedFont {
-    private static final class EncodedCodePoint implements Serializable {
+    /**
+     * The encoded bytes and the width of a single code point. Instances are immutable and may
+     * therefore be shared across documents via {@link PreloadFontMetricsCache}.
+     */
+    @Immutable
+    static final class EncodedCodePoint implements Serializable {
         private final int m_nCodePoint;
         private final byte[] m_aEncoded;
-        // Lazy inited
-        private Integer m_aEncodedValue;
+        private final float m_fWidth;
 
-        private EncodedCodePoint(final int nCodePoint, @NonNull final byte[] aEncoded) {
+        private EncodedCodePoint(final int nCodePoint, @NonNull final byte[] aEncoded, final float fWidth) {
             m_nCodePoint = nCodePoint;
             m_aEncoded = aEncoded;
+            m_fWidth = fWidth;
         }
 
         /**
@@ -79,6 +84,22 @@ public class LoadedFont {
             aOS.write(m_aEncoded);
         }
 
+        int copyEncodedBytes(@NonNull final byte[] aTarget, @Nonnegative final int nOfs) {
+            final int nLength = m_aEncoded.length;
+            if (nLength == 1)
+                aTarget[nOfs] = m_aEncoded[0];
+            else
+                System.arraycopy(m_aEncoded, 0, aTarget, nOfs, nLength);
+            return nOfs + nLength;
+        }
+
+        /**
+         * @return The width of the code point in 1000 units of text space.
+         */
+        public float getWidth() {
+            return m_fWidth;
+        }
+
         private static int _toInt(@NonNull final byte[] aEncoded) {
             int ret = 0;
             for (final byte b : aEncoded) {
@@ -87,19 +108,22 @@ public class LoadedFont {
             }
             return ret;
         }
-
-        public int getEncodedIntValue() {
-            Integer ret = m_aEncodedValue;
-            if (ret == null) {
-                // Lazy init
-                ret = m_aEncodedValue = Integer.valueOf(_toInt(m_aEncoded));
-            }
-            return ret.intValue();
-        }
     }
 
+    /**
+     * The maximum number of bytes a single char of a text is encoded to.
+     *
+     * @since 8.2.0
+     */
+    public static final int MAX_ENCODED_BYTES_PER_CHAR = 4;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(LoadedFont.class);
 
+    /**
+     * The number of code points with a dense lookup table (ISO-8859-1).
+     */
+    private static final int DENSE_CODE_POINT_COUNT = 256;
+
     /**
      * The underlying PDFBox font
      */
@@ -113,14 +137,76 @@ public class LoadedFont {
     private final float m_fDescent;
     private final boolean m_bFontWillBeSubset;
     private final IntObjectMap<EncodedCodePoint> m_aEncodedCodePointCache = new IntObjectMap<>();
-    private final IntFloatMap m_aCodePointWidthCache = new IntFloatMap();
+    // Dense tables for the most common code points, filled lazily. A negative width means unknown.
+    // Concurrent fills write the same immutable values, so no lock is needed for reading.
+    private final float[] m_aDenseWidths = new float[DENSE_CODE_POINT_COUNT];
+    private final EncodedCodePoint[] m_aDenseEncodedCodePoints = new EncodedCodePoint[DENSE_CODE_POINT_COUNT];
+    // The code points already passed to the font for subsetting
+    private final BitSet m_aSubsetCodePoints = new BitSet(DENSE_CODE_POINT_COUNT);
+    // Only present if the font is used by multiple threads concurrently
+    private final SimpleReadWriteLock m_aRWLock;
+    // The optional cross-document cache
+    private final PreloadFont m_aPreloadFont;
+    private final PreloadFontMetricsCache m_aMetricsCache;
 
     public LoadedFont(@NonNull final PDFont aFont,
                       final int nFallbackCodePoint,
                       @CheckForSigned final float fCustomLineHeight) {
+        this(aFont, nFallbackCodePoint, fCustomLineHeight, null, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param aFont              The PDFBox font to use. May not be <code>null</code>.
+     * @param nFallbackCodePoint The code point to be used, if a code point is not contained in the
+     *                           font.
+     * @param fCustomLineHeight  The custom line height to use. Values &le; 0 mean that the height of
+     *                           the font bounding box should be used.
+     * @param aPreloadFont       The {@link PreloadFont} the font was loaded from. Used as the key into
+     *                           the metrics cache. May be <code>null</code>.
+     * @param aMetricsCache      The cross-document metrics cache to use. May be <code>null</code>
+     *                           in which case only the per instance cache is used.
+     * @since 8.2.0
+     */
+    public LoadedFont(@NonNull final PDFont aFont,
+                      final int nFallbackCodePoint,
+                      @CheckForSigned final float fCustomLineHeight,
+                      @Nullable final PreloadFont aPreloadFont,
+                      @Nullable final PreloadFontMetricsCache aMetricsCache) {
+        this(aFont, nFallbackCodePoint, fCustomLineHeight, aPreloadFont, aMetricsCache, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param aFont              The PDFBox font to use. May not be <code>null</code>.
+     * @param nFallbackCodePoint The code point to be used, if a code point is not contained in the
+     *                           font.
+     * @param fCustomLineHeight  The custom line height to use. Values &le; 0 mean that the height of
+     *                           the font bounding box should be used.
+     * @param aPreloadFont       The {@link PreloadFont} the font was loaded from. Used as the key into
+     *                           the metrics cache. May be <code>null</code>.
+     * @param aMetricsCache      The cross-document metrics cache to use. May be <code>null</code>
+     *                           in which case only the per instance cache is used.
+     * @param bThreadSafe        <code>true</code> if the text measuring methods may be called from
+     *                           multiple threads concurrently. As PDFBox fonts are not thread-safe,
+     *                           this serializes all accesses to the underlying font, which has a
+     *                           small overhead.
+     * @since 8.2.0
+     */
+    public LoadedFont(@NonNull final PDFont aFont,
+                      final int nFallbackCodePoint,
+                      @CheckForSigned final float fCustomLineHeight,
+                      @Nullable final PreloadFont aPreloadFont,
+                      @Nullable final PreloadFontMetricsCache aMetricsCache,
+                      final boolean bThreadSafe) {
         ValueEnforcer.notNull(aFont, "Font");
         m_aFont = aFont;
         m_nFallbackCodePoint = nFallbackCodePoint;
+        // The shared cache can only be used if the key is present
+        m_aPreloadFont = aPreloadFont;
+        m_aMetricsCache = aPreloadFont == null ? null : aMetricsCache;
 
         PDFontDescriptor aFD = aFont.getFontDescriptor();
         if (aFD == null) {
@@ -143,6 +229,25 @@ public class LoadedFont {
 
         m_fDescent = aFD.getDescent();
         m_bFontWillBeSubset = m_aFont.willBeSubset();
+        m_aRWLock = bThreadSafe ? new SimpleReadWriteLock() : null;
+        Arrays.fill(m_aDenseWidths, -1f);
+    }
+
+    /**
+     * @return <code>true</code> if this font may be used by multiple threads concurrently.
+     * @since 8.2.0
+     */
+    public final boolean isThreadSafe() {
+        return m_aRWLock != null;
+    }
+
+    /**
+     * @return The {@link PreloadFont} the font was loaded from. May be <code>null</code>.
+     * @since 8.2.0
+     */
+    @Nullable
+    public final PreloadFont getPreloadFont() {
+        return m_aPreloadFont;
     }
 
     /**
@@ -170,14 +275,18 @@ public class LoadedFont {
         try {
             // multi-byte encoding with 1 to 4 bytes
             final byte[] aEncodedBytes = PDFontHelper.encode(aFont, nCodepoint);
-            return new EncodedCodePoint(nCodepoint, aEncodedBytes);
+            return new EncodedCodePoint(nCodepoint,
+                    aEncodedBytes,
+                    aFont.getWidth(EncodedCodePoint._toInt(aEncodedBytes)));
         } catch (final IllegalArgumentException ex) {
             if (PLDebugLog.isDebugFont())
                 PLDebugLog.debugFont(aFont.toString(), "No code point " + nCodepoint + " in this font - " + ex.getMessage());
             try {
                 // Use fallback code point
                 final byte[] aEncodedBytes = PDFontHelper.encode(aFont, nFallbackCodepoint);
-                return new EncodedCodePoint(nFallbackCodepoint, aEncodedBytes);
+                return new EncodedCodePoint(nFallbackCodepoint,
+                        aEncodedBytes,
+                        aFont.getWidth(EncodedCodePoint._toInt(aEncodedBytes)));
             } catch (final IllegalArgumentException ex2) {
                 if (PLDebugLog.isDebugFont())
                     PLDebugLog.debugFont(aFont.toString(),
@@ -192,10 +301,55 @@ public class LoadedFont {
 
     @NonNull
     private EncodedCodePoint _getEncodedCodePoint(final int nCodePoint) throws IOException {
+        if (nCodePoint < DENSE_CODE_POINT_COUNT) {
+            EncodedCodePoint aECP = m_aDenseEncodedCodePoints[nCodePoint];
+            if (aECP == null) {
+                aECP = _getCachedEncodedCodePoint(nCodePoint);
+                m_aDenseEncodedCodePoints[nCodePoint] = aECP;
+                m_aDenseWidths[nCodePoint] = aECP.getWidth();
+            }
+            return aECP;
+        }
+        return _getCachedEncodedCodePoint(nCodePoint);
+    }
+
+    @NonNull
+    private EncodedCodePoint _getCachedEncodedCodePoint(final int nCodePoint) throws IOException {
+        if (m_aRWLock == null)
+            return _getOrCreateEncodedCodePoint(nCodePoint);
+
+        EncodedCodePoint aECP;
+        m_aRWLock.readLock().lock();
+        try {
+            aECP = m_aEncodedCodePointCache.get(nCodePoint);
+        } finally {
+            m_aRWLock.readLock().unlock();
+        }
+        if (aECP == null) {
+            // The PDFBox font is not thread-safe - encode exclusively
+            m_aRWLock.writeLock().lock();
+            try {
+                aECP = _getOrCreateEncodedCodePoint(nCodePoint);
+            } finally {
+                m_aRWLock.writeLock().unlock();
+            }
+        }
+        return aECP;
+    }
+
+    @NonNull
+    private EncodedCodePoint _getOrCreateEncodedCodePoint(final int nCodePoint) throws IOException {
         EncodedCodePoint aECP = m_aEncodedCodePointCache.get(nCodePoint);
         if (aECP == null) {
-            // Encode code point according to the font rules
-            aECP = encodeCodepointWithFallback(m_aFont, nCodePoint, m_nFallbackCodePoint);
+            // Try the cross-document cache first
+            if (m_aMetricsCache != null)
+                aECP = m_aMetricsCache.get(m_aPreloadFont, nCodePoint);
+            if (aECP == null) {
+                // Encode code point according to the font rules
+                aECP = encodeCodepointWithFallback(m_aFont, nCodePoint, m_nFallbackCodePoint);
+                if (m_aMetricsCache != null)
+                    m_aMetricsCache.put(m_aPreloadFont, nCodePoint, aECP);
+            }
             // put in cache
             m_aEncodedCodePointCache.put(nCodePoint, aECP);
         }
@@ -203,18 +357,37 @@ public class LoadedFont {
     }
 
     private float _getCodePointWidth(final int nCodePoint) throws IOException {
-        float fWidth = m_aCodePointWidthCache.get(nCodePoint, -1f);
-        if (fWidth < 0) {
-            // Get encoded code point (from its own cache)
-            final EncodedCodePoint aECP = _getEncodedCodePoint(nCodePoint);
+        if (nCodePoint < DENSE_CODE_POINT_COUNT) {
+            final float fWidth = m_aDenseWidths[nCodePoint];
+            if (fWidth >= 0)
+                return fWidth;
+        }
+        // The width is determined together with the encoding
+        return _getEncodedCodePoint(nCodePoint).getWidth();
+    }
 
-            // Get width of encoded value
-            fWidth = m_aFont.getWidth(aECP.getEncodedIntValue());
+    private void _addToSubsetOnce(final int nCodePoint) {
+        if (!m_aSubsetCodePoints.get(nCodePoint)) {
+            m_aSubsetCodePoints.set(nCodePoint);
+            m_aFont.addToSubset(nCodePoint);
+        }
+    }
 
-            // Map code point to width to save encoding
-            m_aCodePointWidthCache.put(nCodePoint, fWidth);
+    private void _addToSubset(final int nCodePoint) {
+        // Each code point is only passed once to the font
+        if (m_aRWLock == null)
+            _addToSubsetOnce(nCodePoint);
+        else {
+            final boolean bAlreadyAdded;
+            m_aRWLock.readLock().lock();
+            try {
+                bAlreadyAdded = m_aSubsetCodePoints.get(nCodePoint);
+            } finally {
+                m_aRWLock.readLock().unlock();
+            }
+            if (!bAlreadyAdded)
+                m_aRWLock.writeLocked(() -> _addToSubsetOnce(nCodePoint));
         }
-        return fWidth;
     }
 
     @Nonnegative
@@ -229,11 +402,19 @@ public class LoadedFont {
         int nCPOfs = 0;
         final int nLength = sText.length();
         while (nCPOfs < nLength) {
-            final int nCP = sText.codePointAt(nCPOfs);
-            nCPOfs += Character.charCount(nCP);
+            final char c = sText.charAt(nCPOfs);
+            if (c < DENSE_CODE_POINT_COUNT) {
+                // Never a surrogate - use the dense table
+                final float fCPWidth = m_aDenseWidths[c];
+                fWidth += fCPWidth >= 0 ? fCPWidth : _getCodePointWidth(c);
+                nCPOfs++;
+            } else {
+                final int nCP = sText.codePointAt(nCPOfs);
+                nCPOfs += Character.charCount(nCP);
 
-            // Use code point cache for maximum performance
-            fWidth += _getCodePointWidth(nCP);
+                // Use code point cache for maximum performance
+                fWidth += _getCodePointWidth(nCP);
+            }
         }
         // The width is in 1000 unit of text space, ie 333 or 777
         return PLConvert.getForFontSize(fWidth, fFontSize);
@@ -251,29 +432,52 @@ public class LoadedFont {
      */
     @NonNull
     public byte[] getEncodedForPageContentStream(@NonNull final String sText) throws IOException {
-        // Minimum is 1*string length
-        // Maximum is 4*string length
-        try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream(sText.length() * 2)) {
-            int nCPOfs = 0;
-            while (nCPOfs < sText.length()) {
-                final int nCP = sText.codePointAt(nCPOfs);
-                nCPOfs += Character.charCount(nCP);
+        final byte[] aBuffer = new byte[sText.length() * MAX_ENCODED_BYTES_PER_CHAR];
+        final int nLength = encodeForPageContentStream(sText, aBuffer);
+        return Arrays.copyOf(aBuffer, nLength);
+    }
 
-                final EncodedCodePoint aECP = _getEncodedCodePoint(nCP);
-                if (m_bFontWillBeSubset)
-                    m_aFont.addToSubset(aECP.getCodePoint());
-                aECP.writeEncodedBytes(aBAOS);
-            }
-            return aBAOS.toByteArray();
+    /**
+     * Encode the passed text into the provided buffer, so that no temporary objects are needed.
+     * If the font will be subset, all used code points are registered at the font.
+     *
+     * @param sText   Text to be encoded. May not be <code>null</code>.
+     * @param aBuffer The buffer to encode into. Must have a length of at least
+     *                {@link #MAX_ENCODED_BYTES_PER_CHAR} times the text length.
+     *
+     * @return The number of bytes written into the buffer. Always &ge; 0.
+     *
+     * @throws IOException In case something goes wrong
+     * @since 8.2.0
+     */
+    @Nonnegative
+    public int encodeForPageContentStream(@NonNull final String sText, @NonNull final byte[] aBuffer) throws IOException {
+        final int nLength = sText.length();
+        ValueEnforcer.isTrue(aBuffer.length >= nLength * MAX_ENCODED_BYTES_PER_CHAR, "Buffer is too small");
+
+        int nBufferOfs = 0;
+        int nCPOfs = 0;
+        while (nCPOfs < nLength) {
+            final int nCP = sText.codePointAt(nCPOfs);
+            nCPOfs += Character.charCount(nCP);
+
+            final EncodedCodePoint aECP = _getEncodedCodePoint(nCP);
+            if (m_bFontWillBeSubset)
+                _addToSubset(aECP.getCodePoint());
+            nBufferOfs = aECP.copyEncodedBytes(aBuffer, nBufferOfs);
         }
+        return nBufferOfs;
     }
 
-    private void _getLineFitToWidthForward(@NonNull final String sLine,
-                                           @Nonnegative final float fFontSize,
-                                           @Nonnegative final float fMaxFirstWidth,
-                                           @Nonnegative final float fMaxWidth,
-                                           @NonNull final List<TextAndWidthSpec> ret) throws IOException {
-        String sCurLine = sLine;
+    private void _forEachLineFitToWidthForward(@NonNull final String sText,
+                                               @Nonnegative final int nLineStart,
+                                               @Nonnegative final int nLineEnd,
+                                               @Nonnegative final float fFontSize,
+                                               @Nonnegative final float fMaxFirstWidth,
+                                               @Nonnegative final float fMaxWidth,
+                                               @NonNull final ITextLineRangeConsumer aConsumer) throws IOException {
+        // Start index of the remaining line within the text. All other offsets are relative to it.
+        int nCurStart = nLineStart;
         float fSumWidth = 0f;
         int nCodePointOffset = 0;
         int nCodePointOffsetOfLastWhitespace = 0;
@@ -283,8 +487,8 @@ public class LoadedFont {
         float fWidth = fMaxFirstWidth;
 
         // For each code point
-        while (nCodePointOffset < sCurLine.length()) {
-            final int nCodePoint = sCurLine.codePointAt(nCodePointOffset);
+        while (nCurStart + nCodePointOffset < nLineEnd) {
+            final int nCodePoint = sText.codePointAt(nCurStart + nCodePointOffset);
             final float fCodePointWidth = PLConvert.getForFontSize(_getCodePointWidth(nCodePoint), fFontSize);
             if (Character.isWhitespace(nCodePoint)) {
                 // Whitespace is considered a word break and allows us to break the line
@@ -305,7 +509,7 @@ public class LoadedFont {
                     LOGGER.warn("The provided max width (" +
                             fWidth +
                             ") is too small to hold a single character! Will create an overlap! Problem string=<" +
-                            sLine +
+                            sText.substring(nLineStart, nLineEnd) +
                             ">");
                     bWarnedOnTooSmallMaxWidth = true;
                 }
@@ -318,15 +522,16 @@ public class LoadedFont {
                 // Maximum width reached
                 if (nCodePointOffsetOfLastWhitespace > 0) {
                     // Use everything up to but excluding the last whitespace
-                    final String sPart = sCurLine.substring(0, nCodePointOffsetOfLastWhitespace);
+                    aConsumer.accept(nCurStart,
+                            nCurStart + nCodePointOffsetOfLastWhitespace,
+                            fSumWidthOfLastWhitespace,
+                            bLastWhitespaceWasNewline);
                     // Skip whitespace char in this case
-                    sCurLine = sCurLine.substring(nCodePointOffsetOfLastWhitespace + 1);
-                    ret.add(new TextAndWidthSpec(sPart, fSumWidthOfLastWhitespace, bLastWhitespaceWasNewline));
+                    nCurStart += nCodePointOffsetOfLastWhitespace + 1;
                 } else {
                     // No whitespace - use up to but excluding last char
-                    final String sPart = sCurLine.substring(0, nCodePointOffset);
-                    sCurLine = sCurLine.substring(nCodePointOffset);
-                    ret.add(new TextAndWidthSpec(sPart, fSumWidth, false));
+                    aConsumer.accept(nCurStart, nCurStart + nCodePointOffset, fSumWidth, false);
+                    nCurStart += nCodePointOffset;
                 }
                 // Reset counter for the rest of the line
                 fSumWidth = 0f;
@@ -341,7 +546,48 @@ public class LoadedFont {
         }
         // Add the rest (even if it is empty, otherwise empty lines won't get
         // printed)
-        ret.add(new TextAndWidthSpec(sCurLine, fSumWidth, true));
+        aConsumer.accept(nCurStart, nLineEnd, fSumWidth, true);
+    }
+
+    /**
+     * Split the provided text into lines that fit into the provided widths. Hard line breaks
+     * (<code>\n</code>) always start a new line. Instead of creating a new String for each line,
+     * only the index ranges within the provided text are passed to the consumer, so the costs are
+     * linear to the text length.
+     *
+     * @param sText          The text to split. May be <code>null</code>.
+     * @param fFontSize      The font size to use. Must be &gt; 0.
+     * @param fMaxFirstWidth The maximum width of the first line of each paragraph. Must be &gt; 0.
+     * @param fMaxWidth      The maximum width of all other lines. Must be &gt; 0.
+     * @param aConsumer      The consumer that is invoked for each line in order. May not be
+     *                       <code>null</code>.
+     *
+     * @throws IOException In case something goes wrong
+     * @since 8.2.0
+     */
+    public void forEachLineFitToWidth(@Nullable final String sText,
+                                      @Nonnegative final float fFontSize,
+                                      @Nonnegative final float fMaxFirstWidth,
+                                      @Nonnegative final float fMaxWidth,
+                                      @NonNull final ITextLineRangeConsumer aConsumer) throws IOException {
+        ValueEnforcer.isGT0(fFontSize, "FontSize");
+        ValueEnforcer.isGT0(fMaxFirstWidth, "MaxWidth");
+        ValueEnforcer.isGT0(fMaxWidth, "MaxWidth");
+        ValueEnforcer.notNull(aConsumer, "Consumer");
+
+        if (StringHelper.isNotEmpty(sText)) {
+            // First split by the contained line breaks
+            // In the constructor we ensured that only "\n" is used
+            int nLineStart = 0;
+            while (true) {
+                final int nLineBreak = sText.indexOf('\n', nLineStart);
+                final int nLineEnd = nLineBreak < 0 ? sText.length() : nLineBreak;
+                _forEachLineFitToWidthForward(sText, nLineStart, nLineEnd, fFontSize, fMaxFirstWidth, fMaxWidth, aConsumer);
+                if (nLineBreak < 0)
+                    break;
+                nLineStart = nLineBreak + 1;
+            }
+        }
     }
 
     @NonNull
@@ -356,18 +602,15 @@ public class LoadedFont {
     @ReturnsMutableCopy
     public ICommonsList<TextAndWidthSpec> getFitToWidth(@Nullable final String sText, @Nonnegative final float fFontSize,
                                                         @Nonnegative final float fMaxFirstWidth, @Nonnegative final float fMaxWidth) throws IOException {
-        ValueEnforcer.isGT0(fFontSize, "FontSize");
-        ValueEnforcer.isGT0(fMaxFirstWidth, "MaxWidth");
-        ValueEnforcer.isGT0(fMaxWidth, "MaxWidth");
-
-        // First split by the contained line breaks
-        // In the constructor we ensured that only "\n" is used
-        final String[] aLines = StringHelper.getExplodedArray('\n', sText);
-
         final ICommonsList<TextAndWidthSpec> ret = new CommonsArrayList<>();
-        for (final String sLine : aLines)
-            _getLineFitToWidthForward(sLine, fFontSize, fMaxFirstWidth, fMaxWidth, ret);
-
+        // Substrings are only created for the resulting lines
+        forEachLineFitToWidth(sText,
+                fFontSize,
+                fMaxFirstWidth,
+                fMaxWidth,
+                (nStart, nEnd, fWidth, bDisplayAsNewline) -> ret.add(new TextAndWidthSpec(sText.substring(nStart, nEnd),
+                        fWidth,
+                        bDisplayAsNewline)));
         return ret;
     }
 
@@ -393,6 +636,7 @@ public class LoadedFont {
                 .append("BBHeight", m_fLineHeight)
                 .append("Descent", m_fDescent)
                 .append("FontWillBeSubset", m_bFontWillBeSubset)
+                .appendIfNotNull("PreloadFont", m_aPreloadFont)
                 .getToString();
     }
 }
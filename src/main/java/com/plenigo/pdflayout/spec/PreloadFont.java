@@ -19,8 +19,9 @@ package com.plenigo.pdflayout.spec;
 import com.helger.annotation.CheckForSigned;
 import com.helger.annotation.Nonempty;
 import com.helger.annotation.WillNotClose;
-import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.concurrent.ThreadSafe;
 import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.concurrent.SimpleLock;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.equals.EqualsHelper;
 import com.helger.base.hashcode.HashCodeGenerator;
@@ -46,23 +47,41 @@ import org.apache.pdfbox.pdmodel.font.PDType0Font;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 
 /**
  * Represents an abstract font that is potentially not yet loaded and can be used in multiple
  * documents.<br>
- * Note: {@link PDFont} is not Serializable.
+ * Note: {@link PDFont} is not Serializable.<br>
+ * Thread-safety: an instance may be used by multiple documents concurrently. FontBox font programs
+ * are not thread-safe, so a parsed font program is used by only one document at a time. Documents
+ * borrow a font program via {@link #acquireFontProgram()} and return it via
+ * {@link #releaseFontProgram(TrueTypeFont)} after they were saved. When documents are rendered one
+ * after the other, they all use the same font program. Only documents that are rendered concurrently
+ * parse additional font programs, and at most {@link #MAX_POOLED_FONT_PROGRAMS} of these are kept for
+ * later documents. The predefined Standard 14 fonts are shared as they only consist of read-only
+ * metrics.
  *
  * @author Philip Helger
  */
-@NotThreadSafe
+@ThreadSafe
 public final class PreloadFont implements IHasID<String>, Serializable {
     private static final int DEFAULT_FALLBACK_CODE_POINT = '?';
 
+    /**
+     * The maximum number of parsed font programs per font that are kept for reuse.
+     *
+     * @since 8.2.0
+     */
+    public static final int MAX_POOLED_FONT_PROGRAMS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
     // Must be defined before the standard fonts are registered
     private static final ICommonsOrderedMap<String, PDType1Font> STANDARD_14 = new CommonsLinkedHashMap<>();
     private static final ICommonsOrderedMap<String, PreloadFont> STANDARD_14_PF = new CommonsLinkedHashMap<>();
@@ -148,19 +167,30 @@ public final class PreloadFont implements IHasID<String>, Serializable {
     private IFontResource m_aFontRes;
     private boolean m_bEmbed;
     private int m_nFallbackCodePoint;
-    private float m_fFontLineHeight;
+    private volatile float m_fFontLineHeight;
     // Status vars
+    // The raw font program, that is parsed again for concurrent documents
+    private transient byte[] m_aFontBytes;
+    // Only used to read the metrics - never passed to PDFBox
     private transient TrueTypeFont m_aTTF;
     private transient OpenTypeFont m_aOTF;
+    // The parsed font programs that are currently not used by a document
+    private transient SimpleLock m_aFontProgramLock;
+    private transient ArrayDeque<TrueTypeFont> m_aFontPrograms;
 
     private void _parseFontRes() throws IOException {
-        if (m_aFontRes != null)
+        if (m_aFontRes != null) {
+            try (final InputStream aIS = m_aFontRes.getInputStream()) {
+                m_aFontBytes = aIS.readAllBytes();
+            }
+            m_aFontProgramLock = new SimpleLock();
+            m_aFontPrograms = new ArrayDeque<>();
             switch (m_aFontRes.getFontType()) {
                 case TTF: {
                     if (PLDebugLog.isDebugFont())
                         PLDebugLog.debugFont(m_aFontRes.toString(), "Loading TTF font");
                     m_aOTF = null;
-                    m_aTTF = new TTFParser().parse(new RandomAccessReadBuffer(m_aFontRes.getInputStream()));
+                    m_aTTF = new TTFParser().parse(new RandomAccessReadBuffer(m_aFontBytes));
 
                     if (false) {
                         final float fFactor = 1000.0f / m_aTTF.getHeader().getUnitsPerEm();
@@ -180,12 +210,13 @@ public final class PreloadFont implements IHasID<String>, Serializable {
                     if (PLDebugLog.isDebugFont())
                         PLDebugLog.debugFont(m_aFontRes.toString(), "Loading OTF font");
                     m_aTTF = null;
-                    m_aOTF = new OTFParser().parse(new RandomAccessReadBuffer(m_aFontRes.getInputStream()));
+                    m_aOTF = new OTFParser().parse(new RandomAccessReadBuffer(m_aFontBytes));
                     break;
                 }
                 default:
                     throw new IllegalArgumentException("Cannot parse font resources of type " + m_aFontRes.getFontType());
             }
+        }
     }
 
     private void readObject(@NonNull @WillNotClose final ObjectInputStream aOIS) throws IOException,
@@ -252,8 +283,61 @@ public final class PreloadFont implements IHasID<String>, Serializable {
         return m_sID;
     }
 
+    @NonNull
+    private TrueTypeFont _parseFontProgram() throws IOException {
+        if (PLDebugLog.isDebugFont())
+            PLDebugLog.debugFont(m_aFontRes.toString(), "Parsing additional font program");
+        if (m_aTTF != null)
+            return new TTFParser().parse(new RandomAccessReadBuffer(m_aFontBytes));
+        if (m_aOTF != null)
+            return new OTFParser().parse(new RandomAccessReadBuffer(m_aFontBytes));
+        throw new IllegalArgumentException("Cannot load font resources of type " + m_aFontRes.getFontType());
+    }
+
     /**
-     * Load the {@link PDFont} associated to this preload font. This class uses no caching!
+     * Borrow a parsed font program for exclusive use by a single document. A font program that was
+     * released before is reused, otherwise a new one is parsed. The font program must be returned
+     * via {@link #releaseFontProgram(TrueTypeFont)} when the document no longer uses it, which is
+     * after it was saved or closed.
+     *
+     * @return The font program. <code>null</code> for the predefined Standard 14 fonts, that don't
+     * need a font program.
+     *
+     * @throws IOException In case parsing the font program fails
+     * @see #loadPDFont(PDDocument, TrueTypeFont)
+     * @since 8.2.0
+     */
+    @Nullable
+    public TrueTypeFont acquireFontProgram() throws IOException {
+        if (m_aFont != null)
+            return null;
+
+        final TrueTypeFont ret = m_aFontProgramLock.lockedGet(m_aFontPrograms::pollFirst);
+        return ret != null ? ret : _parseFontProgram();
+    }
+
+    /**
+     * Return a font program that was borrowed via {@link #acquireFontProgram()}, so that it can be
+     * used by the next document. The font program may not be used afterwards.
+     *
+     * @param aFontProgram The font program to return. May not be <code>null</code>.
+     * @since 8.2.0
+     */
+    public void releaseFontProgram(@NonNull final TrueTypeFont aFontProgram) {
+        ValueEnforcer.notNull(aFontProgram, "FontProgram");
+        ValueEnforcer.isTrue(m_aFont == null, "Standard 14 fonts have no font program");
+
+        m_aFontProgramLock.locked(() -> {
+            if (m_aFontPrograms.size() < MAX_POOLED_FONT_PROGRAMS)
+                m_aFontPrograms.addFirst(aFontProgram);
+        });
+    }
+
+    /**
+     * Load the {@link PDFont} associated to this preload font. This class uses no caching! For
+     * custom fonts each call parses a new font program, so the result must only be used within the
+     * provided document. This method may be called concurrently. Use
+     * {@link #loadPDFont(PDDocument, TrueTypeFont)} to reuse font programs for subsequent documents.
      *
      * @param aDoc The {@link PDDocument} to which the font should be attached to. May not be
      *             <code>null</code>.
@@ -268,18 +352,33 @@ public final class PreloadFont implements IHasID<String>, Serializable {
             // Pre-defined font
             return m_aFont;
         }
+        return loadPDFont(aDoc, _parseFontProgram());
+    }
 
-        final PDFont ret;
-        if (m_aTTF != null)
-            ret = PDType0Font.load(aDoc, m_aTTF, m_bEmbed);
-        else if (m_aOTF != null)
-            ret = PDType0Font.load(aDoc, m_aOTF, m_bEmbed);
-        else
-            ret = null;
-
-        if (ret == null)
-            throw new IllegalArgumentException("Cannot load font resources of type " + m_aFontRes.getFontType());
-        return ret;
+    /**
+     * Load the {@link PDFont} associated to this preload font using the provided font program. The
+     * font program is used by the document until it is saved (encoding, widths and subsetting), so it
+     * may not be used by any other document in the meantime.
+     *
+     * @param aDoc         The {@link PDDocument} to which the font should be attached to. May not be
+     *                     <code>null</code>.
+     * @param aFontProgram The font program as returned by {@link #acquireFontProgram()}. Must be
+     *                     <code>null</code> for the predefined Standard 14 fonts and may not be
+     *                     <code>null</code> otherwise.
+     *
+     * @return The loaded font.
+     *
+     * @throws IOException In case loading the font fails
+     * @since 8.2.0
+     */
+    @NonNull
+    public PDFont loadPDFont(@NonNull final PDDocument aDoc, @Nullable final TrueTypeFont aFontProgram) throws IOException {
+        if (m_aFont != null) {
+            // Pre-defined font
+            return m_aFont;
+        }
+        ValueEnforcer.notNull(aFontProgram, "FontProgram");
+        return PDType0Font.load(aDoc, aFontProgram, m_bEmbed);
     }
 
     /**
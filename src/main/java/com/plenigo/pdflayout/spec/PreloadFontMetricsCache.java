@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.spec;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A process wide cache for the encoding and the width of single code points of a
+ * {@link PreloadFont}. The encoding and the width of a code point only depend on the font program
+ * and not on the PDDocument the font is loaded into, so every {@link LoadedFont} created for the
+ * same {@link PreloadFont} can share the values. This avoids re-encoding and re-measuring the same
+ * code points for every rendered document.<br>
+ * The total number of cached code points (over all fonts) is limited by {@link #getMaxSize()}.
+ * Once the limit is reached, no new entries are added until the cache is cleared.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@ThreadSafe
+public final class PreloadFontMetricsCache {
+    /**
+     * The default maximum number of code points to be cached over all fonts.
+     */
+    public static final int DEFAULT_MAX_SIZE = 64 * 1024;
+
+    private static final PreloadFontMetricsCache INSTANCE = new PreloadFontMetricsCache(DEFAULT_MAX_SIZE);
+
+    private final Map<PreloadFont, Map<Integer, LoadedFont.EncodedCodePoint>> m_aMap = new ConcurrentHashMap<>();
+    private final AtomicInteger m_aSize = new AtomicInteger(0);
+    private final AtomicLong m_aHits = new AtomicLong(0);
+    private final AtomicLong m_aMisses = new AtomicLong(0);
+    private volatile int m_nMaxSize;
+
+    /**
+     * Constructor
+     *
+     * @param nMaxSize The maximum number of code points to be cached over all fonts. Must be &ge; 0.
+     *                 Use 0 to disable caching.
+     */
+    public PreloadFontMetricsCache(@Nonnegative final int nMaxSize) {
+        setMaxSize(nMaxSize);
+    }
+
+    /**
+     * @return The process wide default instance that is used for all documents. Never
+     * <code>null</code>.
+     */
+    @NonNull
+    public static PreloadFontMetricsCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return The maximum number of code points cached over all fonts. Always &ge; 0.
+     */
+    @Nonnegative
+    public int getMaxSize() {
+        return m_nMaxSize;
+    }
+
+    /**
+     * Set the maximum number of code points to be cached over all fonts. Reducing the size does not
+     * remove existing entries - call {@link #clear()} for that.
+     *
+     * @param nMaxSize The maximum number of entries. Must be &ge; 0. Use 0 to disable caching.
+     */
+    public void setMaxSize(@Nonnegative final int nMaxSize) {
+        ValueEnforcer.isGE0(nMaxSize, "MaxSize");
+        m_nMaxSize = nMaxSize;
+    }
+
+    /**
+     * @return The number of code points currently cached over all fonts. Always &ge; 0.
+     */
+    @Nonnegative
+    public int getSize() {
+        return m_aSize.get();
+    }
+
+    /**
+     * @return The number of successful lookups since creation or the last
+     * {@link #resetStatistics()}.
+     */
+    @Nonnegative
+    public long getHitCount() {
+        return m_aHits.get();
+    }
+
+    /**
+     * @return The number of unsuccessful lookups since creation or the last
+     * {@link #resetStatistics()}.
+     */
+    @Nonnegative
+    public long getMissCount() {
+        return m_aMisses.get();
+    }
+
+    /**
+     * Reset the hit and miss counters.
+     */
+    public void resetStatistics() {
+        m_aHits.set(0);
+        m_aMisses.set(0);
+    }
+
+    /**
+     * Remove all cached entries. The statistics are not changed.
+     */
+    public void clear() {
+        m_aMap.clear();
+        m_aSize.set(0);
+    }
+
+    @Nullable
+    LoadedFont.EncodedCodePoint get(@NonNull final PreloadFont aPreloadFont, final int nCodePoint) {
+        final Map<Integer, LoadedFont.EncodedCodePoint> aFontMap = m_aMap.get(aPreloadFont);
+        final LoadedFont.EncodedCodePoint ret = aFontMap == null ? null : aFontMap.get(Integer.valueOf(nCodePoint));
+        if (ret == null)
+            m_aMisses.incrementAndGet();
+        else
+            m_aHits.incrementAndGet();
+        return ret;
+    }
+
+    void put(@NonNull final PreloadFont aPreloadFont,
+             final int nCodePoint,
+             final LoadedFont.@NonNull EncodedCodePoint aECP) {
+        // Reserve a slot first, so that the limit is never exceeded
+        if (m_aSize.incrementAndGet() > m_nMaxSize) {
+            m_aSize.decrementAndGet();
+            return;
+        }
+        final Map<Integer, LoadedFont.EncodedCodePoint> aFontMap = m_aMap.computeIfAbsent(aPreloadFont,
+                k -> new ConcurrentHashMap<>());
+        if (aFontMap.putIfAbsent(Integer.valueOf(nCodePoint), aECP) != null) {
+            // Another thread was faster
+            m_aSize.decrementAndGet();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringGenerator(this).append("MaxSize", m_nMaxSize)
+                .append("Size", m_aSize.get())
+                .append("Hits", m_aHits.get())
+                .append("Misses", m_aMisses.get())
+                .getToString();
+    }
+}
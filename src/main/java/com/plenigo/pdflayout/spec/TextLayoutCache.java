@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.spec;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.concurrent.SimpleLock;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache for the lines a text is split into. Large tables often contain the same short texts
+ * (like currency codes, amounts or status labels) thousands of times, and each of them would
+ * otherwise be measured again. The cache can be used for a single document or be shared across
+ * documents, as the result only depends on the text, the {@link PreloadFont}, the font size and the
+ * available widths.<br>
+ * Only fonts that were loaded from a {@link PreloadFont} and texts with at most
+ * {@link #MAX_TEXT_LENGTH} characters are cached. If the cache is full, the least recently used
+ * entry is removed.
+ *
+ * @author Philip Helger
+ * @since 8.2.0
+ */
+@ThreadSafe
+public final class TextLayoutCache {
+    /**
+     * The default maximum number of texts to be cached.
+     */
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    /**
+     * The maximum length of a text to be cached. Longer texts are rarely repeated.
+     */
+    public static final int MAX_TEXT_LENGTH = 256;
+
+    private static final class Key {
+        private final String m_sText;
+        private final PreloadFont m_aPreloadFont;
+        private final float m_fFontSize;
+        private final float m_fMaxFirstWidth;
+        private final float m_fMaxWidth;
+        private final int m_nHashCode;
+
+        Key(@NonNull final String sText,
+            @NonNull final PreloadFont aPreloadFont,
+            final float fFontSize,
+            final float fMaxFirstWidth,
+            final float fMaxWidth) {
+            m_sText = sText;
+            m_aPreloadFont = aPreloadFont;
+            m_fFontSize = fFontSize;
+            m_fMaxFirstWidth = fMaxFirstWidth;
+            m_fMaxWidth = fMaxWidth;
+            // Calculated only once, as the hash code of the PreloadFont is not cached
+            int nHashCode = sText.hashCode();
+            nHashCode = 31 * nHashCode + aPreloadFont.hashCode();
+            nHashCode = 31 * nHashCode + Float.floatToIntBits(fFontSize);
+            nHashCode = 31 * nHashCode + Float.floatToIntBits(fMaxFirstWidth);
+            nHashCode = 31 * nHashCode + Float.floatToIntBits(fMaxWidth);
+            m_nHashCode = nHashCode;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (o == this)
+                return true;
+            if (o == null || !getClass().equals(o.getClass()))
+                return false;
+            final Key rhs = (Key) o;
+            return m_nHashCode == rhs.m_nHashCode &&
+                    Float.floatToIntBits(m_fFontSize) == Float.floatToIntBits(rhs.m_fFontSize) &&
+                    Float.floatToIntBits(m_fMaxFirstWidth) == Float.floatToIntBits(rhs.m_fMaxFirstWidth) &&
+                    Float.floatToIntBits(m_fMaxWidth) == Float.floatToIntBits(rhs.m_fMaxWidth) &&
+                    m_sText.equals(rhs.m_sText) &&
+                    m_aPreloadFont.equals(rhs.m_aPreloadFont);
+        }
+
+        @Override
+        public int hashCode() {
+            return m_nHashCode;
+        }
+    }
+
+    private final SimpleLock m_aLock = new SimpleLock();
+    // Access ordered, so that the eldest entry is the least recently used one
+    private final LinkedHashMap<Key, TextAndWidthSpec[]> m_aMap = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, TextAndWidthSpec[]> aEldest) {
+            return size() > m_nMaxSize;
+        }
+    };
+    private final AtomicLong m_aHits = new AtomicLong(0);
+    private final AtomicLong m_aMisses = new AtomicLong(0);
+    private volatile int m_nMaxSize;
+
+    /**
+     * Constructor
+     *
+     * @param nMaxSize The maximum number of texts to be cached. Must be &ge; 0. Use 0 to disable
+     *                 caching.
+     */
+    public TextLayoutCache(@Nonnegative final int nMaxSize) {
+        setMaxSize(nMaxSize);
+    }
+
+    /**
+     * @return The maximum number of texts to be cached. Always &ge; 0.
+     */
+    @Nonnegative
+    public int getMaxSize() {
+        return m_nMaxSize;
+    }
+
+    /**
+     * Set the maximum number of texts to be cached. Reducing the size does not remove existing
+     * entries - call {@link #clear()} for that.
+     *
+     * @param nMaxSize The maximum number of entries. Must be &ge; 0. Use 0 to disable caching.
+     */
+    public void setMaxSize(@Nonnegative final int nMaxSize) {
+        ValueEnforcer.isGE0(nMaxSize, "MaxSize");
+        m_nMaxSize = nMaxSize;
+    }
+
+    /**
+     * @return The number of texts currently cached. Always &ge; 0.
+     */
+    @Nonnegative
+    public int getSize() {
+        return m_aLock.lockedGet(m_aMap::size).intValue();
+    }
+
+    /**
+     * @return The number of successful lookups since creation or the last
+     * {@link #resetStatistics()}.
+     */
+    @Nonnegative
+    public long getHitCount() {
+        return m_aHits.get();
+    }
+
+    /**
+     * @return The number of unsuccessful lookups since creation or the last
+     * {@link #resetStatistics()}.
+     */
+    @Nonnegative
+    public long getMissCount() {
+        return m_aMisses.get();
+    }
+
+    /**
+     * @return The ratio of successful lookups to all lookups between 0 and 1. If there was no
+     * lookup yet, 0 is returned.
+     */
+    public double getHitRate() {
+        final long nHits = m_aHits.get();
+        final long nTotal = nHits + m_aMisses.get();
+        return nTotal == 0 ? 0d : (double) nHits / nTotal;
+    }
+
+    /**
+     * Reset the hit and miss counters.
+     */
+    public void resetStatistics() {
+        m_aHits.set(0);
+        m_aMisses.set(0);
+    }
+
+    /**
+     * Remove all cached entries. The statistics are not changed.
+     */
+    public void clear() {
+        m_aLock.locked(m_aMap::clear);
+    }
+
+    /**
+     * Split the provided text into lines like
+     * {@link LoadedFont#getFitToWidth(String, float, float, float)} does, using the cached lines if
+     * present.
+     *
+     * @param aFont          The font to measure the text with. May not be <code>null</code>.
+     * @param sText          The text to split. May be <code>null</code>.
+     * @param fFontSize      The font size to use. Must be &gt; 0.
+     * @param fMaxFirstWidth The maximum width of the first line of each paragraph. Must be &gt; 0.
+     * @param fMaxWidth      The maximum width of all other lines. Must be &gt; 0.
+     *
+     * @return A new list with the lines. Never <code>null</code>.
+     *
+     * @throws IOException In case something goes wrong
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    public ICommonsList<TextAndWidthSpec> getFitToWidth(@NonNull final LoadedFont aFont,
+                                                        @Nullable final String sText,
+                                                        @Nonnegative final float fFontSize,
+                                                        @Nonnegative final float fMaxFirstWidth,
+                                                        @Nonnegative final float fMaxWidth) throws IOException {
+        ValueEnforcer.notNull(aFont, "Font");
+
+        final PreloadFont aPreloadFont = aFont.getPreloadFont();
+        if (aPreloadFont == null || sText == null || sText.length() > MAX_TEXT_LENGTH)
+            return aFont.getFitToWidth(sText, fFontSize, fMaxFirstWidth, fMaxWidth);
+
+        final Key aKey = new Key(sText, aPreloadFont, fFontSize, fMaxFirstWidth, fMaxWidth);
+        final TextAndWidthSpec[] aCachedLines = m_aLock.lockedGet(() -> m_aMap.get(aKey));
+        if (aCachedLines != null) {
+            m_aHits.incrementAndGet();
+            return new CommonsArrayList<>(aCachedLines);
+        }
+        m_aMisses.incrementAndGet();
+
+        final ICommonsList<TextAndWidthSpec> ret = aFont.getFitToWidth(sText, fFontSize, fMaxFirstWidth, fMaxWidth);
+        if (m_nMaxSize > 0) {
+            // The lines are immutable and can therefore be shared
+            final TextAndWidthSpec[] aNewLines = ret.toArray(new TextAndWidthSpec[0]);
+            m_aLock.locked(() -> m_aMap.put(aKey, aNewLines));
+        }
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringGenerator(this).append("MaxSize", m_nMaxSize)
+                .append("Size", getSize())
+                .append("Hits", m_aHits.get())
+                .append("Misses", m_aMisses.get())
+                .getToString();
+    }
+}
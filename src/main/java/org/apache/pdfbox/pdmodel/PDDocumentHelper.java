@@ -16,9 +16,13 @@
  */
 package org.apache.pdfbox.pdmodel;
 
+import com.helger.annotation.Nonnegative;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.jspecify.annotations.NonNull;
 
+import java.io.IOException;
+import java.util.Set;
+
 /**
  * Helper class to access package private classes of {@link PDDocument}.
  *
@@ -37,4 +41,28 @@ public final class PDDocumentHelper
       aDoc.getFontsToSubset ().add (aFont);
     }
   }
+
+  /**
+   * Subset all fonts that are registered for subsetting and unregister them afterwards. This is the
+   * same that {@link PDDocument#save(java.io.OutputStream)} does internally, so calling it before
+   * saving only moves the work to an earlier point in time (e.g. to measure it separately).
+   *
+   * @param aDoc
+   *        The document to subset the fonts of. May not be <code>null</code>.
+   * @return The number of subsetted fonts. Always &ge; 0.
+   * @throws IOException
+   *         In case subsetting fails
+   * @since 8.2.0
+   */
+  @Nonnegative
+  public static int subsetDesignatedFonts (@NonNull final PDDocument aDoc) throws IOException
+  {
+    // getFontsToSubset is package private
+    final Set <PDFont> aFontsToSubset = aDoc.getFontsToSubset ();
+    final int ret = aFontsToSubset.size ();
+    for (final PDFont aFont : aFontsToSubset)
+      aFont.subset ();
+    aFontsToSubset.clear ();
+    return ret;
+  }
 }
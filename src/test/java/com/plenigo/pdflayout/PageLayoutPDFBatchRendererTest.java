@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.font.open_sans.EFontResourceOpenSans;
+import com.helger.io.resource.ClassPathResource;
+import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.element.image.EPLImageType;
+import com.plenigo.pdflayout.element.image.ImageEncodingCache;
+import com.plenigo.pdflayout.element.image.PLImage;
+import com.plenigo.pdflayout.element.text.PLText;
+import com.plenigo.pdflayout.spec.FontSpec;
+import com.plenigo.pdflayout.spec.PreloadFont;
+
+/**
+ * Test class for {@link PageLayoutPDFBatchRenderer}
+ *
+ * @author Philip Helger
+ */
+public final class PageLayoutPDFBatchRendererTest
+{
+  private static final int DOCUMENT_COUNT = 40;
+  private static final int FAILING_DOCUMENT = 7;
+
+  @Rule
+  public final TestRule m_aRule = new PLDebugTestRule ();
+
+  private static final class InvoiceJob implements IPageLayoutPDFBatchJob
+  {
+    private final int m_nIndex;
+    private final BufferedImage m_aLogo;
+    private final AtomicInteger m_aActive;
+    private final AtomicInteger m_aMaxActive;
+    private final NonBlockingByteArrayOutputStream m_aBAOS = new NonBlockingByteArrayOutputStream ();
+    private Exception m_aFailure;
+
+    InvoiceJob (final int nIndex,
+                final BufferedImage aLogo,
+                final AtomicInteger aActive,
+                final AtomicInteger aMaxActive)
+    {
+      m_nIndex = nIndex;
+      m_aLogo = aLogo;
+      m_aActive = aActive;
+      m_aMaxActive = aMaxActive;
+    }
+
+    public PageLayoutPDF createPageLayout ()
+    {
+      m_aMaxActive.accumulateAndGet (m_aActive.incrementAndGet (), Math::max);
+      if (m_nIndex == FAILING_DOCUMENT)
+        throw new IllegalStateException ("Failing on purpose");
+
+      final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+      aPS.addElement (new PLImage (m_aLogo, 100, 50).setImageType (EPLImageType.LOSSLESS));
+      aPS.addElement (new PLText ("Invoice " + m_nIndex, new FontSpec (PreloadFont.REGULAR, 10)));
+      return new PageLayoutPDF ().addPageSet (aPS);
+    }
+
+    public OutputStream openOutputStream ()
+    {
+      return m_aBAOS;
+    }
+
+    @Override
+    public void onSuccess ()
+    {
+      m_aActive.decrementAndGet ();
+    }
+
+    @Override
+    public void onFailure (final Exception ex)
+    {
+      m_aActive.decrementAndGet ();
+      m_aFailure = ex;
+    }
+  }
+
+  @Test
+  public void testRenderAll () throws Exception
+  {
+    final BufferedImage aLogo = ImageIO.read (ClassPathResource.getInputStream ("images/test1.png"));
+    final AtomicInteger aActive = new AtomicInteger (0);
+    final AtomicInteger aMaxActive = new AtomicInteger (0);
+    final ICommonsList <InvoiceJob> aJobs = new CommonsArrayList <> ();
+    for (int i = 0; i < DOCUMENT_COUNT; ++i)
+      aJobs.add (new InvoiceJob (i, aLogo, aActive, aMaxActive));
+
+    final ImageEncodingCache aImageCache = new ImageEncodingCache (ImageEncodingCache.DEFAULT_MAX_BYTES);
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (4);
+    try
+    {
+      final PageLayoutPDFBatchRenderer aRenderer = new PageLayoutPDFBatchRenderer (aExecutor, aImageCache);
+      aRenderer.setMaxPendingDocuments (2);
+
+      final PageLayoutPDFBatchResult aResult = aRenderer.renderAll (aJobs.stream ());
+      assertEquals (DOCUMENT_COUNT, aResult.getDocumentCount ());
+      assertEquals (DOCUMENT_COUNT - 1, aResult.getSuccessCount ());
+      assertEquals (1, aResult.getFailureCount ());
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+
+    // Backpressure
+    assertTrue (aMaxActive.get () <= 2);
+
+    // The image was encoded at most once per concurrently rendered document
+    assertTrue (aImageCache.getMissCount () <= 2);
+    assertEquals (DOCUMENT_COUNT - 1, aImageCache.getHitCount () + aImageCache.getMissCount ());
+
+    // The failure is isolated
+    final PDFTextStripper aStripper = new PDFTextStripper ();
+    for (final InvoiceJob aJob : aJobs)
+      if (aJob.m_nIndex == FAILING_DOCUMENT)
+      {
+        assertNotNull (aJob.m_aFailure);
+        assertEquals (0, aJob.m_aBAOS.size ());
+      }
+      else
+      {
+        assertNull (aJob.m_aFailure);
+        try (final PDDocument aDoc = Loader.loadPDF (aJob.m_aBAOS.toByteArray ()))
+        {
+          assertEquals (1, aDoc.getNumberOfPages ());
+          assertTrue (aStripper.getText (aDoc).contains ("Invoice " + aJob.m_nIndex));
+        }
+      }
+  }
+
+  private static boolean _isPinnedInLayout (final RecordedEvent aEvent)
+  {
+    final RecordedStackTrace aStackTrace = aEvent.getStackTrace ();
+    if (aStackTrace != null)
+      for (final RecordedFrame aFrame : aStackTrace.getFrames ())
+      {
+        final String sClassName = aFrame.getMethod ().getType ().getName ();
+        if (sClassName.startsWith ("org.apache.fontbox.") ||
+            sClassName.startsWith ("org.apache.pdfbox.") ||
+            sClassName.startsWith ("com.plenigo.pdflayout."))
+          return true;
+      }
+    return false;
+  }
+
+  @Test
+  public void testVirtualThreads () throws Exception
+  {
+    // Many concurrent documents using the same embedded font
+    final PreloadFont aFont = PreloadFont.createEmbedding (EFontResourceOpenSans.OPEN_SANS_NORMAL.getFontResource ());
+    final IntFunction <PageLayoutPDF> aLayoutFactory = i -> {
+      final PLPageSet aPS = new PLPageSet (PDRectangle.A6).setMargin (20);
+      aPS.addElement (new PLText ("Document " + i + " \u00e4\u00f6\u00fc", new FontSpec (aFont, 10)));
+      return new PageLayoutPDF ().addPageSet (aPS);
+    };
+
+    // Render once upfront, so that waiting for class initialization is not recorded
+    aLayoutFactory.apply (-1).renderTo (new NonBlockingByteArrayOutputStream ());
+
+    final int nDocumentCount = 10_000;
+    final Iterator <IPageLayoutPDFBatchJob> aJobs = IntStream.range (0, nDocumentCount)
+                                                            .mapToObj (i -> IPageLayoutPDFBatchJob.create ( () -> aLayoutFactory.apply (i),
+                                                                                                           OutputStream::nullOutputStream))
+                                                            .iterator ();
+
+    final Path aRecordingFile = Files.createTempFile ("pinned", ".jfr");
+    try (final Recording aRecording = new Recording ())
+    {
+      aRecording.enable ("jdk.VirtualThreadPinned").withThreshold (Duration.ZERO).withStackTrace ();
+      aRecording.start ();
+      try (final ExecutorService aExecutor = Executors.newVirtualThreadPerTaskExecutor ())
+      {
+        final PageLayoutPDFBatchRenderer aRenderer = new PageLayoutPDFBatchRenderer (aExecutor);
+        // Far more virtual threads than carrier threads, while the memory of the pending documents
+        // stays bounded
+        aRenderer.setMaxPendingDocuments (1_000);
+
+        final PageLayoutPDFBatchResult aResult = aRenderer.renderAll (aJobs);
+        assertEquals (nDocumentCount, aResult.getSuccessCount ());
+        assertTrue (aResult.isSuccess ());
+      }
+      aRecording.stop ();
+      aRecording.dump (aRecordingFile);
+
+      // No virtual thread was blocked while holding a monitor of the layout, PDFBox or FontBox
+      for (final RecordedEvent aEvent : RecordingFile.readAllEvents (aRecordingFile))
+        assertFalse (aEvent.toString (), _isPinnedInLayout (aEvent));
+    }
+    finally
+    {
+      Files.deleteIfExists (aRecordingFile);
+    }
+  }
+
+  @Test
+  public void testFailingCallbacks () throws InterruptedException
+  {
+    final AtomicInteger aSuccessCalls = new AtomicInteger (0);
+    final AtomicInteger aFailureCalls = new AtomicInteger (0);
+    final IntFunction <IPageLayoutPDFBatchJob> aJobFactory = i -> new IPageLayoutPDFBatchJob ()
+    {
+      public PageLayoutPDF createPageLayout ()
+      {
+        if (i % 2 == 1)
+          throw new IllegalStateException ("Failing on purpose");
+        final PLPageSet aPS = new PLPageSet (PDRectangle.A4);
+        aPS.addElement (new PLText ("Document " + i, new FontSpec (PreloadFont.REGULAR, 10)));
+        return new PageLayoutPDF ().addPageSet (aPS);
+      }
+
+      public OutputStream openOutputStream ()
+      {
+        return new NonBlockingByteArrayOutputStream ();
+      }
+
+      @Override
+      public void onSuccess ()
+      {
+        aSuccessCalls.incrementAndGet ();
+        throw new IllegalStateException ("Failing success callback");
+      }
+
+      @Override
+      public void onFailure (final Exception ex)
+      {
+        aFailureCalls.incrementAndGet ();
+        throw new IllegalStateException ("Failing failure callback");
+      }
+    };
+
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (2);
+    try
+    {
+      final PageLayoutPDFBatchRenderer aRenderer = new PageLayoutPDFBatchRenderer (aExecutor);
+      final PageLayoutPDFBatchResult aResult = aRenderer.renderAll (IntStream.range (0, 10)
+                                                                             .mapToObj (aJobFactory)
+                                                                             .iterator ());
+      // Each job ends in exactly one state, independent of the callbacks
+      assertEquals (10, aResult.getDocumentCount ());
+      assertEquals (5, aResult.getSuccessCount ());
+      assertEquals (5, aResult.getFailureCount ());
+      assertEquals (5, aSuccessCalls.get ());
+      assertEquals (5, aFailureCalls.get ());
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+  }
+
+  @Test
+  public void testEmpty () throws InterruptedException
+  {
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (2);
+    try
+    {
+      final PageLayoutPDFBatchRenderer aRenderer = new PageLayoutPDFBatchRenderer (aExecutor);
+      final PageLayoutPDFBatchResult aResult = aRenderer.renderAll (Stream.of (IPageLayoutPDFBatchJob.create (PageLayoutPDF::new,
+                                                                                                             NonBlockingByteArrayOutputStream::new))
+                                                                          .limit (0));
+      assertEquals (0, aResult.getDocumentCount ());
+      assertTrue (aResult.isSuccess ());
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+  }
+}
@@ -16,26 +16,50 @@
  */
 package com.plenigo.pdflayout;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
 import java.time.ZonedDateTime;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentCatalog;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestRule;
 
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
 import com.helger.datetime.helper.PDTFactory;
+import com.helger.font.open_sans.EFontResourceOpenSans;
 import com.plenigo.pdflayout.base.EPLPlaceholder;
 import com.plenigo.pdflayout.base.PLColor;
 import com.plenigo.pdflayout.base.PLPageSet;
 import com.plenigo.pdflayout.element.hbox.PLHBox;
 import com.plenigo.pdflayout.element.special.PLSpacerX;
 import com.plenigo.pdflayout.element.special.PLSpacerY;
+import com.plenigo.pdflayout.element.text.PLMultiLineText;
 import com.plenigo.pdflayout.element.text.PLText;
 import com.plenigo.pdflayout.element.vbox.PLVBox;
+import com.plenigo.pdflayout.render.ERenderPhase;
+import com.plenigo.pdflayout.render.IRenderMetricsListener;
+import com.plenigo.pdflayout.render.RenderMetrics;
 import com.plenigo.pdflayout.spec.BorderStyleSpec;
 import com.plenigo.pdflayout.spec.EHorzAlignment;
 import com.plenigo.pdflayout.spec.FontSpec;
@@ -194,6 +218,38 @@ public final class PageLayoutPDFTest
     PDFTestComparer.renderAndCompare (aPageLayout, new File ("pdf/test-properties.pdf"));
   }
 
+  @Test
+  public void testCreatePDF_AInformation () throws PDFCreationException, IOException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+
+    final PLPageSet aPS1 = new PLPageSet (PDRectangle.A4).setMargin (30);
+    aPS1.addElement (new PLText ("Dummy line", r10));
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ();
+    aPageLayout.setCreatePDF_A (true);
+    aPageLayout.setDocumentTitle ("PDF/A");
+    aPageLayout.addPageSet (aPS1);
+
+    // Render twice to use the shared colour profile
+    for (int i = 0; i < 2; ++i)
+    {
+      final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+      aPageLayout.renderTo (aBAOS);
+
+      try (final PDDocument aDoc = Loader.loadPDF (aBAOS.toByteArray ()))
+      {
+        final PDDocumentCatalog aCatalog = aDoc.getDocumentCatalog ();
+        assertNotNull (aCatalog.getMetadata ());
+        assertNotNull (aCatalog.getStructureTreeRoot ());
+        assertNotNull (aCatalog.getMarkInfo ());
+        assertTrue (aCatalog.getMarkInfo ().isMarked ());
+        assertEquals (1, aCatalog.getOutputIntents ().size ());
+        assertEquals ("PDF/A", aDoc.getDocumentInformation ().getTitle ());
+      }
+    }
+  }
+
   @Test
   public void testPageLayoutPDFMarginPadding () throws PDFCreationException
   {
@@ -329,4 +385,404 @@ public final class PageLayoutPDFTest
     aPageLayout.addPageSet (aPS1);
     PDFTestComparer.renderAndCompare (aPageLayout, new File ("pdf/test-water-mark.pdf"));
   }
+
+  @Test
+  public void testWaterMarkMultiplePages () throws PDFCreationException, IOException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+
+    final PLPageSet aPS1 = new PLPageSet (PDRectangle.A4).setMargin (30);
+    aPS1.setWaterMark ("TEST");
+    for (int i = 0; i < 145; ++i)
+      aPS1.addElement (new PLText ("Dummy line " + i, r10).setMargin (3, 0));
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ();
+    aPageLayout.addPageSet (aPS1);
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    aPageLayout.renderTo (aBAOS);
+
+    try (final PDDocument aDoc = Loader.loadPDF (aBAOS.toByteArray ()))
+    {
+      assertTrue (aDoc.getNumberOfPages () > 1);
+      COSObject aWaterMarkForm = null;
+      for (final PDPage aPage : aDoc.getPages ())
+      {
+        // The water mark is the only XObject and shared between all pages
+        final COSDictionary aXObjects = aPage.getResources ().getCOSObject ().getCOSDictionary (COSName.XOBJECT);
+        assertNotNull (aXObjects);
+        assertEquals (1, aXObjects.size ());
+
+        final COSObject aForm = (COSObject) aXObjects.getItem (aXObjects.keySet ().iterator ().next ());
+        if (aWaterMarkForm == null)
+          aWaterMarkForm = aForm;
+        else
+          assertEquals (aWaterMarkForm.getKey (), aForm.getKey ());
+      }
+    }
+  }
+
+  @Test
+  public void testMetricsListener () throws PDFCreationException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+
+    final PLPageSet aPS1 = new PLPageSet (PDRectangle.A4).setMargin (30);
+    final PLVBox aVBox = new PLVBox ().setVertSplittable (true);
+    for (int i = 0; i < 150; ++i)
+      aVBox.addRow (new PLText ("Dummy line " + i, r10).setMargin (3, 0));
+    aPS1.addElement (aVBox);
+
+    final List <ERenderPhase> aPhases = new ArrayList <> ();
+    final RenderMetrics [] aSummary = new RenderMetrics [1];
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ();
+    aPageLayout.addPageSet (aPS1);
+    aPageLayout.setMetricsListener (new IRenderMetricsListener ()
+    {
+      @Override
+      public void onPhaseFinished (final ERenderPhase ePhase,
+                                   final int nPageSetIndex,
+                                   final long nDurationNanos,
+                                   final int nCount)
+      {
+        assertTrue (nDurationNanos >= 0);
+        assertTrue (nCount >= 0);
+        aPhases.add (ePhase);
+      }
+
+      @Override
+      public void onRenderFinished (final RenderMetrics aMetrics)
+      {
+        aSummary[0] = aMetrics;
+      }
+    });
+    aPageLayout.renderTo (new NonBlockingByteArrayOutputStream ());
+
+    // Every phase is reported exactly once for a single page set
+    assertEquals (ERenderPhase.values ().length, aPhases.size ());
+    for (final ERenderPhase ePhase : ERenderPhase.values ())
+      assertTrue (aPhases.contains (ePhase));
+
+    assertNotNull (aSummary[0]);
+    assertTrue (aSummary[0].getPageCount () > 1);
+    // The VBox is split at least once for every additional page
+    assertTrue (aSummary[0].getSplitCount () >= aSummary[0].getPageCount () - 1);
+    assertEquals (1, aSummary[0].getLoadedFontCount ());
+    assertTrue (aSummary[0].getFontRequestCount () >= aSummary[0].getLoadedFontCount ());
+  }
+
+  @Test
+  public void testBeforeRenderOnlyWhereNeeded () throws PDFCreationException, IOException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+
+    final PLPageSet aPS1 = new PLPageSet (PDRectangle.A4).setMargin (30);
+    final PLVBox aVBox = new PLVBox ().setVertSplittable (true);
+    for (int i = 0; i < 150; ++i)
+      aVBox.addRow (new PLText ("Dummy line " + i, r10).setMargin (3, 0));
+    aPS1.addElement (aVBox);
+    aPS1.setPageHeader (new PLText ("Static header", r10));
+    aPS1.setPageFooter (new PLText ("Page " + EPLPlaceholder.PAGESET_PAGE_NUMBER.getVariable (), r10).setReplacePlaceholder (true));
+
+    final int [] aBeforeRenderCount = { -1 };
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ();
+    aPageLayout.addPageSet (aPS1);
+    aPageLayout.setMetricsListener (new IRenderMetricsListener ()
+    {
+      @Override
+      public void onPhaseFinished (final ERenderPhase ePhase,
+                                   final int nPageSetIndex,
+                                   final long nDurationNanos,
+                                   final int nCount)
+      {
+        if (ePhase == ERenderPhase.BEFORE_RENDER)
+          aBeforeRenderCount[0] = nCount;
+      }
+    });
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    aPageLayout.renderTo (aBAOS);
+
+    try (final PDDocument aDoc = Loader.loadPDF (aBAOS.toByteArray ()))
+    {
+      final int nPageCount = aDoc.getNumberOfPages ();
+      assertTrue (nPageCount > 1);
+      // Only the footer is visited
+      assertEquals (nPageCount, aBeforeRenderCount[0]);
+
+      final PDFTextStripper aStripper = new PDFTextStripper ();
+      aStripper.setStartPage (nPageCount);
+      aStripper.setEndPage (nPageCount);
+      assertTrue (aStripper.getText (aDoc).contains ("Page " + nPageCount));
+    }
+  }
+
+  private static byte [] _createConcurrencyTestPDF (final ExecutorService aPrepareExecutor,
+                                                    final ExecutorService aRenderExecutor) throws PDFCreationException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+    final FontSpec o10 = new FontSpec (PreloadFont.createEmbedding (EFontResourceOpenSans.OPEN_SANS_NORMAL.getFontResource ()),
+                                       10);
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ();
+    aPageLayout.setPrepareExecutor (aPrepareExecutor);
+    aPageLayout.setRenderExecutor (aRenderExecutor);
+    for (int nPS = 0; nPS < 4; ++nPS)
+    {
+      final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+      aPS.setPageHeader (new PLText ("Page set " + nPS, r10));
+      if (nPS == 1)
+        aPS.setWaterMark ("TEST");
+      for (int i = 0; i < 100; ++i)
+        aPS.addElement (new PLText ("Page set " + nPS + " line " + i + " with some text that wraps ".repeat (i % 5 + 1),
+                                    (i % 2) == 0 ? r10 : o10).setMargin (3, 0));
+      aPageLayout.addPageSet (aPS);
+    }
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    aPageLayout.renderTo (aBAOS);
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testPrepareExecutor () throws PDFCreationException, IOException
+  {
+    final byte [] aSequential = _createConcurrencyTestPDF (null, null);
+    final byte [] aParallel;
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (3);
+    try
+    {
+      aParallel = _createConcurrencyTestPDF (aExecutor, null);
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+
+    // The layout must not depend on the executor
+    try (final PDDocument aDoc1 = Loader.loadPDF (aSequential); final PDDocument aDoc2 = Loader.loadPDF (aParallel))
+    {
+      assertEquals (aDoc1.getNumberOfPages (), aDoc2.getNumberOfPages ());
+      final PDFTextStripper aStripper = new PDFTextStripper ();
+      assertEquals (aStripper.getText (aDoc1), aStripper.getText (aDoc2));
+    }
+  }
+
+  @Test
+  public void testRenderExecutor () throws PDFCreationException, IOException
+  {
+    final byte [] aSequential = _createConcurrencyTestPDF (null, null);
+    final byte [] aParallel;
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (3);
+    try
+    {
+      aParallel = _createConcurrencyTestPDF (null, aExecutor);
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+
+    // The content must not depend on the executor
+    try (final PDDocument aDoc1 = Loader.loadPDF (aSequential); final PDDocument aDoc2 = Loader.loadPDF (aParallel))
+    {
+      assertEquals (aDoc1.getNumberOfPages (), aDoc2.getNumberOfPages ());
+      final PDFTextStripper aStripper = new PDFTextStripper ();
+      assertEquals (aStripper.getText (aDoc1), aStripper.getText (aDoc2));
+      for (final PDPage aPage : aDoc2.getPages ())
+        assertEquals (COSName.FLATE_DECODE, aPage.getContentStreams ().next ().getCOSObject ().getItem (COSName.FILTER));
+    }
+  }
+
+  private static byte [] _createLargeTestPDF (final RandomAccessStreamCache.StreamCacheCreateFunction aStreamCacheCreateFunction,
+                                              final ExecutorService aRenderExecutor) throws PDFCreationException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ();
+    aPageLayout.setStreamCacheCreateFunction (aStreamCacheCreateFunction);
+    aPageLayout.setRenderExecutor (aRenderExecutor);
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    // Page independent footer, so that the pages can be rendered concurrently
+    aPS.setPageFooter (new PLText ("Large document", r10));
+    for (int i = 0; i < 5000; ++i)
+      aPS.addElement (new PLText ("Line " + i, r10));
+    aPageLayout.addPageSet (aPS);
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    aPageLayout.renderTo (aBAOS);
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testStreamCacheCreateFunction () throws PDFCreationException, IOException
+  {
+    final byte [] aInMemory = _createLargeTestPDF (null, null);
+    final byte [] aTempFile = _createLargeTestPDF (IOUtils.createTempFileOnlyStreamCache (), null);
+    final byte [] aTempFileParallel;
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (3);
+    try
+    {
+      aTempFileParallel = _createLargeTestPDF (IOUtils.createTempFileOnlyStreamCache (), aExecutor);
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+
+    // The content must not depend on where the streams are cached
+    try (final PDDocument aDoc1 = Loader.loadPDF (aInMemory);
+         final PDDocument aDoc2 = Loader.loadPDF (aTempFile);
+         final PDDocument aDoc3 = Loader.loadPDF (aTempFileParallel))
+    {
+      // More pages than rendered concurrently at once
+      assertTrue (aDoc1.getNumberOfPages () > 64);
+      assertEquals (aDoc1.getNumberOfPages (), aDoc2.getNumberOfPages ());
+      assertEquals (aDoc1.getNumberOfPages (), aDoc3.getNumberOfPages ());
+      final PDFTextStripper aStripper = new PDFTextStripper ();
+      final String sText = aStripper.getText (aDoc1);
+      assertEquals (sText, aStripper.getText (aDoc2));
+      assertEquals (sText, aStripper.getText (aDoc3));
+    }
+  }
+
+  private static byte [] _createTablePDF (final int nOutputPrecision) throws PDFCreationException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ().setCompressPDF (false);
+    aPageLayout.setOutputPrecision (nOutputPrecision);
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    for (int i = 0; i < 300; ++i)
+    {
+      final PLHBox aRow = new PLHBox ();
+      aRow.addColumn (new PLText ("Row " + i, r10).setPadding (1.333f).setBorder (PLColor.BLACK), WidthSpec.perc (33));
+      aRow.addColumn (new PLText ("Value " + i * 7, r10).setPadding (1.333f).setBorder (PLColor.BLACK),
+                      WidthSpec.star ());
+      aRow.addColumn (new PLText ("Multi\nline " + i, r10).setPadding (1.333f).setLineSpacing (1.37f), WidthSpec.perc (17));
+      aPS.addElement (aRow);
+    }
+    aPageLayout.addPageSet (aPS);
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    aPageLayout.renderTo (aBAOS);
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testOutputPrecision () throws PDFCreationException, IOException
+  {
+    final byte [] aDefault = _createTablePDF (PageLayoutPDF.DEFAULT_OUTPUT_PRECISION);
+    final byte [] aReduced = _createTablePDF (2);
+    assertTrue (aReduced.length < aDefault.length);
+
+    try (final PDDocument aDoc1 = Loader.loadPDF (aDefault); final PDDocument aDoc2 = Loader.loadPDF (aReduced))
+    {
+      assertEquals (aDoc1.getNumberOfPages (), aDoc2.getNumberOfPages ());
+      final PDFTextStripper aStripper = new PDFTextStripper ();
+      assertEquals (aStripper.getText (aDoc1), aStripper.getText (aDoc2));
+    }
+  }
+
+  private static byte [] _createJustifiedTextPDF (final int nOutputPrecision) throws PDFCreationException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < 100; ++i)
+      aSB.append ("Lorem ipsum dolor sit amet ").append (i).append (' ');
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ().setCompressPDF (false);
+    aPageLayout.setOutputPrecision (nOutputPrecision);
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    aPS.addElement (new PLText (aSB.toString (), r10).setHorzAlign (EHorzAlignment.JUSTIFY));
+    aPageLayout.addPageSet (aPS);
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    aPageLayout.renderTo (aBAOS);
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testOutputPrecisionJustifiedText () throws PDFCreationException, IOException
+  {
+    final byte [] aDefault = _createJustifiedTextPDF (PageLayoutPDF.DEFAULT_OUTPUT_PRECISION);
+    for (int nOutputPrecision = 1; nOutputPrecision <= 2; ++nOutputPrecision)
+    {
+      final byte [] aReduced = _createJustifiedTextPDF (nOutputPrecision);
+      try (final PDDocument aDoc1 = Loader.loadPDF (aDefault); final PDDocument aDoc2 = Loader.loadPDF (aReduced))
+      {
+        final List <TextPosition> aPositions1 = _getTextPositions (aDoc1);
+        final List <TextPosition> aPositions2 = _getTextPositions (aDoc2);
+        assertEquals (aPositions1.size (), aPositions2.size ());
+
+        // The character spacing is applied to each glyph - also the last glyph of each line must
+        // only differ by the rounding of the line start
+        final float fMaxDelta = 0.5f * (float) Math.pow (10, -nOutputPrecision) + 0.01f;
+        for (int i = 0; i < aPositions1.size (); ++i)
+        {
+          final TextPosition aPos1 = aPositions1.get (i);
+          final TextPosition aPos2 = aPositions2.get (i);
+          assertEquals (aPos1.getUnicode (), aPos2.getUnicode ());
+          assertEquals (aPos1.getX () + aPos1.getWidth (), aPos2.getX () + aPos2.getWidth (), fMaxDelta);
+        }
+      }
+    }
+  }
+
+  private static byte [] _createLongTextPDF (final boolean bCompactTextOperators) throws PDFCreationException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < 400; ++i)
+      aSB.append ("Lorem ipsum dolor sit amet ").append (i).append (' ');
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ().setCompressPDF (false);
+    aPageLayout.setCompactTextOperators (bCompactTextOperators);
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    for (final EHorzAlignment eAlign : EHorzAlignment.values ())
+      aPS.addElement (new PLText (aSB.toString (), r10).setHorzAlign (eAlign).setLineSpacing (1.25f));
+    // Not splittable - use a text that fits on a single page
+    final String sMultiLineText = aSB.substring (0, aSB.length () / 10);
+    for (final EHorzAlignment eAlign : EHorzAlignment.values ())
+      aPS.addElement (new PLMultiLineText (sMultiLineText, r10).setHorzAlign (eAlign));
+    aPageLayout.addPageSet (aPS);
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    aPageLayout.renderTo (aBAOS);
+    return aBAOS.toByteArray ();
+  }
+
+  private static List <TextPosition> _getTextPositions (final PDDocument aDoc) throws IOException
+  {
+    final List <TextPosition> ret = new ArrayList <> ();
+    final PDFTextStripper aStripper = new PDFTextStripper ()
+    {
+      @Override
+      protected void processTextPosition (final TextPosition aText)
+      {
+        ret.add (aText);
+      }
+    };
+    aStripper.getText (aDoc);
+    return ret;
+  }
+
+  @Test
+  public void testCompactTextOperators () throws PDFCreationException, IOException
+  {
+    final byte [] aDefault = _createLongTextPDF (false);
+    final byte [] aCompact = _createLongTextPDF (true);
+    assertTrue (aCompact.length < aDefault.length);
+
+    try (final PDDocument aDoc1 = Loader.loadPDF (aDefault); final PDDocument aDoc2 = Loader.loadPDF (aCompact))
+    {
+      assertEquals (aDoc1.getNumberOfPages (), aDoc2.getNumberOfPages ());
+
+      // All glyphs must be at the same position
+      final List <TextPosition> aPositions1 = _getTextPositions (aDoc1);
+      final List <TextPosition> aPositions2 = _getTextPositions (aDoc2);
+      assertEquals (aPositions1.size (), aPositions2.size ());
+      for (int i = 0; i < aPositions1.size (); ++i)
+      {
+        final TextPosition aPos1 = aPositions1.get (i);
+        final TextPosition aPos2 = aPositions2.get (i);
+        assertEquals (aPos1.getUnicode (), aPos2.getUnicode ());
+        assertEquals (aPos1.getX (), aPos2.getX (), 0.01f);
+        assertEquals (aPos1.getY (), aPos2.getY (), 0.01f);
+      }
+    }
+  }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.base;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.base.state.EChange;
+import com.plenigo.pdflayout.element.image.PLImage;
+import com.plenigo.pdflayout.element.text.PLMultiLineText;
+import com.plenigo.pdflayout.element.text.PLText;
+import com.plenigo.pdflayout.element.vbox.PLVBox;
+import com.plenigo.pdflayout.render.PagePreRenderContext;
+import com.plenigo.pdflayout.spec.FontSpec;
+import com.plenigo.pdflayout.spec.PreloadFont;
+
+/**
+ * Test class for class {@link PLBeforeRenderHelper}.
+ *
+ * @author Philip Helger
+ */
+public final class PLBeforeRenderHelperTest
+{
+  private static final FontSpec R10 = new FontSpec (PreloadFont.REGULAR, 10);
+
+  @Test
+  public void testElements ()
+  {
+    assertFalse (new PLText ("Plain", R10).isBeforeRenderNeeded ());
+    assertFalse (new PLText ("${total-page-count}", R10).isBeforeRenderNeeded ());
+    assertTrue (new PLText ("${total-page-count}", R10).setReplacePlaceholder (true).isBeforeRenderNeeded ());
+    assertFalse (new PLMultiLineText ("Plain", R10).isBeforeRenderNeeded ());
+    assertTrue (new PLImage (new BufferedImage (1, 1, BufferedImage.TYPE_INT_RGB), 10, 10).isBeforeRenderNeeded ());
+    assertFalse (new PLVBox ().isBeforeRenderNeeded ());
+
+    // Custom override
+    assertTrue (new PLText ("Custom", R10)
+    {
+      @Override
+      @NonNull
+      public EChange beforeRender (@NonNull final PagePreRenderContext aCtx)
+      {
+        return EChange.UNCHANGED;
+      }
+    }.isBeforeRenderNeeded ());
+  }
+
+  @Test
+  public void testTree ()
+  {
+    final PLVBox aVBox = new PLVBox ();
+    for (int i = 0; i < 100; ++i)
+      aVBox.addRow (new PLText ("Row " + i, R10));
+    assertFalse (PLBeforeRenderHelper.isBeforeRenderNeeded (aVBox));
+
+    aVBox.addRow (new PLVBox ().addRow (new PLText ("Page ${total-page-number}", R10).setReplacePlaceholder (true)));
+    assertTrue (PLBeforeRenderHelper.isBeforeRenderNeeded (aVBox));
+  }
+}
@@ -16,30 +16,50 @@
  */
 package com.plenigo.pdflayout.base;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.base.state.EChange;
 import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
 import com.plenigo.pdflayout.IPDDocumentCustomizer;
 import com.plenigo.pdflayout.PDFCreationException;
 import com.plenigo.pdflayout.PDFTestComparer;
 import com.plenigo.pdflayout.PLDebugTestRule;
 import com.plenigo.pdflayout.PageLayoutPDF;
 import com.plenigo.pdflayout.element.box.PLBox;
+import com.plenigo.pdflayout.element.special.PLSpacerY;
 import com.plenigo.pdflayout.element.table.PLTable;
 import com.plenigo.pdflayout.element.table.PLTableCell;
 import com.plenigo.pdflayout.element.text.PLText;
 import com.plenigo.pdflayout.pdfbox.PDPageContentStreamExt;
+import com.plenigo.pdflayout.render.PagePreRenderContext;
+import com.plenigo.pdflayout.render.PageRenderContext;
 import com.plenigo.pdflayout.spec.BorderStyleSpec;
 import com.plenigo.pdflayout.spec.EHorzAlignment;
 import com.plenigo.pdflayout.spec.FontSpec;
 import com.plenigo.pdflayout.spec.PreloadFont;
 import com.plenigo.pdflayout.spec.WidthSpec;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.util.Matrix;
 import org.junit.Rule;
 import org.junit.Test;
@@ -567,4 +587,121 @@ public final class PLPageSetTest
     aPageLayout.setDocumentCustomizer (aWatermarkCustomizer);
     PDFTestComparer.renderAndCompare (aPageLayout, new File ("pdf/plpageset/watermark.pdf"));
   }
+
+  @Test
+  public void testManyElementsPagination ()
+  {
+    // 100 spacers per page
+    final PLPageSet aPS1 = new PLPageSet (100, 1000).setMargin (0).setPadding (0);
+    for (int i = 0; i < 100_000; ++i)
+      aPS1.addElement (new PLSpacerY (10));
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ();
+    aPageLayout.addPageSet (aPS1);
+    aPageLayout.prepareAllPageSets ();
+
+    final PLPageSetPrepareResult aResult = aPS1.internalGetPrepareResult ();
+    assertNotNull (aResult);
+    assertEquals (1_000, aResult.getPageCount ());
+    for (final ICommonsList <PLElementWithSize> aPerPage : aResult.directGetPerPageElements ())
+      assertEquals (100, aPerPage.size ());
+  }
+
+  @Test
+  public void testShareStaticHeaderFooter () throws PDFCreationException, IOException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+    final PLPageSet aPS1 = new PLPageSet (PDRectangle.A4).setMargin (30).setShareStaticHeaderFooter (true);
+    aPS1.setPageHeader (new PLText ("Static header", r10).setBorder (PLColor.GREEN));
+    aPS1.setPageFooter (new PLText ("Page " + EPLPlaceholder.PAGESET_PAGE_NUMBER.getVariable (), r10).setReplacePlaceholder (true));
+    for (int i = 0; i < 145; ++i)
+      aPS1.addElement (new PLText ("Dummy line " + i, r10).setMargin (3, 0));
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ();
+    aPageLayout.addPageSet (aPS1);
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    aPageLayout.renderTo (aBAOS);
+
+    try (final PDDocument aDoc = Loader.loadPDF (aBAOS.toByteArray ()))
+    {
+      assertTrue (aDoc.getNumberOfPages () > 1);
+      COSObject aSharedForm = null;
+      for (final PDPage aPage : aDoc.getPages ())
+      {
+        // Only the static header is a Form XObject - the footer has placeholders
+        final COSDictionary aXObjects = aPage.getResources ().getCOSObject ().getCOSDictionary (COSName.XOBJECT);
+        assertNotNull (aXObjects);
+        assertEquals (1, aXObjects.size ());
+
+        final COSName aName = aXObjects.keySet ().iterator ().next ();
+        assertTrue (aPage.getResources ().getXObject (aName) instanceof PDFormXObject);
+
+        // All pages reference the same object
+        final COSObject aForm = (COSObject) aXObjects.getItem (aName);
+        if (aSharedForm == null)
+          aSharedForm = aForm;
+        else
+          assertEquals (aSharedForm.getKey (), aForm.getKey ());
+      }
+    }
+  }
+
+  /**
+   * A header that remembers the page in beforeRender and uses it while rendering.
+   */
+  private static final class PageDependentBox extends PLBox
+  {
+    private final ICommonsList <String> m_aRendered = new CommonsArrayList <> ();
+    private int m_nPageIndex = -1;
+
+    PageDependentBox (final PLText aText)
+    {
+      super (aText);
+    }
+
+    @Override
+    public EChange beforeRender (final PagePreRenderContext aCtx) throws IOException
+    {
+      m_nPageIndex = aCtx.getTotalPageIndex ();
+      return super.beforeRender (aCtx);
+    }
+
+    @Override
+    protected void onRender (final PageRenderContext aCtx) throws IOException
+    {
+      m_aRendered.add (Thread.currentThread ().getName () + "/" + m_nPageIndex);
+      super.onRender (aCtx);
+    }
+  }
+
+  @Test
+  public void testCustomBeforeRenderInHeader () throws PDFCreationException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+    final PageDependentBox aHeader = new PageDependentBox (new PLText ("Header", r10));
+    final PLPageSet aPS1 = new PLPageSet (PDRectangle.A4).setMargin (30).setShareStaticHeaderFooter (true);
+    aPS1.setPageHeader (aHeader);
+    for (int i = 0; i < 145; ++i)
+      aPS1.addElement (new PLText ("Dummy line " + i, r10).setMargin (3, 0));
+
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (4);
+    try
+    {
+      new PageLayoutPDF ().addPageSet (aPS1)
+                          .setRenderExecutor (aExecutor)
+                          .renderTo (new NonBlockingByteArrayOutputStream ());
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+
+    // Neither shared between the pages nor rendered on a worker thread
+    final int nPageCount = aPS1.internalGetPrepareResult ().getPageCount ();
+    assertTrue (nPageCount > 1);
+    assertEquals (nPageCount, aHeader.m_aRendered.size ());
+    final String sThreadName = Thread.currentThread ().getName ();
+    for (int i = 0; i < nPageCount; ++i)
+      assertEquals (sThreadName + "/" + i, aHeader.m_aRendered.get (i));
+  }
 }
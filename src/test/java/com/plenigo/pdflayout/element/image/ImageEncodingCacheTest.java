@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.Test;
+
+import com.helger.io.resource.ClassPathResource;
+
+/**
+ * Test class for {@link ImageEncodingCache}
+ *
+ * @author Philip Helger
+ */
+public final class ImageEncodingCacheTest
+{
+  @Test
+  public void testAcrossDocuments () throws IOException
+  {
+    final BufferedImage aImg = ImageIO.read (ClassPathResource.getInputStream ("images/test1.png"));
+    final String sDigest = ImageXObjectCache.getDigest (aImg);
+    final ImageEncodingCache aCache = new ImageEncodingCache (ImageEncodingCache.DEFAULT_MAX_BYTES);
+
+    try (final PDDocument aDoc1 = new PDDocument (); final PDDocument aDoc2 = new PDDocument ())
+    {
+      final PDImageXObject aXObject1 = aCache.getOrCreate (aDoc1,
+                                                           sDigest,
+                                                           EPLImageType.LOSSLESS,
+                                                           () -> LosslessFactory.createFromImage (aDoc1, aImg));
+      assertEquals (0, aCache.getHitCount ());
+      assertEquals (1, aCache.getMissCount ());
+      assertEquals (1, aCache.getSize ());
+      assertTrue (aCache.getBytes () > 0);
+
+      // Must not be encoded again
+      final PDImageXObject aXObject2 = aCache.getOrCreate (aDoc2, sDigest, EPLImageType.LOSSLESS, () -> {
+        throw new IllegalStateException ("Should be cached");
+      });
+      assertEquals (1, aCache.getHitCount ());
+      assertNotSame (aXObject1.getCOSObject (), aXObject2.getCOSObject ());
+      assertEquals (aXObject1.getWidth (), aXObject2.getWidth ());
+      assertEquals (aXObject1.getHeight (), aXObject2.getHeight ());
+      assertEquals (aXObject1.getColorSpace ().getName (), aXObject2.getColorSpace ().getName ());
+
+      // Same pixels
+      final BufferedImage aImg1 = aXObject1.getImage ();
+      final BufferedImage aImg2 = aXObject2.getImage ();
+      assertArrayEquals (aImg1.getRGB (0, 0, aImg1.getWidth (), aImg1.getHeight (), null, 0, aImg1.getWidth ()),
+                         aImg2.getRGB (0, 0, aImg2.getWidth (), aImg2.getHeight (), null, 0, aImg2.getWidth ()));
+    }
+  }
+
+  @Test
+  public void testDisabled () throws IOException
+  {
+    final BufferedImage aImg = ImageIO.read (ClassPathResource.getInputStream ("images/test1.png"));
+    final String sDigest = ImageXObjectCache.getDigest (aImg);
+    final ImageEncodingCache aCache = new ImageEncodingCache (0);
+
+    try (final PDDocument aDoc = new PDDocument ())
+    {
+      aCache.getOrCreate (aDoc, sDigest, EPLImageType.LOSSLESS, () -> LosslessFactory.createFromImage (aDoc, aImg));
+      aCache.getOrCreate (aDoc, sDigest, EPLImageType.LOSSLESS, () -> LosslessFactory.createFromImage (aDoc, aImg));
+      assertEquals (0, aCache.getHitCount ());
+      assertEquals (2, aCache.getMissCount ());
+      assertEquals (0, aCache.getSize ());
+      assertEquals (0, aCache.getBytes ());
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.base.io.iface.IHasInputStream;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.io.resource.ClassPathResource;
+import com.plenigo.pdflayout.PDFCreationException;
+import com.plenigo.pdflayout.PLDebugTestRule;
+import com.plenigo.pdflayout.PageLayoutPDF;
+import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.element.text.PLText;
+import com.plenigo.pdflayout.spec.FontSpec;
+import com.plenigo.pdflayout.spec.PreloadFont;
+
+/**
+ * Test class for {@link ImagePrefetcher}
+ *
+ * @author Philip Helger
+ */
+public final class ImagePrefetcherTest
+{
+  /**
+   * A slow image source that remembers whether it was read on the rendering thread.
+   */
+  private static final class SlowImageSource implements IHasInputStream
+  {
+    private final String m_sPath;
+    private final Thread m_aRenderThread;
+    private final AtomicInteger m_aOpenCount = new AtomicInteger (0);
+    private final AtomicInteger m_aOpenOnRenderThreadCount = new AtomicInteger (0);
+
+    SlowImageSource (final String sPath, final Thread aRenderThread)
+    {
+      m_sPath = sPath;
+      m_aRenderThread = aRenderThread;
+    }
+
+    public InputStream getInputStream ()
+    {
+      m_aOpenCount.incrementAndGet ();
+      if (Thread.currentThread () == m_aRenderThread)
+        m_aOpenOnRenderThreadCount.incrementAndGet ();
+      try
+      {
+        Thread.sleep (100);
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+      }
+      return ClassPathResource.getInputStream (m_sPath);
+    }
+
+    public boolean isReadMultiple ()
+    {
+      return true;
+    }
+  }
+
+  @Rule
+  public final TestRule m_aRule = new PLDebugTestRule ();
+
+  @Test
+  public void testPrefetch () throws PDFCreationException, IOException
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+    final SlowImageSource [] aSources = new SlowImageSource [5];
+    for (int i = 0; i < aSources.length; ++i)
+      aSources[i] = new SlowImageSource ("images/test1.jpg", Thread.currentThread ());
+
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    for (int i = 0; i < aSources.length; ++i)
+    {
+      aPS.addElement (new PLText ("Image " + i, r10));
+      aPS.addElement (new PLStreamImage (aSources[i], 50, 50));
+      // The same source twice
+      aPS.addElement (new PLStreamImage (aSources[i], 20, 20));
+    }
+
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (aSources.length);
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    try
+    {
+      new PageLayoutPDF ().addPageSet (aPS).setImagePrefetchExecutor (aExecutor).renderTo (aBAOS);
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+
+    for (final SlowImageSource aSource : aSources)
+    {
+      // Read only once and never on the rendering thread
+      assertEquals (1, aSource.m_aOpenCount.get ());
+      assertEquals (0, aSource.m_aOpenOnRenderThreadCount.get ());
+    }
+
+    try (final PDDocument aDoc = Loader.loadPDF (aBAOS.toByteArray ()))
+    {
+      assertEquals (1, aDoc.getNumberOfPages ());
+      final PDResources aResources = aDoc.getPage (0).getResources ();
+      assertNotNull (aResources);
+      // All sources have the same content
+      int nXObjects = 0;
+      for (final COSName aName : aResources.getXObjectNames ())
+        if (aResources.isImageXObject (aName))
+          nXObjects++;
+      assertEquals (1, nXObjects);
+    }
+  }
+
+  private static IHasInputStream _createBrokenSource ()
+  {
+    return new IHasInputStream ()
+    {
+      public InputStream getInputStream ()
+      {
+        return null;
+      }
+
+      public boolean isReadMultiple ()
+      {
+        return true;
+      }
+    };
+  }
+
+  @Test
+  public void testPrefetchFailure () throws IOException
+  {
+    final IHasInputStream aBrokenSource = _createBrokenSource ();
+
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    aPS.addElement (new PLStreamImage (aBrokenSource, 50, 50));
+
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (1);
+    try
+    {
+      new PageLayoutPDF ().addPageSet (aPS)
+                          .setImagePrefetchExecutor (aExecutor)
+                          .renderTo (new NonBlockingByteArrayOutputStream ());
+      fail ();
+    }
+    catch (final PDFCreationException ex)
+    {
+      // expected - the image is read again and the error is reported while rendering
+      assertNotNull (ex.getCause ());
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+  }
+
+  @Test
+  public void testCancelOnFailure () throws InterruptedException
+  {
+    final SlowImageSource [] aSources = new SlowImageSource [5];
+    for (int i = 0; i < aSources.length; ++i)
+      aSources[i] = new SlowImageSource ("images/test1.jpg", Thread.currentThread ());
+
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    // Rendering fails on the first image
+    aPS.addElement (new PLStreamImage (_createBrokenSource (), 50, 50));
+    for (final SlowImageSource aSource : aSources)
+      aPS.addElement (new PLStreamImage (aSource, 50, 50));
+
+    // Only one thread, so that the slow images are still queued when rendering fails
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (1);
+    try
+    {
+      new PageLayoutPDF ().addPageSet (aPS)
+                          .setImagePrefetchExecutor (aExecutor)
+                          .renderTo (new NonBlockingByteArrayOutputStream ());
+      fail ();
+    }
+    catch (final PDFCreationException ex)
+    {
+      // expected
+    }
+    finally
+    {
+      // Don't drop the queued tasks - they must have been cancelled already
+      aExecutor.shutdown ();
+    }
+    assertTrue (aExecutor.awaitTermination (30, TimeUnit.SECONDS));
+
+    int nOpenCount = 0;
+    for (final SlowImageSource aSource : aSources)
+    {
+      nOpenCount += aSource.m_aOpenCount.get ();
+      assertEquals (0, aSource.m_aOpenOnRenderThreadCount.get ());
+    }
+    // At most the image that was loading when rendering failed was read
+    assertTrue ("Opened " + nOpenCount + " sources", nOpenCount < aSources.length);
+  }
+}
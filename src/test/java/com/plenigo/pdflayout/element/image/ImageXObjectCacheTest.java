@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import com.helger.io.resource.ClassPathResource;
+import com.helger.base.io.stream.StreamHelper;
+import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.base.PLPageSetPrepareResult;
+import com.plenigo.pdflayout.render.PreparationContextGlobal;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.Test;
+
+/**
+ * Test class for {@link ImageXObjectCache}
+ *
+ * @author Philip Helger
+ */
+public final class ImageXObjectCacheTest
+{
+  @Test
+  public void testDigest () throws IOException
+  {
+    final BufferedImage aImg1 = ImageIO.read (ClassPathResource.getInputStream ("images/test1.jpg"));
+    final BufferedImage aImg2 = ImageIO.read (ClassPathResource.getInputStream ("images/test1.jpg"));
+    final BufferedImage aImg3 = ImageIO.read (ClassPathResource.getInputStream ("images/test1.png"));
+    assertNotNull (aImg1);
+    assertNotNull (aImg3);
+
+    // Different instances with the same content
+    assertEquals (ImageXObjectCache.getDigest (aImg1), ImageXObjectCache.getDigest (aImg2));
+    assertNotEquals (ImageXObjectCache.getDigest (aImg1), ImageXObjectCache.getDigest (aImg3));
+
+    final byte [] aBytes1 = StreamHelper.getAllBytes (ClassPathResource.getInputStream ("images/test1.jpg"));
+    final byte [] aBytes2 = StreamHelper.getAllBytes (ClassPathResource.getInputStream ("images/test1.jpg"));
+    assertEquals (ImageXObjectCache.getDigest (aBytes1), ImageXObjectCache.getDigest (aBytes2));
+  }
+
+  @Test
+  public void testLookup () throws IOException
+  {
+    final BufferedImage aImg1 = ImageIO.read (ClassPathResource.getInputStream ("images/test1.jpg"));
+    final BufferedImage aImg2 = ImageIO.read (ClassPathResource.getInputStream ("images/test1.jpg"));
+    final String sDigest = ImageXObjectCache.getDigest (aImg1);
+
+    try (final PDDocument aDoc = new PDDocument ())
+    {
+      final ImageXObjectCache aCache = new ImageXObjectCache ();
+      assertNull (aCache.getFromSource (aImg1, EPLImageType.JPEG));
+      assertNull (aCache.getFromDigest (sDigest, EPLImageType.JPEG));
+      assertEquals (0, aCache.getDistinctCount ());
+
+      final PDImageXObject aXObject = JPEGFactory.createFromImage (aDoc, aImg1);
+      aCache.put (aImg1, sDigest, EPLImageType.JPEG, aXObject);
+      assertEquals (1, aCache.getDistinctCount ());
+
+      assertSame (aXObject, aCache.getFromSource (aImg1, EPLImageType.JPEG));
+      // Other source - only found by digest
+      assertNull (aCache.getFromSource (aImg2, EPLImageType.JPEG));
+      assertSame (aXObject, aCache.getFromDigest (ImageXObjectCache.getDigest (aImg2), EPLImageType.JPEG));
+      // Other image type
+      assertNull (aCache.getFromSource (aImg1, EPLImageType.LOSSLESS));
+      assertNull (aCache.getFromDigest (sDigest, EPLImageType.LOSSLESS));
+    }
+  }
+
+  private static PDImageXObject _getSingleImage (final PDResources aResources) throws IOException
+  {
+    PDImageXObject ret = null;
+    for (final COSName aName : aResources.getXObjectNames ())
+      if (aResources.isImageXObject (aName))
+      {
+        assertNull (ret);
+        ret = (PDImageXObject) aResources.getXObject (aName);
+      }
+    assertNotNull (ret);
+    return ret;
+  }
+
+  @Test
+  public void testLegacyRenderAllPages () throws IOException
+  {
+    final BufferedImage aImg = ImageIO.read (ClassPathResource.getInputStream ("images/test1.jpg"));
+
+    try (final PDDocument aDoc = new PDDocument ())
+    {
+      final PreparationContextGlobal aGlobalCtx = new PreparationContextGlobal (aDoc);
+      final PLPageSet aPS1 = new PLPageSet (PDRectangle.A4).addElement (new PLImage (aImg, 50, 50));
+      final PLPageSet aPS2 = new PLPageSet (PDRectangle.A4).addElement (new PLImage (aImg, 50, 50));
+      final PLPageSetPrepareResult aPR1 = aPS1.prepareAllPages (aGlobalCtx);
+      final PLPageSetPrepareResult aPR2 = aPS2.prepareAllPages (aGlobalCtx);
+      assertSame (aGlobalCtx, aPR1.getOrCreateGlobalContext (aDoc));
+
+      // The overloads without global context use the one of the preparation
+      aPS1.renderAllPages (aPR1, aDoc, false, 0, 2, 0, 2);
+      aPS2.renderAllPages (aPR2, aDoc, false, 1, 2, 1, 2);
+      assertEquals (2, aDoc.getNumberOfPages ());
+      assertSame (_getSingleImage (aDoc.getPage (0).getResources ()).getCOSObject (),
+                  _getSingleImage (aDoc.getPage (1).getResources ()).getCOSObject ());
+      assertEquals (1, aGlobalCtx.getImageCache ().getDistinctCount ());
+
+      // Another document gets a new global context
+      try (final PDDocument aOtherDoc = new PDDocument ())
+      {
+        assertNotSame (aGlobalCtx, aPR1.getOrCreateGlobalContext (aOtherDoc));
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.special;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.font.open_sans.EFontResourceOpenSans;
+import com.plenigo.pdflayout.PDFCreationException;
+import com.plenigo.pdflayout.PLDebugTestRule;
+import com.plenigo.pdflayout.PageLayoutPDF;
+import com.plenigo.pdflayout.base.EPLPlaceholder;
+import com.plenigo.pdflayout.base.IPLRenderableObject;
+import com.plenigo.pdflayout.base.PLColor;
+import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.element.text.PLText;
+import com.plenigo.pdflayout.element.vbox.PLVBox;
+import com.plenigo.pdflayout.spec.FontSpec;
+import com.plenigo.pdflayout.spec.PreloadFont;
+
+/**
+ * Test class for {@link PLPreparedTemplate}
+ *
+ * @author Philip Helger
+ */
+public final class PLPreparedTemplateTest
+{
+  private static final FontSpec R10 = new FontSpec (PreloadFont.REGULAR, 10);
+  private static final FontSpec O12 = new FontSpec (PreloadFont.createEmbedding (EFontResourceOpenSans.OPEN_SANS_NORMAL.getFontResource ()),
+                                                    12);
+
+  @Rule
+  public final TestRule m_aRule = new PLDebugTestRule ();
+
+  private static PLVBox _createLetterhead (final FontSpec aTitleFont)
+  {
+    final PLVBox ret = new PLVBox ().setBorder (PLColor.BLACK).setPadding (5);
+    ret.addRow (new PLText ("Sample Company Ltd.", aTitleFont));
+    ret.addRow (new PLText ("Main Street 1, 1234 Sample City", R10));
+    ret.addRow (new PLText ("A longer line of text in the letterhead that wraps onto the next line ".repeat (3), R10));
+    return ret;
+  }
+
+  private static byte [] _render (final IPLRenderableObject <?> aLetterhead,
+                                  final FontSpec aTitleFont,
+                                  final int nRecipient) throws PDFCreationException
+  {
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    aPS.addElement (aLetterhead);
+    aPS.addElement (new PLText ("Dear recipient " + nRecipient, aTitleFont).setMarginTop (20));
+    for (int i = 0; i < 80; ++i)
+      aPS.addElement (new PLText ("Line " + i + " of the letter to recipient " + nRecipient, R10));
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ();
+    aPageLayout.addPageSet (aPS);
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    aPageLayout.renderTo (aBAOS);
+    return aBAOS.toByteArray ();
+  }
+
+  private static void _assertSameContent (final byte [] aExpected, final byte [] aActual) throws IOException
+  {
+    try (final PDDocument aDoc1 = Loader.loadPDF (aExpected); final PDDocument aDoc2 = Loader.loadPDF (aActual))
+    {
+      assertEquals (aDoc1.getNumberOfPages (), aDoc2.getNumberOfPages ());
+      final PDFTextStripper aStripper = new PDFTextStripper ();
+      assertEquals (aStripper.getText (aDoc1), aStripper.getText (aDoc2));
+    }
+  }
+
+  @Test
+  public void testBasic () throws PDFCreationException, IOException
+  {
+    final float fAvailableWidth = PDRectangle.A4.getWidth () - 60;
+    final PLPreparedTemplate aTemplate = PLPreparedTemplate.create (_createLetterhead (O12),
+                                                                    fAvailableWidth,
+                                                                    PDRectangle.A4.getHeight () - 60);
+    assertTrue (aTemplate.getSize ().getWidth () <= fAvailableWidth);
+    assertTrue (aTemplate.getSize ().getHeight () > 0);
+
+    // The same template in multiple documents
+    for (int i = 0; i < 3; ++i)
+      _assertSameContent (_render (_createLetterhead (O12), O12, i), _render (aTemplate.createElement (), O12, i));
+  }
+
+  @Test
+  public void testConcurrentUse () throws Exception
+  {
+    // Each document gets its own font program of the embedded font
+    final PLPreparedTemplate aTemplate = PLPreparedTemplate.create (_createLetterhead (O12),
+                                                                    PDRectangle.A4.getWidth () - 60,
+                                                                    PDRectangle.A4.getHeight () - 60);
+    final ICommonsList <Callable <byte []>> aTasks = new CommonsArrayList <> ();
+    for (int i = 0; i < 16; ++i)
+    {
+      final int nRecipient = i;
+      aTasks.add ( () -> _render (aTemplate.createElement (), O12, nRecipient));
+    }
+
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (4);
+    try
+    {
+      final List <Future <byte []>> aResults = aExecutor.invokeAll (aTasks);
+      for (int i = 0; i < aResults.size (); ++i)
+        _assertSameContent (_render (_createLetterhead (O12), O12, i), aResults.get (i).get ());
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+  }
+
+  @Test
+  public void testUnsupportedElement () throws IOException
+  {
+    final PLVBox aVBox = new PLVBox ();
+    aVBox.addRow (new PLText ("Page " + EPLPlaceholder.PAGESET_PAGE_NUMBER.getVariable (), R10).setReplacePlaceholder (true));
+    try
+    {
+      PLPreparedTemplate.create (aVBox, 500, 500);
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+    // Nothing was prepared
+    assertFalse (aVBox.isPrepared ());
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.element.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.helger.base.string.StringReplace;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.plenigo.pdflayout.base.EPLPlaceholder;
+import com.plenigo.pdflayout.spec.LoadedFont;
+import com.plenigo.pdflayout.spec.PreloadFont;
+import com.plenigo.pdflayout.spec.TextAndWidthSpec;
+
+/**
+ * Test class for class {@link CompiledPlaceholderText}.
+ *
+ * @author Philip Helger
+ */
+public final class CompiledPlaceholderTextTest
+{
+  private static final float FONT_SIZE = 10;
+  private static final String [] TEXTS = { "Page ${total-page-number} of ${total-page-count}",
+                                           "${total-page-number}",
+                                           "${unknown} and ${a ${total-page-count}}",
+                                           "$${pageset-page-number}${pageset-page-count}",
+                                           "First ${x}\n\nSecond line with ${total-page-number} and some more words to wrap",
+                                           "No closing ${total-page-number" };
+
+  private static LoadedFont _createLoadedFont () throws IOException
+  {
+    final PreloadFont aPF = PreloadFont.REGULAR;
+    return new LoadedFont (aPF.loadPDFont (null), aPF.getFallbackCodePoint (), aPF.getFontLineHeight ());
+  }
+
+  @Test
+  public void testCompile ()
+  {
+    assertNull (CompiledPlaceholderText.compileOrNull (null));
+    assertNull (CompiledPlaceholderText.compileOrNull ("No placeholders"));
+    assertFalse (CompiledPlaceholderText.compileOrNull ("Open ${ only").hasVariables ());
+    assertTrue (CompiledPlaceholderText.compileOrNull ("${a}").hasVariables ());
+  }
+
+  @Test
+  public void testSameAsReplaceMultiple ()
+  {
+    final Map <String, String> aValues = new CommonsHashMap <> ();
+    aValues.put (EPLPlaceholder.TOTAL_PAGE_NUMBER.getVariable (), "17");
+    aValues.put (EPLPlaceholder.TOTAL_PAGE_COUNT.getVariable (), "123");
+    aValues.put (EPLPlaceholder.PAGESET_PAGE_NUMBER.getVariable (), "");
+    aValues.put (EPLPlaceholder.PAGESET_PAGE_COUNT.getVariable (), "9");
+    aValues.put ("${x}", "value of x");
+
+    for (final String sText : TEXTS)
+    {
+      final CompiledPlaceholderText aCompiled = CompiledPlaceholderText.compileOrNull (sText);
+      assertEquals (sText, StringReplace.replaceMultiple (sText, aValues), aCompiled.getReplacedText (aValues::get));
+      assertEquals (sText,
+                    StringReplace.replaceMultiple (sText, EPLPlaceholder.getEstimationReplacements ()),
+                    aCompiled.getEstimationText ());
+      assertEquals (StringReplace.replaceMultiple (sText, EPLPlaceholder.getEstimationReplacements ()),
+                    CompiledPlaceholderText.getEstimationText (sText));
+    }
+  }
+
+  @Test
+  public void testFitToWidth () throws IOException
+  {
+    final LoadedFont aLF = _createLoadedFont ();
+    for (final String sText : TEXTS)
+    {
+      final CompiledPlaceholderText aCompiled = CompiledPlaceholderText.compileOrNull (sText);
+      for (final float fMaxWidth : new float [] { 30, 100, 1000 })
+        for (int nPage = 1; nPage < 2000; nPage *= 7)
+        {
+          final String sPage = Integer.toString (nPage);
+          final Function <String, String> aResolver = x -> x.startsWith ("${total-") ? sPage : null;
+
+          // Must be identical to splitting the whole replaced text
+          _assertSameAsUncompiled (aLF, aCompiled, fMaxWidth, aResolver);
+        }
+    }
+  }
+
+  private static void _assertSameAsUncompiled (final LoadedFont aLF,
+                                               final CompiledPlaceholderText aCompiled,
+                                               final float fMaxWidth,
+                                               final Function <String, String> aResolver) throws IOException
+  {
+    final ICommonsList <TextAndWidthSpec> aExpected = aLF.getFitToWidth (aCompiled.getReplacedText (aResolver),
+                                                                         FONT_SIZE,
+                                                                         fMaxWidth);
+    final ICommonsList <TextAndWidthSpec> aLines = aCompiled.getFitToWidth (aLF, FONT_SIZE, fMaxWidth, aResolver);
+    assertEquals (Float.toString (fMaxWidth), aExpected.size (), aLines.size ());
+    for (int i = 0; i < aLines.size (); ++i)
+    {
+      assertEquals (aExpected.get (i).getText (), aLines.get (i).getText ());
+      assertEquals (aExpected.get (i).getWidth (), aLines.get (i).getWidth (), 0.001f);
+      assertEquals (aExpected.get (i).isDisplayAsNewline (), aLines.get (i).isDisplayAsNewline ());
+    }
+  }
+
+  @Test
+  public void testFitToWidthAtThreshold () throws IOException
+  {
+    final LoadedFont aLF = _createLoadedFont ();
+    final CompiledPlaceholderText aCompiled = CompiledPlaceholderText.compileOrNull ("Invoice ${x} - page ${total-page-number} of ${total-page-count}");
+    for (final String sValue : new String [] { "1", "4711", "A long customer name, with words" })
+    {
+      final Function <String, String> aResolver = x -> x.equals ("${x}") ? sValue : "17";
+      // The width of the whole line as determined by the uncompiled text
+      final ICommonsList <TextAndWidthSpec> aSingleLine = aLF.getFitToWidth (aCompiled.getReplacedText (aResolver),
+                                                                             FONT_SIZE,
+                                                                             10_000);
+      assertEquals (1, aSingleLine.size ());
+      final float fLineWidth = aSingleLine.getFirstOrNull ().getWidth ();
+
+      // Summing up the segment widths may not decide differently at the threshold
+      for (final float fMaxWidth : new float [] { fLineWidth - 0.01f,
+                                                  Math.nextDown (fLineWidth),
+                                                  fLineWidth,
+                                                  Math.nextUp (fLineWidth),
+                                                  fLineWidth + 0.00001f,
+                                                  fLineWidth + 0.01f })
+        _assertSameAsUncompiled (aLF, aCompiled, fMaxWidth, aResolver);
+    }
+  }
+
+  @Test
+  public void testMultiLineValue () throws IOException
+  {
+    final LoadedFont aLF = _createLoadedFont ();
+    final CompiledPlaceholderText aCompiled = CompiledPlaceholderText.compileOrNull ("Address: ${address}");
+    final Function <String, String> aResolver = x -> "Main Street 1\n12345 City";
+
+    // Fits into the width, but still two lines
+    final ICommonsList <TextAndWidthSpec> aLines = aCompiled.getFitToWidth (aLF, FONT_SIZE, 1000, aResolver);
+    assertEquals (2, aLines.size ());
+    assertEquals ("Address: Main Street 1", aLines.get (0).getText ());
+    assertEquals ("12345 City", aLines.get (1).getText ());
+    _assertSameAsUncompiled (aLF, aCompiled, 1000, aResolver);
+    _assertSameAsUncompiled (aLF, aCompiled, 60, aResolver);
+  }
+
+  @Test
+  public void testEmptyReplacement () throws IOException
+  {
+    final LoadedFont aLF = _createLoadedFont ();
+    final CompiledPlaceholderText aCompiled = CompiledPlaceholderText.compileOrNull ("${a}");
+    assertTrue (aCompiled.getFitToWidth (aLF, FONT_SIZE, 100, x -> "").isEmpty ());
+    assertEquals (1, aCompiled.getFitToWidth (aLF, FONT_SIZE, 100, x -> "1").size ());
+  }
+}
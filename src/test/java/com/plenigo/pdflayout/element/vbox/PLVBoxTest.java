@@ -16,7 +16,13 @@
  */
 package com.plenigo.pdflayout.element.vbox;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
 import java.io.File;
+import java.io.IOException;
 
 import com.helger.base.string.StringHelper;
 import com.plenigo.pdflayout.PDFCreationException;
@@ -25,10 +31,17 @@ import com.plenigo.pdflayout.PLDebugTestRule;
 import com.plenigo.pdflayout.PageLayoutPDF;
 import com.plenigo.pdflayout.base.PLColor;
 import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.base.PLSplitResult;
 import com.plenigo.pdflayout.element.box.PLBox;
 import com.plenigo.pdflayout.element.hbox.PLHBox;
 import com.plenigo.pdflayout.element.special.PLPageBreak;
+import com.plenigo.pdflayout.element.special.PLSpacerY;
 import com.plenigo.pdflayout.element.text.PLText;
+import com.plenigo.pdflayout.pdfbox.PDPageContentStreamWithCache;
+import com.plenigo.pdflayout.render.ERenderingElementType;
+import com.plenigo.pdflayout.render.PageRenderContext;
+import com.plenigo.pdflayout.render.PreparationContext;
+import com.plenigo.pdflayout.render.PreparationContextGlobal;
 import com.plenigo.pdflayout.spec.EHorzAlignment;
 import com.plenigo.pdflayout.spec.EVertAlignment;
 import com.plenigo.pdflayout.spec.FontSpec;
@@ -36,6 +49,9 @@ import com.plenigo.pdflayout.spec.HeightSpec;
 import com.plenigo.pdflayout.spec.PreloadFont;
 import com.plenigo.pdflayout.spec.SizeSpec;
 import com.plenigo.pdflayout.spec.WidthSpec;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.junit.Rule;
 import org.junit.Test;
@@ -364,4 +380,102 @@ public final class PLVBoxTest
     aPageLayout.addPageSet (aPS1);
     PDFTestComparer.renderAndCompare (aPageLayout, new File ("pdf/plvbox/splittable-content-fixed.pdf"));
   }
+
+  @Test
+  public void testSplitManyRows () throws IOException
+  {
+    final PLVBox aVBox = new PLVBox ();
+    for (int i = 0; i < 10_000; ++i)
+      aVBox.addRow (new PLSpacerY (10));
+
+    try (final PDDocument aDoc = new PDDocument ())
+    {
+      aVBox.prepare (new PreparationContext (new PreparationContextGlobal (aDoc), 100, 1000));
+    }
+
+    // 100 rows per page
+    PLVBox aRest = aVBox;
+    int nPageIndex = 0;
+    while (true)
+    {
+      final PLSplitResult aSplitResult = aRest.splitElementVert (100, 1000);
+      final PLVBox aPart;
+      if (aSplitResult.getSplitResultType ().isSplit ())
+      {
+        aPart = (PLVBox) aSplitResult.getFirstElement ().getElement ();
+        assertEquals (1000, aSplitResult.getFirstElement ().getHeight (), 0.001f);
+        aRest = (PLVBox) aSplitResult.getSecondElement ().getElement ();
+        assertEquals (10_000 - (nPageIndex + 1) * 100, aRest.getRowCount ());
+        assertEquals (aRest.getRowCount () * 10, aSplitResult.getSecondElement ().getHeight (), 0.001f);
+      }
+      else
+        aPart = aRest;
+
+      assertEquals (100, aPart.getRowCount ());
+      // Same row elements in the same order
+      assertSame (aVBox.getRowElementAtIndex (nPageIndex * 100), aPart.getFirstRowElement ());
+      assertSame (aVBox.getRowElementAtIndex (nPageIndex * 100 + 99), aPart.getLastRowElement ());
+      nPageIndex++;
+
+      if (aPart == aRest)
+        break;
+    }
+    assertEquals (100, nPageIndex);
+  }
+
+  @Test
+  public void testRenderSplitRemainderAfterSourceNotPrepared () throws IOException
+  {
+    final PLVBox aVBox = new PLVBox ();
+    for (int i = 0; i < 30; ++i)
+      aVBox.addRow (new PLSpacerY (10).setVertSplittable (false));
+
+    try (final PDDocument aDoc = new PDDocument ())
+    {
+      final PreparationContext aPrepareCtx = new PreparationContext (new PreparationContextGlobal (aDoc), 100, 1000);
+      aVBox.prepare (aPrepareCtx);
+
+      // 10 rows on the first part, the remaining 20 rows reference the source
+      final PLSplitResult aSplitResult = aVBox.splitElementVert (100, 100);
+      assertTrue (aSplitResult.getSplitResultType ().isSplit ());
+      final PLVBox aRest = (PLVBox) aSplitResult.getSecondElement ().getElement ();
+      assertEquals (20, aRest.getRowCount ());
+
+      // Mark the source as not prepared - the remainder must not be affected
+      aVBox.internalMarkAsNotPrepared ();
+      assertFalse (aVBox.isPrepared ());
+      assertTrue (aRest.isPrepared ());
+      assertEquals (20, aRest.getRowCount ());
+      assertSame (aVBox.getRowElementAtIndex (10), aRest.getFirstRowElement ());
+      assertSame (aVBox.getRowElementAtIndex (29), aRest.getLastRowElement ());
+
+      // The remainder still knows its prepared row sizes
+      final PLSplitResult aRestSplitResult = aRest.splitElementVert (100, 100);
+      assertTrue (aRestSplitResult.getSplitResultType ().isSplit ());
+      assertEquals (100, aRestSplitResult.getFirstElement ().getHeight (), 0.001f);
+      assertEquals (100, aRestSplitResult.getSecondElement ().getHeight (), 0.001f);
+
+      // Prepare the shared row elements again and render the remainder
+      aVBox.prepare (aPrepareCtx);
+      final PDPage aPage = new PDPage (PDRectangle.A4);
+      aDoc.addPage (aPage);
+      final PDPageContentStreamWithCache aCS = new PDPageContentStreamWithCache (aDoc,
+                                                                                 aPage,
+                                                                                 PDPageContentStream.AppendMode.OVERWRITE,
+                                                                                 false);
+      try
+      {
+        aRest.render (new PageRenderContext (ERenderingElementType.CONTENT_ELEMENT,
+                                             aCS,
+                                             0,
+                                             PDRectangle.A4.getHeight (),
+                                             100,
+                                             200));
+      }
+      finally
+      {
+        aCS.close ();
+      }
+    }
+  }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.pdfbox;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.pdfbox.util.NumberFormatUtil;
+import org.junit.Test;
+
+/**
+ * Test class for {@link ContentStreamNumberWriter}
+ *
+ * @author Philip Helger
+ */
+public final class ContentStreamNumberWriterTest
+{
+  private static final byte [] BUFFER = new byte [ContentStreamNumberWriter.MIN_BUFFER_SIZE];
+
+  private static String _formatInt (final int n)
+  {
+    final int nLen = ContentStreamNumberWriter.formatInt (n, BUFFER);
+    return new String (BUFFER, 0, nLen, StandardCharsets.ISO_8859_1);
+  }
+
+  private static String _formatFloat (final float f, final int nFractionDigits)
+  {
+    final int nLen = ContentStreamNumberWriter.formatFloat (f, nFractionDigits, BUFFER);
+    return nLen < 0 ? null : new String (BUFFER, 0, nLen, StandardCharsets.ISO_8859_1);
+  }
+
+  @Test
+  public void testInt ()
+  {
+    assertEquals ("0", _formatInt (0));
+    assertEquals ("7", _formatInt (7));
+    assertEquals ("-7", _formatInt (-7));
+    assertEquals ("255", _formatInt (255));
+    assertEquals (Integer.toString (Integer.MAX_VALUE), _formatInt (Integer.MAX_VALUE));
+    assertEquals (Integer.toString (Integer.MIN_VALUE), _formatInt (Integer.MIN_VALUE));
+
+    final Random aRandom = new Random (4711);
+    for (int i = 0; i < 10_000; ++i)
+    {
+      final int n = aRandom.nextInt ();
+      assertEquals (Integer.toString (n), _formatInt (n));
+    }
+  }
+
+  @Test
+  public void testFloat ()
+  {
+    assertEquals ("0", _formatFloat (0f, 5));
+    assertEquals ("0", _formatFloat (-0f, 5));
+    assertEquals ("0", _formatFloat (-0.000001f, 5));
+    assertEquals ("2", _formatFloat (2f, 5));
+    assertEquals ("1.5", _formatFloat (1.5f, 5));
+    assertEquals ("-1.5", _formatFloat (-1.5f, 5));
+    assertEquals ("0.05", _formatFloat (0.05f, 5));
+    assertEquals ("0.00001", _formatFloat (0.00001f, 5));
+    assertEquals ("1", _formatFloat (0.999999f, 5));
+    assertEquals ("0.33333", _formatFloat (1 / 3f, 5));
+    assertEquals ("0.3333333", _formatFloat (1 / 3f, 7));
+    assertEquals ("0.3", _formatFloat (1 / 3f, 1));
+    assertEquals ("3", _formatFloat (3.3f, 0));
+    assertEquals ("841.89", _formatFloat (841.89f, 2));
+    assertEquals ("-123456.7", _formatFloat (-123456.7f, 1));
+
+    // Cannot be formatted
+    assertEquals (null, _formatFloat (Float.NaN, 5));
+    assertEquals (null, _formatFloat (Float.POSITIVE_INFINITY, 5));
+    assertEquals (null, _formatFloat (Float.NEGATIVE_INFINITY, 5));
+    assertEquals (null, _formatFloat (Float.MAX_VALUE, 5));
+    assertEquals (null, _formatFloat (1f, -1));
+    assertEquals (null, _formatFloat (1f, ContentStreamNumberWriter.MAX_FRACTION_DIGITS + 1));
+  }
+
+  @Test
+  public void testSameAsPDFBox ()
+  {
+    // The result must be identical to the previously used PDFBox implementation
+    final byte [] aPDFBoxBuffer = new byte [32];
+    final Random aRandom = new Random (4711);
+    for (int nFractionDigits = 0; nFractionDigits <= 5; ++nFractionDigits)
+      for (int i = 0; i < 10_000; ++i)
+      {
+        final float f = (aRandom.nextFloat () - 0.5f) * 2_000_000f;
+        if (f < 0 && f > -1)
+        {
+          // PDFBox may write "-0"
+          continue;
+        }
+        final int nLen = NumberFormatUtil.formatFloatFast (f, nFractionDigits, aPDFBoxBuffer);
+        assertEquals (new String (aPDFBoxBuffer, 0, nLen, StandardCharsets.ISO_8859_1),
+                      _formatFloat (f, nFractionDigits));
+      }
+  }
+}
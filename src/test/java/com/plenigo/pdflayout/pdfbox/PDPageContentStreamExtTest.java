@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.pdfbox;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+
+import org.apache.pdfbox.pdfwriter.COSWriter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+
+/**
+ * Test class for {@link PDPageContentStreamExt}
+ *
+ * @author Philip Helger
+ */
+public final class PDPageContentStreamExtTest
+{
+  private static final int LINES = 1000;
+  private static final float LINE_HEIGHT = 12.345f;
+
+  @Test
+  public void testNoAccumulatedRoundingError () throws IOException
+  {
+    for (int nFractionDigits = 0; nFractionDigits <= 3; ++nFractionDigits)
+    {
+      final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+      try (final PDDocument aDoc = new PDDocument ())
+      {
+        final PDPageContentStreamExt aCS = new PDPageContentStreamExt (aDoc,
+                                                                       new PDResources (),
+                                                                       aBAOS,
+                                                                       new HashSet <PDFont> ());
+        aCS.setFractionDigits (nFractionDigits);
+        assertEquals (nFractionDigits, aCS.getFractionDigits ());
+        aCS.beginText ();
+        aCS.newLineAtOffset (30.1234f, 800.5678f);
+        for (int i = 0; i < LINES; ++i)
+          aCS.newLineAtOffset (0, -LINE_HEIGHT);
+        aCS.endText ();
+        aCS.close ();
+      }
+
+      // Sum up all relative moves like a PDF viewer does
+      final String [] aTokens = aBAOS.getAsString (StandardCharsets.ISO_8859_1).split ("\\s+");
+      double dX = 0;
+      double dY = 0;
+      int nTdCount = 0;
+      for (int i = 0; i < aTokens.length; ++i)
+        if (aTokens[i].equals ("Td"))
+        {
+          dX += Double.parseDouble (aTokens[i - 2]);
+          dY += Double.parseDouble (aTokens[i - 1]);
+          nTdCount++;
+        }
+      assertEquals (LINES + 1, nTdCount);
+
+      // The final position is the rounded exact position
+      final double dMaxError = 0.5 * Math.pow (10, -nFractionDigits) + 1e-4;
+      assertTrue (dX + " for " + nFractionDigits, Math.abs (dX - 30.1234) <= dMaxError);
+      assertTrue (dY + " for " + nFractionDigits, Math.abs (dY - (800.5678 - LINES * (double) LINE_HEIGHT)) <= dMaxError);
+    }
+  }
+
+  @Test
+  public void testWriteEncodedStringLikeCOSWriter () throws IOException
+  {
+    final byte [] [] aTexts = { new byte [0],
+                                "Hello World".getBytes (StandardCharsets.ISO_8859_1),
+                                "a(b)c\\d".getBytes (StandardCharsets.ISO_8859_1),
+                                "line\nbreak\r".getBytes (StandardCharsets.ISO_8859_1),
+                                "Gr\u00fc\u00dfe".getBytes (StandardCharsets.ISO_8859_1),
+                                { 0, 1, 0x7f, (byte) 0x80, (byte) 0xff } };
+    try (final PDDocument aDoc = new PDDocument ())
+    {
+      for (final byte [] aText : aTexts)
+      {
+        final NonBlockingByteArrayOutputStream aExpected = new NonBlockingByteArrayOutputStream ();
+        COSWriter.writeString (aText, aExpected);
+
+        final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+        final PDPageContentStreamExt aCS = new PDPageContentStreamExt (aDoc,
+                                                                       new PDResources (),
+                                                                       aBAOS,
+                                                                       new HashSet <PDFont> ());
+        // Only a part of the buffer is used
+        final byte [] aBuffer = aCS.getTextEncodingBuffer (aText.length + 10);
+        System.arraycopy (aText, 0, aBuffer, 0, aText.length);
+        aCS.writeEncodedString (aBuffer, aText.length);
+        aCS.close ();
+        assertArrayEquals (aExpected.toByteArray (), aBAOS.toByteArray ());
+      }
+    }
+  }
+}
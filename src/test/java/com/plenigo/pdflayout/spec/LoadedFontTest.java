@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.spec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.plenigo.pdflayout.PLConvert;
+
+/**
+ * Test class for class {@link LoadedFont}.
+ *
+ * @author Philip Helger
+ */
+public final class LoadedFontTest
+{
+  private static final float FONT_SIZE = 10;
+
+  private static LoadedFont _createLoadedFont () throws IOException
+  {
+    final PreloadFont aPF = PreloadFont.REGULAR;
+    return new LoadedFont (aPF.loadPDFont (null), aPF.getFallbackCodePoint (), aPF.getFontLineHeight ());
+  }
+
+  @Test
+  public void testFitToWidthEmpty () throws IOException
+  {
+    final LoadedFont aLF = _createLoadedFont ();
+    assertTrue (aLF.getFitToWidth (null, FONT_SIZE, 100).isEmpty ());
+    assertTrue (aLF.getFitToWidth ("", FONT_SIZE, 100).isEmpty ());
+  }
+
+  @Test
+  public void testFitToWidthLineBreaks () throws IOException
+  {
+    final LoadedFont aLF = _createLoadedFont ();
+    final ICommonsList <TextAndWidthSpec> aLines = aLF.getFitToWidth ("aaa bbb\nccc\n", FONT_SIZE, 1000);
+    assertEquals (3, aLines.size ());
+    assertEquals ("aaa bbb", aLines.get (0).getText ());
+    assertEquals (aLF.getStringWidth ("aaa bbb", FONT_SIZE), aLines.get (0).getWidth (), 0.001f);
+    assertTrue (aLines.get (0).isDisplayAsNewline ());
+    assertEquals ("ccc", aLines.get (1).getText ());
+    assertTrue (aLines.get (1).isDisplayAsNewline ());
+    assertEquals (new TextAndWidthSpec ("", 0, true), aLines.get (2));
+  }
+
+  @Test
+  public void testFitToWidthWrap () throws IOException
+  {
+    final LoadedFont aLF = _createLoadedFont ();
+    final float fMaxWidth = aLF.getStringWidth ("aaa aaa", FONT_SIZE) - 1;
+    final float fWidth = aLF.getStringWidth ("aaa", FONT_SIZE);
+
+    // Break at the whitespace
+    ICommonsList <TextAndWidthSpec> aLines = aLF.getFitToWidth ("aaa aaa aaa", FONT_SIZE, fMaxWidth);
+    assertEquals (3, aLines.size ());
+    assertEquals ("aaa", aLines.get (0).getText ());
+    assertEquals (fWidth, aLines.get (0).getWidth (), 0.001f);
+    assertFalse (aLines.get (0).isDisplayAsNewline ());
+    assertEquals ("aaa", aLines.get (1).getText ());
+    assertFalse (aLines.get (1).isDisplayAsNewline ());
+    assertEquals ("aaa", aLines.get (2).getText ());
+    assertTrue (aLines.get (2).isDisplayAsNewline ());
+
+    // No whitespace - break within the word
+    aLines = aLF.getFitToWidth ("aaaaaaaaaa", FONT_SIZE, aLF.getStringWidth ("aaaa", FONT_SIZE) + 0.1f);
+    assertEquals (3, aLines.size ());
+    assertEquals ("aaaa", aLines.get (0).getText ());
+    assertFalse (aLines.get (0).isDisplayAsNewline ());
+    assertEquals ("aaaa", aLines.get (1).getText ());
+    assertEquals ("aa", aLines.get (2).getText ());
+    assertTrue (aLines.get (2).isDisplayAsNewline ());
+  }
+
+  @Test
+  public void testForEachLineMatchesFitToWidth () throws IOException
+  {
+    final LoadedFont aLF = _createLoadedFont ();
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < 500; ++i)
+    {
+      aSB.append ("Word").append (i).append (i % 7 == 0 ? "\n" : " ");
+      if (i % 50 == 0)
+        aSB.append ("VeryLongWordWithoutAnyWhitespaceInsideThatNeedsToBeSplit ");
+    }
+    final String sText = aSB.toString ();
+
+    final ICommonsList <TextAndWidthSpec> aExpected = aLF.getFitToWidth (sText, FONT_SIZE, 80, 120);
+    final ICommonsList <TextAndWidthSpec> aRanges = new CommonsArrayList <> ();
+    aLF.forEachLineFitToWidth (sText,
+                               FONT_SIZE,
+                               80,
+                               120,
+                               (nStart, nEnd, fWidth, bNewline) -> aRanges.add (new TextAndWidthSpec (sText.substring (nStart,
+                                                                                                                     nEnd),
+                                                                                                      fWidth,
+                                                                                                      bNewline)));
+    assertEquals (aExpected, aRanges);
+
+    // All lines fit (apart from the first line of each paragraph, only the max width counts)
+    for (final TextAndWidthSpec aLine : aExpected)
+    {
+      assertTrue (aLine.getWidth () <= 120);
+      assertEquals (aLF.getStringWidth (aLine.getText (), FONT_SIZE), aLine.getWidth (), 0.001f);
+    }
+  }
+
+  @Test
+  public void testFitToWidthLargeText () throws IOException
+  {
+    final LoadedFont aLF = _createLoadedFont ();
+    final StringBuilder aSB = new StringBuilder (1024 * 1024);
+    int i = 0;
+    while (aSB.length () < 1024 * 1024)
+      aSB.append ("Lorem ipsum dolor sit amet ").append (i++).append (' ');
+    final String sText = aSB.toString ();
+
+    final ICommonsList <TextAndWidthSpec> aLines = aLF.getFitToWidth (sText, FONT_SIZE, 500);
+    assertTrue (aLines.size () > 1000);
+
+    // Nothing got lost - only the break whitespaces are skipped
+    long nChars = 0;
+    for (final TextAndWidthSpec aLine : aLines)
+      nChars += aLine.getText ().length ();
+    assertEquals (sText.length () - (aLines.size () - 1), nChars);
+  }
+
+  @Test
+  public void testDenseCodePoints () throws IOException
+  {
+    final PreloadFont aPF = PreloadFont.REGULAR;
+    final PDFont aFont = aPF.loadPDFont (null);
+    final LoadedFont aLF = new LoadedFont (aFont, aPF.getFallbackCodePoint (), aPF.getFontLineHeight ());
+
+    // Latin-1 mixed with other code points
+    final String sText = "Gr\u00fc\u00dfe 123,45 \u20ac \u00c4\u00d6\u00dc \u2013 \u00f3";
+    final float fExpected = PLConvert.getForFontSize (aFont.getStringWidth (sText), FONT_SIZE);
+
+    // Filling and using the dense table gives the same result
+    assertEquals (fExpected, aLF.getStringWidth (sText, FONT_SIZE), 0.001f);
+    assertEquals (fExpected, aLF.getStringWidth (sText, FONT_SIZE), 0.001f);
+
+    // Same encoding as for the other code points
+    final LoadedFont aLF2 = new LoadedFont (aFont, aPF.getFallbackCodePoint (), aPF.getFontLineHeight ());
+    assertArrayEquals (aLF2.getEncodedForPageContentStream (sText), aLF.getEncodedForPageContentStream (sText));
+    assertArrayEquals (aLF.getEncodedForPageContentStream (sText), aLF.getEncodedForPageContentStream (sText));
+  }
+}
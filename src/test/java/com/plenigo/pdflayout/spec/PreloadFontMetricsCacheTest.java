@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.spec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.junit.Test;
+
+/**
+ * Test class for class {@link PreloadFontMetricsCache}.
+ *
+ * @author Philip Helger
+ */
+public final class PreloadFontMetricsCacheTest
+{
+  @Test
+  public void testSharedAcrossLoadedFonts () throws IOException
+  {
+    final PreloadFontMetricsCache aCache = new PreloadFontMetricsCache (100);
+    final PreloadFont aPF = PreloadFont.REGULAR;
+    final PDFont aFont = aPF.loadPDFont (null);
+    final String sText = "Hello World";
+
+    // First font fills the cache
+    final LoadedFont aLF1 = new LoadedFont (aFont, aPF.getFallbackCodePoint (), aPF.getFontLineHeight (), aPF, aCache);
+    final float fWidth1 = aLF1.getStringWidth (sText, 10);
+    assertEquals (0, aCache.getHitCount ());
+    assertTrue (aCache.getMissCount () > 0);
+    final int nSize = aCache.getSize ();
+    assertTrue (nSize > 0);
+
+    // Second font uses the cache only
+    final long nMisses = aCache.getMissCount ();
+    final LoadedFont aLF2 = new LoadedFont (aFont, aPF.getFallbackCodePoint (), aPF.getFontLineHeight (), aPF, aCache);
+    final float fWidth2 = aLF2.getStringWidth (sText, 10);
+    assertEquals (fWidth1, fWidth2, 0.0001f);
+    assertEquals (nMisses, aCache.getMissCount ());
+    assertEquals (nSize, aCache.getHitCount ());
+    assertEquals (nSize, aCache.getSize ());
+
+    // Same result as without cache
+    final LoadedFont aLF3 = new LoadedFont (aFont, aPF.getFallbackCodePoint (), aPF.getFontLineHeight ());
+    assertEquals (fWidth1, aLF3.getStringWidth (sText, 10), 0.0001f);
+    assertEquals (aLF3.getEncodedForPageContentStream (sText).length,
+                  aLF2.getEncodedForPageContentStream (sText).length);
+  }
+
+  @Test
+  public void testMaxSize () throws IOException
+  {
+    final PreloadFontMetricsCache aCache = new PreloadFontMetricsCache (3);
+    final PreloadFont aPF = PreloadFont.REGULAR;
+    final LoadedFont aLF = new LoadedFont (aPF.loadPDFont (null),
+                                           aPF.getFallbackCodePoint (),
+                                           aPF.getFontLineHeight (),
+                                           aPF,
+                                           aCache);
+    aLF.getStringWidth ("abcdefgh", 10);
+    assertEquals (3, aCache.getSize ());
+
+    aCache.clear ();
+    assertEquals (0, aCache.getSize ());
+
+    aCache.setMaxSize (0);
+    final LoadedFont aLF2 = new LoadedFont (aPF.loadPDFont (null),
+                                            aPF.getFallbackCodePoint (),
+                                            aPF.getFontLineHeight (),
+                                            aPF,
+                                            aCache);
+    aLF2.getStringWidth ("xyz", 10);
+    assertEquals (0, aCache.getSize ());
+  }
+}
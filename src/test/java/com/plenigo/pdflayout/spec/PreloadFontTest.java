@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.spec;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.font.open_sans.EFontResourceOpenSans;
+import com.plenigo.pdflayout.PDFCreationException;
+import com.plenigo.pdflayout.PageLayoutPDF;
+import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.element.text.PLText;
+
+/**
+ * Test class for class {@link PreloadFont}.
+ *
+ * @author Philip Helger
+ */
+public final class PreloadFontTest
+{
+  @Test
+  public void testFontProgramPool () throws IOException
+  {
+    assertNull (PreloadFont.REGULAR.acquireFontProgram ());
+
+    final PreloadFont aPF = PreloadFont.createEmbedding (EFontResourceOpenSans.OPEN_SANS_NORMAL.getFontResource ());
+    final TrueTypeFont aProgram1 = aPF.acquireFontProgram ();
+    assertNotNull (aProgram1);
+
+    // Used by another document - a new one is parsed
+    final TrueTypeFont aProgram2 = aPF.acquireFontProgram ();
+    assertNotNull (aProgram2);
+    assertNotSame (aProgram1, aProgram2);
+
+    // Returned programs are reused
+    aPF.releaseFontProgram (aProgram2);
+    aPF.releaseFontProgram (aProgram1);
+    assertSame (aProgram1, aPF.acquireFontProgram ());
+    assertSame (aProgram2, aPF.acquireFontProgram ());
+  }
+
+  @Test
+  public void testSequentialDocumentsShareFontProgram () throws PDFCreationException, IOException
+  {
+    final PreloadFont aPF = PreloadFont.createEmbedding (EFontResourceOpenSans.OPEN_SANS_NORMAL.getFontResource ());
+    final TrueTypeFont aProgram = aPF.acquireFontProgram ();
+    aPF.releaseFontProgram (aProgram);
+
+    for (int i = 0; i < 3; ++i)
+    {
+      final PLPageSet aPS = new PLPageSet (PDRectangle.A4);
+      aPS.addElement (new PLText ("Document " + i, new FontSpec (aPF, 10)));
+      new PageLayoutPDF ().addPageSet (aPS).renderTo (new NonBlockingByteArrayOutputStream ());
+    }
+
+    // All documents used and returned the same font program
+    assertSame (aProgram, aPF.acquireFontProgram ());
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.spec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * Test class for class {@link TextLayoutCache}.
+ *
+ * @author Philip Helger
+ */
+public final class TextLayoutCacheTest
+{
+  @Test
+  public void testSharedAcrossLoadedFonts () throws IOException
+  {
+    final TextLayoutCache aCache = new TextLayoutCache (100);
+    final PreloadFont aPF = PreloadFont.REGULAR;
+    final LoadedFont aLF1 = new LoadedFont (aPF.loadPDFont (null),
+                                            aPF.getFallbackCodePoint (),
+                                            aPF.getFontLineHeight (),
+                                            aPF,
+                                            null);
+    final String sText = "Hello World, this is a longer text\nwith two paragraphs";
+
+    final ICommonsList <TextAndWidthSpec> aLines1 = aCache.getFitToWidth (aLF1, sText, 10, 50, 50);
+    assertEquals (aLF1.getFitToWidth (sText, 10, 50), aLines1);
+    assertEquals (0, aCache.getHitCount ());
+    assertEquals (1, aCache.getMissCount ());
+    assertEquals (1, aCache.getSize ());
+
+    // A second font loaded from the same PreloadFont uses the cache
+    final LoadedFont aLF2 = new LoadedFont (aPF.loadPDFont (null),
+                                            aPF.getFallbackCodePoint (),
+                                            aPF.getFontLineHeight (),
+                                            aPF,
+                                            null);
+    final ICommonsList <TextAndWidthSpec> aLines2 = aCache.getFitToWidth (aLF2, sText, 10, 50, 50);
+    assertEquals (aLines1, aLines2);
+    assertNotSame (aLines1, aLines2);
+    assertEquals (1, aCache.getHitCount ());
+    assertEquals (0.5, aCache.getHitRate (), 0.0001);
+
+    // Different size and width are different entries
+    assertEquals (aLF1.getFitToWidth (sText, 12, 50), aCache.getFitToWidth (aLF1, sText, 12, 50, 50));
+    assertEquals (aLF1.getFitToWidth (sText, 10, 80), aCache.getFitToWidth (aLF1, sText, 10, 80, 80));
+    assertEquals (3, aCache.getSize ());
+    assertEquals (1, aCache.getHitCount ());
+    assertEquals (3, aCache.getMissCount ());
+
+    // Fonts without PreloadFont are not cached
+    final LoadedFont aLF3 = new LoadedFont (aPF.loadPDFont (null), aPF.getFallbackCodePoint (), aPF.getFontLineHeight ());
+    assertEquals (aLines1, aCache.getFitToWidth (aLF3, sText, 10, 50, 50));
+    assertEquals (3, aCache.getSize ());
+    assertEquals (3, aCache.getMissCount ());
+
+    aCache.resetStatistics ();
+    assertEquals (0, aCache.getHitCount ());
+    assertEquals (0, aCache.getMissCount ());
+    assertEquals (0, aCache.getHitRate (), 0);
+  }
+
+  @Test
+  public void testLeastRecentlyUsed () throws IOException
+  {
+    final TextLayoutCache aCache = new TextLayoutCache (2);
+    final PreloadFont aPF = PreloadFont.REGULAR;
+    final LoadedFont aLF = new LoadedFont (aPF.loadPDFont (null),
+                                           aPF.getFallbackCodePoint (),
+                                           aPF.getFontLineHeight (),
+                                           aPF,
+                                           null);
+    aCache.getFitToWidth (aLF, "EUR", 10, 100, 100);
+    aCache.getFitToWidth (aLF, "0,00", 10, 100, 100);
+    // Access "EUR" so that "0,00" is the least recently used one
+    aCache.getFitToWidth (aLF, "EUR", 10, 100, 100);
+    aCache.getFitToWidth (aLF, "USD", 10, 100, 100);
+    assertEquals (2, aCache.getSize ());
+    assertEquals (1, aCache.getHitCount ());
+    assertEquals (3, aCache.getMissCount ());
+
+    aCache.getFitToWidth (aLF, "EUR", 10, 100, 100);
+    assertEquals (2, aCache.getHitCount ());
+    aCache.getFitToWidth (aLF, "0,00", 10, 100, 100);
+    assertEquals (4, aCache.getMissCount ());
+
+    aCache.clear ();
+    assertEquals (0, aCache.getSize ());
+  }
+
+  @Test
+  public void testDisabled () throws IOException
+  {
+    final TextLayoutCache aCache = new TextLayoutCache (0);
+    final PreloadFont aPF = PreloadFont.REGULAR;
+    final LoadedFont aLF = new LoadedFont (aPF.loadPDFont (null),
+                                           aPF.getFallbackCodePoint (),
+                                           aPF.getFontLineHeight (),
+                                           aPF,
+                                           null);
+    aCache.getFitToWidth (aLF, "EUR", 10, 100, 100);
+    aCache.getFitToWidth (aLF, "EUR", 10, 100, 100);
+    assertEquals (0, aCache.getHitCount ());
+    assertEquals (2, aCache.getMissCount ());
+    assertEquals (0, aCache.getSize ());
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2014-2025 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.plenigo.pdflayout.supplementary.benchmark;
+
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.plenigo.pdflayout.PageLayoutPDF;
+import com.plenigo.pdflayout.base.PLPageSet;
+import com.plenigo.pdflayout.element.text.PLText;
+import com.plenigo.pdflayout.spec.FontSpec;
+import com.plenigo.pdflayout.spec.PreloadFont;
+
+/**
+ * Regression benchmark for the pagination of page sets with a lot of top-level elements. The
+ * duration must grow linearly with the number of elements.
+ *
+ * @author Philip Helger
+ */
+public final class MainPaginateManyElements
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainPaginateManyElements.class);
+
+  private static void _run (final int nElements)
+  {
+    final FontSpec r10 = new FontSpec (PreloadFont.REGULAR, 10);
+    final PLPageSet aPS = new PLPageSet (PDRectangle.A4).setMargin (30);
+    for (int i = 0; i < nElements; ++i)
+      aPS.addElement (new PLText ("Statement line " + i, r10));
+
+    final PageLayoutPDF aPageLayout = new PageLayoutPDF ();
+    aPageLayout.addPageSet (aPS);
+
+    final long nStart = System.nanoTime ();
+    aPageLayout.prepareAllPageSets ();
+    final long nMillis = (System.nanoTime () - nStart) / 1_000_000;
+    LOGGER.info (nElements +
+                 " elements on " +
+                 aPS.internalGetPrepareResult ().getPageCount () +
+                 " pages prepared in " +
+                 nMillis +
+                 "ms");
+  }
+
+  public static void main (final String [] args)
+  {
+    // Warm up
+    _run (10_000);
+
+    // Must scale linearly
+    _run (25_000);
+    _run (50_000);
+    _run (100_000);
+  }
+}